@@ -0,0 +1,68 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link BoundedConcurrentHashMap} with each eviction strategy. The key set is twice as big as the capacity,
+ * so that about half of the gets miss and the puts keep the eviction policy busy.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class BoundedConcurrentHashMapBenchmark {
+
+   @Param({"LRU", "LIRS"})
+   Eviction eviction;
+
+   @Param("1024")
+   int capacity;
+
+   private BoundedConcurrentHashMap<String, String> map;
+   private Keys keys;
+
+   @Setup
+   public void setUp() {
+      map = new BoundedConcurrentHashMap<String, String>(capacity, 32, eviction,
+            AnyEquivalence.STRING, AnyEquivalence.STRING);
+      keys = new Keys(capacity * 2);
+      for (int i = 0; i < capacity; i++) {
+         map.put(keys.get(i), "value");
+      }
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String get(Keys.Cursor cursor) {
+      return map.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String put(Keys.Cursor cursor) {
+      return map.put(keys.next(cursor), "value");
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(3)
+   public String mixedGet(Keys.Cursor cursor) {
+      return map.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(1)
+   public String mixedPut(Keys.Cursor cursor) {
+      return map.put(keys.next(cursor), "value");
+   }
+}
@@ -0,0 +1,87 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.distribution.ch.DefaultConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.remoting.transport.Address;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the lookup of the owners of a key in a {@link DefaultConsistentHash}.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class ConsistentHashBenchmark {
+
+   @Param({"4", "32"})
+   int numNodes;
+
+   @Param("2")
+   int numOwners;
+
+   @Param("60")
+   int numSegments;
+
+   @Param("1024")
+   int numKeys;
+
+   private DefaultConsistentHash ch;
+   private Keys keys;
+
+   @Setup
+   public void setUp() {
+      List<Address> members = new ArrayList<Address>(numNodes);
+      for (int i = 0; i < numNodes; i++) {
+         members.add(new BenchmarkAddress(i));
+      }
+      ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), numOwners, numSegments, members);
+      keys = new Keys(numKeys);
+   }
+
+   @Benchmark
+   public List<Address> locateOwners(Keys.Cursor cursor) {
+      return ch.locateOwners(keys.next(cursor));
+   }
+
+   @Benchmark
+   public Address locatePrimaryOwner(Keys.Cursor cursor) {
+      return ch.locatePrimaryOwner(keys.next(cursor));
+   }
+
+   static final class BenchmarkAddress implements Address {
+      private final int id;
+
+      BenchmarkAddress(int id) {
+         this.id = id;
+      }
+
+      @Override
+      public int compareTo(Address o) {
+         int otherId = ((BenchmarkAddress) o).id;
+         return id < otherId ? -1 : (id == otherId ? 0 : 1);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof BenchmarkAddress && ((BenchmarkAddress) o).id == id;
+      }
+
+      @Override
+      public int hashCode() {
+         return id;
+      }
+
+      @Override
+      public String toString() {
+         return "Node" + id;
+      }
+   }
+}
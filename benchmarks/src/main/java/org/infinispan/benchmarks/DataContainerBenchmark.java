@@ -0,0 +1,75 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.DefaultTimeService;
+import org.infinispan.util.TimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link DefaultDataContainer#get(Object)} and {@link DefaultDataContainer#put(Object, Object, Metadata)}
+ * on an unbounded container, both alone and with readers and writers contending for the same keys.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class DataContainerBenchmark {
+
+   @Param("1024")
+   int numKeys;
+
+   private DefaultDataContainer container;
+   private Metadata metadata;
+   private Keys keys;
+
+   @Setup
+   public void setUp() {
+      TimeService timeService = new DefaultTimeService();
+      InternalEntryFactoryImpl entryFactory = new InternalEntryFactoryImpl();
+      entryFactory.injectTimeService(timeService);
+      container = new DefaultDataContainer(32, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      container.initialize(null, null, entryFactory, null, null, timeService);
+      metadata = new EmbeddedMetadata.Builder().build();
+      keys = new Keys(numKeys);
+      for (int i = 0; i < numKeys; i++) {
+         container.put(keys.get(i), "value", metadata);
+      }
+   }
+
+   @Benchmark
+   @Threads(4)
+   public InternalCacheEntry get(Keys.Cursor cursor) {
+      return container.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Threads(4)
+   public void put(Keys.Cursor cursor) {
+      container.put(keys.next(cursor), "value", metadata);
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(3)
+   public InternalCacheEntry mixedGet(Keys.Cursor cursor) {
+      return container.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(1)
+   public void mixedPut(Keys.Cursor cursor) {
+      container.put(keys.next(cursor), "value", metadata);
+   }
+}
@@ -0,0 +1,61 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link EquivalentConcurrentHashMapV8} with {@code String} keys, which use the default equivalence, and
+ * with {@code byte[]} keys, which use {@link ByteArrayEquivalence} like the caches in compatibility mode and the
+ * servers do.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class EquivalentConcurrentHashMapV8Benchmark {
+
+   @Param("1024")
+   int numKeys;
+
+   private EquivalentConcurrentHashMapV8<String, String> stringMap;
+   private EquivalentConcurrentHashMapV8<byte[], String> byteArrayMap;
+   private Keys keys;
+
+   @Setup
+   public void setUp() {
+      stringMap = new EquivalentConcurrentHashMapV8<String, String>(numKeys, 0.75f, 32,
+            AnyEquivalence.STRING, AnyEquivalence.STRING);
+      byteArrayMap = new EquivalentConcurrentHashMapV8<byte[], String>(numKeys, 0.75f, 32,
+            ByteArrayEquivalence.INSTANCE, AnyEquivalence.STRING);
+      keys = new Keys(numKeys);
+      for (int i = 0; i < numKeys; i++) {
+         stringMap.put(keys.get(i), "value");
+         byteArrayMap.put(keys.get(i).getBytes(), "value");
+      }
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String getString(Keys.Cursor cursor) {
+      return stringMap.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String putString(Keys.Cursor cursor) {
+      return stringMap.put(keys.next(cursor), "value");
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String getByteArray(Keys.Cursor cursor) {
+      // a copy, so that the lookup can't succeed on reference equality
+      return byteArrayMap.get(keys.next(cursor).getBytes());
+   }
+}
@@ -0,0 +1,28 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.marshall.GenerateExternalizer;
+
+/**
+ * User object marshalled by a generated externalizer, see {@link MarshallerBenchmark}.
+ *
+ * @since 6.0
+ */
+@GenerateExternalizer(id = 9000)
+public class GeneratedPerson {
+
+   String name;
+   String email;
+   int age;
+   long id;
+   boolean active;
+
+   static GeneratedPerson sample() {
+      GeneratedPerson person = new GeneratedPerson();
+      person.name = "John Smith";
+      person.email = "john.smith@example.com";
+      person.age = 42;
+      person.id = 1234567L;
+      person.active = true;
+      return person;
+   }
+}
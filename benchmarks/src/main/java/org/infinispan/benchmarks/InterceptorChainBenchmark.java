@@ -0,0 +1,70 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.interceptors.locking.AbstractLockingInterceptor;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures local, non-transactional reads and writes through the interceptor chain of a cache, with and without
+ * statistics, and with reads served by the locking interceptor from the data container or going through the whole
+ * chain.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class InterceptorChainBenchmark {
+
+   @Param({"false", "true"})
+   boolean statistics;
+
+   @Param({"true", "false"})
+   boolean containerReads;
+
+   @Param("1024")
+   int numKeys;
+
+   private EmbeddedCacheManager cacheManager;
+   private Cache<String, String> cache;
+   private Keys keys;
+
+   @Setup
+   public void setUp() {
+      System.setProperty(AbstractLockingInterceptor.CONTAINER_READS_PROPERTY, String.valueOf(containerReads));
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enabled(statistics);
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      cache = cacheManager.getCache();
+      keys = new Keys(numKeys);
+      for (int i = 0; i < numKeys; i++) {
+         cache.put(keys.get(i), "value");
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+      System.clearProperty(AbstractLockingInterceptor.CONTAINER_READS_PROPERTY);
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String get(Keys.Cursor cursor) {
+      return cache.get(keys.next(cursor));
+   }
+
+   @Benchmark
+   @Threads(4)
+   public String put(Keys.Cursor cursor) {
+      return cache.put(keys.next(cursor), "value");
+   }
+}
@@ -0,0 +1,47 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * A fixed set of string keys shared by the benchmark threads. Every thread walks the keys with its own
+ * {@link Cursor}, starting from a random position, so that the threads don't access the keys in lock step and no
+ * random numbers are generated in the measured code.
+ *
+ * @since 6.0
+ */
+public final class Keys {
+
+   private final String[] keys;
+   private final int mask;
+
+   Keys(int numKeys) {
+      if (Integer.bitCount(numKeys) != 1) {
+         throw new IllegalArgumentException("The number of keys must be a power of two: " + numKeys);
+      }
+      keys = new String[numKeys];
+      for (int i = 0; i < numKeys; i++) {
+         keys[i] = "key" + i;
+      }
+      mask = numKeys - 1;
+   }
+
+   String get(int index) {
+      return keys[index & mask];
+   }
+
+   String next(Cursor cursor) {
+      return keys[cursor.position++ & mask];
+   }
+
+   int size() {
+      return keys.length;
+   }
+
+   @State(Scope.Thread)
+   public static class Cursor {
+      int position = new Random().nextInt();
+   }
+}
@@ -0,0 +1,77 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+
+/**
+ * Measures the global marshaller. Besides strings and byte arrays, it compares the same user object marshalled by an
+ * externalizer generated with {@link org.infinispan.commons.marshall.GenerateExternalizer} and by reflective
+ * serialization.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class MarshallerBenchmark {
+
+   @Param({"string", "bytes", "generated", "serializable"})
+   String payload;
+
+   private EmbeddedCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private Object object;
+   private byte[] bytes;
+
+   @Setup
+   public void setUp() throws Exception {
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), new ConfigurationBuilder().build());
+      cacheManager.getCache(); // Start cache so that global marshaller is resolved
+      marshaller = cacheManager.getGlobalComponentRegistry().getComponent(
+            StreamingMarshaller.class, KnownComponentNames.GLOBAL_MARSHALLER);
+      if ("string".equals(payload)) {
+         object = "a string value of moderate length";
+      } else if ("bytes".equals(payload)) {
+         byte[] array = new byte[256];
+         Arrays.fill(array, (byte) 7);
+         object = array;
+      } else if ("generated".equals(payload)) {
+         object = GeneratedPerson.sample();
+      } else if ("serializable".equals(payload)) {
+         object = SerializablePerson.sample();
+      } else {
+         throw new IllegalArgumentException("Unknown payload: " + payload);
+      }
+      bytes = marshaller.objectToByteBuffer(object);
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] marshall() throws Exception {
+      return marshaller.objectToByteBuffer(object);
+   }
+
+   @Benchmark
+   public Object unmarshall() throws Exception {
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+
+   @Benchmark
+   public Object roundTrip() throws Exception {
+      return marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(object));
+   }
+}
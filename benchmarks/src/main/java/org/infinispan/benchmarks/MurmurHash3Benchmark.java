@@ -0,0 +1,52 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link MurmurHash3} on the kinds of keys the consistent hash sees: strings, byte arrays (e.g. keys
+ * written by remote clients) and other objects, which are hashed through their {@link Object#hashCode()}.
+ *
+ * @since 6.0
+ */
+@State(Scope.Benchmark)
+public class MurmurHash3Benchmark {
+
+   @Param({"16", "128"})
+   int keyLength;
+
+   private final MurmurHash3 hash = new MurmurHash3();
+   private String string;
+   private byte[] bytes;
+   private Long number;
+
+   @Setup
+   public void setUp() {
+      StringBuilder sb = new StringBuilder(keyLength);
+      for (int i = 0; i < keyLength; i++) {
+         sb.append((char) ('a' + i % 26));
+      }
+      string = sb.toString();
+      bytes = string.getBytes();
+      number = Long.valueOf(keyLength);
+   }
+
+   @Benchmark
+   public int hashString() {
+      return hash.hash(string);
+   }
+
+   @Benchmark
+   public int hashBytes() {
+      return hash.hash(bytes);
+   }
+
+   @Benchmark
+   public int hashObject() {
+      return hash.hash((Object) number);
+   }
+}
@@ -0,0 +1,29 @@
+package org.infinispan.benchmarks;
+
+import java.io.Serializable;
+
+/**
+ * Same as {@link GeneratedPerson}, but marshalled with reflective serialization, see {@link MarshallerBenchmark}.
+ *
+ * @since 6.0
+ */
+public class SerializablePerson implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   String name;
+   String email;
+   int age;
+   long id;
+   boolean active;
+
+   static SerializablePerson sample() {
+      SerializablePerson person = new SerializablePerson();
+      person.name = "John Smith";
+      person.email = "john.smith@example.com";
+      person.age = 42;
+      person.id = 1234567L;
+      person.active = true;
+      return person;
+   }
+}
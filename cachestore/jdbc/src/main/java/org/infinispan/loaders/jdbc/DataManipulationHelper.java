@@ -8,12 +8,19 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.CacheLoaderTask;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.loaders.jdbc.logging.Log;
 import org.infinispan.util.TimeService;
@@ -241,6 +248,69 @@ public final Set<InternalCacheEntry> loadSome(int maxEntries) throws CacheLoader
       }
    }
 
+   /**
+    * Streams the rows of the table: rows are read by the caller thread, the configured fetch size at a time,
+    * and each batch of rows is then deserialized and processed as a partition of the traversal.
+    */
+   public final void processSupport(KeyFilter filter, CacheLoaderTask task, Executor executor, final boolean fetchValue) throws CacheLoaderException {
+      final ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(filter, task, executor);
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      boolean iterated = false;
+      try {
+         conn = connectionFactory.getConnection();
+         ps = prepareProcessStatement(conn, fetchValue);
+         rs = ps.executeQuery();
+         int fetchSize = Math.max(tableManipulation.getFetchSize(), 1);
+         rs.setFetchSize(fetchSize);
+         List<Object> rows = new ArrayList<Object>(fetchSize);
+         while (!traversal.isStopped() && rs.next()) {
+            rows.add(readProcessRow(rs, fetchValue));
+            if (rows.size() == fetchSize) {
+               submitRows(traversal, rows, fetchValue);
+               rows = new ArrayList<Object>(fetchSize);
+            }
+         }
+         if (!rows.isEmpty()) {
+            submitRows(traversal, rows, fetchValue);
+         }
+         iterated = true;
+      } catch (SQLException e) {
+         log.sqlFailureFetchingAllStoredEntries(e);
+         throw new CacheLoaderException("SQL error while fetching all StoredEntries", e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+         if (iterated) {
+            traversal.awaitCompletion();
+         } else {
+            // the failure of a partition must not mask the failure of the iteration
+            try {
+               traversal.awaitCompletion();
+            } catch (CacheLoaderException e) {
+               log.warn("Failed to process the rows fetched before the iteration failed", e);
+            }
+         }
+      }
+   }
+
+   private void submitRows(final ProcessingSupport.Traversal traversal, final List<Object> rows, final boolean fetchValue) throws CacheLoaderException {
+      traversal.submit(new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            for (Object row : rows) {
+               if (traversal.isStopped()) {
+                  break;
+               }
+               processRow(row, traversal, fetchValue);
+            }
+            return null;
+         }
+      });
+   }
+
    protected boolean includeKey(Object key, Set<Object> keysToExclude) {
       return keysToExclude == null || !keysToExclude.contains(key);
    }
@@ -253,6 +323,22 @@ protected boolean includeKey(Object key, Set<Object> keysToExclude) {
 
    protected abstract void loadAllKeysProcess(ResultSet rs, Set<Object> keys, Set<Object> keysToExclude) throws SQLException, CacheLoaderException;
 
+   /**
+    * Prepares the statement selecting the rows iterated over by {@link #processSupport(KeyFilter, CacheLoaderTask, Executor, boolean)}.
+    */
+   protected abstract PreparedStatement prepareProcessStatement(Connection conn, boolean fetchValue) throws SQLException;
+
+   /**
+    * Reads the current row of the result set, without deserializing it: this runs in the thread iterating over the
+    * result set, while {@link #processRow(Object, ProcessingSupport.Traversal, boolean)} runs in the executor.
+    */
+   protected abstract Object readProcessRow(ResultSet rs, boolean fetchValue) throws SQLException, CacheLoaderException;
+
+   /**
+    * Passes the non-expired entries of a row returned by {@link #readProcessRow(ResultSet, boolean)} to the traversal.
+    */
+   protected abstract void processRow(Object row, ProcessingSupport.Traversal traversal, boolean fetchValue) throws CacheLoaderException;
+
    protected abstract void toStreamProcess(ResultSet rs, InputStream is, ObjectOutput objectOutput) throws CacheLoaderException, SQLException, IOException;
 
    protected abstract boolean fromStreamProcess(Object objFromStream, PreparedStatement ps, ObjectInput objectInput)
@@ -6,6 +6,7 @@
 import org.infinispan.loaders.jdbc.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
@@ -61,6 +62,10 @@ public static ByteBuffer marshall(StreamingMarshaller marshaller, Object bucket)
       }
    }
 
+   public static Object unmarshall(StreamingMarshaller marshaller, byte[] bytes) throws CacheLoaderException {
+      return unmarshall(marshaller, new ByteArrayInputStream(bytes));
+   }
+
    public static Object unmarshall(StreamingMarshaller marshaller, InputStream inputStream) throws CacheLoaderException {
       try {
          return marshaller.objectFromInputStream(inputStream);
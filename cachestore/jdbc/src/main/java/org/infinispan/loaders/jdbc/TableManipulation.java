@@ -52,6 +52,7 @@ public class TableManipulation implements Cloneable {
    public DatabaseType databaseType;
    private String loadAllKeysBinarySql;
    private String loadAllKeysStringSql;
+   private String loadNonExpiredAllKeysStringSql;
 
    private TableName tableName;
 
@@ -356,6 +357,14 @@ public String getLoadAllKeysStringSql() {
       return loadAllKeysStringSql;
    }
 
+   public String getLoadNonExpiredAllKeysStringSql() {
+      if (loadNonExpiredAllKeysStringSql == null) {
+         loadNonExpiredAllKeysStringSql = String.format("SELECT %s FROM %s WHERE %s > ? OR %s < 0", config.idColumnName(),
+               getTableName(), config.timestampColumnName(), config.timestampColumnName());
+      }
+      return loadNonExpiredAllKeysStringSql;
+   }
+
    /**
     * For DB queries (e.g. {@link org.infinispan.loaders.spi.CacheStore#toStream(java.io.ObjectOutput)} ) the fetch size
     * will be set on {@link java.sql.ResultSet#setFetchSize(int)}. This is optional parameter, if not specified will be
@@ -14,6 +14,8 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ManagedConnectionFactory;
 import org.infinispan.loaders.jdbc.logging.Log;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.LogFactory;
 
@@ -28,7 +30,9 @@
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * {@link BucketBasedCacheStore} implementation that will store all the buckets as rows in database, each row
@@ -127,6 +131,26 @@ public void toStreamProcess(ResultSet rs, InputStream is, ObjectOutput objectOut
             marshaller.objectToObjectStream(bucket, objectOutput);
          }
 
+         @Override
+         protected PreparedStatement prepareProcessStatement(Connection conn, boolean fetchValue) throws SQLException {
+            String sql = tableManipulation.getLoadAllKeysBinarySql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql %s", sql);
+            }
+            return conn.prepareStatement(sql);
+         }
+
+         @Override
+         protected Object readProcessRow(ResultSet rs, boolean fetchValue) throws SQLException {
+            // the keys are stored inside the buckets, so the bucket is needed even when the values are not
+            return rs.getBytes(1);
+         }
+
+         @Override
+         protected void processRow(Object row, ProcessingSupport.Traversal traversal, boolean fetchValue) throws CacheLoaderException {
+            processBucket((Bucket) JdbcUtil.unmarshall(getMarshaller(), (byte[]) row), traversal, fetchValue);
+         }
+
          @Override
          public boolean fromStreamProcess(Object bucketName, PreparedStatement ps, ObjectInput objectInput)
                throws SQLException, CacheLoaderException, IOException, ClassNotFoundException, InterruptedException {
@@ -198,6 +222,7 @@ protected void insertBucket(Bucket bucket) throws CacheLoaderException {
             log.trace("Interrupted while marshalling to insert a bucket");
          }
          Thread.currentThread().interrupt();
+         throw new CacheLoaderException(String.format("Interrupted while inserting bucket: %s", bucket), ie);
       } finally {
          JdbcUtil.safeClose(ps);
          connectionFactory.releaseConnection(conn);
@@ -232,12 +257,84 @@ protected void updateBucket(Bucket bucket) throws CacheLoaderException {
             log.trace("Interrupted while marshalling to update a bucket");
          }
          Thread.currentThread().interrupt();
+         throw new CacheLoaderException(String.format("Interrupted while updating bucket: %s", bucket), ie);
       } finally {
          JdbcUtil.safeClose(ps);
          connectionFactory.releaseConnection(conn);
       }
    }
 
+   /**
+    * Inserts and updates the buckets modified by a batch in a single transaction, with JDBC batch statements.
+    */
+   @Override
+   protected void writeBuckets(List<Bucket> toInsert, List<Bucket> toUpdate) throws CacheLoaderException {
+      Connection conn = null;
+      boolean autoCommit = true;
+      boolean committed = false;
+      try {
+         conn = connectionFactory.getConnection();
+         autoCommit = conn.getAutoCommit();
+         conn.setAutoCommit(false);
+         executeBucketBatch(conn, tableManipulation.getInsertRowSql(), toInsert);
+         executeBucketBatch(conn, tableManipulation.getUpdateRowSql(), toUpdate);
+         conn.commit();
+         committed = true;
+      } catch (SQLException e) {
+         log.sqlFailureStoringKeys(e);
+         throw new CacheLoaderException(String.format(
+               "Sql failure while writing %d buckets", toInsert.size() + toUpdate.size()), e);
+      } catch (InterruptedException ie) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to write buckets");
+         }
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException(String.format("Interrupted while writing %d buckets", toInsert.size() + toUpdate.size()), ie);
+      } finally {
+         if (conn != null) {
+            try {
+               if (!committed) {
+                  conn.rollback();
+               }
+               conn.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+               log.sqlFailureUnexpected(e);
+            }
+         }
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private void executeBucketBatch(Connection conn, String sql, List<Bucket> buckets) throws SQLException, CacheLoaderException, InterruptedException {
+      if (buckets.isEmpty()) {
+         return;
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Running sql '%s' on %d buckets", sql, buckets.size());
+      }
+      PreparedStatement ps = null;
+      try {
+         ps = conn.prepareStatement(sql);
+         int batchSize = tableManipulation.getBatchSize();
+         int count = 0;
+         for (Bucket bucket : buckets) {
+            ByteBuffer buffer = JdbcUtil.marshall(getMarshaller(), bucket);
+            ps.setBinaryStream(1, buffer.getStream(), buffer.getLength());
+            ps.setLong(2, bucket.timestampOfFirstEntryToExpire());
+            ps.setString(3, bucket.getBucketIdAsString());
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+               ps.executeBatch();
+            }
+         }
+         if (count % batchSize != 0) {
+            ps.executeBatch();
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
    @Override
    protected Bucket loadBucket(Integer keyHashCode) throws CacheLoaderException {
       Connection conn = null;
@@ -286,6 +383,11 @@ protected Set<InternalCacheEntry> loadLockSafe(int maxEntries) throws CacheLoade
       return dmHelper.loadSome(maxEntries);
    }
 
+   @Override
+   protected void processLockSafe(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      dmHelper.processSupport(filter, task, executor, fetchValue);
+   }
+
    @Override
    protected void loopOverBuckets(BucketHandler handler) throws CacheLoaderException {
       // this is a no-op.
@@ -15,14 +15,21 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.stringbased.JdbcStringBasedCacheStore;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.BatchSupport;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Cache store that combines functionality of {@link JdbcBinaryCacheStore} and {@link JdbcStringBasedCacheStore}. It
@@ -152,11 +159,39 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return fromBuckets;
    }
 
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      ProcessingSupport.ChainedTask chainedTask = new ProcessingSupport.ChainedTask(task);
+      stringBasedCacheStore.process(filter, chainedTask, executor, fetchValue);
+      if (!chainedTask.isStopped()) {
+         binaryCacheStore.process(filter, chainedTask, executor, fetchValue);
+      }
+   }
+
    @Override
    public void store(InternalCacheEntry ed) throws CacheLoaderException {
       getCacheStore(ed.getKey()).store(ed);
    }
 
+   /**
+    * Splits the batch between the string based and the binary stores, which write their part in a batch of their own.
+    */
+   @Override
+   public void writeBatch(Collection<InternalCacheEntry> entries, Collection<Object> keysToRemove) throws CacheLoaderException {
+      List<InternalCacheEntry> stringEntries = new ArrayList<InternalCacheEntry>();
+      List<InternalCacheEntry> binaryEntries = new ArrayList<InternalCacheEntry>();
+      for (InternalCacheEntry entry : entries) {
+         (getCacheStore(entry.getKey()) == stringBasedCacheStore ? stringEntries : binaryEntries).add(entry);
+      }
+      List<Object> stringKeys = new ArrayList<Object>();
+      List<Object> binaryKeys = new ArrayList<Object>();
+      for (Object key : keysToRemove) {
+         (getCacheStore(key) == stringBasedCacheStore ? stringKeys : binaryKeys).add(key);
+      }
+      BatchSupport.writeBatch(stringBasedCacheStore, stringEntries, stringKeys);
+      BatchSupport.writeBatch(binaryCacheStore, binaryEntries, binaryKeys);
+   }
+
    @Override
    public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
       binaryCacheStore.fromStream(inputStream);
@@ -16,7 +16,9 @@
 import org.infinispan.loaders.keymappers.Key2StringMapper;
 import org.infinispan.loaders.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
+import org.infinispan.loaders.spi.KeyFilter;
 import org.infinispan.loaders.spi.LockSupportCacheStore;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.LogFactory;
 
@@ -28,7 +30,12 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * {@link org.infinispan.loaders.spi.CacheStore} implementation that stores the entries in a database. In contrast to the
@@ -145,6 +152,37 @@ public void loadAllKeysProcess(ResultSet rs, Set<Object> keys, Set<Object> keysT
             }
          }
 
+         @Override
+         protected PreparedStatement prepareProcessStatement(Connection conn, boolean fetchValue) throws SQLException {
+            String sql = fetchValue ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadNonExpiredAllKeysStringSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql %s", sql);
+            }
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ps.setLong(1, timeService.wallClockTime());
+            return ps;
+         }
+
+         @Override
+         protected Object readProcessRow(ResultSet rs, boolean fetchValue) throws SQLException {
+            return fetchValue ? new Object[]{rs.getString(2), rs.getBytes(1)} : rs.getString(1);
+         }
+
+         @Override
+         protected void processRow(Object row, ProcessingSupport.Traversal traversal, boolean fetchValue) throws CacheLoaderException {
+            String keyStr = fetchValue ? (String) ((Object[]) row)[0] : (String) row;
+            Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
+            if (!traversal.accept(key)) {
+               return;
+            }
+            if (fetchValue) {
+               InternalCacheValue icv = (InternalCacheValue) JdbcUtil.unmarshall(getMarshaller(), (byte[]) ((Object[]) row)[1]);
+               traversal.process(key, icv.toInternalCacheEntry(key));
+            } else {
+               traversal.process(key, null);
+            }
+         }
+
          @Override
          public void toStreamProcess(ResultSet rs, InputStream is, ObjectOutput objectOutput) throws CacheLoaderException, SQLException, IOException {
             InternalCacheValue icv = (InternalCacheValue) JdbcUtil.unmarshall(getMarshaller(), is);
@@ -243,6 +281,8 @@ public void storeLockSafe(InternalCacheEntry ed, String lockingKey) throws Cache
             log.trace("Interrupted while marshalling to store");
          }
          Thread.currentThread().interrupt();
+         throw new CacheLoaderException(String.format(
+               "Interrupted while storing string key to database; key: '%s'", lockingKey), e);
       } finally {
          JdbcUtil.safeClose(ps);
          connectionFactory.releaseConnection(connection);
@@ -271,6 +311,138 @@ public boolean removeLockSafe(Object key, String keyStr) throws CacheLoaderExcep
       }
    }
 
+   /**
+    * Writes the batch in a single transaction. The entries are first updated with JDBC batch statements, and the ones
+    * that did not exist yet are then inserted the same way.
+    */
+   @Override
+   protected void writeBatchLockSafe(List<InternalCacheEntry> toStore, List<Object> toRemove, Map<Object, String> lockingKeys) throws CacheLoaderException {
+      Connection connection = null;
+      boolean autoCommit = true;
+      boolean committed = false;
+      try {
+         connection = connectionFactory.getConnection();
+         autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         int batchSize = tableManipulation.getBatchSize();
+         for (int start = 0; start < toStore.size(); start += batchSize) {
+            storeBatch(connection, toStore.subList(start, Math.min(start + batchSize, toStore.size())), lockingKeys);
+         }
+         for (int start = 0; start < toRemove.size(); start += batchSize) {
+            removeBatch(connection, toRemove.subList(start, Math.min(start + batchSize, toRemove.size())), lockingKeys);
+         }
+         connection.commit();
+         committed = true;
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new CacheLoaderException(String.format(
+               "Error while writing a batch of %d string keys to database", toStore.size() + toRemove.size()), ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+         // the batch is rolled back, so the caller must know it has not been written
+         throw new CacheLoaderException(String.format(
+               "Interrupted while writing a batch of %d string keys to database", toStore.size() + toRemove.size()), e);
+      } finally {
+         if (connection != null) {
+            try {
+               if (!committed) {
+                  connection.rollback();
+               }
+               connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+               log.sqlFailureUnexpected(e);
+            }
+         }
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   private void storeBatch(Connection connection, List<InternalCacheEntry> entries, Map<Object, String> lockingKeys) throws SQLException, CacheLoaderException, InterruptedException {
+      List<ByteBuffer> values = new ArrayList<ByteBuffer>(entries.size());
+      for (InternalCacheEntry ed : entries) {
+         values.add(JdbcUtil.marshall(getMarshaller(), ed.toInternalCacheValue()));
+      }
+
+      List<Integer> missing = new ArrayList<Integer>();
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getUpdateRowSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' on %d entries", sql, entries.size());
+         }
+         ps = connection.prepareStatement(sql);
+         for (int i = 0; i < entries.size(); i++) {
+            setStoreParameters(ps, values.get(i), entries.get(i), lockingKeys);
+            ps.addBatch();
+         }
+         int[] updateCounts = ps.executeBatch();
+         JdbcUtil.safeClose(ps);
+         ps = null;
+         for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0 || (updateCounts[i] == Statement.SUCCESS_NO_INFO
+                  && !rowExists(connection, lockingKeys.get(entries.get(i).getKey())))) {
+               missing.add(i);
+            }
+         }
+
+         if (!missing.isEmpty()) {
+            sql = tableManipulation.getInsertRowSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %d entries", sql, missing.size());
+            }
+            ps = connection.prepareStatement(sql);
+            for (int i : missing) {
+               setStoreParameters(ps, values.get(i), entries.get(i), lockingKeys);
+               ps.addBatch();
+            }
+            ps.executeBatch();
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   private void setStoreParameters(PreparedStatement ps, ByteBuffer value, InternalCacheEntry ed, Map<Object, String> lockingKeys) throws SQLException {
+      ps.setBinaryStream(1, value.getStream(), value.getLength());
+      ps.setLong(2, ed.getExpiryTime());
+      ps.setString(3, lockingKeys.get(ed.getKey()));
+   }
+
+   private boolean rowExists(Connection connection, String keyStr) throws SQLException {
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         ps = connection.prepareStatement(tableManipulation.getSelectIdRowSql());
+         ps.setString(1, keyStr);
+         rs = ps.executeQuery();
+         return rs.next();
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   private void removeBatch(Connection connection, List<Object> keys, Map<Object, String> lockingKeys) throws SQLException {
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteRowSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' on %d keys", sql, keys.size());
+         }
+         ps = connection.prepareStatement(sql);
+         for (Object key : keys) {
+            ps.setString(1, lockingKeys.get(key));
+            ps.addBatch();
+         }
+         ps.executeBatch();
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
    @Override
    public void fromStreamLockSafe(ObjectInput objectInput) throws CacheLoaderException {
       dmHelper.fromStreamSupport(objectInput);
@@ -301,6 +473,12 @@ protected Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws Cach
       return dmHelper.loadAllKeysSupport(keysToExclude);
    }
 
+   @Override
+   protected void processLockSafe(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      enforceTwoWayMapper("iteration");
+      dmHelper.processSupport(filter, task, executor, fetchValue);
+   }
+
    @Override
    public void purgeInternal() throws CacheLoaderException {
       Connection conn = null;
@@ -20,6 +20,8 @@
 import org.infinispan.loaders.remote.logging.Log;
 import org.infinispan.loaders.remote.wrapper.HotRodEntryMarshaller;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.api.BasicCacheContainer;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -30,9 +32,11 @@
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -145,6 +149,18 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return convertToInternalCacheEntries(remoteCache.getBulk(numEntries));
    }
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The Hot Rod protocol cannot iterate over the remote cache, so the keys are all fetched at once with
+    * {@link RemoteCache#keySet()}. The entries are then fetched one by one in the partitions of the traversal, so that
+    * only the values being processed are kept in memory.
+    */
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      ProcessingSupport.processKeys(this, new ArrayList<Object>(remoteCache.keySet()), filter, task, executor, fetchValue);
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       log.sharedModeOnlyAllowed();
@@ -271,6 +271,15 @@
     */
    Map<K, V> getBulk(int size);
 
+   /**
+    * Retrieves the values mapped to the given keys. The keys are grouped by the server owning them, and each server is
+    * sent a single request, all the requests being in flight at the same time. With a protocol version older than 1.3
+    * the keys are retrieved one by one.
+    *
+    * @return the keys found in the remote cache, with their values. The returned Map is unmodifiable.
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
 
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
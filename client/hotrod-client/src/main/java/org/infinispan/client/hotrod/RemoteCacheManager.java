@@ -21,6 +21,8 @@
 import org.infinispan.client.hotrod.impl.protocol.Codec;
 import org.infinispan.client.hotrod.impl.protocol.CodecFactory;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.tcp.MultiplexedTransport;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.api.BasicCacheContainer;
@@ -71,6 +73,7 @@
  * <li><tt>infinispan.client.hotrod.value_size_estimate</tt>, default = 512.  This hint allows sizing of byte buffers when serializing and deserializing values, to minimize array resizing.</li>
  * <li><tt>infinispan.client.hotrod.socket_timeout</tt>, default = 60000 (60 seconds).  This property defines the maximum socket read timeout before giving up waiting for bytes from the server.</li>
  * <li><tt>infinispan.client.hotrod.protocol_version</tt>, default = 1.1 .This property defines the protocol version that this client should use. Other valid values include 1.0.</li>
+ * <li><tt>infinispan.client.hotrod.multiplexed_connections</tt>, default = 1.  The number of non-blocking connections per server over which asynchronous get, put, putIfAbsent, replace and remove requests are pipelined. If 0, or if SSL is enabled, asynchronous operations are executed by the async executor.</li>
  * <li><tt>infinispan.client.hotrod.connect_timeout</tt>, default = 60000 (60 seconds).  This property defines the maximum socket connect timeout before giving up connecting to the server.</li>
  * </ul>
  * <br/>
@@ -145,6 +148,7 @@ public class RemoteCacheManager implements BasicCacheContainer {
 
    private Marshaller marshaller;
    private TransportFactory transportFactory;
+   private MultiplexedTransport multiplexedTransport;
    private ExecutorService asyncExecutorService;
 
    /**
@@ -309,6 +313,7 @@ public Properties getProperties() {
       properties.setProperty(ConfigurationProperties.FORCE_RETURN_VALUES, Boolean.toString(configuration.forceReturnValues()));
       properties.setProperty(ConfigurationProperties.KEY_SIZE_ESTIMATE, Integer.toString(configuration.keySizeEstimate()));
       properties.setProperty(ConfigurationProperties.MARSHALLER, configuration.marshallerClass().getName());
+      properties.setProperty(ConfigurationProperties.MULTIPLEXED_CONNECTIONS, Integer.toString(configuration.multiplexedConnections()));
       properties.setProperty(ConfigurationProperties.PING_ON_STARTUP, Boolean.toString(configuration.pingOnStartup()));
       properties.setProperty(ConfigurationProperties.PROTOCOL_VERSION, configuration.protocolVersion());
       properties.setProperty(ConfigurationProperties.SO_TIMEOUT, Integer.toString(configuration.socketTimeout()));
@@ -550,6 +555,12 @@ public void start() {
       transportFactory = Util.getInstance(configuration.transportFactory());
 
       transportFactory.start(codec, configuration, topologyId);
+      // The non-blocking transport does not support SSL, nor other transport factories
+      if (configuration.multiplexedConnections() > 0 && !configuration.ssl().enabled()
+            && transportFactory instanceof TcpTransportFactory) {
+         multiplexedTransport = new MultiplexedTransport((TcpTransportFactory) transportFactory, configuration.multiplexedConnections());
+         multiplexedTransport.start();
+      }
       if (marshaller == null) {
          marshaller = configuration.marshaller();
          if (marshaller == null) {
@@ -580,6 +591,10 @@ public void start() {
    @Override
    public void stop() {
       if (isStarted()) {
+         if (multiplexedTransport != null) {
+            multiplexedTransport.destroy();
+            multiplexedTransport = null;
+         }
          transportFactory.destroy();
          asyncExecutorService.shutdownNow();
       }
@@ -636,7 +651,7 @@ private void startRemoteCache(RemoteCacheHolder remoteCacheHolder) {
       RemoteCacheImpl<?, ?> remoteCache = remoteCacheHolder.remoteCache;
       OperationsFactory operationsFactory = new OperationsFactory(
             transportFactory, remoteCache.getName(), topologyId, remoteCacheHolder.forceReturnValue, codec);
-      remoteCache.init(marshaller, asyncExecutorService, operationsFactory, configuration.keySizeEstimate(), configuration.valueSizeEstimate());
+      remoteCache.init(marshaller, asyncExecutorService, multiplexedTransport, operationsFactory, configuration.keySizeEstimate(), configuration.valueSizeEstimate());
    }
 
    public Marshaller getMarshaller() {
@@ -8,7 +8,7 @@
  */
 public class Version {
 
-   private static final String PROTOCOL_VERSION = "1.2";
+   private static final String PROTOCOL_VERSION = "1.3";
 
    public static String getProtocolVersion() {
       return "HotRod client, protocol version :" + PROTOCOL_VERSION;
@@ -95,6 +95,11 @@ public ConfigurationBuilder marshaller(Marshaller marshaller) {
       return builder.marshaller(marshaller);
    }
 
+   @Override
+   public ConfigurationBuilder multiplexedConnections(int multiplexedConnections) {
+      return builder.multiplexedConnections(multiplexedConnections);
+   }
+
    @Override
    public ConfigurationBuilder pingOnStartup(boolean pingOnStartup) {
       return builder.pingOnStartup(pingOnStartup);
@@ -102,6 +102,15 @@ public interface ConfigurationChildBuilder {
     */
    ConfigurationBuilder marshaller(Marshaller marshaller);
 
+   /**
+    * The number of non-blocking connections opened to each server for asynchronous operations. Requests sent over
+    * these connections are pipelined and their responses are matched by message id, so that the futures returned by
+    * {@link org.infinispan.client.hotrod.RemoteCache#getAsync(Object)}, {@link org.infinispan.client.hotrod.RemoteCache#putAsync(Object, Object)}
+    * and similar methods do not hold a thread while the request is in flight. Defaults to 1. Setting it to 0, or
+    * enabling SSL, executes asynchronous operations on the async executor instead.
+    */
+   ConfigurationBuilder multiplexedConnections(int multiplexedConnections);
+
    /**
     * If true, a ping request is sent to a back end server in order to fetch cluster's topology.
     */
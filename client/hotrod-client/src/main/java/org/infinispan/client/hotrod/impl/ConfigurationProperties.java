@@ -26,6 +26,7 @@ public class ConfigurationProperties {
    public static final String DEFAULT_EXECUTOR_FACTORY_POOL_SIZE = "infinispan.client.hotrod.default_executor_factory.pool_size";
    public static final String TCP_NO_DELAY = "infinispan.client.hotrod.tcp_no_delay";
    public static final String PING_ON_STARTUP = "infinispan.client.hotrod.ping_on_startup";
+   public static final String MULTIPLEXED_CONNECTIONS = "infinispan.client.hotrod.multiplexed_connections";
    public static final String REQUEST_BALANCING_STRATEGY = "infinispan.client.hotrod.request_balancing_strategy";
    public static final String KEY_SIZE_ESTIMATE = "infinispan.client.hotrod.key_size_estimate";
    public static final String VALUE_SIZE_ESTIMATE = "infinispan.client.hotrod.value_size_estimate";
@@ -48,10 +49,12 @@ public class ConfigurationProperties {
    public static final int DEFAULT_HOTROD_PORT = 11222;
    public static final int DEFAULT_SO_TIMEOUT = 60000;
    public static final int DEFAULT_CONNECT_TIMEOUT = 60000;
+   public static final int DEFAULT_MULTIPLEXED_CONNECTIONS = 1;
+   public static final String PROTOCOL_VERSION_13 = "1.3";
    public static final String PROTOCOL_VERSION_12 = "1.2";
    public static final String PROTOCOL_VERSION_11 = "1.1";
    public static final String PROTOCOL_VERSION_10 = "1.0";
-   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_12;
+   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_13;
 
    private final TypedProperties props;
 
@@ -113,6 +116,10 @@ public boolean getPingOnStartup() {
       return props.getBooleanProperty(PING_ON_STARTUP, true);
    }
 
+   public int getMultiplexedConnections() {
+      return props.getIntProperty(MULTIPLEXED_CONNECTIONS, DEFAULT_MULTIPLEXED_CONNECTIONS);
+   }
+
    public String getRequestBalancingStrategy() {
       return props.getProperty(REQUEST_BALANCING_STRATEGY, RoundRobinBalancingStrategy.class.getName());
    }
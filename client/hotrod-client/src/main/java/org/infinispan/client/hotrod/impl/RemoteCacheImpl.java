@@ -3,12 +3,15 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -23,6 +26,8 @@
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteCacheManagerNotStartedException;
 import org.infinispan.client.hotrod.impl.async.NotifyingFutureImpl;
+import org.infinispan.client.hotrod.impl.async.ResponseFuture;
+import org.infinispan.client.hotrod.impl.operations.AbstractMultiKeyOperation;
 import org.infinispan.client.hotrod.impl.operations.BulkGetKeysOperation;
 import org.infinispan.client.hotrod.impl.operations.BulkGetOperation;
 import org.infinispan.client.hotrod.impl.operations.ClearOperation;
@@ -39,6 +44,7 @@
 import org.infinispan.client.hotrod.impl.operations.ReplaceIfUnmodifiedOperation;
 import org.infinispan.client.hotrod.impl.operations.ReplaceOperation;
 import org.infinispan.client.hotrod.impl.operations.StatsOperation;
+import org.infinispan.client.hotrod.impl.transport.tcp.MultiplexedTransport;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.marshall.Marshaller;
@@ -56,6 +62,7 @@
    private final String name;
    private final RemoteCacheManager remoteCacheManager;
    private volatile ExecutorService executorService;
+   private volatile MultiplexedTransport multiplexedTransport;
    private OperationsFactory operationsFactory;
    private int estimateKeySize;
    private int estimateValueSize;
@@ -69,9 +76,11 @@ public RemoteCacheImpl(RemoteCacheManager rcm, String name) {
       this.remoteCacheManager = rcm;
    }
 
-   public void init(Marshaller marshaller, ExecutorService executorService, OperationsFactory operationsFactory, int estimateKeySize, int estimateValueSize) {
+   public void init(Marshaller marshaller, ExecutorService executorService, MultiplexedTransport multiplexedTransport,
+                    OperationsFactory operationsFactory, int estimateKeySize, int estimateValueSize) {
       this.marshaller = marshaller;
       this.executorService = executorService;
+      this.multiplexedTransport = multiplexedTransport;
       this.operationsFactory = operationsFactory;
       this.estimateKeySize = estimateKeySize;
       this.estimateValueSize = estimateValueSize;
@@ -149,9 +158,26 @@ public MetadataValue<V> getWithMetadata(K key) {
    @Override
    public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (map.isEmpty()) {
+         return;
+      }
+      if (!operationsFactory.isMultiKeySupported()) {
+         for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         }
+         return;
+      }
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdleTime);
+      if (log.isTraceEnabled()) {
+         log.tracef("About to add %d entries, lifespanSecs:%d, maxIdleSecs:%d", map.size(), lifespanSecs, maxIdleSecs);
+      }
+      Map<byte[], byte[]> entries = new HashMap<byte[], byte[]>(map.size() * 4 / 3 + 1);
       for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
-         put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         entries.put(obj2bytes(entry.getKey(), true), obj2bytes(entry.getValue(), false));
       }
+      executeInParallel(operationsFactory.newPutAllOperations(entries, lifespanSecs, maxIdleSecs));
    }
 
    @Override
@@ -238,6 +264,14 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
    @Override
    public NotifyingFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      MultiplexedTransport transport = multiplexedTransport;
+      if (transport != null) {
+         int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+         int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         PutOperation op = operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+         return transport.execute(op, new ValueFuture());
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -270,6 +304,14 @@ public Void call() throws Exception {
    @Override
    public NotifyingFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      MultiplexedTransport transport = multiplexedTransport;
+      if (transport != null) {
+         int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+         int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+         return transport.execute(op, new ValueFuture());
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -286,6 +328,11 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
+      MultiplexedTransport transport = multiplexedTransport;
+      if (transport != null) {
+         RemoveOperation op = operationsFactory.newRemoveOperation(obj2bytes(key, true));
+         return transport.execute(op, new ValueFuture());
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -302,6 +349,14 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      MultiplexedTransport transport = multiplexedTransport;
+      if (transport != null) {
+         int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+         int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+         applyDefaultExpirationFlags(lifespan, maxIdle);
+         ReplaceOperation op = operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+         return transport.execute(op, new ValueFuture());
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -356,6 +411,37 @@ public Map<K, V> getBulk(int size) {
       return Collections.unmodifiableMap(toReturn);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      if (keys.isEmpty()) {
+         return Collections.emptyMap();
+      }
+      if (!operationsFactory.isMultiKeySupported()) {
+         Map<K, V> toReturn = new HashMap<K, V>();
+         for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+               toReturn.put(key, value);
+            }
+         }
+         return Collections.unmodifiableMap(toReturn);
+      }
+      List<byte[]> keyBytes = new ArrayList<byte[]>(keys.size());
+      for (K key : keys) {
+         keyBytes.add(obj2bytes(key, true));
+      }
+      List<Map<byte[], byte[]>> results = executeInParallel(operationsFactory.newGetAllOperations(keyBytes));
+      Map<K, V> toReturn = new HashMap<K, V>();
+      for (Map<byte[], byte[]> result : results) {
+         for (Map.Entry<byte[], byte[]> entry : result.entrySet()) {
+            toReturn.put((K) bytes2obj(entry.getKey()), (V) bytes2obj(entry.getValue()));
+         }
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public V remove(Object key) {
@@ -412,6 +498,11 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public NotifyingFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
+      MultiplexedTransport transport = multiplexedTransport;
+      if (transport != null) {
+         GetOperation op = operationsFactory.newGetKeyOperation(obj2bytes(key, true));
+         return transport.execute(op, new ValueFuture());
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -467,6 +558,58 @@ private MetadataValue<V> binary2MetadataValue(MetadataValue<byte[]> value) {
       return new MetadataValueImpl<V>(value.getCreated(), value.getLifespan(), value.getLastUsed(), value.getMaxIdle(), value.getVersion(), valueObj);
    }
 
+   /**
+    * Future for the asynchronous operations sent over the {@link MultiplexedTransport}, unmarshalling the returned value
+    * in the thread that retrieves it.
+    */
+   private class ValueFuture extends ResponseFuture<V> {
+      @Override
+      @SuppressWarnings("unchecked")
+      protected V convert(Object response) {
+         return (V) bytes2obj((byte[]) response);
+      }
+   }
+
+   /**
+    * Executes operations targeting different servers at the same time, over the {@link MultiplexedTransport} if there
+    * is one or with the async executor otherwise. The calling thread executes the first operation itself.
+    */
+   private <T> List<T> executeInParallel(List<? extends AbstractMultiKeyOperation<T>> operations) {
+      if (operations.size() == 1) {
+         return Collections.singletonList(operations.get(0).execute());
+      }
+      MultiplexedTransport transport = multiplexedTransport;
+      List<Future<T>> futures = new ArrayList<Future<T>>(operations.size() - 1);
+      for (final AbstractMultiKeyOperation<T> operation : operations.subList(1, operations.size())) {
+         if (transport != null) {
+            futures.add(transport.execute(operation, new ResponseFuture<T>()));
+         } else {
+            futures.add(executorService.submit(new Callable<T>() {
+               @Override
+               public T call() throws Exception {
+                  return operation.execute();
+               }
+            }));
+         }
+      }
+      List<T> results = new ArrayList<T>(operations.size());
+      results.add(operations.get(0).execute());
+      for (Future<T> future : futures) {
+         try {
+            results.add(future.get());
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HotRodClientException(e);
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof HotRodClientException) {
+               throw (HotRodClientException) e.getCause();
+            }
+            throw new HotRodClientException(e.getCause());
+         }
+      }
+      return results;
+   }
+
    private int toSeconds(long duration, TimeUnit timeUnit) {
       return (int) timeUnit.toSeconds(duration);
    }
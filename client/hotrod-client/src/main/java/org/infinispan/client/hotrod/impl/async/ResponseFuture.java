@@ -0,0 +1,120 @@
+package org.infinispan.client.hotrod.impl.async;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.infinispan.commons.util.concurrent.BaseNotifyingFuture;
+
+/**
+ * Notifying future completed by the transport thread when the response to a pipelined request is read, so that no
+ * thread is held while the request is in flight.
+ * <p/>
+ * The response is converted with {@link #convert(Object)} the first time the result is requested, so unmarshalling
+ * happens in the thread calling {@link #get()} rather than in the transport thread.
+ *
+ * @since 6.0
+ */
+public class ResponseFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private volatile boolean done;
+   private volatile boolean cancelled;
+   private Object response;
+   private Throwable failure;
+   private boolean converted;
+   private T value;
+
+   /**
+    * Completes the future with the response read from the server.
+    *
+    * @return false if the future was already completed
+    */
+   public boolean complete(Object response) {
+      return finish(response, null, false);
+   }
+
+   /**
+    * Completes the future with a failure.
+    *
+    * @return false if the future was already completed
+    */
+   public boolean completeExceptionally(Throwable failure) {
+      return finish(null, failure, false);
+   }
+
+   private boolean finish(Object response, Throwable failure, boolean cancel) {
+      synchronized (this) {
+         if (done) {
+            return false;
+         }
+         this.response = response;
+         this.failure = failure;
+         cancelled = cancel;
+         done = true;
+      }
+      latch.countDown();
+      notifyDone();
+      return true;
+   }
+
+   /**
+    * Converts the response read from the server to the value returned by {@link #get()}.
+    */
+   @SuppressWarnings("unchecked")
+   protected T convert(Object response) {
+      return (T) response;
+   }
+
+   /**
+    * The request is not withdrawn from the server, but its response is ignored.
+    */
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      return finish(null, new CancellationException(), true);
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return done;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return result();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit)) {
+         throw new TimeoutException();
+      }
+      return result();
+   }
+
+   private synchronized T result() throws ExecutionException {
+      if (failure == null && !converted) {
+         try {
+            value = convert(response);
+         } catch (RuntimeException e) {
+            failure = e;
+         }
+         response = null;
+         converted = true;
+      }
+      if (failure instanceof CancellationException) {
+         throw (CancellationException) failure;
+      } else if (failure != null) {
+         throw new ExecutionException(failure);
+      }
+      return value;
+   }
+}
@@ -42,16 +42,26 @@ protected Transport getTransport(int retryCount) {
       }
    }
 
+   public byte[] getKey() {
+      return key;
+   }
+
    protected short sendKeyOperation(byte[] key, Transport transport, byte opCode, byte opRespCode) {
       // 1) write [header][key length][key]
-      HeaderParams params = writeHeader(transport, opCode);
-      transport.writeArray(key);
+      HeaderParams params = writeKeyRequest(key, transport, opCode);
       transport.flush();
 
       // 2) now read the header
       return readHeaderAndValidate(transport, params);
    }
 
+   //[header][key length][key]
+   protected HeaderParams writeKeyRequest(byte[] key, Transport transport, byte opCode) {
+      HeaderParams params = writeHeader(transport, opCode);
+      transport.writeArray(key);
+      return params;
+   }
+
    protected byte[] returnPossiblePrevValue(Transport transport) {
       if (hasForceReturn(flags)) {
          byte[] bytes = transport.readArray();
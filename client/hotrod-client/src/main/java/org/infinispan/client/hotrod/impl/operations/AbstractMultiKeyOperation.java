@@ -0,0 +1,41 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for the operations on several keys owned by the same server. The request is sent to the owner of the keys
+ * first, and to any other server when retried.
+ *
+ * @since 6.0
+ */
+@Immutable
+public abstract class AbstractMultiKeyOperation<T> extends RetryOnFailureOperation<T> implements PipelinedOperation<T> {
+
+   protected AbstractMultiKeyOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
+                                       AtomicInteger topologyId, Flag[] flags) {
+      super(codec, transportFactory, cacheName, topologyId, flags);
+   }
+
+   @Override
+   protected Transport getTransport(int retryCount) {
+      if (retryCount == 0) {
+         return transportFactory.getTransport(getKey());
+      } else {
+         return transportFactory.getTransport();
+      }
+   }
+
+   @Override
+   protected T executeOperation(Transport transport) {
+      HeaderParams params = writeRequest(transport);
+      transport.flush();
+      return readResponse(transport, params);
+   }
+}
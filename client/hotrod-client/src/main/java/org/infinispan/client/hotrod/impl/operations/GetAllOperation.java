@@ -0,0 +1,59 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads several keys with a single request. The keys are expected to be owned by the same server, see
+ * {@link OperationsFactory#newGetAllOperations(java.util.Collection)}. Only the keys found in the cache are returned.
+ *
+ * @since 6.0
+ */
+@Immutable
+public class GetAllOperation extends AbstractMultiKeyOperation<Map<byte[], byte[]>> {
+
+   private final Collection<byte[]> keys;
+
+   public GetAllOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName, AtomicInteger topologyId,
+                          Flag[] flags, Collection<byte[]> keys) {
+      super(codec, transportFactory, cacheName, topologyId, flags);
+      this.keys = keys;
+   }
+
+   @Override
+   public byte[] getKey() {
+      return keys.iterator().next();
+   }
+
+   //[header][key count]([key length][key])*
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      HeaderParams params = writeHeader(transport, GET_ALL_REQUEST);
+      transport.writeVInt(keys.size());
+      for (byte[] key : keys) {
+         transport.writeArray(key);
+      }
+      return params;
+   }
+
+   //[header][entry count]([key length][key][value length][value])*
+   @Override
+   public Map<byte[], byte[]> readResponse(Transport transport, HeaderParams params) {
+      readHeaderAndValidate(transport, params);
+      int count = transport.readVInt();
+      Map<byte[], byte[]> result = new HashMap<byte[], byte[]>(count * 4 / 3 + 1);
+      for (int i = 0; i < count; i++) {
+         result.put(transport.readArray(), transport.readArray());
+      }
+      return result;
+   }
+}
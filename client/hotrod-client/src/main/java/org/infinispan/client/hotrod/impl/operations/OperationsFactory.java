@@ -5,12 +5,17 @@
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.Codec13;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 
+import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -124,6 +129,47 @@ public BulkGetKeysOperation newBulkGetKeysOperation(int scope) {
     		codec, transportFactory, cacheNameBytes, topologyId, flags(), scope);
    }
 
+   /**
+    * Whether the protocol version in use has the put all and get all operations, which were added in version 1.3.
+    */
+   public boolean isMultiKeySupported() {
+      return codec instanceof Codec13;
+   }
+
+   /**
+    * Creates one put all operation per server owning some of the entries, so that the entries can be stored with a
+    * single request to each server. All the operations share the flags currently set.
+    */
+   public List<PutAllOperation> newPutAllOperations(Map<byte[], byte[]> map, int lifespanSecs, int maxIdleSecs) {
+      Flag[] flags = flags();
+      Map<SocketAddress, List<byte[]>> keysByServer = transportFactory.groupKeysByServer(map.keySet());
+      List<PutAllOperation> operations = new ArrayList<PutAllOperation>(keysByServer.size());
+      for (List<byte[]> keys : keysByServer.values()) {
+         Map<byte[], byte[]> entries = new HashMap<byte[], byte[]>(keys.size() * 4 / 3 + 1);
+         for (byte[] key : keys) {
+            entries.put(key, map.get(key));
+         }
+         operations.add(new PutAllOperation(
+               codec, transportFactory, cacheNameBytes, topologyId, flags, entries, lifespanSecs, maxIdleSecs));
+      }
+      return operations;
+   }
+
+   /**
+    * Creates one get all operation per server owning some of the keys. All the operations share the flags currently
+    * set.
+    */
+   public List<GetAllOperation> newGetAllOperations(Collection<byte[]> keys) {
+      Flag[] flags = flags();
+      Map<SocketAddress, List<byte[]>> keysByServer = transportFactory.groupKeysByServer(keys);
+      List<GetAllOperation> operations = new ArrayList<GetAllOperation>(keysByServer.size());
+      for (List<byte[]> serverKeys : keysByServer.values()) {
+         operations.add(new GetAllOperation(
+               codec, transportFactory, cacheNameBytes, topologyId, flags, serverKeys));
+      }
+      return operations;
+   }
+
    /**
     * Construct a ping request directed to a particular node.
     *
@@ -0,0 +1,32 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * An operation whose request and response can be handled separately, so that it can be sent over a connection shared
+ * by several outstanding requests. The response is matched to the request by the message id of the returned header
+ * parameters.
+ *
+ * @param <T> the return type of the operation
+ * @since 6.0
+ */
+public interface PipelinedOperation<T> {
+
+   /**
+    * The key the operation targets, used to choose the server the request is sent to.
+    */
+   byte[] getKey();
+
+   /**
+    * Writes the request to the transport, without flushing it.
+    *
+    * @return the header parameters, which carry the message id of the request
+    */
+   HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the response to the request written by {@link #writeRequest(Transport)}, header included.
+    */
+   T readResponse(Transport transport, HeaderParams params);
+}
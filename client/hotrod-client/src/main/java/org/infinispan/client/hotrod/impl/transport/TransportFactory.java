@@ -2,6 +2,7 @@
 
 import java.net.SocketAddress;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,6 +37,12 @@ public interface TransportFactory {
 
    Transport getTransport(byte[] key);
 
+   /**
+    * Groups the keys by the server owning them according to the consistent hash. If the consistent hash is not known,
+    * all the keys are assigned to a single server.
+    */
+   Map<SocketAddress, List<byte[]>> groupKeysByServer(Collection<byte[]> keys);
+
    boolean isTcpNoDelay();
 
    int getTransportCount();
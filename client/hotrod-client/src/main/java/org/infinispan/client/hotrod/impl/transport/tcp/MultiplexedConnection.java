@@ -0,0 +1,306 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.HotRodTimeoutException;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.util.Util;
+
+/**
+ * A non-blocking connection to a server shared by any number of outstanding requests. Requests are written in the order
+ * they are queued, and each response is matched to its request by the message id in the response header, so responses
+ * may arrive in any order.
+ * <p/>
+ * Apart from {@link #send(PendingRequest, ByteBuffer)} and {@link #close(HotRodClientException)}, all methods are
+ * called by the selector thread of the owning {@link MultiplexedTransport}.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+class MultiplexedConnection {
+
+   private static final Log log = LogFactory.getLog(MultiplexedConnection.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int READ_BUFFER_SIZE = 8 * 1024;
+   private static final int MAX_GATHERED_WRITES = 64;
+
+   private final MultiplexedTransport transport;
+   private final SocketAddress serverAddress;
+   private final SocketChannel channel;
+   private final long connectStart = System.nanoTime();
+   private final long connectTimeoutNanos;
+   private final ConcurrentMap<Long, PendingRequest> pending = new ConcurrentHashMap<Long, PendingRequest>();
+   private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+   private final AtomicBoolean updateScheduled = new AtomicBoolean();
+   private final AtomicBoolean closed = new AtomicBoolean();
+   private final ResponseBuffer response;
+   private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHERED_WRITES];
+
+   private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+   private SelectionKey key;
+   private volatile boolean invalid;
+
+   MultiplexedConnection(MultiplexedTransport transport, SocketAddress serverAddress, TcpTransportFactory transportFactory,
+                         long connectTimeoutNanos) {
+      this.transport = transport;
+      this.serverAddress = serverAddress;
+      this.connectTimeoutNanos = connectTimeoutNanos;
+      this.response = new ResponseBuffer(transportFactory, this);
+      SocketChannel channel = null;
+      try {
+         channel = SocketChannel.open();
+         channel.configureBlocking(false);
+         channel.socket().setTcpNoDelay(transportFactory.isTcpNoDelay());
+         channel.connect(serverAddress);
+      } catch (IOException e) {
+         Util.close(channel);
+         throw new TransportException(String.format("Could not connect to server: %s", serverAddress), e, serverAddress);
+      }
+      this.channel = channel;
+   }
+
+   SocketAddress getServerAddress() {
+      return serverAddress;
+   }
+
+   boolean isClosed() {
+      return closed.get();
+   }
+
+   /**
+    * Marks the connection as unusable, it is closed once the current response has been read.
+    */
+   void invalidate() {
+      invalid = true;
+   }
+
+   /**
+    * Queues an encoded request. Called by any thread.
+    */
+   void send(PendingRequest request, ByteBuffer bytes) {
+      long messageId = request.getMessageId();
+      pending.put(messageId, request);
+      writeQueue.add(bytes);
+      if (closed.get()) {
+         // Closed concurrently, the request may have been missed when the pending requests were failed
+         if (pending.remove(messageId) != null) {
+            request.fail(new TransportException("Connection closed", serverAddress));
+         }
+         return;
+      }
+      if (updateScheduled.compareAndSet(false, true)) {
+         transport.scheduleUpdate(this);
+      }
+   }
+
+   /**
+    * Registers the channel with the selector and updates the interest set after requests have been queued.
+    */
+   void updateRegistration(Selector selector) {
+      updateScheduled.set(false);
+      if (closed.get()) {
+         return;
+      }
+      try {
+         if (key == null) {
+            key = channel.register(selector, channel.isConnected() ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+         }
+         if (channel.isConnected()) {
+            updateInterest();
+         }
+      } catch (IOException e) {
+         close(new TransportException(e, serverAddress));
+      }
+   }
+
+   void handle() {
+      try {
+         if (key.isConnectable() && channel.finishConnect()) {
+            if (trace) log.tracef("Connected to server %s", serverAddress);
+            updateInterest();
+         }
+         if (key.isValid() && key.isWritable()) {
+            write();
+         }
+         if (key.isValid() && key.isReadable()) {
+            read();
+         }
+      } catch (IOException e) {
+         close(new TransportException(e, serverAddress));
+      } catch (HotRodClientException e) {
+         close(e);
+      } catch (RuntimeException e) {
+         close(new InvalidResponseException(e));
+      }
+   }
+
+   /**
+    * Times out the requests past their deadline. A timed out request stays registered, so that its response can still
+    * be told apart from the others if it arrives, but a connection that is not answering at all is closed.
+    */
+   void expire(long now, long timeoutNanos) {
+      if (!channel.isConnected()) {
+         if (connectTimeoutNanos > 0 && now - connectStart > connectTimeoutNanos) {
+            close(new TransportException(String.format("Could not connect to server: %s", serverAddress), serverAddress));
+         }
+         return;
+      }
+      if (timeoutNanos <= 0) {
+         return;
+      }
+      for (PendingRequest request : pending.values()) {
+         long overdue = now - request.getDeadline();
+         if (overdue > timeoutNanos) {
+            close(new TransportException(String.format("No response from server %s", serverAddress), serverAddress));
+            return;
+         } else if (overdue > 0 && !request.isDone()) {
+            request.timeout(new HotRodTimeoutException(String.format(
+                  "Timed out waiting for the response to message %d from server %s", request.getMessageId(), serverAddress)));
+         }
+      }
+   }
+
+   /**
+    * Closes the channel and fails the outstanding requests, which are retried on another connection if possible.
+    */
+   void close(HotRodClientException cause) {
+      if (!closed.compareAndSet(false, true)) {
+         return;
+      }
+      if (key != null) {
+         key.cancel();
+      }
+      Util.close(channel);
+      writeQueue.clear();
+      if (!pending.isEmpty()) {
+         log.closingMultiplexedConnection(serverAddress, pending.size(), cause);
+      } else if (trace) {
+         log.tracef(cause, "Closed connection to server %s", serverAddress);
+      }
+      // The outstanding requests are not to blame, so let them be retried
+      TransportException failure = cause instanceof TransportException
+            ? (TransportException) cause : new TransportException(cause.getMessage(), cause, serverAddress);
+      for (Iterator<PendingRequest> it = pending.values().iterator(); it.hasNext(); ) {
+         PendingRequest request = it.next();
+         it.remove();
+         request.fail(failure);
+      }
+   }
+
+   private void updateInterest() {
+      key.interestOps(writeQueue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+   }
+
+   private void write() throws IOException {
+      // Only this thread removes buffers, so the head of the queue cannot change while gathering
+      int count = 0;
+      for (Iterator<ByteBuffer> it = writeQueue.iterator(); it.hasNext() && count < gathered.length; ) {
+         gathered[count++] = it.next();
+      }
+      long written = channel.write(gathered, 0, count);
+      for (int i = 0; i < count; i++) {
+         gathered[i] = null;
+      }
+      while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()) {
+         writeQueue.poll();
+      }
+      if (trace) log.tracef("Wrote %d bytes to server %s", written, serverAddress);
+      // Requests queued meanwhile schedule an update, which sets the write interest again
+      updateInterest();
+   }
+
+   private void read() throws IOException {
+      int read = channel.read(readBuffer);
+      if (read < 0) {
+         close(new TransportException("End of stream reached!", serverAddress));
+         return;
+      }
+      readBuffer.flip();
+      try {
+         while (readBuffer.hasRemaining() && readResponse()) {
+            if (invalid) {
+               close(new TransportException("Connection invalidated after an error response", serverAddress));
+               return;
+            }
+         }
+      } finally {
+         readBuffer.compact();
+      }
+      if (!readBuffer.hasRemaining()) {
+         // The buffer is full with an incomplete response, make room for the rest of it
+         ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+         readBuffer.flip();
+         larger.put(readBuffer);
+         readBuffer = larger;
+      }
+   }
+
+   /**
+    * Reads the response at the current position of the read buffer.
+    *
+    * @return false, with the position left unchanged, if the response has not been fully received yet
+    */
+   private boolean readResponse() {
+      int start = readBuffer.position();
+      response.setBuffer(readBuffer);
+      long messageId;
+      try {
+         // Peek at the magic and the message id, the codec validates them when it reads the header
+         response.readByte();
+         messageId = response.readVLong();
+      } catch (BufferUnderflowException e) {
+         readBuffer.position(start);
+         return false;
+      }
+      readBuffer.position(start);
+      PendingRequest request = pending.get(messageId);
+      if (request == null) {
+         throw new InvalidResponseException(String.format(
+               "Received a response for unknown message %d from server %s", messageId, serverAddress));
+      }
+      try {
+         request.readResponse(response);
+      } catch (BufferUnderflowException e) {
+         readBuffer.position(start);
+         return false;
+      } catch (InvalidResponseException e) {
+         // The stream cannot be trusted any more
+         throw e;
+      } catch (HotRodClientException e) {
+         // An error response, which has been read entirely
+         pending.remove(messageId);
+         request.fail(e);
+         return true;
+      }
+      pending.remove(messageId);
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "MultiplexedConnection{" +
+            "serverAddress=" + serverAddress +
+            ", pending=" + pending.size() +
+            ", closed=" + closed +
+            "}";
+   }
+}
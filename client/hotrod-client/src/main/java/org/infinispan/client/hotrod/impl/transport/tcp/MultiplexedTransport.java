@@ -0,0 +1,219 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.async.ResponseFuture;
+import org.infinispan.client.hotrod.impl.operations.PipelinedOperation;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+
+/**
+ * Non-blocking transport for asynchronous operations. Each server gets a fixed number of
+ * {@link MultiplexedConnection}s, shared by all the requests sent to it: requests are pipelined without waiting for the
+ * previous responses, and the responses are matched to their requests by message id. A single selector thread does all
+ * the socket I/O and completes the futures, so no thread is held while a request is in flight.
+ * <p/>
+ * Servers are chosen by the consistent hash and balancer of the {@link TcpTransportFactory}, and failed requests are
+ * retried on other servers as {@link org.infinispan.client.hotrod.impl.operations.RetryOnFailureOperation} does.
+ * Listeners attached to the returned futures are notified by the selector thread and must not block.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class MultiplexedTransport implements Runnable {
+
+   private static final Log log = LogFactory.getLog(MultiplexedTransport.class, Log.class);
+
+   public static final String THREAD_NAME = "HotRod-client-selector";
+
+   private static final int REQUEST_SIZE_ESTIMATE = 128;
+   private static final long MAX_SELECT_TIMEOUT = 1000;
+
+   private final TcpTransportFactory transportFactory;
+   private final int connectionsPerServer;
+   private final Selector selector;
+   private final Thread selectorThread;
+   private final ConcurrentMap<SocketAddress, AtomicReferenceArray<MultiplexedConnection>> connections =
+         new ConcurrentHashMap<SocketAddress, AtomicReferenceArray<MultiplexedConnection>>();
+   private final AtomicInteger nextConnection = new AtomicInteger();
+   private final Queue<MultiplexedConnection> updates = new ConcurrentLinkedQueue<MultiplexedConnection>();
+   private final long timeoutNanos;
+   private final long connectTimeoutNanos;
+   private final long selectTimeout;
+   private final long expirationIntervalNanos;
+
+   private volatile boolean stopped;
+
+   public MultiplexedTransport(TcpTransportFactory transportFactory, int connectionsPerServer) {
+      this.transportFactory = transportFactory;
+      this.connectionsPerServer = connectionsPerServer;
+      this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(transportFactory.getSoTimeout());
+      this.connectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(transportFactory.getConnectTimeout());
+      int soTimeout = transportFactory.getSoTimeout();
+      this.selectTimeout = soTimeout > 0 ? Math.min(MAX_SELECT_TIMEOUT, Math.max(1, soTimeout / 10)) : MAX_SELECT_TIMEOUT;
+      this.expirationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(selectTimeout);
+      try {
+         this.selector = Selector.open();
+      } catch (IOException e) {
+         throw new HotRodClientException("Could not open a selector", e);
+      }
+      this.selectorThread = new Thread(this, THREAD_NAME);
+      this.selectorThread.setDaemon(true);
+   }
+
+   public void start() {
+      selectorThread.start();
+   }
+
+   public void destroy() {
+      stopped = true;
+      selector.wakeup();
+      try {
+         selectorThread.join(MAX_SELECT_TIMEOUT);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      TransportException stoppedException = new TransportException("The transport has been stopped", null);
+      for (AtomicReferenceArray<MultiplexedConnection> slots : connections.values()) {
+         for (int i = 0; i < slots.length(); i++) {
+            MultiplexedConnection connection = slots.get(i);
+            if (connection != null) {
+               connection.close(stoppedException);
+            }
+         }
+      }
+      connections.clear();
+      try {
+         selector.close();
+      } catch (IOException e) {
+         log.tracef(e, "Error closing the selector");
+      }
+   }
+
+   /**
+    * Sends the request of the operation and returns immediately. The future is completed with the response of the
+    * operation, or with the exception it failed with.
+    */
+   public <T> NotifyingFuture<T> execute(PipelinedOperation<?> operation, ResponseFuture<T> future) {
+      send(new PendingRequest(this, operation, future), null);
+      return future;
+   }
+
+   boolean canRetry(int attempts) {
+      return !stopped && attempts < transportFactory.getTransportCount();
+   }
+
+   void retry(PendingRequest request, HotRodClientException cause) {
+      if (log.isTraceEnabled()) {
+         log.tracef(cause, "Exception encountered. Retry %d out of %d", request.getAttempts(), transportFactory.getTransportCount());
+      }
+      send(request, transportFactory.nextServer());
+   }
+
+   void scheduleUpdate(MultiplexedConnection connection) {
+      updates.add(connection);
+      selector.wakeup();
+   }
+
+   private void send(PendingRequest request, SocketAddress server) {
+      if (stopped) {
+         request.fail(new TransportException("The transport has been stopped", server));
+         return;
+      }
+      if (server == null) {
+         server = transportFactory.getServer(request.getOperation().getKey());
+      }
+      RequestBuffer buffer = new RequestBuffer(transportFactory, REQUEST_SIZE_ESTIMATE);
+      request.encode(buffer, System.nanoTime() + timeoutNanos);
+      MultiplexedConnection connection;
+      try {
+         connection = getConnection(server);
+      } catch (TransportException e) {
+         request.fail(e);
+         return;
+      }
+      connection.send(request, buffer.toByteBuffer());
+   }
+
+   private MultiplexedConnection getConnection(SocketAddress server) {
+      AtomicReferenceArray<MultiplexedConnection> slots = connections.get(server);
+      if (slots == null) {
+         slots = new AtomicReferenceArray<MultiplexedConnection>(connectionsPerServer);
+         AtomicReferenceArray<MultiplexedConnection> existing = connections.putIfAbsent(server, slots);
+         if (existing != null) {
+            slots = existing;
+         }
+      }
+      int index = (nextConnection.getAndIncrement() & Integer.MAX_VALUE) % connectionsPerServer;
+      MultiplexedConnection connection = slots.get(index);
+      if (connection == null || connection.isClosed()) {
+         synchronized (slots) {
+            connection = slots.get(index);
+            if (connection == null || connection.isClosed()) {
+               connection = new MultiplexedConnection(this, server, transportFactory, connectTimeoutNanos);
+               slots.set(index, connection);
+            }
+         }
+      }
+      return connection;
+   }
+
+   @Override
+   public void run() {
+      long lastExpiration = System.nanoTime();
+      while (!stopped) {
+         try {
+            selector.select(selectTimeout);
+            MultiplexedConnection updated;
+            while ((updated = updates.poll()) != null) {
+               updated.updateRegistration(selector);
+            }
+            for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+               SelectionKey key = it.next();
+               it.remove();
+               ((MultiplexedConnection) key.attachment()).handle();
+            }
+            long now = System.nanoTime();
+            if (now - lastExpiration >= expirationIntervalNanos) {
+               lastExpiration = now;
+               expire(now);
+            }
+         } catch (ClosedSelectorException e) {
+            break;
+         } catch (IOException e) {
+            log.tracef(e, "Error selecting ready connections");
+         } catch (RuntimeException e) {
+            log.warn("Unexpected exception in the selector thread", e);
+         }
+      }
+   }
+
+   private void expire(long now) {
+      List<MultiplexedConnection> registered = new ArrayList<MultiplexedConnection>();
+      for (SelectionKey key : selector.keys()) {
+         registered.add((MultiplexedConnection) key.attachment());
+      }
+      for (MultiplexedConnection connection : registered) {
+         connection.expire(now, timeoutNanos);
+      }
+   }
+}
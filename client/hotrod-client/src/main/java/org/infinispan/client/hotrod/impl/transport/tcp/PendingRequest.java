@@ -0,0 +1,85 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.async.ResponseFuture;
+import org.infinispan.client.hotrod.impl.operations.PipelinedOperation;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * A request sent by a {@link MultiplexedTransport} and waiting for its response.
+ *
+ * @since 6.0
+ */
+class PendingRequest {
+
+   private final MultiplexedTransport transport;
+   private final PipelinedOperation<?> operation;
+   private final ResponseFuture<?> future;
+
+   // Written by the thread sending the request, read by the selector thread once the request is queued
+   private volatile int attempts;
+   private volatile HeaderParams params;
+   private volatile long deadline;
+
+   PendingRequest(MultiplexedTransport transport, PipelinedOperation<?> operation, ResponseFuture<?> future) {
+      this.transport = transport;
+      this.operation = operation;
+      this.future = future;
+   }
+
+   PipelinedOperation<?> getOperation() {
+      return operation;
+   }
+
+   int getAttempts() {
+      return attempts;
+   }
+
+   long getMessageId() {
+      return params.messageId();
+   }
+
+   long getDeadline() {
+      return deadline;
+   }
+
+   boolean isDone() {
+      return future.isDone();
+   }
+
+   /**
+    * Encodes the request for a new attempt. Each attempt gets a new message id.
+    */
+   void encode(Transport buffer, long deadline) {
+      attempts++;
+      params = operation.writeRequest(buffer);
+      this.deadline = deadline;
+   }
+
+   void readResponse(Transport buffer) {
+      future.complete(operation.readResponse(buffer, params));
+   }
+
+   /**
+    * Retries the request on another connection if the failure allows it and attempts are left, as
+    * {@link org.infinispan.client.hotrod.impl.operations.RetryOnFailureOperation} does, or fails the future otherwise.
+    */
+   void fail(HotRodClientException e) {
+      if (future.isDone()) {
+         return;
+      }
+      boolean retriable = e instanceof TransportException || e instanceof RemoteNodeSuspectException;
+      if (retriable && transport.canRetry(attempts)) {
+         transport.retry(this, e);
+      } else {
+         future.completeExceptionally(e);
+      }
+   }
+
+   void timeout(HotRodClientException e) {
+      future.completeExceptionally(e);
+   }
+}
@@ -0,0 +1,105 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import static org.infinispan.commons.io.UnsignedNumeric.writeUnsignedInt;
+import static org.infinispan.commons.io.UnsignedNumeric.writeUnsignedLong;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+
+/**
+ * Write-only transport that encodes a request in memory, so that it can be queued on a
+ * {@link MultiplexedConnection}.
+ *
+ * @since 6.0
+ */
+class RequestBuffer extends AbstractTransport {
+
+   private final ExposedByteArrayOutputStream out;
+
+   RequestBuffer(TransportFactory transportFactory, int sizeEstimate) {
+      super(transportFactory);
+      out = new ExposedByteArrayOutputStream(sizeEstimate);
+   }
+
+   ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(out.getRawBuffer(), 0, out.size());
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      out.write(toWrite);
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      try {
+         writeUnsignedInt(out, vInt);
+      } catch (IOException e) {
+         // Cannot happen when writing to memory
+         throw new IllegalStateException(e);
+      }
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      try {
+         writeUnsignedLong(out, l);
+      } catch (IOException e) {
+         // Cannot happen when writing to memory
+         throw new IllegalStateException(e);
+      }
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      out.write(toAppend, 0, toAppend.length);
+   }
+
+   @Override
+   public void flush() {
+      // The request is sent by the connection it is queued on
+   }
+
+   @Override
+   public void release() {
+   }
+
+   @Override
+   public long readVLong() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int readVInt() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public short readByte() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      return new byte[0];
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return null;
+   }
+
+   @Override
+   public void invalidate() {
+   }
+}
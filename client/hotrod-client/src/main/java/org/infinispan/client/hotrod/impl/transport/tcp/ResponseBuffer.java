@@ -0,0 +1,113 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+/**
+ * Read-only transport over the bytes received so far by a {@link MultiplexedConnection}. Reading past the received
+ * bytes throws a {@link BufferUnderflowException}, after which the connection rewinds the buffer and decodes the
+ * response again once more bytes have arrived.
+ *
+ * @since 6.0
+ */
+class ResponseBuffer extends AbstractTransport {
+
+   private final MultiplexedConnection connection;
+   private ByteBuffer buffer;
+
+   ResponseBuffer(TransportFactory transportFactory, MultiplexedConnection connection) {
+      super(transportFactory);
+      this.connection = connection;
+   }
+
+   void setBuffer(ByteBuffer buffer) {
+      this.buffer = buffer;
+   }
+
+   @Override
+   public short readByte() {
+      return (short) (buffer.get() & 0xFF);
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      if (buffer.remaining() < size) {
+         throw new BufferUnderflowException();
+      }
+      byte[] result = new byte[size];
+      buffer.get(result);
+      return result;
+   }
+
+   @Override
+   public int readVInt() {
+      byte b = buffer.get();
+      int i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buffer.get();
+         i |= (b & 0x7F) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public long readVLong() {
+      byte b = buffer.get();
+      long i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buffer.get();
+         i |= (b & 0x7FL) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      ByteBuffer remaining = buffer.duplicate();
+      byte[] dump = new byte[remaining.remaining()];
+      remaining.get(dump);
+      return dump;
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return connection.getServerAddress();
+   }
+
+   @Override
+   public void invalidate() {
+      connection.invalidate();
+   }
+
+   @Override
+   public void flush() {
+   }
+
+   @Override
+   public void release() {
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public void writeVInt(int vint) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      throw new UnsupportedOperationException();
+   }
+}
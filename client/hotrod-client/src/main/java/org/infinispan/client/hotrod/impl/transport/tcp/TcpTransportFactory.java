@@ -5,7 +5,9 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -158,15 +160,28 @@ public void updateHashFunction(Map<SocketAddress, Set<Integer>> servers2Hash, in
 
    @Override
    public Transport getTransport() {
-      SocketAddress server;
-      synchronized (lock) {
-         server = balancer.nextServer();
-      }
-      return borrowTransportFromPool(server);
+      return borrowTransportFromPool(nextServer());
    }
 
    @Override
    public Transport getTransport(byte[] key) {
+      return borrowTransportFromPool(getServer(key));
+   }
+
+   /**
+    * Returns the next server chosen by the balancer.
+    */
+   public SocketAddress nextServer() {
+      synchronized (lock) {
+         return balancer.nextServer();
+      }
+   }
+
+   /**
+    * Returns the server owning the key according to the consistent hash, or the next server chosen by the balancer if
+    * the consistent hash is not known yet.
+    */
+   public SocketAddress getServer(byte[] key) {
       SocketAddress server;
       synchronized (lock) {
          if (consistentHash != null) {
@@ -181,7 +196,28 @@ public Transport getTransport(byte[] key) {
             }
          }
       }
-      return borrowTransportFromPool(server);
+      return server;
+   }
+
+   @Override
+   public Map<SocketAddress, List<byte[]>> groupKeysByServer(Collection<byte[]> keys) {
+      Map<SocketAddress, List<byte[]>> groups = new HashMap<SocketAddress, List<byte[]>>();
+      synchronized (lock) {
+         if (consistentHash == null) {
+            groups.put(balancer.nextServer(), new ArrayList<byte[]>(keys));
+            return groups;
+         }
+         for (byte[] key : keys) {
+            SocketAddress server = consistentHash.getServer(key);
+            List<byte[]> group = groups.get(server);
+            if (group == null) {
+               group = new ArrayList<byte[]>();
+               groups.put(server, group);
+            }
+            group.add(key);
+         }
+      }
+      return groups;
    }
 
    @Override
@@ -125,4 +125,11 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Cannot configure custom KeyStore and/or TrustStore when specifying a SSLContext", id = 4027)
    CacheConfigurationException xorSSLContext();
+
+   @Message(value = "The number of multiplexed connections per server must not be negative, but was %d", id = 4028)
+   CacheConfigurationException invalidMultiplexedConnections(int multiplexedConnections);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Closing multiplexed connection to server %s and failing its %d outstanding requests", id = 4029)
+   void closingMultiplexedConnection(SocketAddress serverAddress, int outstandingRequests, @Cause Throwable cause);
 }
@@ -42,6 +42,7 @@ public void testConfiguration() {
          .socketTimeout(100)
          .tcpNoDelay(false)
          .pingOnStartup(false)
+         .multiplexedConnections(4)
          .keySizeEstimate(128)
          .valueSizeEstimate(1024)
          .transportFactory(SomeTransportfactory.class);
@@ -77,6 +78,7 @@ private void validateConfiguration(Configuration configuration) {
       assertEquals(100, configuration.socketTimeout());
       assertFalse(configuration.tcpNoDelay());
       assertFalse(configuration.pingOnStartup());
+      assertEquals(4, configuration.multiplexedConnections());
       assertEquals(128, configuration.keySizeEstimate());
       assertEquals(1024, configuration.valueSizeEstimate());
    }
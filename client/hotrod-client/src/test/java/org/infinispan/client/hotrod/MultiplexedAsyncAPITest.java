@@ -0,0 +1,105 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests asynchronous operations pipelined over a single multiplexed connection.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.MultiplexedAsyncAPITest")
+public class MultiplexedAsyncAPITest extends SingleCacheManagerTest {
+   private static final int NUM_KEYS = 1000;
+
+   private HotRodServer hotrodServer;
+   private RemoteCacheManager rcm;
+   private RemoteCache<String, String> c;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createCacheManager(
+            hotRodCacheConfiguration());
+   }
+
+   @Override
+   protected void setup() throws Exception {
+      super.setup();
+      hotrodServer = TestHelper.startHotRodServer(cacheManager);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort())
+            .forceReturnValues(true)
+            .multiplexedConnections(1);
+      rcm = new RemoteCacheManager(builder.build());
+      c = rcm.getCache(true);
+   }
+
+   @AfterClass
+   @Override
+   protected void destroyAfterClass() {
+      super.destroyAfterClass();
+      killRemoteCacheManager(rcm);
+      killServers(hotrodServer);
+   }
+
+   public void testPipelinedPutsAndGets() throws Exception {
+      List<Future<String>> puts = new ArrayList<Future<String>>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         puts.add(c.putAsync("k" + i, "v" + i));
+      }
+      for (Future<String> f : puts) {
+         assertNull(f.get(10, TimeUnit.SECONDS));
+      }
+
+      List<Future<String>> gets = new ArrayList<Future<String>>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         gets.add(c.getAsync("k" + i));
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, gets.get(i).get(10, TimeUnit.SECONDS));
+      }
+
+      List<Future<String>> removes = new ArrayList<Future<String>>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         removes.add(c.removeAsync("k" + i));
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, removes.get(i).get(10, TimeUnit.SECONDS));
+      }
+      assertNull(c.get("k0"));
+   }
+
+   public void testListenerNotified() throws Exception {
+      final CountDownLatch latch = new CountDownLatch(1);
+      NotifyingFuture<String> f = c.putAsync("listened", "v");
+      f.attachListener(new FutureListener<String>() {
+         @Override
+         public void futureDone(Future<String> future) {
+            latch.countDown();
+         }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertTrue(f.isDone());
+      assertEquals("v", c.getAsync("listened").get());
+   }
+}
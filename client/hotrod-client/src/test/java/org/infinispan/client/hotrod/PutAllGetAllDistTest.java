@@ -0,0 +1,64 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.test.MultiHotRodServersTest;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that putAll and getAll split the keys by owner and send a single request to each server.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.PutAllGetAllDistTest")
+public class PutAllGetAllDistTest extends MultiHotRodServersTest {
+   private static final int NUM_SERVERS = 3;
+   private static final int NUM_KEYS = 1000;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = hotRodCacheConfiguration(
+            getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false));
+      builder.clustering().hash().numOwners(1);
+      createHotRodServers(NUM_SERVERS, builder);
+   }
+
+   public void testPutAllAndGetAll() {
+      RemoteCache<String, String> remoteCache = client(0).getCache();
+      // Receive the consistent hash before grouping the keys
+      remoteCache.put("k-1", "v-1");
+
+      Map<String, String> data = new HashMap<String, String>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         data.put("k" + i, "v" + i);
+      }
+      remoteCache.putAll(data);
+
+      for (int i = 0; i < NUM_SERVERS; i++) {
+         assertTrue("No entries stored on server " + i, cache(i).getAdvancedCache().getDataContainer().size() > 0);
+      }
+      assertEquals("v0", remoteCache.get("k0"));
+      assertNotNull(remoteCache.getVersioned("k" + (NUM_KEYS - 1)));
+
+      Set<String> keys = new HashSet<String>(data.keySet());
+      keys.add("missing");
+      Map<String, String> values = remoteCache.getAll(keys);
+      assertEquals(data, values);
+   }
+
+   public void testEmptyPutAllAndGetAll() {
+      RemoteCache<String, String> remoteCache = client(0).getCache();
+      remoteCache.putAll(new HashMap<String, String>());
+      assertTrue(remoteCache.getAll(new HashSet<String>()).isEmpty());
+   }
+}
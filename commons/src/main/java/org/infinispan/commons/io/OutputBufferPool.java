@@ -0,0 +1,170 @@
+package org.infinispan.commons.io;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-thread pool of {@link ExposedByteArrayOutputStream}s used as scratch space when marshalling, so that the
+ * internal buffer is not allocated, and then grown, for every marshalled object.
+ * <p/>
+ * Buffers are pooled in size classes (512 bytes, 4KB, 32KB and 256KB), and every thread keeps at most one buffer per
+ * size class. A buffer that is already in use by the same thread, e.g. because an externalizer marshals a nested
+ * object, is never handed out twice: the nested call gets a buffer from a bigger size class or a new one. Buffers
+ * that grew beyond {@link #MAX_POOLED_CAPACITY} are not pooled, so that a single big object does not pin a big array
+ * to the thread forever.
+ * <p/>
+ * The contents of a pooled buffer are overwritten as soon as the buffer is released, so the marshalled bytes must be
+ * copied out before calling {@link #release(ExposedByteArrayOutputStream)}.
+ * <p/>
+ * The pooled buffers are dropped by {@link #clear()}, so that the threads of a container do not keep them, and this
+ * class loader, alive once the cache managers using them have stopped.
+ *
+ * @since 6.0
+ */
+public final class OutputBufferPool {
+
+   private static final int MIN_SIZE_CLASS_BITS = 9; // 512 bytes
+   private static final int SIZE_CLASS_SHIFT = 3;
+   private static final int NUM_SIZE_CLASSES = 4;
+   private static final int MAX_SIZE_CLASS = sizeClass(NUM_SIZE_CLASSES - 1);
+
+   /**
+    * Buffers whose capacity is larger than this are discarded instead of being returned to the pool.
+    */
+   public static final int MAX_POOLED_CAPACITY = MAX_SIZE_CLASS << 2;
+
+   /**
+    * The pools of all the threads, so that {@link #clear()} can empty them. They are plain object arrays so that an
+    * emptied pool left in a thread does not reference any class of this class loader.
+    */
+   private static final Set<Object[]> POOLS = Collections.synchronizedSet(
+         Collections.newSetFromMap(new WeakHashMap<Object[], Boolean>()));
+
+   private static final ThreadLocal<Object[]> POOL = new ThreadLocal<Object[]>() {
+      @Override
+      protected Object[] initialValue() {
+         Object[] pool = new Object[NUM_SIZE_CLASSES];
+         POOLS.add(pool);
+         return pool;
+      }
+   };
+
+   private static final AtomicLong acquisitions = new AtomicLong();
+   private static final AtomicLong allocations = new AtomicLong();
+   private static final AtomicLong allocatedBytes = new AtomicLong();
+
+   private OutputBufferPool() {
+   }
+
+   /**
+    * @param estimatedSize the expected number of bytes to be written
+    * @return an empty buffer with a capacity of at least {@code estimatedSize} bytes, that must be given back with
+    *         {@link #release(ExposedByteArrayOutputStream)}
+    */
+   public static ExposedByteArrayOutputStream acquire(int estimatedSize) {
+      acquisitions.incrementAndGet();
+      if (estimatedSize > MAX_SIZE_CLASS) {
+         return allocate(estimatedSize);
+      }
+      Object[] pool = POOL.get();
+      int sizeClass = sizeClassFor(estimatedSize);
+      for (int i = sizeClass; i < NUM_SIZE_CLASSES; i++) {
+         ExposedByteArrayOutputStream buffer = (ExposedByteArrayOutputStream) pool[i];
+         if (buffer != null) {
+            pool[i] = null;
+            buffer.reset();
+            return buffer;
+         }
+      }
+      return allocate(sizeClass(sizeClass));
+   }
+
+   /**
+    * Returns a buffer obtained with {@link #acquire(int)} to the pool of the current thread.
+    */
+   public static void release(ExposedByteArrayOutputStream buffer) {
+      int capacity = buffer.getRawBuffer().length;
+      if (capacity < sizeClass(0) || capacity > MAX_POOLED_CAPACITY) {
+         return;
+      }
+      // the biggest size class the buffer can serve
+      int sizeClass = NUM_SIZE_CLASSES - 1;
+      while (sizeClass(sizeClass) > capacity) {
+         sizeClass--;
+      }
+      Object[] pool = POOL.get();
+      if (pool[sizeClass] == null) {
+         pool[sizeClass] = buffer;
+      }
+   }
+
+   /**
+    * @return a copy of the bytes written to the buffer, with no trailing space
+    */
+   public static byte[] toByteArray(ExposedByteArrayOutputStream buffer) {
+      byte[] bytes = new byte[buffer.size()];
+      System.arraycopy(buffer.getRawBuffer(), 0, bytes, 0, bytes.length);
+      return bytes;
+   }
+
+   /**
+    * @return the number of buffers requested from the pool since the last reset
+    */
+   public static long getAcquisitions() {
+      return acquisitions.get();
+   }
+
+   /**
+    * @return the number of requests that could not be served by a pooled buffer since the last reset
+    */
+   public static long getAllocations() {
+      return allocations.get();
+   }
+
+   /**
+    * @return the total size of the buffers allocated because no pooled buffer was available, since the last reset
+    */
+   public static long getAllocatedBytes() {
+      return allocatedBytes.get();
+   }
+
+   /**
+    * Drops the buffers pooled by all the threads. A buffer released concurrently by another thread may still be kept
+    * until that thread acquires it again.
+    */
+   public static void clear() {
+      synchronized (POOLS) {
+         for (Object[] pool : POOLS) {
+            Arrays.fill(pool, null);
+         }
+      }
+      POOL.remove();
+   }
+
+   public static void resetStatistics() {
+      acquisitions.set(0);
+      allocations.set(0);
+      allocatedBytes.set(0);
+   }
+
+   private static ExposedByteArrayOutputStream allocate(int size) {
+      allocations.incrementAndGet();
+      allocatedBytes.addAndGet(size);
+      return new ExposedByteArrayOutputStream(size);
+   }
+
+   private static int sizeClass(int index) {
+      return 1 << (MIN_SIZE_CLASS_BITS + index * SIZE_CLASS_SHIFT);
+   }
+
+   private static int sizeClassFor(int size) {
+      int index = 0;
+      while (sizeClass(index) < size) {
+         index++;
+      }
+      return index;
+   }
+}
@@ -0,0 +1,44 @@
+package org.infinispan.commons.marshall;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests an {@link AdvancedExternalizer} for the annotated class to be generated at build time by
+ * {@link org.infinispan.commons.marshall.apt.ExternalizerProcessor}, as an alternative to writing one by hand or to
+ * letting JBoss Marshalling serialize the class reflectively.
+ * <p/>
+ * The generated externalizer writes every non-static, non-transient field declared by the class, in declaration
+ * order, without using reflection. {@code int}, {@code long} and {@code char} fields are written as variable length
+ * numbers with {@link org.infinispan.commons.io.UnsignedNumeric}, and references are written with
+ * {@link java.io.ObjectOutput#writeObject(Object)}. The annotated class must therefore:
+ * <ul>
+ *    <li>be a top level or static nested class, not private and not generic</li>
+ *    <li>have a non-private constructor with no arguments</li>
+ *    <li>only declare non-private, non-final instance fields, and not rely on fields of its superclasses</li>
+ * </ul>
+ * The externalizer is generated in the package of the annotated class, and it is listed in a
+ * {@code META-INF/services/org.infinispan.commons.marshall.AdvancedExternalizer} file so that it's registered
+ * automatically when a cache manager starts. The processor is not enabled by default, it has to be passed to the
+ * compiler, e.g. with {@code -processor org.infinispan.commons.marshall.apt.ExternalizerProcessor} or with the
+ * {@code annotationProcessors} option of the Maven compiler plugin.
+ *
+ * @since 6.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface GenerateExternalizer {
+
+   /**
+    * The identifier of the generated externalizer. Like the identifier of any user defined externalizer, it must be
+    * positive and unique.
+    *
+    * @return the externalizer identifier
+    */
+   int id();
+
+}
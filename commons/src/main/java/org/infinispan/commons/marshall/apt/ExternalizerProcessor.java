@@ -0,0 +1,245 @@
+package org.infinispan.commons.marshall.apt;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.GenerateExternalizer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates an {@link AdvancedExternalizer} for every class annotated with
+ * {@link GenerateExternalizer}, and lists the generated externalizers in
+ * {@code META-INF/services/org.infinispan.commons.marshall.AdvancedExternalizer}.
+ * <p/>
+ * The externalizer of class {@code Outer.Inner} in package {@code p} is named {@code p.Outer$Inner$$Externalizer}.
+ *
+ * @since 6.0
+ */
+@SupportedAnnotationTypes("org.infinispan.commons.marshall.GenerateExternalizer")
+public class ExternalizerProcessor extends AbstractProcessor {
+
+   static final String SUFFIX = "$$Externalizer";
+   static final String SERVICE_FILE = "META-INF/services/" + AdvancedExternalizer.class.getName();
+
+   // generated externalizer class name -> annotated type
+   private final Map<String, TypeElement> generated = new LinkedHashMap<String, TypeElement>();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(GenerateExternalizer.class)) {
+         if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@GenerateExternalizer can only be applied to classes");
+            continue;
+         }
+         TypeElement type = (TypeElement) element;
+         if (!isValid(type)) {
+            continue;
+         }
+         try {
+            generated.put(generateExternalizer(type), type);
+         } catch (IOException e) {
+            error(type, "Unable to generate the externalizer: " + e);
+         }
+      }
+      if (roundEnv.processingOver() && !generated.isEmpty()) {
+         try {
+            writeServiceFile();
+         } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + SERVICE_FILE + ": " + e);
+         }
+      }
+      return true;
+   }
+
+   private boolean isValid(TypeElement type) {
+      boolean valid = true;
+      Set<Modifier> modifiers = type.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT)) {
+         valid = error(type, "Classes with a generated externalizer must not be private or abstract");
+      }
+      if (type.getNestingKind() != NestingKind.TOP_LEVEL
+            && (type.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC))) {
+         valid = error(type, "Classes with a generated externalizer must be top level or static nested classes");
+      }
+      if (!type.getTypeParameters().isEmpty()) {
+         valid = error(type, "Classes with a generated externalizer must not be generic");
+      }
+      if (type.getAnnotation(GenerateExternalizer.class).id() < 0) {
+         valid = error(type, "The externalizer identifier must be positive");
+      }
+      boolean hasConstructor = false;
+      for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+         if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            hasConstructor = true;
+         }
+      }
+      if (!hasConstructor) {
+         valid = error(type, "Classes with a generated externalizer must have a non-private constructor with no arguments");
+      }
+      for (VariableElement field : getFields(type)) {
+         if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+            valid = error(field, "Fields written by a generated externalizer must not be private or final");
+         }
+      }
+      return valid;
+   }
+
+   private List<VariableElement> getFields(TypeElement type) {
+      List<VariableElement> fields = new ArrayList<VariableElement>();
+      for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+         Set<Modifier> modifiers = field.getModifiers();
+         if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)) {
+            fields.add(field);
+         }
+      }
+      return fields;
+   }
+
+   private String generateExternalizer(TypeElement type) throws IOException {
+      String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+      String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+      String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+      String typeName = type.getQualifiedName().toString();
+      int id = type.getAnnotation(GenerateExternalizer.class).id();
+
+      JavaFileObject source = processingEnv.getFiler().createSourceFile(className, type);
+      PrintWriter out = new PrintWriter(source.openWriter());
+      try {
+         if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+         }
+         out.println("/**");
+         out.println(" * Externalizer for {@link " + typeName + "}, generated by " + getClass().getName() + ".");
+         out.println(" */");
+         out.println("public final class " + simpleName + " extends org.infinispan.commons.marshall.AbstractExternalizer<" + typeName + "> {");
+         out.println();
+         out.println("   @Override");
+         out.println("   public java.util.Set<Class<? extends " + typeName + ">> getTypeClasses() {");
+         out.println("      return java.util.Collections.<Class<? extends " + typeName + ">>singleton(" + typeName + ".class);");
+         out.println("   }");
+         out.println();
+         out.println("   @Override");
+         out.println("   public Integer getId() {");
+         out.println("      return " + id + ";");
+         out.println("   }");
+         out.println();
+         out.println("   @Override");
+         out.println("   public void writeObject(java.io.ObjectOutput output, " + typeName + " object) throws java.io.IOException {");
+         for (VariableElement field : getFields(type)) {
+            out.println("      " + writeStatement(field));
+         }
+         out.println("   }");
+         out.println();
+         out.println("   @Override");
+         out.println("   @SuppressWarnings(\"unchecked\")");
+         out.println("   public " + typeName + " readObject(java.io.ObjectInput input) throws java.io.IOException, ClassNotFoundException {");
+         out.println("      " + typeName + " object = new " + typeName + "();");
+         for (VariableElement field : getFields(type)) {
+            out.println("      " + readStatement(field));
+         }
+         out.println("      return object;");
+         out.println("   }");
+         out.println("}");
+      } finally {
+         out.close();
+      }
+      return className;
+   }
+
+   private String writeStatement(VariableElement field) {
+      String value = "object." + field.getSimpleName();
+      switch (field.asType().getKind()) {
+         case BOOLEAN:
+            return "output.writeBoolean(" + value + ");";
+         case BYTE:
+            return "output.writeByte(" + value + ");";
+         case SHORT:
+            return "output.writeShort(" + value + ");";
+         case CHAR:
+            return "org.infinispan.commons.io.UnsignedNumeric.writeUnsignedInt(output, " + value + ");";
+         case INT:
+            // zig-zag encoding, so that small negative numbers are short too
+            return "org.infinispan.commons.io.UnsignedNumeric.writeUnsignedInt(output, (" + value + " << 1) ^ (" + value + " >> 31));";
+         case LONG:
+            return "org.infinispan.commons.io.UnsignedNumeric.writeUnsignedLong(output, (" + value + " << 1) ^ (" + value + " >> 63));";
+         case FLOAT:
+            return "output.writeFloat(" + value + ");";
+         case DOUBLE:
+            return "output.writeDouble(" + value + ");";
+         default:
+            return "output.writeObject(" + value + ");";
+      }
+   }
+
+   private String readStatement(VariableElement field) {
+      String target = "object." + field.getSimpleName() + " = ";
+      switch (field.asType().getKind()) {
+         case BOOLEAN:
+            return target + "input.readBoolean();";
+         case BYTE:
+            return target + "input.readByte();";
+         case SHORT:
+            return target + "input.readShort();";
+         case CHAR:
+            return target + "(char) org.infinispan.commons.io.UnsignedNumeric.readUnsignedInt(input);";
+         case INT:
+            return "{ int v = org.infinispan.commons.io.UnsignedNumeric.readUnsignedInt(input); " + target + "(v >>> 1) ^ -(v & 1); }";
+         case LONG:
+            return "{ long v = org.infinispan.commons.io.UnsignedNumeric.readUnsignedLong(input); " + target + "(v >>> 1) ^ -(v & 1); }";
+         case FLOAT:
+            return target + "input.readFloat();";
+         case DOUBLE:
+            return target + "input.readDouble();";
+         default:
+            String fieldType = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+            return target + "(" + fieldType + ") input.readObject();";
+      }
+   }
+
+   private void writeServiceFile() throws IOException {
+      Element[] originatingElements = generated.values().toArray(new Element[generated.size()]);
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE,
+                                                                originatingElements);
+      PrintWriter out = new PrintWriter(file.openWriter());
+      try {
+         for (String className : generated.keySet()) {
+            out.println(className);
+         }
+      } finally {
+         out.close();
+      }
+   }
+
+   private boolean error(Element element, String message) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+      return false;
+   }
+}
@@ -2,6 +2,7 @@
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.OutputBufferPool;
 import org.infinispan.commons.logging.BasicLogFactory;
 import org.infinispan.commons.marshall.AbstractMarshaller;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -79,14 +80,18 @@ final public void objectToObjectStream(final Object obj, final ObjectOutput out)
 
    @Override
    final protected ByteBuffer objectToBuffer(final Object o, final int estimatedSize) throws IOException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+      ExposedByteArrayOutputStream baos = OutputBufferPool.acquire(estimatedSize);
       try {
-         objectToObjectStream(o, marshaller);
+         ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+         try {
+            objectToObjectStream(o, marshaller);
+         } finally {
+            finishObjectOutput(marshaller);
+         }
+         return new ByteBuffer(OutputBufferPool.toByteArray(baos), 0, baos.size());
       } finally {
-         finishObjectOutput(marshaller);
+         OutputBufferPool.release(baos);
       }
-      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
@@ -0,0 +1,132 @@
+package org.infinispan.commons.util.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link NotifyingFuture} that is completed explicitly, typically from a callback, instead of wrapping the
+ * {@link java.util.concurrent.Future} of a task running in another thread. The listeners are notified by the thread
+ * that completes the future, so they must not block.
+ * <p/>
+ * Futures are composed by attaching a listener that completes the next future, e.g. with
+ * {@link #completeWith(java.util.concurrent.Future)}.
+ *
+ * @since 6.0
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private volatile boolean done;
+   private volatile boolean cancelled;
+   private T value;
+   private Throwable failure;
+
+   /**
+    * @return a future already completed with the given value.
+    */
+   public static <T> CompletableNotifyingFuture<T> completed(T value) {
+      CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      future.complete(value);
+      return future;
+   }
+
+   /**
+    * @return a future already completed with the given failure.
+    */
+   public static <T> CompletableNotifyingFuture<T> failed(Throwable failure) {
+      CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      future.completeExceptionally(failure);
+      return future;
+   }
+
+   /**
+    * @return false if the future was already completed
+    */
+   public boolean complete(T value) {
+      return finish(value, null, false);
+   }
+
+   /**
+    * @return false if the future was already completed
+    */
+   public boolean completeExceptionally(Throwable failure) {
+      return finish(null, failure, false);
+   }
+
+   /**
+    * Completes this future with the outcome of another future, which must be done.
+    *
+    * @return false if the future was already completed
+    */
+   public boolean completeWith(java.util.concurrent.Future<? extends T> future) {
+      try {
+         return complete(future.get());
+      } catch (ExecutionException e) {
+         return completeExceptionally(e.getCause());
+      } catch (CancellationException e) {
+         return completeExceptionally(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return completeExceptionally(e);
+      }
+   }
+
+   private boolean finish(T value, Throwable failure, boolean cancel) {
+      synchronized (this) {
+         if (done) {
+            return false;
+         }
+         this.value = value;
+         this.failure = failure;
+         this.cancelled = cancel;
+         this.done = true;
+      }
+      latch.countDown();
+      notifyDone();
+      return true;
+   }
+
+   /**
+    * The operation is not interrupted, but its outcome is ignored.
+    */
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      return finish(null, new CancellationException(), true);
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return done;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return result();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit)) {
+         throw new TimeoutException();
+      }
+      return result();
+   }
+
+   private synchronized T result() throws ExecutionException {
+      if (failure instanceof CancellationException) {
+         throw (CancellationException) failure;
+      } else if (failure != null) {
+         throw new ExecutionException(failure);
+      }
+      return value;
+   }
+}
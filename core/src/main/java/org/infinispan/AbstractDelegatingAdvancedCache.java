@@ -21,6 +21,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Similar to {@link org.infinispan.AbstractDelegatingCache}, but for {@link AdvancedCache}.
@@ -181,6 +183,21 @@ public CacheEntry getCacheEntry(K key) {
       return cache.getCacheEntry(key);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      return cache.getAll(keys);
+   }
+
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<? extends K> keys) {
+      return cache.getAllAsync(keys);
+   }
+
+   @Override
+   public <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return cache.invoke(key, processor);
+   }
+
    @Override
    public V put(K key, V value, Metadata metadata) {
       return cache.put(key, value, metadata);
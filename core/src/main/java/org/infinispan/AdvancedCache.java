@@ -21,6 +21,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -377,4 +379,43 @@
     */
    CacheEntry getCacheEntry(K key);
 
+   /**
+    * Retrieves the values of several keys at once. In a distributed cache, the keys that are not available locally
+    * are grouped by owner, and each owner is asked for all its keys with a single remote call, the calls to the
+    * different owners being sent in parallel.
+    *
+    * @param keys the keys whose values are to be returned
+    * @return a map of the keys that exist in the cache to their values
+    *
+    * @since 6.0
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
+   /**
+    * Asynchronous version of {@link #getAll(java.util.Set)}.
+    *
+    * @param keys the keys whose values are to be returned
+    * @return a future containing the map of the keys that exist in the cache to their values
+    *
+    * @since 6.0
+    */
+   NotifyingFuture<Map<K, V>> getAllAsync(Set<? extends K> keys);
+
+   /**
+    * Runs a processor against the entry of a key, on the primary owner of the key and while holding its lock. Only the
+    * result of the processor is sent back, and only the new value of the entry, if the processor changed it, is sent
+    * to the other owners. This is cheaper than reading the value, computing the new one locally and writing it back
+    * with a conditional operation, which may need to be retried.
+    * <p/>
+    * This operation is not supported by transactional caches, nor by caches backed up to other sites.
+    *
+    * @param key the key of the entry to process
+    * @param processor the processor, which must be marshallable in a clustered cache
+    * @return the result returned by the processor
+    * @throws UnsupportedOperationException if the cache is transactional or is backed up to other sites
+    *
+    * @since 6.0
+    */
+   <R> R invoke(K key, EntryProcessor<K, V, R> processor);
+
 }
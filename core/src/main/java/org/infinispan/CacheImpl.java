@@ -6,6 +6,7 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
@@ -13,6 +14,7 @@
 import org.infinispan.commands.write.ApplyDeltaCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.EvictCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -384,6 +386,40 @@ public final CacheEntry getCacheEntry(K key) {
       return getCacheEntry(key, null, null);
    }
 
+   @Override
+   public final Map<K, V> getAll(Set<? extends K> keys) {
+      return getAll(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final Map<K, V> getAll(Set<? extends K> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      for (K key : keys) {
+         assertKeyNotNull(key);
+      }
+      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, keys.size());
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, explicitFlags, false);
+      return (Map<K, V>) invoker.invoke(ctx, command);
+   }
+
+   @Override
+   public final <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return invoke(key, processor, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final <R> R invoke(K key, EntryProcessor<K, V, R> processor, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      assertKeyNotNull(key);
+      if (processor == null)
+         throw new NullPointerException("Null processors are not supported!");
+      if (config.transaction().transactionMode().isTransactional())
+         throw new UnsupportedOperationException("Entry processors are not supported by transactional caches");
+      if (config.sites().hasEnabledBackups())
+         throw new UnsupportedOperationException("Entry processors are not supported by caches backed up to other sites");
+      InvocationContext ctx = getInvocationContextForWrite(explicitClassLoader, 1, false);
+      ProcessEntryCommand command = commandsFactory.buildProcessEntryCommand(key, processor, defaultMetadata, explicitFlags);
+      return (R) invoker.invoke(ctx, command);
+   }
+
    @Override
    public final V remove(Object key) {
       return remove(key, null, null);
@@ -1226,6 +1262,36 @@ public V call() throws Exception {
       }
    }
 
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<? extends K> keys) {
+      return getAllAsync(keys, null, null);
+   }
+
+   NotifyingFuture<Map<K, V>> getAllAsync(final Set<? extends K> keys, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      // Make sure the flags are cleared
+      final EnumSet<Flag> appliedFlags;
+      if (explicitFlags == null) {
+         appliedFlags = null;
+      } else {
+         appliedFlags = explicitFlags.clone();
+         explicitFlags.clear();
+      }
+      final LegacyNotifyingFutureAdaptor<Map<K, V>> f = new LegacyNotifyingFutureAdaptor<Map<K, V>>();
+
+      Callable<Map<K, V>> c = new Callable<Map<K, V>>() {
+         @Override
+         public Map<K, V> call() throws Exception {
+            try {
+               return getAll(keys, appliedFlags, explicitClassLoader);
+            } finally {
+               f.notifyDone();
+            }
+         }
+      };
+      f.setActual(asyncExecutor.submit(c));
+      return f;
+   }
+
    /**
     * Encodes the cases for an asyncGet operation in which it makes sense to actually perform the operation in sync.
     *
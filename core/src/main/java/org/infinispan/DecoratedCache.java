@@ -495,4 +495,19 @@ public CacheEntry getCacheEntry(K key) {
       return cacheImplementation.getCacheEntry(key, flags, classLoader.get());
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      return cacheImplementation.getAll(keys, flags, classLoader.get());
+   }
+
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<? extends K> keys) {
+      return cacheImplementation.getAllAsync(keys, flags, classLoader.get());
+   }
+
+   @Override
+   public <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return cacheImplementation.invoke(key, processor, flags, classLoader.get());
+   }
+
 }
@@ -0,0 +1,50 @@
+package org.infinispan;
+
+/**
+ * Reads and possibly updates a single cache entry, on the node that owns it and while holding the lock of its key.
+ * <p/>
+ * In a clustered cache the processor is sent to the primary owner of the key, so it must be marshallable, and only its
+ * result and the new state of the entry travel back over the network. It may be invoked more than once for the same
+ * call, e.g. when the cache topology changes while it's being processed, so it should not have side effects other than
+ * the changes it makes to the entry.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <R> the type of the result
+ * @see AdvancedCache#invoke(Object, EntryProcessor)
+ * @since 6.0
+ */
+public interface EntryProcessor<K, V, R> {
+
+   /**
+    * @param entry the entry to process, which doesn't need to exist in the cache
+    * @return the result to return to the caller, which must be marshallable in a clustered cache
+    */
+   R process(MutableEntry<K, V> entry);
+
+   /**
+    * The entry passed to an {@link EntryProcessor}. The changes made through it are applied to the cache once the
+    * processor returns, and are discarded if the processor throws an exception.
+    */
+   interface MutableEntry<K, V> {
+
+      K getKey();
+
+      /**
+       * @return the current value of the entry, or {@code null} if it doesn't exist
+       */
+      V getValue();
+
+      boolean exists();
+
+      /**
+       * Creates or replaces the value of the entry.
+       */
+      void setValue(V value);
+
+      /**
+       * Removes the entry from the cache.
+       */
+      void remove();
+   }
+}
@@ -3,6 +3,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
@@ -62,6 +63,11 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
       return handleDefault(ctx, command);
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      return handleDefault(ctx, command);
+   }
+
    // read commands
 
    @Override
@@ -74,6 +80,11 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return handleDefault(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      return handleDefault(ctx, command);
+   }
+
    @Override
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
       return handleDefault(ctx, command);
@@ -7,7 +7,9 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.remote.BatchedRpcCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -113,9 +115,15 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case ApplyDeltaCommand.COMMAND_ID:
                command = new ApplyDeltaCommand();
                break;
+            case ProcessEntryCommand.COMMAND_ID:
+               command = new ProcessEntryCommand();
+               break;
             case CacheTopologyControlCommand.COMMAND_ID:
                command = new CacheTopologyControlCommand();
                break;
+            case BatchedRpcCommand.COMMAND_ID:
+               command = new BatchedRpcCommand();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
@@ -185,6 +193,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case ClusteredGetCommand.COMMAND_ID:
                command = new ClusteredGetCommand(cacheName);
                break;
+            case ClusteredGetAllCommand.COMMAND_ID:
+               command = new ClusteredGetAllCommand(cacheName);
+               break;
             case StateRequestCommand.COMMAND_ID:
                command = new StateRequestCommand(cacheName);
                break;
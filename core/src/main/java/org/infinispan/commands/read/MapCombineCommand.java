@@ -31,6 +31,8 @@
    private String taskId;
    private boolean reducePhaseDistributed;
    private boolean emitCompositeIntermediateKeys;
+   private int mapParallelism = 1;
+   private int maxCollectorSize;
    private MapReduceManager mrManager;
    private UUID uuid;
 
@@ -89,6 +91,29 @@ public void setReducePhaseDistributed(boolean reducePhaseDistributed) {
       this.reducePhaseDistributed = reducePhaseDistributed;
    }
 
+   /**
+    * @return the number of threads mapping the local entries when no input keys are specified
+    */
+   public int getMapParallelism() {
+      return mapParallelism;
+   }
+
+   public void setMapParallelism(int mapParallelism) {
+      this.mapParallelism = mapParallelism;
+   }
+
+   /**
+    * @return the number of intermediate values kept in memory before they are spilled to disk, or 0 if they are never
+    *         spilled
+    */
+   public int getMaxCollectorSize() {
+      return maxCollectorSize;
+   }
+
+   public void setMaxCollectorSize(int maxCollectorSize) {
+      this.maxCollectorSize = maxCollectorSize;
+   }
+
    public Set<KIn> getKeys() {
       return keys;
    }
@@ -118,7 +143,7 @@ public UUID getUUID() {
    @Override
    public Object[] getParameters() {
       return new Object[] { taskId, keys, mapper, combiner, reducePhaseDistributed,
-               emitCompositeIntermediateKeys, uuid };
+               emitCompositeIntermediateKeys, mapParallelism, maxCollectorSize, uuid };
    }
 
    @SuppressWarnings("unchecked")
@@ -133,6 +158,8 @@ public void setParameters(int commandId, Object[] args) {
       combiner = (Reducer<KOut,VOut>) args[i++];
       reducePhaseDistributed = (Boolean) args[i++];
       emitCompositeIntermediateKeys = (Boolean) args[i++];
+      mapParallelism = (Integer) args[i++];
+      maxCollectorSize = (Integer) args[i++];
       uuid = (UUID) args[i++];
    }
 
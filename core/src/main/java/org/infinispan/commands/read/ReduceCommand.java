@@ -28,6 +28,7 @@
    private Reducer<KOut, VOut> reducer;
    private String taskId;
    private boolean emitCompositeIntermediateKeys;
+   private String resultCacheName;
    private MapReduceManager mrManager;
    private UUID uuid;
 
@@ -59,7 +60,7 @@ public void init(MapReduceManager mrManager) {
     * 
     * @param context
     *           invocation context
-    * @return Map of intermediate key value pairs
+    * @return Map of reduced key value pairs, empty if they were stored in the result cache
     */
    @Override
    public Object perform(InvocationContext context) throws Throwable {
@@ -74,6 +75,17 @@ public void setEmitCompositeIntermediateKeys(boolean emitCompositeIntermediateKe
       this.emitCompositeIntermediateKeys = emitCompositeIntermediateKeys;
    }
 
+   /**
+    * @return the name of the cache the reduced values are stored in, or null if they are returned to the master node
+    */
+   public String getResultCacheName() {
+      return resultCacheName;
+   }
+
+   public void setResultCacheName(String resultCacheName) {
+      this.resultCacheName = resultCacheName;
+   }
+
    public Set<KOut> getKeys() {
       return keys;
    }
@@ -98,7 +110,7 @@ public UUID getUUID() {
 
    @Override
    public Object[] getParameters() {
-      return new Object[] { taskId, keys, reducer, emitCompositeIntermediateKeys, uuid };
+      return new Object[] { taskId, keys, reducer, emitCompositeIntermediateKeys, resultCacheName, uuid };
    }
 
    @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -111,6 +123,7 @@ public void setParameters(int commandId, Object[] args) {
       keys = (Set<KOut>) args[i++];
       reducer = (Reducer) args[i++];
       emitCompositeIntermediateKeys = (Boolean) args[i++];
+      resultCacheName = (String) args[i++];
       uuid = (UUID) args[i++];
    }
 
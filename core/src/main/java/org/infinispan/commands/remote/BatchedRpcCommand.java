@@ -0,0 +1,92 @@
+package org.infinispan.commands.remote;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.context.InvocationContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Envelope used by the transport to send several commands to the same node in a single message. Unlike
+ * {@link MultipleRpcCommand}, the commands may target different caches (or no cache at all) and each of them gets its
+ * own response: the receiving {@link org.infinispan.remoting.transport.jgroups.CommandAwareRpcDispatcher} unpacks the
+ * envelope, handles every command as if it had been sent on its own and replies with an array holding the response of
+ * each command, in the order of {@link #getCommands()}.
+ * <p/>
+ * This is not a {@link org.infinispan.commands.VisitableCommand} and it is never performed directly.
+ *
+ * @see org.infinispan.remoting.transport.jgroups.RpcBatcher
+ * @since 6.0
+ */
+public class BatchedRpcCommand implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = 41;
+
+   private ReplicableCommand[] commands;
+
+   public BatchedRpcCommand() {
+   }
+
+   public BatchedRpcCommand(List<ReplicableCommand> commands) {
+      this.commands = commands.toArray(new ReplicableCommand[commands.size()]);
+   }
+
+   public ReplicableCommand[] getCommands() {
+      return commands;
+   }
+
+   /**
+    * The envelope is unpacked by the transport, so this method is never invoked.
+    */
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new UnsupportedOperationException("Batched commands must be unpacked by the transport");
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      int numCommands = commands.length;
+      Object[] retval = new Object[numCommands];
+      System.arraycopy(commands, 0, retval, 0, numCommands);
+      return retval;
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] args) {
+      int numCommands = args == null ? 0 : args.length;
+      commands = new ReplicableCommand[numCommands];
+      if (numCommands > 0) System.arraycopy(args, 0, commands, 0, numCommands);
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      for (ReplicableCommand command : commands) {
+         if (command.isReturnValueExpected()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      for (ReplicableCommand command : commands) {
+         if (command.canBlock()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return "BatchedRpcCommand{" +
+            "commands=" + (commands == null ? null : Arrays.asList(commands)) +
+            '}';
+   }
+}
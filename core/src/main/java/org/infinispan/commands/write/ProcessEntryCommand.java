@@ -0,0 +1,279 @@
+package org.infinispan.commands.write;
+
+import org.infinispan.EntryProcessor;
+import org.infinispan.commands.MetadataAwareCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.io.MarshalledValueByteStream;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+
+import java.util.Set;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+/**
+ * Implements functionality defined by {@link org.infinispan.AdvancedCache#invoke(Object, EntryProcessor)}.
+ * <p/>
+ * The processor is run against the entry wrapped in the invocation context, so on the primary owner it runs while the
+ * key is locked. Only the resulting change is sent to the other owners, as the command returned by
+ * {@link #createBackupCommand()}, so the processor is never invoked on the backup owners.
+ *
+ * @since 6.0
+ */
+public class ProcessEntryCommand extends AbstractDataWriteCommand implements MetadataAwareCommand {
+   public static final byte COMMAND_ID = 42;
+
+   private EntryProcessor processor;
+   private Metadata metadata;
+   private CacheNotifier notifier;
+   private transient StreamingMarshaller valueMarshaller;
+
+   private transient boolean successful;
+   private transient boolean removal;
+   private transient Object previousValue;
+   private transient Object newValue;
+
+   public ProcessEntryCommand() {
+   }
+
+   public ProcessEntryCommand(Object key, EntryProcessor processor, CacheNotifier notifier, Metadata metadata,
+                              Set<Flag> flags) {
+      super(key, flags);
+      this.processor = processor;
+      this.notifier = notifier;
+      this.metadata = metadata;
+   }
+
+   public void init(CacheNotifier notifier) {
+      this.notifier = notifier;
+   }
+
+   public EntryProcessor getProcessor() {
+      return processor;
+   }
+
+   /**
+    * When the values are stored as binary, sets the marshaller used to wrap the new value in a {@link MarshalledValue}
+    * and to give the processor a copy of the current value, which it may modify without altering the stored one.
+    */
+   public void setValueMarshaller(StreamingMarshaller valueMarshaller) {
+      this.valueMarshaller = valueMarshaller;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitProcessEntryCommand(ctx, this);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object perform(InvocationContext ctx) throws Throwable {
+      successful = false;
+      removal = false;
+      previousValue = null;
+      newValue = null;
+      MVCCEntry e = (MVCCEntry) ctx.lookupEntry(key);
+      //possible as in certain situations (e.g. when locking delegation is used) we don't wrap
+      if (e == null) return null;
+
+      Object entryValue = e.isRemoved() ? null : e.getValue();
+      previousValue = entryValue;
+      Object entryKey = key instanceof MarshalledValue ? ((MarshalledValue) key).get() : key;
+      Entry entry = new Entry(entryKey, copy(entryValue));
+      Object result = processor.process(entry);
+
+      if (entry.removed) {
+         if (entryValue != null) {
+            notifier.notifyCacheEntryRemoved(key, entryValue, entryValue, true, ctx, this);
+            e.setRemoved(true);
+            e.setValid(false);
+            e.setChanged(true);
+            successful = true;
+            removal = true;
+         }
+      } else if (entry.updated) {
+         notifier.notifyCacheEntryModified(key, entryValue, entryValue == null, true, ctx, this);
+         newValue = wrap(entry.value, ctx);
+         e.setValue(newValue);
+         if (e.isRemoved()) {
+            e.setRemoved(false);
+            e.setValid(true);
+         }
+         e.setChanged(true);
+         successful = true;
+      }
+      return result;
+   }
+
+   /**
+    * @return the command applying on the backup owners the change made by the processor, or {@code null} if the
+    *         command was not performed locally or if the processor didn't change the entry
+    */
+   public DataWriteCommand createBackupCommand() {
+      if (!successful) return null;
+      AbstractDataWriteCommand backup = removal
+            ? new RemoveCommand(key, null, notifier, flags)
+            : new PutKeyValueCommand(key, newValue, false, notifier, metadata, flags);
+      backup.setTopologyId(getTopologyId());
+      return backup;
+   }
+
+   /**
+    * @return true if the processor removed the entry
+    */
+   public boolean isRemoval() {
+      return removal;
+   }
+
+   /**
+    * @return the value of the entry before it was processed, which may be wrapped in a {@link MarshalledValue}
+    */
+   public Object getPreviousValue() {
+      return previousValue;
+   }
+
+   /**
+    * @return the value set by the processor, which may be wrapped in a {@link MarshalledValue}
+    */
+   public Object getNewValue() {
+      return newValue;
+   }
+
+   private Object copy(Object value) throws Exception {
+      if (!(value instanceof MarshalledValue)) return value;
+      MarshalledValue mv = (MarshalledValue) value;
+      if (valueMarshaller == null) return mv.get();
+      MarshalledValueByteStream raw = mv.getRaw();
+      return valueMarshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
+   }
+
+   private Object wrap(Object value, InvocationContext ctx) {
+      if (valueMarshaller == null || MarshalledValue.isTypeExcluded(value.getClass())) return value;
+      return new MarshalledValue(value, ctx.isOriginLocal(), valueMarshaller);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{key, processor, metadata, Flag.copyWithoutRemotableFlags(flags)};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Invalid method id");
+      key = parameters[0];
+      processor = (EntryProcessor) parameters[1];
+      metadata = (Metadata) parameters[2];
+      flags = (Set<Flag>) parameters[3];
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      return metadata;
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      this.metadata = metadata;
+   }
+
+   @Override
+   public boolean isSuccessful() {
+      return successful;
+   }
+
+   /**
+    * The processor may decide not to change the entry, in which case there's nothing to replicate.
+    */
+   @Override
+   public boolean isConditional() {
+      return true;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      if (!super.equals(o)) return false;
+
+      ProcessEntryCommand that = (ProcessEntryCommand) o;
+
+      if (processor != null ? !processor.equals(that.processor) : that.processor != null) return false;
+      if (metadata != null ? !metadata.equals(that.metadata) : that.metadata != null) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = super.hashCode();
+      result = 31 * result + (processor != null ? processor.hashCode() : 0);
+      result = 31 * result + (metadata != null ? metadata.hashCode() : 0);
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+            .append("ProcessEntryCommand{key=")
+            .append(toStr(key))
+            .append(", processor=").append(processor)
+            .append(", flags=").append(flags)
+            .append(", metadata=").append(metadata)
+            .append(", successful=").append(successful)
+            .append("}")
+            .toString();
+   }
+
+   private static final class Entry implements EntryProcessor.MutableEntry<Object, Object> {
+      private final Object key;
+      private Object value;
+      private boolean updated;
+      private boolean removed;
+
+      Entry(Object key, Object value) {
+         this.key = key;
+         this.value = value;
+      }
+
+      @Override
+      public Object getKey() {
+         return key;
+      }
+
+      @Override
+      public Object getValue() {
+         return value;
+      }
+
+      @Override
+      public boolean exists() {
+         return value != null;
+      }
+
+      @Override
+      public void setValue(Object value) {
+         if (value == null) throw new NullPointerException("Null values are not supported!");
+         this.value = value;
+         updated = true;
+         removed = false;
+      }
+
+      @Override
+      public void remove() {
+         value = null;
+         updated = false;
+         removed = true;
+      }
+   }
+}
@@ -14,14 +14,18 @@ public class AsyncStoreConfiguration {
    private final int modificationQueueSize;
    private long shutdownTimeout;
    private final int threadPoolSize;
+   private final int batchSize;
+   private final long batchDelay;
 
    AsyncStoreConfiguration(boolean enabled, long flushLockTimeout, int modificationQueueSize, long shutdownTimeout,
-         int threadPoolSize) {
+         int threadPoolSize, int batchSize, long batchDelay) {
       this.enabled = enabled;
       this.flushLockTimeout = flushLockTimeout;
       this.modificationQueueSize = modificationQueueSize;
       this.shutdownTimeout = shutdownTimeout;
       this.threadPoolSize = threadPoolSize;
+      this.batchSize = batchSize;
+      this.batchDelay = batchDelay;
    }
 
    /**
@@ -81,6 +85,21 @@ public int threadPoolSize() {
       return threadPoolSize;
    }
 
+   /**
+    * Maximum number of modifications written to the underlying cache store in a single batch.
+    */
+   public int batchSize() {
+      return batchSize;
+   }
+
+   /**
+    * Maximum time in milliseconds to wait for a full batch of modifications before flushing them to the underlying
+    * cache store. 0 means modifications are flushed as soon as they are available.
+    */
+   public long batchDelay() {
+      return batchDelay;
+   }
+
    @Override
    public String toString() {
       return "AsyncLoaderConfiguration{" +
@@ -89,6 +108,8 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", batchSize=" + batchSize +
+            ", batchDelay=" + batchDelay +
             '}';
    }
 
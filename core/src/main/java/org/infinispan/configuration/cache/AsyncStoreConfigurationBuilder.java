@@ -2,6 +2,7 @@
 
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 
 /**
@@ -18,6 +19,8 @@
    private int modificationQueueSize = 1024;
    private long shutdownTimeout = TimeUnit.SECONDS.toMillis(25);
    private int threadPoolSize = 1;
+   private int batchSize = 100;
+   private long batchDelay = 0;
 
    AsyncStoreConfigurationBuilder(AbstractStoreConfigurationBuilder<? extends AbstractStoreConfiguration, ?> builder) {
       super(builder);
@@ -96,15 +99,46 @@ public AsyncStoreConfigurationBuilder<S> threadPoolSize(int i) {
       return this;
    }
 
+   /**
+    * Maximum number of modifications written to the underlying cache store in a single batch. Stores implementing
+    * {@link org.infinispan.loaders.spi.BatchCacheStore} write each batch at once, e.g. in a single database transaction.
+    */
+   public AsyncStoreConfigurationBuilder<S> batchSize(int i) {
+      this.batchSize = i;
+      return this;
+   }
+
+   /**
+    * Maximum time in milliseconds to wait for a full batch of modifications before flushing them to the underlying
+    * cache store. Waiting lets more modifications be coalesced and written together, at the cost of a longer window in
+    * which they are not persisted. 0, the default, flushes the modifications as soon as they are available.
+    */
+   public AsyncStoreConfigurationBuilder<S> batchDelay(long l) {
+      this.batchDelay = l;
+      return this;
+   }
+
+   /**
+    * Maximum time to wait for a full batch of modifications before flushing them to the underlying cache store.
+    */
+   public AsyncStoreConfigurationBuilder<S> batchDelay(long l, TimeUnit unit) {
+      return batchDelay(unit.toMillis(l));
+   }
+
    @Override
    public
    void validate() {
+      if (batchSize < 1)
+         throw new CacheConfigurationException("The async store batch size must be positive, was " + batchSize);
+      if (batchDelay < 0)
+         throw new CacheConfigurationException("The async store batch delay cannot be negative, was " + batchDelay);
    }
 
    @Override
    public
    AsyncStoreConfiguration create() {
-      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize);
+      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize,
+            batchSize, batchDelay);
    }
 
    @Override
@@ -114,6 +148,8 @@ public AsyncStoreConfigurationBuilder<S> read(AsyncStoreConfiguration template)
       this.modificationQueueSize = template.modificationQueueSize();
       this.shutdownTimeout = template.shutdownTimeout();
       this.threadPoolSize = template.threadPoolSize();
+      this.batchSize = template.batchSize();
+      this.batchDelay = template.batchDelay();
 
       return this;
    }
@@ -126,6 +162,8 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", batchSize=" + batchSize +
+            ", batchDelay=" + batchDelay +
             '}';
    }
 
@@ -9,17 +9,19 @@
 public class EvictionConfiguration {
    
    private final int maxEntries;
+   private final long maxMemory;
    private final EvictionStrategy strategy;
    private final EvictionThreadPolicy threadPolicy;
    
-   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
+   EvictionConfiguration(int maxEntries, long maxMemory, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
       this.maxEntries = maxEntries;
+      this.maxMemory = maxMemory;
       this.strategy = strategy;
       this.threadPolicy = threadPolicy;
    }
    
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to disable
     * eviction).
     */
    public EvictionStrategy strategy() {
@@ -42,10 +44,19 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * Maximum estimated memory footprint, in bytes, of the entries in a cache instance, or -1 if the cache is only
+    * bounded by number of entries. When set, entries are evicted as soon as either bound is exceeded.
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
    @Override
    public String toString() {
       return "EvictionConfiguration{" +
             "maxEntries=" + maxEntries +
+            ", maxMemory=" + maxMemory +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
             '}';
@@ -59,6 +70,7 @@ public boolean equals(Object o) {
       EvictionConfiguration that = (EvictionConfiguration) o;
 
       if (maxEntries != that.maxEntries) return false;
+      if (maxMemory != that.maxMemory) return false;
       if (strategy != that.strategy) return false;
       if (threadPolicy != that.threadPolicy) return false;
 
@@ -68,6 +80,7 @@ public boolean equals(Object o) {
    @Override
    public int hashCode() {
       int result = maxEntries;
+      result = 31 * result + (int) (maxMemory ^ (maxMemory >>> 32));
       result = 31 * result + (strategy != null ? strategy.hashCode() : 0);
       result = 31 * result + (threadPolicy != null ? threadPolicy.hashCode() : 0);
       return result;
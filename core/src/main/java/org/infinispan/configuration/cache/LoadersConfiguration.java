@@ -11,12 +11,14 @@ public class LoadersConfiguration {
    private final boolean passivation;
    private final boolean preload;
    private final boolean shared;
+   private final int parallelism;
    private final List<CacheLoaderConfiguration> cacheLoaders;
 
-   LoadersConfiguration(boolean passivation, boolean preload, boolean shared, List<CacheLoaderConfiguration> cacheLoaders) {
+   LoadersConfiguration(boolean passivation, boolean preload, boolean shared, int parallelism, List<CacheLoaderConfiguration> cacheLoaders) {
       this.passivation = passivation;
       this.preload = preload;
       this.shared = shared;
+      this.parallelism = parallelism;
       this.cacheLoaders = cacheLoaders;
    }
 
@@ -59,6 +61,14 @@ public boolean shared() {
       return shared;
    }
 
+   /**
+    * The number of threads used to insert the entries into the cache when preloading, and to write them to the cache
+    * store when passivating the whole cache on shutdown.
+    */
+   public int parallelism() {
+      return parallelism;
+   }
+
    public List<CacheLoaderConfiguration> cacheLoaders() {
       return cacheLoaders;
    }
@@ -98,6 +108,7 @@ public String toString() {
             ", passivation=" + passivation +
             ", preload=" + preload +
             ", shared=" + shared +
+            ", parallelism=" + parallelism +
             '}';
    }
 
@@ -111,6 +122,7 @@ public boolean equals(Object o) {
       if (passivation != that.passivation) return false;
       if (preload != that.preload) return false;
       if (shared != that.shared) return false;
+      if (parallelism != that.parallelism) return false;
       if (cacheLoaders != null ? !cacheLoaders.equals(that.cacheLoaders) : that.cacheLoaders != null)
          return false;
 
@@ -122,6 +134,7 @@ public int hashCode() {
       int result = (passivation ? 1 : 0);
       result = 31 * result + (preload ? 1 : 0);
       result = 31 * result + (shared ? 1 : 0);
+      result = 31 * result + parallelism;
       result = 31 * result + (cacheLoaders != null ? cacheLoaders.hashCode() : 0);
       return result;
    }
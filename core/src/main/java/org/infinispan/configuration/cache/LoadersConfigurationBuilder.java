@@ -18,6 +18,7 @@ public class LoadersConfigurationBuilder extends AbstractConfigurationChildBuild
    private boolean passivation = false;
    private boolean preload = false;
    private boolean shared = false;
+   private int parallelism = Runtime.getRuntime().availableProcessors();
    private List<CacheLoaderConfigurationBuilder<?,?>> cacheLoaders = new ArrayList<CacheLoaderConfigurationBuilder<?,?>>(2);
 
    protected LoadersConfigurationBuilder(ConfigurationBuilder builder) {
@@ -58,6 +59,15 @@ boolean preload() {
       return preload;
    }
 
+   /**
+    * The number of threads used to insert the entries into the cache when preloading, and to write them to the cache
+    * store when passivating the whole cache on shutdown. Defaults to the number of available processors.
+    */
+   public LoadersConfigurationBuilder parallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+   }
+
    /**
     * This setting should be set to true when multiple cache instances share the same cache store
     * (e.g., multiple nodes in a cluster using a JDBC-based CacheStore pointing to the same, shared
@@ -193,6 +203,15 @@ public SingleFileCacheStoreConfigurationBuilder addSingleFileCacheStore() {
       return builder;
    }
 
+   /**
+    * Adds a log-structured file cache store
+    */
+   public LogFileCacheStoreConfigurationBuilder addLogFileCacheStore() {
+      LogFileCacheStoreConfigurationBuilder builder = new LogFileCacheStoreConfigurationBuilder(this);
+      this.cacheLoaders.add(builder);
+      return builder;
+   }
+
    /**
     * Removes any configured cache loaders and stores from this builder
     */
@@ -212,6 +231,9 @@ public LoadersConfigurationBuilder clearCacheLoaders() {
 
    @Override
    public void validate() {
+      if (parallelism < 1) {
+         throw new CacheConfigurationException("Loaders parallelism must be at least 1, but was " + parallelism);
+      }
       for (CacheLoaderConfigurationBuilder<?, ?> b : cacheLoaders) {
          b.validate();
       }
@@ -222,7 +244,7 @@ public LoadersConfiguration create() {
       List<CacheLoaderConfiguration> loaders = new LinkedList<CacheLoaderConfiguration>();
       for (CacheLoaderConfigurationBuilder<?, ?> loader : cacheLoaders)
          loaders.add(loader.create());
-      return new LoadersConfiguration(passivation, preload, shared, loaders);
+      return new LoadersConfiguration(passivation, preload, shared, parallelism, loaders);
    }
 
    @SuppressWarnings("unchecked")
@@ -237,6 +259,7 @@ public LoadersConfigurationBuilder read(LoadersConfiguration template) {
       this.passivation = template.passivation();
       this.preload = template.preload();
       this.shared = template.shared();
+      this.parallelism = template.parallelism();
 
       return this;
    }
@@ -248,6 +271,7 @@ public String toString() {
             ", passivation=" + passivation +
             ", preload=" + preload +
             ", shared=" + shared +
+            ", parallelism=" + parallelism +
             '}';
    }
 
@@ -0,0 +1,80 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.loaders.file.LogFileCacheStore;
+
+/**
+ * Defines the configuration for the log-structured file cache store.
+ *
+ * @since 6.0
+ */
+@BuiltBy(LogFileCacheStoreConfigurationBuilder.class)
+@ConfigurationFor(LogFileCacheStore.class)
+public class LogFileCacheStoreConfiguration extends AbstractStoreConfiguration {
+
+   private final String location;
+
+   private final long maxFileSize;
+
+   private final double compactionThreshold;
+
+   public LogFileCacheStoreConfiguration(String location, long maxFileSize, double compactionThreshold,
+         boolean purgeOnStartup, boolean purgeSynchronously, int purgerThreads, boolean fetchPersistentState,
+         boolean ignoreModifications, TypedProperties properties, AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
+      super(purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
+            ignoreModifications, properties, async, singletonStore);
+      this.location = location;
+      this.maxFileSize = maxFileSize;
+      this.compactionThreshold = compactionThreshold;
+   }
+
+   public String location() {
+      return location;
+   }
+
+   public long maxFileSize() {
+      return maxFileSize;
+   }
+
+   public double compactionThreshold() {
+      return compactionThreshold;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      if (!super.equals(o)) return false;
+
+      LogFileCacheStoreConfiguration that = (LogFileCacheStoreConfiguration) o;
+
+      if (maxFileSize != that.maxFileSize) return false;
+      if (Double.compare(that.compactionThreshold, compactionThreshold) != 0) return false;
+      if (location != null ? !location.equals(that.location) : that.location != null)
+         return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = super.hashCode();
+      result = 31 * result + (location != null ? location.hashCode() : 0);
+      result = 31 * result + (int) (maxFileSize ^ (maxFileSize >>> 32));
+      long temp = Double.doubleToLongBits(compactionThreshold);
+      result = 31 * result + (int) (temp ^ (temp >>> 32));
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return "LogFileCacheStoreConfiguration{" +
+            "location='" + location + '\'' +
+            ", maxFileSize=" + maxFileSize +
+            ", compactionThreshold=" + compactionThreshold +
+            '}';
+   }
+
+}
@@ -0,0 +1,94 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.util.TypedProperties;
+
+/**
+ * Log-structured file cache store configuration builder.
+ *
+ * @since 6.0
+ */
+public class LogFileCacheStoreConfigurationBuilder
+      extends AbstractStoreConfigurationBuilder<LogFileCacheStoreConfiguration, LogFileCacheStoreConfigurationBuilder> {
+
+   private String location = "Infinispan-LogFileCacheStore";
+
+   private long maxFileSize = 16 * 1024 * 1024;
+
+   private double compactionThreshold = 0.5;
+
+   public LogFileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   @Override
+   public LogFileCacheStoreConfigurationBuilder self() {
+      return this;
+   }
+
+   /**
+    * Sets a location on disk where the store can write. The log files of a cache are kept in the
+    * <tt>&lt;location&gt;/&lt;cache name&gt;</tt> directory.
+    */
+   public LogFileCacheStoreConfigurationBuilder location(String location) {
+      this.location = location;
+      return this;
+   }
+
+   /**
+    * The size in bytes after which the store stops appending to a log file and starts a new one. Only complete log
+    * files are compacted, so smaller files are compacted sooner but more often. Defaults to 16 MB.
+    */
+   public LogFileCacheStoreConfigurationBuilder maxFileSize(long maxFileSize) {
+      this.maxFileSize = maxFileSize;
+      return this;
+   }
+
+   /**
+    * The ratio of overwritten, removed or expired data above which a log file is compacted in the background: its live
+    * entries are appended to the current log file and the file is deleted. Must be between 0 (exclusive) and 1
+    * (inclusive). Defaults to 0.5.
+    */
+   public LogFileCacheStoreConfigurationBuilder compactionThreshold(double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (maxFileSize <= 0)
+         throw new CacheConfigurationException("The 'maxFileSize' of the log file cache store must be positive");
+      if (compactionThreshold <= 0 || compactionThreshold > 1)
+         throw new CacheConfigurationException("The 'compactionThreshold' of the log file cache store must be in (0, 1]");
+   }
+
+   @Override
+   public LogFileCacheStoreConfiguration create() {
+      return new LogFileCacheStoreConfiguration(location, maxFileSize, compactionThreshold,
+            purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
+            ignoreModifications, TypedProperties.toTypedProperties(properties),
+            async.create(), singletonStore.create());
+   }
+
+   @Override
+   public Builder<?> read(LogFileCacheStoreConfiguration template) {
+      // LogFileCacheStore-specific configuration
+      location = template.location();
+      maxFileSize = template.maxFileSize();
+      compactionThreshold = template.compactionThreshold();
+
+      // AbstractStore-specific configuration
+      fetchPersistentState = template.fetchPersistentState();
+      ignoreModifications = template.ignoreModifications();
+      properties = template.properties();
+      purgeOnStartup = template.purgeOnStartup();
+      purgeSynchronously = template.purgeSynchronously();
+      async.read(template.async());
+      singletonStore.read(template.singletonStore());
+
+      return this;
+   }
+
+}
@@ -19,13 +19,16 @@ public class SingleFileCacheStoreConfiguration extends AbstractStoreConfiguratio
 
    private final int maxEntries;
 
-   public SingleFileCacheStoreConfiguration(String location, int maxKeysInMemory,
+   private final boolean memoryMapped;
+
+   public SingleFileCacheStoreConfiguration(String location, int maxKeysInMemory, boolean memoryMapped,
          boolean purgeOnStartup, boolean purgeSynchronously, int purgerThreads, boolean fetchPersistentState,
          boolean ignoreModifications, TypedProperties properties, AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
       super(purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, properties, async, singletonStore);
       this.location = location;
       this.maxEntries = maxKeysInMemory;
+      this.memoryMapped = memoryMapped;
    }
 
    public String location() {
@@ -36,6 +39,10 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   public boolean memoryMapped() {
+      return memoryMapped;
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -45,6 +52,7 @@ public boolean equals(Object o) {
       SingleFileCacheStoreConfiguration that = (SingleFileCacheStoreConfiguration) o;
 
       if (maxEntries != that.maxEntries) return false;
+      if (memoryMapped != that.memoryMapped) return false;
       if (location != null ? !location.equals(that.location) : that.location != null)
          return false;
 
@@ -56,6 +64,7 @@ public int hashCode() {
       int result = super.hashCode();
       result = 31 * result + (location != null ? location.hashCode() : 0);
       result = 31 * result + maxEntries;
+      result = 31 * result + (memoryMapped ? 1 : 0);
       return result;
    }
 
@@ -64,6 +73,7 @@ public String toString() {
       return "SingleFileCacheStoreConfiguration{" +
             "location='" + location + '\'' +
             ", maxEntries=" + maxEntries +
+            ", memoryMapped=" + memoryMapped +
             '}';
    }
 
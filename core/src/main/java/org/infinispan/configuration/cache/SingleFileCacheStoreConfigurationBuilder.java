@@ -20,6 +20,8 @@
 
    private int maxEntries = -1;
 
+   private boolean memoryMapped = false;
+
    public SingleFileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
       super(builder);
    }
@@ -58,9 +60,20 @@ public SingleFileCacheStoreConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * If true, entries are read from memory-mapped windows of the data file and deserialized in place, instead of being
+    * copied to the heap with a read from the file first. Writes still go through the file channel and are visible
+    * through the mapped windows, which are remapped as the file grows. Since mapped memory is only released when the
+    * windows are garbage collected, this is mostly useful for read-mostly stores. Defaults to false.
+    */
+   public SingleFileCacheStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+      return this;
+   }
+
    @Override
    public SingleFileCacheStoreConfiguration create() {
-      return new SingleFileCacheStoreConfiguration(location, maxEntries,
+      return new SingleFileCacheStoreConfiguration(location, maxEntries, memoryMapped,
             purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, TypedProperties.toTypedProperties(properties),
             async.create(), singletonStore.create());
@@ -71,6 +84,7 @@ public Builder<?> read(SingleFileCacheStoreConfiguration template) {
       // SingleFileCacheStore-specific configuration
       location = template.location();
       maxEntries = template.maxEntries();
+      memoryMapped = template.memoryMapped();
 
       // AbstractStore-specific configuration
       fetchPersistentState = template.fetchPersistentState();
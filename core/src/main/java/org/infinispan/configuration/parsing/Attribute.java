@@ -17,12 +17,15 @@ public enum Attribute {
     ALWAYS_PROVIDE_IN_MEMORY_STATE("alwaysProvideInMemoryState"),
     ASYNC_MARSHALLING("asyncMarshalling"),
     AUTO_COMMIT("autoCommit"),
+    BATCH_DELAY("batchDelay"),
+    BATCH_SIZE("batchSize"),
     BEFORE("before"),
     CACHE_MANAGER_NAME("cacheManagerName"),
     CACHE_STOP_TIMEOUT("cacheStopTimeout"),
     CHUNK_SIZE("chunkSize"),
     CLASS("class"),
     CLUSTER_NAME("clusterName"),
+    COMPACTION_THRESHOLD("compactionThreshold"),
     CONCURRENCY_LEVEL("concurrencyLevel"),
     DISTRIBUTED_SYNC_TIMEOUT("distributedSyncTimeout"),
     EAGER_LOCK_SINGLE_NODE("eagerLockSingleNode"),
@@ -55,9 +58,12 @@ public enum Attribute {
     MACHINE_ID("machineId"),
     MARSHALLER_CLASS("marshallerClass"),
     MAX_ENTRIES("maxEntries"),
+    MAX_FILE_SIZE("maxFileSize"),
     MAX_IDLE("maxIdle"),
+    MAX_MEMORY("maxMemory"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
+    MEMORY_MAPPED("memoryMapped"),
     MODE("mode"),
     NODE_NAME("nodeName"),
     MODIFICATION_QUEUE_SIZE("modificationQueueSize"),
@@ -67,6 +73,7 @@ public enum Attribute {
     NUM_RETRIES("numRetries"),
     NUM_VIRTUAL_NODES("numVirtualNodes"),
     ON_REHASH("onRehash"),
+    PARALLELISM("parallelism"),
     PASSIVATION("passivation"),
     POSITION("position"),
     PRELOAD("preload"),
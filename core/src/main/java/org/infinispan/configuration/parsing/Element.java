@@ -45,6 +45,7 @@ public enum Element {
     LOADER("loader"),
     LOADERS("loaders"),
     LOCKING("locking"),
+    LOG_FILE_STORE("logFileStore"),
     MODULES("modules"),
     NAMED_CACHE("namedCache"),
     PROPERTIES("properties"),
@@ -545,6 +545,9 @@ private void parseLoaders(final XMLExtendedStreamReader reader, final Configurat
             case SHARED:
                builder.loaders().shared(Boolean.parseBoolean(value));
                break;
+            case PARALLELISM:
+               builder.loaders().parallelism(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -562,6 +565,9 @@ private void parseLoaders(final XMLExtendedStreamReader reader, final Configurat
             case SINGLE_FILE_STORE:
                parseSingleFileStore(reader, holder);
                break;
+            case LOG_FILE_STORE:
+               parseLogFileStore(reader, holder);
+               break;
             case LOADER:
                parseLoader(reader, holder);
                break;
@@ -588,6 +594,34 @@ private void parseSingleFileStore(XMLExtendedStreamReader reader, ConfigurationB
             case MAX_ENTRIES:
                storeBuilder.maxEntries(Integer.parseInt(value));
                break;
+            case MEMORY_MAPPED:
+               storeBuilder.memoryMapped(Boolean.parseBoolean(value));
+               break;
+            default:
+               parseCommonLoaderAttributes(reader, i, storeBuilder);
+               break;
+         }
+      }
+      parseStoreChildren(reader, storeBuilder);
+   }
+
+   private void parseLogFileStore(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      LogFileCacheStoreConfigurationBuilder storeBuilder = builder.loaders().addLogFileCacheStore();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case LOCATION:
+               storeBuilder.location(value);
+               break;
+            case MAX_FILE_SIZE:
+               storeBuilder.maxFileSize(Long.parseLong(value));
+               break;
+            case COMPACTION_THRESHOLD:
+               storeBuilder.compactionThreshold(Double.parseDouble(value));
+               break;
             default:
                parseCommonLoaderAttributes(reader, i, storeBuilder);
                break;
@@ -922,6 +956,12 @@ public static void parseAsyncStore(final XMLExtendedStreamReader reader, final C
          String value = replaceProperties(reader.getAttributeValue(i));
          Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
          switch (attribute) {
+            case BATCH_DELAY:
+               storeBuilder.async().batchDelay(Long.parseLong(value));
+               break;
+            case BATCH_SIZE:
+               storeBuilder.async().batchSize(Integer.parseInt(value));
+               break;
             case ENABLED:
                if (Boolean.parseBoolean(value)) {
                   storeBuilder.async().enable();
@@ -1077,6 +1117,9 @@ private void parseEviction(final XMLExtendedStreamReader reader, final Configura
             case MAX_ENTRIES:
                builder.eviction().maxEntries(Integer.parseInt(value));
                break;
+            case MAX_MEMORY:
+               builder.eviction().maxMemory(Long.parseLong(value));
+               break;
             case STRATEGY:
                builder.eviction().strategy(EvictionStrategy.valueOf(value));
                break;
@@ -33,7 +33,9 @@
 
 /**
  * DefaultDataContainer is both eviction and non-eviction based data container.
- *
+ * <p/>
+ * The keys of expirable entries are kept in an {@link ExpirationIndex}, so that {@link #purgeExpired()} only visits
+ * the entries that are due to expire instead of the whole container.
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -48,6 +50,7 @@ public class DefaultDataContainer implements DataContainer {
    final protected ConcurrentMap<Object, InternalCacheEntry> entries;
    protected InternalEntryFactory entryFactory;
    final protected DefaultEvictionListener evictionListener;
+   private final ExpirationIndex expirationIndex;
    private EvictionManager evictionManager;
    private PassivationManager passivator;
    private ActivationManager activator;
@@ -58,6 +61,7 @@ public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel);
       evictionListener = null;
+      expirationIndex = new ExpirationIndex(null, ExpirationIndex.DEFAULT_RESOLUTION);
    }
 
    public DefaultDataContainer(int concurrencyLevel,
@@ -65,11 +69,18 @@ public DefaultDataContainer(int concurrencyLevel,
       // If at least one comparing implementation give, use ComparingCHMv8
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel, keyEq, valueEq);
       evictionListener = null;
+      expirationIndex = new ExpirationIndex(keyEq, ExpirationIndex.DEFAULT_RESOLUTION);
    }
 
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          EvictionStrategy strategy, EvictionThreadPolicy policy,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this(concurrencyLevel, maxEntries, -1, strategy, policy, keyEquivalence, valueEquivalence);
+   }
+
+   protected DefaultDataContainer(int concurrencyLevel, int maxEntries, long maxMemory,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
       // translate eviction policy and strategy
       switch (policy) {
          case PIGGYBACK:
@@ -90,13 +101,18 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          case LIRS:
             eviction = Eviction.LIRS;
             break;
+         case TINY_LFU:
+            eviction = Eviction.TINY_LFU;
+            break;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
 
       entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
-            maxEntries, concurrencyLevel, eviction, evictionListener,
+            maxEntries, maxMemory, concurrencyLevel, eviction, evictionListener,
+            maxMemory > 0 ? new InternalEntrySizeCalculator() : null,
             keyEquivalence, valueEquivalence);
+      expirationIndex = new ExpirationIndex(keyEquivalence, ExpirationIndex.DEFAULT_RESOLUTION);
    }
 
    @Inject
@@ -117,6 +133,17 @@ public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEn
             policy, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Creates a container bounded both by number of entries and by the estimated memory footprint of its entries,
+    * as computed by {@link InternalEntrySizeCalculator}.
+    */
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries, long maxMemory,
+            EvictionStrategy strategy, EvictionThreadPolicy policy,
+            Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      return new DefaultDataContainer(concurrencyLevel, maxEntries, maxMemory, strategy,
+            policy, keyEquivalence, valueEquivalence);
+   }
+
    public static DataContainer unBoundedDataContainer(int concurrencyLevel,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
       return new DefaultDataContainer(concurrencyLevel, keyEquivalence, valueEquivalence);
@@ -149,7 +176,11 @@ public InternalCacheEntry get(Object k) {
    @Override
    public void put(Object k, Object v, Metadata metadata) {
       InternalCacheEntry e = entries.get(k);
+      long previousExpiryTime = -1;
       if (e != null) {
+         if (e.canExpire()) {
+            previousExpiryTime = e.getExpiryTime();
+         }
          e.setValue(v);
          InternalCacheEntry original = e;
          e = entryFactory.update(e, metadata);
@@ -162,6 +193,12 @@ public void put(Object k, Object v, Metadata metadata) {
          e = entryFactory.create(k, v, metadata);
       }
       entries.put(k, e);
+      if (previousExpiryTime >= 0 && previousExpiryTime != e.getExpiryTime()) {
+         // registers the new entry as well
+         unregisterExpiry(k, previousExpiryTime);
+      } else if (e.canExpire()) {
+         expirationIndex.register(k, e.getExpiryTime());
+      }
    }
 
    @Override
@@ -177,6 +214,9 @@ public boolean containsKey(Object k) {
    @Override
    public InternalCacheEntry remove(Object k) {
       InternalCacheEntry e = entries.remove(k);
+      if (e != null && e.canExpire()) {
+         unregisterExpiry(k, e.getExpiryTime());
+      }
       return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
    }
 
@@ -188,6 +228,21 @@ public int size() {
    @Override
    public void clear() {
       entries.clear();
+      expirationIndex.clear();
+   }
+
+   /**
+    * @return the estimated memory footprint of the entries in bytes, or -1 if this container is not bounded by memory
+    */
+   public long memoryInUse() {
+      return entries instanceof BoundedConcurrentHashMap ? ((BoundedConcurrentHashMap) entries).memoryInUse() : -1;
+   }
+
+   /**
+    * @return the memory bound of this container in bytes, or -1 if it is not bounded by memory
+    */
+   public long maxMemory() {
+      return entries instanceof BoundedConcurrentHashMap ? ((BoundedConcurrentHashMap) entries).maxMemory() : -1;
    }
 
    @Override
@@ -208,14 +263,41 @@ public Set<InternalCacheEntry> entrySet() {
    @Override
    public void purgeExpired() {
       long currentTimeMillis = timeService.wallClockTime();
-      for (Iterator<InternalCacheEntry> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
-         InternalCacheEntry e = purgeCandidates.next();
+      // only the entries due to expire by now are checked, see ExpirationIndex
+      for (Object key : expirationIndex.drain(currentTimeMillis)) {
+         InternalCacheEntry e = entries.get(key);
+         if (e == null || !e.canExpire()) {
+            continue;
+         }
          if (e.isExpired(currentTimeMillis)) {
-            purgeCandidates.remove();
+            // don't remove a newer entry written concurrently, it was registered by its writer
+            entries.remove(key, e);
+         } else {
+            // touched since it was registered, or replaced by a longer lived entry
+            expirationIndex.register(key, e.getExpiryTime());
          }
       }
    }
 
+   /**
+    * Removes the key from the expiration index bucket of a removed or replaced entry. A concurrent write may have
+    * registered its entry in the same bucket, so the current entry is registered again.
+    */
+   private void unregisterExpiry(Object k, long expiryTime) {
+      expirationIndex.unregister(k, expiryTime);
+      InternalCacheEntry current = entries.get(k);
+      if (current != null && current.canExpire()) {
+         expirationIndex.register(k, current.getExpiryTime());
+      }
+   }
+
+   /**
+    * @return the index of the expirable entries, for testing
+    */
+   ExpirationIndex expirationIndex() {
+      return expirationIndex;
+   }
+
    @Override
    public Iterator<InternalCacheEntry> iterator() {
       return new EntryIterator(entries.values().iterator());
@@ -225,6 +307,11 @@ private final class DefaultEvictionListener implements EvictionListener<Object,
 
       @Override
       public void onEntryEviction(Map<Object, InternalCacheEntry> evicted) {
+         for (Map.Entry<Object, InternalCacheEntry> e : evicted.entrySet()) {
+            if (e.getValue().canExpire()) {
+               unregisterExpiry(e.getKey(), e.getValue().getExpiryTime());
+            }
+         }
          evictionManager.onEntryEviction(evicted);
       }
 
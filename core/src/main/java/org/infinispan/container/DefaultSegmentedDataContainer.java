@@ -0,0 +1,419 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An unbounded {@link SegmentedDataContainer} holding one concurrent map per segment.
+ * <p/>
+ * Keys are mapped to segments the same way as {@link org.infinispan.distribution.ch.DefaultConsistentHash} or
+ * {@link org.infinispan.distribution.ch.ReplicatedConsistentHash} do, including key grouping, so the container can only
+ * be used with consistent hash factories that create one of these two.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer implements SegmentedDataContainer {
+
+   private final ConcurrentMap<Object, InternalCacheEntry>[] segments;
+   private final Hash hashFunction;
+   private final boolean replicated;
+   private final int segmentSize;
+   private final ExpirationIndex expirationIndex;
+   private InternalEntryFactory entryFactory;
+   private TimeService timeService;
+   private GroupManager groupManager;
+
+   /**
+    * @param concurrencyLevel concurrency level of each segment
+    * @param numSegments      number of segments of the consistent hash
+    * @param hashFunction     hash function of the consistent hash
+    * @param replicated       true if segments are computed like {@link org.infinispan.distribution.ch.ReplicatedConsistentHash}
+    *                         does, false for {@link org.infinispan.distribution.ch.DefaultConsistentHash}
+    */
+   @SuppressWarnings("unchecked")
+   public DefaultSegmentedDataContainer(int concurrencyLevel, int numSegments, Hash hashFunction, boolean replicated,
+                                        Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      if (numSegments < 1)
+         throw new IllegalArgumentException("The number of segments must be strictly positive");
+      this.hashFunction = hashFunction;
+      this.replicated = replicated;
+      this.segmentSize = (int) Math.ceil((double) Integer.MAX_VALUE / numSegments);
+      segments = new ConcurrentMap[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         segments[i] = CollectionFactory.makeConcurrentMap(16, concurrencyLevel, keyEquivalence, valueEquivalence);
+      }
+      expirationIndex = new ExpirationIndex(keyEquivalence, ExpirationIndex.DEFAULT_RESOLUTION);
+   }
+
+   @Inject
+   public void initialize(InternalEntryFactory entryFactory, TimeService timeService, GroupManager groupManager) {
+      this.entryFactory = entryFactory;
+      this.timeService = timeService;
+      this.groupManager = groupManager;
+   }
+
+   /**
+    * @return the segment of the key, as computed by the consistent hash of the cache
+    */
+   public int getSegment(Object key) {
+      Object hashKey = key;
+      if (groupManager != null) {
+         String group = groupManager.getGroup(key);
+         if (group != null) {
+            hashKey = group;
+         }
+      }
+      // The result must always be positive, so we make sure the dividend is positive first
+      int normalizedHash = hashFunction.hash(hashKey) & Integer.MAX_VALUE;
+      return replicated ? normalizedHash % segments.length : normalizedHash / segmentSize;
+   }
+
+   private ConcurrentMap<Object, InternalCacheEntry> segmentFor(Object key) {
+      return segments[getSegment(key)];
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object key) {
+      return segmentFor(key).get(key);
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      ConcurrentMap<Object, InternalCacheEntry> segment = segmentFor(k);
+      InternalCacheEntry e = segment.get(k);
+      if (e != null && e.canExpire()) {
+         long currentTimeMillis = timeService.wallClockTime();
+         if (e.isExpired(currentTimeMillis)) {
+            segment.remove(k);
+            e = null;
+         } else {
+            e.touch(currentTimeMillis);
+         }
+      }
+      return e;
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      ConcurrentMap<Object, InternalCacheEntry> segment = segmentFor(k);
+      InternalCacheEntry e = segment.get(k);
+      long previousExpiryTime = -1;
+      if (e != null) {
+         if (e.canExpire()) {
+            previousExpiryTime = e.getExpiryTime();
+         }
+         e.setValue(v);
+         InternalCacheEntry original = e;
+         e = entryFactory.update(e, metadata);
+         // we have the same instance. So we need to reincarnate.
+         if (original == e) {
+            e.reincarnate(timeService.wallClockTime());
+         }
+      } else {
+         // this is a brand-new entry
+         e = entryFactory.create(k, v, metadata);
+      }
+      segment.put(k, e);
+      if (previousExpiryTime >= 0 && previousExpiryTime != e.getExpiryTime()) {
+         // registers the new entry as well
+         unregisterExpiry(segment, k, previousExpiryTime);
+      } else if (e.canExpire()) {
+         expirationIndex.register(k, e.getExpiryTime());
+      }
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      ConcurrentMap<Object, InternalCacheEntry> segment = segmentFor(k);
+      InternalCacheEntry ice = segment.get(k);
+      if (ice != null && ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
+         segment.remove(k);
+         ice = null;
+      }
+      return ice != null;
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      ConcurrentMap<Object, InternalCacheEntry> segment = segmentFor(k);
+      InternalCacheEntry e = segment.remove(k);
+      if (e != null && e.canExpire()) {
+         unregisterExpiry(segment, k, e.getExpiryTime());
+      }
+      return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (ConcurrentMap<Object, InternalCacheEntry> segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   @Override
+   public int size(int segment) {
+      return segments[segment].size();
+   }
+
+   @Override
+   public void clear() {
+      for (ConcurrentMap<Object, InternalCacheEntry> segment : segments) {
+         segment.clear();
+      }
+      expirationIndex.clear();
+   }
+
+   @Override
+   public void removeSegments(Set<Integer> segmentIds) {
+      for (int segmentId : segmentIds) {
+         ConcurrentMap<Object, InternalCacheEntry> segment = segments[segmentId];
+         for (InternalCacheEntry e : segment.values()) {
+            if (e.canExpire()) {
+               expirationIndex.unregister(e.getKey(), e.getExpiryTime());
+            }
+         }
+         segment.clear();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      // only the entries due to expire by now are checked, see ExpirationIndex
+      for (Object key : expirationIndex.drain(currentTimeMillis)) {
+         ConcurrentMap<Object, InternalCacheEntry> segment = segmentFor(key);
+         InternalCacheEntry e = segment.get(key);
+         if (e == null || !e.canExpire()) {
+            continue;
+         }
+         if (e.isExpired(currentTimeMillis)) {
+            // don't remove a newer entry written concurrently, it was registered by its writer
+            segment.remove(key, e);
+         } else {
+            // touched since it was registered, or replaced by a longer lived entry
+            expirationIndex.register(key, e.getExpiryTime());
+         }
+      }
+   }
+
+   /**
+    * Removes the key from the expiration index bucket of a removed or replaced entry. A concurrent write may have
+    * registered its entry in the same bucket, so the current entry is registered again.
+    */
+   private void unregisterExpiry(ConcurrentMap<Object, InternalCacheEntry> segment, Object k, long expiryTime) {
+      expirationIndex.unregister(k, expiryTime);
+      InternalCacheEntry current = segment.get(k);
+      if (current != null && current.canExpire()) {
+         expirationIndex.register(k, current.getExpiryTime());
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new SegmentsIterator(allSegments());
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator(Set<Integer> segmentIds) {
+      return new SegmentsIterator(segmentIds.toArray(new Integer[segmentIds.size()]));
+   }
+
+   private Integer[] allSegments() {
+      Integer[] ids = new Integer[segments.length];
+      for (int i = 0; i < ids.length; i++) {
+         ids[i] = i;
+      }
+      return ids;
+   }
+
+   /**
+    * Iterates over the entries of a number of segments, one segment after the other.
+    */
+   private class SegmentsIterator implements Iterator<InternalCacheEntry> {
+      private final Integer[] segmentIds;
+      private int nextSegment;
+      private Iterator<InternalCacheEntry> current;
+
+      SegmentsIterator(Integer[] segmentIds) {
+         this.segmentIds = segmentIds;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (current == null || !current.hasNext()) {
+            if (nextSegment == segmentIds.length) {
+               return false;
+            }
+            current = segments[segmentIds[nextSegment++]].values().iterator();
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class KeySet extends AbstractSet<Object> {
+
+      @Override
+      public boolean contains(Object o) {
+         return segmentFor(o).containsKey(o);
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = DefaultSegmentedDataContainer.this.iterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         final Iterator<InternalCacheEntry> it = DefaultSegmentedDataContainer.this.iterator();
+         return new Iterator<InternalCacheEntry>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry next() {
+               return CoreImmutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    *
+    */
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = DefaultSegmentedDataContainer.this.iterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,145 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index of the keys of expirable entries, bucketed by the time at which they are due to expire, so that expired
+ * entries can be purged without scanning the whole data container.
+ * <p/>
+ * Every bucket covers {@code resolution} milliseconds. Keys are registered when their entry is stored, and
+ * unregistered when the entry is removed, evicted or replaced by one expiring at another time. Touching an entry with
+ * a max idle time doesn't move its key though, and a concurrent write may leave a stale registration behind. The
+ * container must therefore check every key returned by {@link #drain(long)} against its current entry, and register
+ * it again if that entry is not expired yet.
+ * <p/>
+ * The same key may be registered in more than one bucket, but only once per bucket, so the number of registrations of
+ * a key doesn't grow as long as the buckets are drained regularly.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+final class ExpirationIndex {
+
+   static final long DEFAULT_RESOLUTION = 1000;
+
+   private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+   private final Equivalence<Object> keyEquivalence;
+   private final long resolution;
+
+   ExpirationIndex(Equivalence<Object> keyEquivalence, long resolution) {
+      if (resolution < 1)
+         throw new IllegalArgumentException("The resolution must be strictly positive");
+      this.keyEquivalence = keyEquivalence == null ? AnyEquivalence.getInstance() : keyEquivalence;
+      this.resolution = resolution;
+   }
+
+   /**
+    * @param key        the key of an expirable entry
+    * @param expiryTime the wall clock time at which the entry is due to expire, as returned by
+    *                   {@link org.infinispan.container.entries.InternalCacheEntry#getExpiryTime()}
+    */
+   void register(Object key, long expiryTime) {
+      Long slot = expiryTime / resolution;
+      while (true) {
+         Bucket bucket = buckets.get(slot);
+         if (bucket == null) {
+            bucket = new Bucket(keyEquivalence);
+            Bucket existing = buckets.putIfAbsent(slot, bucket);
+            if (existing != null)
+               bucket = existing;
+         }
+         if (bucket.add(key))
+            return;
+         // the bucket was drained concurrently, and it's already removed from the map
+      }
+   }
+
+   /**
+    * Removes a key registered with the given expiry time, unless its bucket was drained already. A bucket left empty is
+    * dropped, so that removed entries don't leave buckets behind until their expiry time.
+    */
+   void unregister(Object key, long expiryTime) {
+      Long slot = expiryTime / resolution;
+      Bucket bucket = buckets.get(slot);
+      if (bucket == null || !bucket.remove(key))
+         return;
+      if (bucket.isEmpty() && buckets.remove(slot, bucket)) {
+         // keys added before the bucket was closed must be moved to a new bucket, the later ones are by register()
+         for (Object k : bucket.close())
+            register(k, expiryTime);
+      }
+   }
+
+   /**
+    * Removes the buckets covering times up to {@code now}, included.
+    *
+    * @return the keys registered in the removed buckets, with the keys of entries that may not be expired yet
+    */
+   List<Object> drain(long now) {
+      List<Object> keys = new ArrayList<Object>();
+      long lastSlot = now / resolution;
+      for (Map.Entry<Long, Bucket> e = buckets.firstEntry(); e != null && e.getKey() <= lastSlot;
+           e = buckets.firstEntry()) {
+         if (buckets.remove(e.getKey(), e.getValue())) {
+            keys.addAll(e.getValue().close());
+         }
+      }
+      return keys;
+   }
+
+   void clear() {
+      buckets.clear();
+   }
+
+   /**
+    * @return the number of buckets, for testing
+    */
+   int bucketCount() {
+      return buckets.size();
+   }
+
+   private static final class Bucket {
+      private final ConcurrentMap<Object, Boolean> keys;
+      private volatile boolean closed;
+
+      Bucket(Equivalence<Object> keyEquivalence) {
+         keys = CollectionFactory.makeConcurrentMap(keyEquivalence, AnyEquivalence.BOOLEAN);
+      }
+
+      /**
+       * @return false if the bucket was closed, in which case the key may have been missed by {@link #close()}
+       */
+      boolean add(Object key) {
+         keys.put(key, Boolean.TRUE);
+         return !closed;
+      }
+
+      boolean remove(Object key) {
+         return keys.remove(key) != null;
+      }
+
+      boolean isEmpty() {
+         return keys.isEmpty();
+      }
+
+      /**
+       * Keys added before the bucket is closed are returned, because the map is read after the closed flag is written,
+       * while {@link #add(Object)} reads the flag after writing to the map.
+       */
+      Set<Object> close() {
+         closed = true;
+         return keys.keySet();
+      }
+   }
+}
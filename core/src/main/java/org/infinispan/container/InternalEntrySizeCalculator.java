@@ -0,0 +1,105 @@
+package org.infinispan.container;
+
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataTransientCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.EntrySizeCalculator;
+
+/**
+ * Estimates the heap footprint of an {@link InternalCacheEntry} stored in a {@link DefaultDataContainer}, which is
+ * used to bound the container by memory rather than by number of entries.
+ * <p/>
+ * The size of <tt>byte[]</tt>, {@link String}, boxed primitives and {@link MarshalledValue} keys and values is
+ * computed exactly (modulo JVM object layout). Any other type is assumed to occupy {@link #DEFAULT_OBJECT_SIZE}
+ * bytes, since its footprint cannot be determined without walking its object graph. Caches bounded by memory
+ * should therefore store binary data, e.g. by enabling <tt>storeAsBinary</tt>.
+ *
+ * @since 6.0
+ */
+public class InternalEntrySizeCalculator implements EntrySizeCalculator<Object, InternalCacheEntry> {
+
+   /**
+    * The size assumed for an object whose footprint cannot be computed.
+    */
+   public static final int DEFAULT_OBJECT_SIZE = 64;
+
+   private static final int OBJECT_HEADER = 16;
+   private static final int ARRAY_HEADER = 24;
+   private static final int REFERENCE = 8;
+   /**
+    * The bookkeeping of the container itself for each entry: the hash entry, its table slot and the eviction
+    * policy's own node.
+    */
+   private static final int CONTAINER_OVERHEAD = 96;
+   private static final int IMMORTAL_ENTRY = align(OBJECT_HEADER + 2 * REFERENCE);
+   /**
+    * Mortal and transient entries additionally hold up to two timestamps and two durations.
+    */
+   private static final int MORTAL_ENTRY = align(IMMORTAL_ENTRY + 4 * 8);
+   private static final int METADATA = align(OBJECT_HEADER + 2 * 8 + 3 * REFERENCE);
+   private static final int VERSION = align(OBJECT_HEADER + 8 + REFERENCE);
+
+   @Override
+   public long calculateSize(Object key, InternalCacheEntry ice) {
+      long size = CONTAINER_OVERHEAD + objectSize(key);
+      if (ice == null) {
+         return size;
+      }
+      size += isImmortal(ice) ? IMMORTAL_ENTRY : MORTAL_ENTRY;
+      // the entry holds the same key instance as the container, so only the value is added
+      size += objectSize(ice.getValue());
+      if (holdsMetadata(ice)) {
+         // other entries build their metadata on demand, so it takes no space in the container
+         Metadata metadata = ice.getMetadata();
+         if (metadata != null) {
+            size += METADATA;
+            if (metadata.version() != null) {
+               size += VERSION;
+            }
+         }
+      }
+      return size;
+   }
+
+   private static boolean holdsMetadata(InternalCacheEntry ice) {
+      return ice instanceof MetadataImmortalCacheEntry || ice instanceof MetadataMortalCacheEntry
+            || ice instanceof MetadataTransientCacheEntry || ice instanceof MetadataTransientMortalCacheEntry;
+   }
+
+   private static boolean isImmortal(InternalCacheEntry ice) {
+      return ice instanceof ImmortalCacheEntry || ice instanceof MetadataImmortalCacheEntry;
+   }
+
+   /**
+    * Returns the estimated size of a key or value.
+    */
+   public static long objectSize(Object o) {
+      if (o == null) {
+         return 0;
+      } else if (o instanceof byte[]) {
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      } else if (o instanceof MarshalledValue) {
+         MarshalledValue mv = (MarshalledValue) o;
+         // the wrapper, its byte stream and the backing array
+         return align(OBJECT_HEADER + 3 * REFERENCE + 8) + align(OBJECT_HEADER + REFERENCE + 4)
+               + align(ARRAY_HEADER + mv.getSerialisedSize());
+      } else if (o instanceof String) {
+         return align(OBJECT_HEADER + REFERENCE + 8) + align(ARRAY_HEADER + 2 * ((String) o).length());
+      } else if (o instanceof Long || o instanceof Double) {
+         return align(OBJECT_HEADER + 8);
+      } else if (o instanceof Number || o instanceof Boolean || o instanceof Character) {
+         return align(OBJECT_HEADER + 4);
+      } else {
+         return DEFAULT_OBJECT_SIZE;
+      }
+   }
+
+   private static int align(int size) {
+      return (size + 7) & ~7;
+   }
+}
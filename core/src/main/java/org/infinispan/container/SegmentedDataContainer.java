@@ -0,0 +1,43 @@
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A {@link DataContainer} that keeps its entries partitioned by the segment they map to in the cache's
+ * {@link org.infinispan.distribution.ch.ConsistentHash}, so that state transfer can process a set of segments without
+ * scanning the entire container.
+ * <p/>
+ * The segment of a key is assumed to be the same in every topology of the cache, which holds as long as the hash
+ * function and the number of segments do not change.
+ *
+ * @since 6.0
+ */
+public interface SegmentedDataContainer extends DataContainer {
+
+   /**
+    * @param segment the segment id
+    * @return count of the number of entries in the given segment, including expired entries that have not been purged
+    *         yet
+    */
+   int size(int segment);
+
+   /**
+    * Returns an iterator over the entries of the given segments only. Like {@link #iterator()}, this may return
+    * expired entries and does not support removal.
+    *
+    * @param segments the segment ids
+    * @return an iterator over the entries of the segments
+    */
+   Iterator<InternalCacheEntry> iterator(Set<Integer> segments);
+
+   /**
+    * Removes all entries of the given segments. Entries are dropped without being passivated or removed from any
+    * cache store.
+    *
+    * @param segments the segment ids
+    */
+   void removeSegments(Set<Integer> segments);
+}
@@ -0,0 +1,855 @@
+package org.infinispan.container.offheap;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * A {@link DataContainer} which keeps entries serialized in native memory, outside of the Java heap, so that large
+ * data sets do not weigh on the garbage collector.
+ * <p/>
+ * Keys, values and metadata are serialized with the cache marshaller and stored together with their timestamps in a
+ * single native memory block per entry. Entries are found through a hash index partitioned in lock-striped segments,
+ * whose buckets chain the entries through a pointer kept in each block. Keys are compared in their serialized form,
+ * so the cache marshaller must produce the same bytes for equal keys. Entries are only materialized, through the
+ * {@link InternalEntryFactory}, when they are read; mutating a materialized entry has no effect on the container,
+ * which must be updated through {@link #put(Object, Object, Metadata)}.
+ * <p/>
+ * Expiration is checked against the timestamps in the native blocks, so {@link #purgeExpired()} never deserializes
+ * anything. When eviction is enabled, each segment keeps its entries in a native doubly-linked list ordered by
+ * access and evicts the least recently used ones once it holds more than its share of <tt>maxEntries</tt> or, if
+ * configured, of <tt>maxMemory</tt> bytes. All eviction strategies are served by this LRU ordering.
+ * <p/>
+ * Use it by configuring an instance, or its class name, as the cache's data container. An instance must not be
+ * shared between caches.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class OffHeapDataContainer implements DataContainer {
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /*
+    * Layout of an entry in native memory. Lengths are in bytes; a metadata length of -1 stands for null metadata.
+    */
+   private static final int NEXT_OFFSET = 0;
+   private static final int LRU_PREVIOUS_OFFSET = 8;
+   private static final int LRU_NEXT_OFFSET = 16;
+   private static final int HASH_OFFSET = 24;
+   private static final int KEY_LENGTH_OFFSET = 28;
+   private static final int METADATA_LENGTH_OFFSET = 32;
+   private static final int VALUE_LENGTH_OFFSET = 36;
+   private static final int CREATED_OFFSET = 40;
+   private static final int LAST_USED_OFFSET = 48;
+   private static final int LIFESPAN_OFFSET = 56;
+   private static final int MAX_IDLE_OFFSET = 64;
+   private static final int HEADER_SIZE = 72;
+
+   private static final int INITIAL_SEGMENT_CAPACITY = 16;
+   private static final float LOAD_FACTOR = 0.75f;
+
+   private final UnsafeMemory memory = new UnsafeMemory();
+
+   private Segment[] segments;
+   private int segmentShift;
+   private int segmentMask;
+   private boolean evictionEnabled;
+   private int maxSegmentEntries;
+   private long maxSegmentMemory;
+   private long maxMemory;
+
+   private StreamingMarshaller marshaller;
+   private InternalEntryFactory entryFactory;
+   private TimeService timeService;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+
+   @Inject
+   public void initialize(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+         InternalEntryFactory entryFactory, TimeService timeService, EvictionManager evictionManager,
+         PassivationManager passivator, ActivationManager activator, Configuration configuration) {
+      this.marshaller = marshaller;
+      this.entryFactory = entryFactory;
+      this.timeService = timeService;
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.activator = activator;
+
+      int concurrencyLevel = Math.max(configuration.locking().concurrencyLevel(), 1);
+      int sshift = 0;
+      int ssize = 1;
+      while (ssize < concurrencyLevel) {
+         ++sshift;
+         ssize <<= 1;
+      }
+      segmentShift = 32 - sshift;
+      segmentMask = ssize - 1;
+      segments = new Segment[ssize];
+      for (int i = 0; i < ssize; i++) {
+         segments[i] = new Segment();
+      }
+
+      int maxEntries = configuration.eviction().maxEntries();
+      long maxMemory = configuration.eviction().maxMemory();
+      evictionEnabled = configuration.eviction().strategy().isEnabled() && maxEntries > 0;
+      maxSegmentEntries = evictionEnabled ? Math.max(maxEntries / ssize, 1) : -1;
+      maxSegmentMemory = evictionEnabled && maxMemory > 0 ? Math.max(maxMemory / ssize, 1) : -1;
+      this.maxMemory = maxSegmentMemory > 0 ? maxMemory : -1;
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      byte[] keyBytes = toBytes(k);
+      int hash = hash(keyBytes);
+      EntryBytes bytes = segmentFor(hash).get(keyBytes, hash, true, timeService.wallClockTime());
+      return bytes == null ? null : materialize(k, bytes);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      byte[] keyBytes = toBytes(k);
+      int hash = hash(keyBytes);
+      EntryBytes bytes = segmentFor(hash).get(keyBytes, hash, false, -1);
+      return bytes == null ? null : materialize(k, bytes);
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      byte[] keyBytes = toBytes(k);
+      int hash = hash(keyBytes);
+      byte[] metadataBytes = metadata == null ? null : toBytes(metadata);
+      byte[] valueBytes = toBytes(v);
+      Map<Object, InternalCacheEntry> evicted = segmentFor(hash).put(k, v, metadata, keyBytes, hash, metadataBytes,
+            valueBytes);
+      if (evicted != null) {
+         evictionManager.onEntryEviction(evicted);
+      }
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] keyBytes = toBytes(k);
+      int hash = hash(keyBytes);
+      return segmentFor(hash).containsKey(keyBytes, hash, timeService.wallClockTime());
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      byte[] keyBytes = toBytes(k);
+      int hash = hash(keyBytes);
+      EntryBytes bytes = segmentFor(hash).remove(keyBytes, hash);
+      if (bytes == null || bytes.isExpired(timeService.wallClockTime())) {
+         return null;
+      }
+      return materialize(k, bytes);
+   }
+
+   @Override
+   public int size() {
+      long size = 0;
+      for (Segment segment : segments) {
+         size += segment.count;
+      }
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public void clear() {
+      if (segments == null) {
+         return;
+      }
+      for (Segment segment : segments) {
+         segment.clear();
+      }
+   }
+
+   /**
+    * Frees the native memory of all the entries, which the garbage collector would never reclaim, and shrinks the
+    * bucket tables back to their initial capacity.
+    */
+   @Stop(priority = 999)
+   public void stop() {
+      if (segments == null) {
+         return;
+      }
+      for (Segment segment : segments) {
+         segment.clear();
+         segment.shrink();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (Segment segment : segments) {
+         segment.purgeExpired(currentTimeMillis);
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new EntryIterator();
+   }
+
+   /**
+    * @return the number of bytes of native memory currently allocated for entries
+    */
+   public long memoryInUse() {
+      return memory.allocated();
+   }
+
+   /**
+    * @return the bound on the native memory allocated for entries, or -1 if eviction is not bounded by memory
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
+   private Segment segmentFor(int hash) {
+      return segments[(hash >>> segmentShift) & segmentMask];
+   }
+
+   private static int hash(byte[] keyBytes) {
+      return MurmurHash3.MurmurHash3_x64_32(keyBytes, 9001);
+   }
+
+   private byte[] toBytes(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall " + o, e);
+      }
+   }
+
+   private Object fromBytes(byte[] bytes) {
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException("Unable to unmarshall entry stored off-heap", e);
+      }
+   }
+
+   private InternalCacheEntry materialize(Object key, EntryBytes bytes) {
+      Object value = fromBytes(bytes.value);
+      Metadata metadata = bytes.metadata == null ? null : (Metadata) fromBytes(bytes.metadata);
+      return entryFactory.create(key, value, metadata, bytes.created, bytes.lifespan, bytes.lastUsed, bytes.maxIdle);
+   }
+
+   /**
+    * Lets the factory decide on the timestamps of a written entry, as the heap based container does: the entry it
+    * replaces is updated with the new metadata, so that e.g. the last used stamp of a transient entry is kept.
+    */
+   private InternalCacheEntry timestamps(Object k, Object v, Metadata metadata, long existing) {
+      if (existing == 0 || metadata == null) {
+         return entryFactory.create(k, v, metadata);
+      }
+      int metadataLength = UnsafeMemory.getInt(existing + METADATA_LENGTH_OFFSET);
+      Metadata existingMetadata = null;
+      if (metadataLength >= 0) {
+         byte[] metadataBytes = new byte[metadataLength];
+         UnsafeMemory.copyToArray(existing + HEADER_SIZE + UnsafeMemory.getInt(existing + KEY_LENGTH_OFFSET),
+               metadataBytes, 0, metadataLength);
+         existingMetadata = (Metadata) fromBytes(metadataBytes);
+      }
+      InternalCacheEntry e = entryFactory.create(k, v, existingMetadata,
+            UnsafeMemory.getLong(existing + CREATED_OFFSET), UnsafeMemory.getLong(existing + LIFESPAN_OFFSET),
+            UnsafeMemory.getLong(existing + LAST_USED_OFFSET), UnsafeMemory.getLong(existing + MAX_IDLE_OFFSET));
+      InternalCacheEntry updated = entryFactory.update(e, metadata);
+      // we have the same instance. So we need to reincarnate.
+      if (updated == e) {
+         updated.reincarnate(timeService.wallClockTime());
+      }
+      return updated;
+   }
+
+   private static long entrySize(long address) {
+      int metadataLength = UnsafeMemory.getInt(address + METADATA_LENGTH_OFFSET);
+      return HEADER_SIZE + UnsafeMemory.getInt(address + KEY_LENGTH_OFFSET) + Math.max(metadataLength, 0)
+            + UnsafeMemory.getInt(address + VALUE_LENGTH_OFFSET);
+   }
+
+   private static boolean isExpired(long address, long now) {
+      return ExpiryHelper.isExpiredTransientMortal(UnsafeMemory.getLong(address + MAX_IDLE_OFFSET),
+            UnsafeMemory.getLong(address + LAST_USED_OFFSET), UnsafeMemory.getLong(address + LIFESPAN_OFFSET),
+            UnsafeMemory.getLong(address + CREATED_OFFSET), now);
+   }
+
+   /**
+    * A heap copy of an entry's serialized form, taken while holding the segment lock so that it can be
+    * deserialized after releasing it.
+    */
+   private static final class EntryBytes {
+      byte[] key;
+      byte[] metadata;
+      byte[] value;
+      long created;
+      long lastUsed;
+      long lifespan;
+      long maxIdle;
+
+      EntryBytes(long address, boolean copyKey) {
+         int keyLength = UnsafeMemory.getInt(address + KEY_LENGTH_OFFSET);
+         int metadataLength = UnsafeMemory.getInt(address + METADATA_LENGTH_OFFSET);
+         int valueLength = UnsafeMemory.getInt(address + VALUE_LENGTH_OFFSET);
+         long offset = address + HEADER_SIZE;
+         if (copyKey) {
+            key = new byte[keyLength];
+            UnsafeMemory.copyToArray(offset, key, 0, keyLength);
+         }
+         offset += keyLength;
+         if (metadataLength >= 0) {
+            metadata = new byte[metadataLength];
+            UnsafeMemory.copyToArray(offset, metadata, 0, metadataLength);
+            offset += metadataLength;
+         }
+         value = new byte[valueLength];
+         UnsafeMemory.copyToArray(offset, value, 0, valueLength);
+         created = UnsafeMemory.getLong(address + CREATED_OFFSET);
+         lastUsed = UnsafeMemory.getLong(address + LAST_USED_OFFSET);
+         lifespan = UnsafeMemory.getLong(address + LIFESPAN_OFFSET);
+         maxIdle = UnsafeMemory.getLong(address + MAX_IDLE_OFFSET);
+      }
+
+      boolean isExpired(long now) {
+         return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+      }
+   }
+
+   /**
+    * A lock-striped partition of the hash index. The bucket heads live in a heap <tt>long[]</tt>, which the garbage
+    * collector never needs to scan; everything else lives in native memory. Every access, including reads, holds
+    * the lock, since native memory may be freed by a concurrent write.
+    */
+   private final class Segment extends ReentrantLock {
+
+      private static final long serialVersionUID = -4364823489154383712L;
+
+      private long[] table = new long[INITIAL_SEGMENT_CAPACITY];
+      /** Most recently used entry, only maintained when eviction is enabled. */
+      private long lruHead;
+      /** Least recently used entry, only maintained when eviction is enabled. */
+      private long lruTail;
+      private long memoryInUse;
+      volatile int count;
+
+      EntryBytes get(byte[] keyBytes, int hash, boolean touch, long now) {
+         lock();
+         try {
+            long address = find(keyBytes, hash);
+            if (address == 0) {
+               return null;
+            }
+            if (touch) {
+               if (isExpired(address, now)) {
+                  if (trace) log.tracef("Removing expired entry on read");
+                  removeEntry(address);
+                  return null;
+               }
+               UnsafeMemory.putLong(address + LAST_USED_OFFSET, now);
+               if (evictionEnabled) {
+                  lruMoveToHead(address);
+               }
+            }
+            return new EntryBytes(address, false);
+         } finally {
+            unlock();
+         }
+      }
+
+      boolean containsKey(byte[] keyBytes, int hash, long now) {
+         lock();
+         try {
+            long address = find(keyBytes, hash);
+            if (address != 0 && isExpired(address, now)) {
+               removeEntry(address);
+               return false;
+            }
+            return address != 0;
+         } finally {
+            unlock();
+         }
+      }
+
+      Map<Object, InternalCacheEntry> put(Object key, Object value, Metadata metadata, byte[] keyBytes, int hash,
+                                          byte[] metadataBytes, byte[] valueBytes) {
+         int metadataLength = metadataBytes == null ? -1 : metadataBytes.length;
+         long size = HEADER_SIZE + keyBytes.length + Math.max(metadataLength, 0) + valueBytes.length;
+         long address = memory.allocate(size);
+         UnsafeMemory.putLong(address + NEXT_OFFSET, 0);
+         UnsafeMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+         UnsafeMemory.putLong(address + LRU_NEXT_OFFSET, 0);
+         UnsafeMemory.putInt(address + HASH_OFFSET, hash);
+         UnsafeMemory.putInt(address + KEY_LENGTH_OFFSET, keyBytes.length);
+         UnsafeMemory.putInt(address + METADATA_LENGTH_OFFSET, metadataLength);
+         UnsafeMemory.putInt(address + VALUE_LENGTH_OFFSET, valueBytes.length);
+         long offset = address + HEADER_SIZE;
+         UnsafeMemory.copyFromArray(keyBytes, 0, offset, keyBytes.length);
+         offset += keyBytes.length;
+         if (metadataBytes != null) {
+            UnsafeMemory.copyFromArray(metadataBytes, 0, offset, metadataBytes.length);
+            offset += metadataBytes.length;
+         }
+         UnsafeMemory.copyFromArray(valueBytes, 0, offset, valueBytes.length);
+
+         lock();
+         try {
+            long existing = find(keyBytes, hash);
+            // the timestamps depend on the entry being replaced
+            InternalCacheEntry ice = timestamps(key, value, metadata, existing);
+            UnsafeMemory.putLong(address + CREATED_OFFSET, ice.getCreated());
+            UnsafeMemory.putLong(address + LAST_USED_OFFSET, ice.getLastUsed());
+            UnsafeMemory.putLong(address + LIFESPAN_OFFSET, ice.getLifespan());
+            UnsafeMemory.putLong(address + MAX_IDLE_OFFSET, ice.getMaxIdle());
+            if (existing != 0) {
+               removeEntry(existing);
+            }
+            int index = hash & (table.length - 1);
+            UnsafeMemory.putLong(address + NEXT_OFFSET, table[index]);
+            table[index] = address;
+            memoryInUse += size;
+            count++;
+            if (count > table.length * LOAD_FACTOR) {
+               rehash();
+            }
+            if (!evictionEnabled) {
+               return null;
+            }
+            lruAddHead(address);
+            if (existing == 0) {
+               // When entry not present, attempt to activate if necessary
+               activator.activate(key);
+            }
+            return evict(address);
+         } finally {
+            unlock();
+         }
+      }
+
+      EntryBytes remove(byte[] keyBytes, int hash) {
+         lock();
+         try {
+            long address = find(keyBytes, hash);
+            if (address == 0) {
+               return null;
+            }
+            EntryBytes bytes = new EntryBytes(address, false);
+            removeEntry(address);
+            return bytes;
+         } finally {
+            unlock();
+         }
+      }
+
+      void purgeExpired(long now) {
+         lock();
+         try {
+            for (int i = 0; i < table.length; i++) {
+               long address = table[i];
+               while (address != 0) {
+                  long next = UnsafeMemory.getLong(address + NEXT_OFFSET);
+                  if (isExpired(address, now)) {
+                     removeEntry(address);
+                  }
+                  address = next;
+               }
+            }
+         } finally {
+            unlock();
+         }
+      }
+
+      void clear() {
+         lock();
+         try {
+            for (int i = 0; i < table.length; i++) {
+               long address = table[i];
+               while (address != 0) {
+                  long next = UnsafeMemory.getLong(address + NEXT_OFFSET);
+                  memory.free(address, entrySize(address));
+                  address = next;
+               }
+               table[i] = 0;
+            }
+            lruHead = lruTail = 0;
+            memoryInUse = 0;
+            count = 0;
+         } finally {
+            unlock();
+         }
+      }
+
+      void shrink() {
+         lock();
+         try {
+            if (count == 0) {
+               table = new long[INITIAL_SEGMENT_CAPACITY];
+            }
+         } finally {
+            unlock();
+         }
+      }
+
+      int tableLength() {
+         lock();
+         try {
+            return table.length;
+         } finally {
+            unlock();
+         }
+      }
+
+      /**
+       * Copies the entries of the given bucket of the table as it was when it had the given length, or returns null
+       * once past the last bucket. The table may have been resized since, in which case the entries of that bucket
+       * are now spread over several buckets, or share theirs with the entries of other buckets.
+       */
+      List<EntryBytes> copyBucket(int index, int tableLength) {
+         lock();
+         try {
+            if (index >= tableLength) {
+               return null;
+            }
+            List<EntryBytes> copies = new ArrayList<EntryBytes>(2);
+            int step = Math.min(tableLength, table.length);
+            for (int i = index & (table.length - 1); i < table.length; i += step) {
+               for (long address = table[i]; address != 0; address = UnsafeMemory.getLong(address + NEXT_OFFSET)) {
+                  if ((UnsafeMemory.getInt(address + HASH_OFFSET) & (tableLength - 1)) == index) {
+                     copies.add(new EntryBytes(address, true));
+                  }
+               }
+            }
+            return copies;
+         } finally {
+            unlock();
+         }
+      }
+
+      /*
+       * The methods below must only be called while holding the lock.
+       */
+
+      private long find(byte[] keyBytes, int hash) {
+         long address = table[hash & (table.length - 1)];
+         while (address != 0) {
+            if (UnsafeMemory.getInt(address + HASH_OFFSET) == hash
+                  && UnsafeMemory.equals(address + HEADER_SIZE, keyBytes, UnsafeMemory.getInt(address + KEY_LENGTH_OFFSET))) {
+               return address;
+            }
+            address = UnsafeMemory.getLong(address + NEXT_OFFSET);
+         }
+         return 0;
+      }
+
+      /**
+       * Unlinks an entry from its bucket and from the LRU list, and frees its memory.
+       */
+      private void removeEntry(long address) {
+         int index = UnsafeMemory.getInt(address + HASH_OFFSET) & (table.length - 1);
+         long next = UnsafeMemory.getLong(address + NEXT_OFFSET);
+         long current = table[index];
+         if (current == address) {
+            table[index] = next;
+         } else {
+            while (current != 0) {
+               long following = UnsafeMemory.getLong(current + NEXT_OFFSET);
+               if (following == address) {
+                  UnsafeMemory.putLong(current + NEXT_OFFSET, next);
+                  break;
+               }
+               current = following;
+            }
+         }
+         if (evictionEnabled) {
+            lruRemove(address);
+         }
+         long size = entrySize(address);
+         memory.free(address, size);
+         memoryInUse -= size;
+         count--;
+      }
+
+      private void rehash() {
+         long[] oldTable = table;
+         long[] newTable = new long[oldTable.length << 1];
+         int sizeMask = newTable.length - 1;
+         for (long head : oldTable) {
+            long address = head;
+            while (address != 0) {
+               long next = UnsafeMemory.getLong(address + NEXT_OFFSET);
+               int index = UnsafeMemory.getInt(address + HASH_OFFSET) & sizeMask;
+               UnsafeMemory.putLong(address + NEXT_OFFSET, newTable[index]);
+               newTable[index] = address;
+               address = next;
+            }
+         }
+         table = newTable;
+      }
+
+      private Map<Object, InternalCacheEntry> evict(long justAdded) {
+         Map<Object, InternalCacheEntry> evicted = null;
+         while (lruTail != 0 && lruTail != justAdded
+               && (count > maxSegmentEntries || (maxSegmentMemory > 0 && memoryInUse > maxSegmentMemory))) {
+            long victim = lruTail;
+            EntryBytes bytes = new EntryBytes(victim, true);
+            InternalCacheEntry ice = materialize(fromBytes(bytes.key), bytes);
+            // the entry has to be passivated before it disappears, as the heap based container does
+            passivator.passivate(ice);
+            removeEntry(victim);
+            if (evicted == null) {
+               evicted = new HashMap<Object, InternalCacheEntry>();
+            }
+            evicted.put(ice.getKey(), ice);
+         }
+         return evicted;
+      }
+
+      private void lruAddHead(long address) {
+         UnsafeMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+         UnsafeMemory.putLong(address + LRU_NEXT_OFFSET, lruHead);
+         if (lruHead != 0) {
+            UnsafeMemory.putLong(lruHead + LRU_PREVIOUS_OFFSET, address);
+         }
+         lruHead = address;
+         if (lruTail == 0) {
+            lruTail = address;
+         }
+      }
+
+      private void lruRemove(long address) {
+         long previous = UnsafeMemory.getLong(address + LRU_PREVIOUS_OFFSET);
+         long next = UnsafeMemory.getLong(address + LRU_NEXT_OFFSET);
+         if (previous != 0) {
+            UnsafeMemory.putLong(previous + LRU_NEXT_OFFSET, next);
+         } else {
+            lruHead = next;
+         }
+         if (next != 0) {
+            UnsafeMemory.putLong(next + LRU_PREVIOUS_OFFSET, previous);
+         } else {
+            lruTail = previous;
+         }
+      }
+
+      private void lruMoveToHead(long address) {
+         if (lruHead != address) {
+            lruRemove(address);
+            lruAddHead(address);
+         }
+      }
+   }
+
+   /**
+    * Iterates over the container one bucket at a time, so that no lock is held while entries are deserialized and
+    * consumed. Like the iterators of the concurrent maps, it reflects the state of each bucket when it was reached.
+    * The buckets are those of the segment's table when the iteration reached the segment, so that an entry moved to
+    * another bucket by a resize of the table is not returned twice.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry> {
+      private int segmentIndex;
+      private int bucketIndex;
+      private int tableLength;
+      private Iterator<EntryBytes> bucket;
+
+      @Override
+      public boolean hasNext() {
+         while (bucket == null || !bucket.hasNext()) {
+            if (segmentIndex >= segments.length) {
+               return false;
+            }
+            Segment segment = segments[segmentIndex];
+            if (bucketIndex == 0) {
+               tableLength = segment.tableLength();
+            }
+            List<EntryBytes> copies = segment.copyBucket(bucketIndex++, tableLength);
+            if (copies == null) {
+               segmentIndex++;
+               bucketIndex = 0;
+               bucket = null;
+            } else {
+               bucket = copies.iterator();
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         EntryBytes bytes = bucket.next();
+         return materialize(fromBytes(bytes.key), bytes);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class KeySet extends AbstractSet<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    *
+    */
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<InternalCacheEntry>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry next() {
+               return CoreImmutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+}
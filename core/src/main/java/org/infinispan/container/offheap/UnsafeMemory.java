@@ -0,0 +1,116 @@
+package org.infinispan.container.offheap;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thin wrapper around {@link Unsafe} giving access to native memory outside of the Java heap.
+ * <p/>
+ * Addresses handed out by {@link #allocate(long)} must be released with {@link #free(long)}; nothing is reclaimed
+ * by the garbage collector. Accessing an address after it has been freed may crash the JVM, so callers must make
+ * sure, typically by holding a lock, that no other thread can reach an address that is being freed.
+ *
+ * @since 6.0
+ */
+final class UnsafeMemory {
+
+   private static final Unsafe UNSAFE;
+   private static final long BYTE_ARRAY_OFFSET;
+
+   static {
+      try {
+         Field f = Unsafe.class.getDeclaredField("theUnsafe");
+         f.setAccessible(true);
+         UNSAFE = (Unsafe) f.get(null);
+         BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+      } catch (Exception e) {
+         throw new ExceptionInInitializerError(e);
+      }
+   }
+
+   private final AtomicLong allocated = new AtomicLong();
+
+   long allocate(long size) {
+      long address = UNSAFE.allocateMemory(size);
+      allocated.addAndGet(size);
+      return address;
+   }
+
+   void free(long address, long size) {
+      UNSAFE.freeMemory(address);
+      allocated.addAndGet(-size);
+   }
+
+   /**
+    * @return the number of bytes currently allocated through this instance
+    */
+   long allocated() {
+      return allocated.get();
+   }
+
+   static long getLong(long address) {
+      return UNSAFE.getLong(address);
+   }
+
+   static void putLong(long address, long value) {
+      UNSAFE.putLong(address, value);
+   }
+
+   static int getInt(long address) {
+      return UNSAFE.getInt(address);
+   }
+
+   static void putInt(long address, int value) {
+      UNSAFE.putInt(address, value);
+   }
+
+   /**
+    * Copies <tt>length</tt> bytes of <tt>src</tt>, starting at <tt>srcOffset</tt>, to native memory.
+    */
+   static void copyFromArray(byte[] src, int srcOffset, long address, int length) {
+      int i = 0;
+      // word at a time, as Unsafe.copyMemory between heap and native memory requires Java 7
+      for (; i <= length - 8; i += 8) {
+         UNSAFE.putLong(address + i, UNSAFE.getLong(src, BYTE_ARRAY_OFFSET + srcOffset + i));
+      }
+      for (; i < length; i++) {
+         UNSAFE.putByte(address + i, src[srcOffset + i]);
+      }
+   }
+
+   /**
+    * Copies <tt>length</tt> bytes of native memory into <tt>dst</tt>, starting at <tt>dstOffset</tt>.
+    */
+   static void copyToArray(long address, byte[] dst, int dstOffset, int length) {
+      int i = 0;
+      for (; i <= length - 8; i += 8) {
+         UNSAFE.putLong(dst, BYTE_ARRAY_OFFSET + dstOffset + i, UNSAFE.getLong(address + i));
+      }
+      for (; i < length; i++) {
+         dst[dstOffset + i] = UNSAFE.getByte(address + i);
+      }
+   }
+
+   /**
+    * @return true if the <tt>length</tt> bytes at <tt>address</tt> are the same as the contents of <tt>bytes</tt>
+    */
+   static boolean equals(long address, byte[] bytes, int length) {
+      if (bytes.length != length) {
+         return false;
+      }
+      int i = 0;
+      for (; i <= length - 8; i += 8) {
+         if (UNSAFE.getLong(address + i) != UNSAFE.getLong(bytes, BYTE_ARRAY_OFFSET + i)) {
+            return false;
+         }
+      }
+      for (; i < length; i++) {
+         if (UNSAFE.getByte(address + i) != bytes[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -52,7 +52,8 @@ <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> mapAndCombineForLocalReduction(
 
    /**
     * Invoked when ReduceCommand arrives to a target Infinispan node. Implementations should return
-    * a map of reduced output keys and values to be returned to invoker of MapReduceTask
+    * a map of reduced output keys and values to be returned to invoker of MapReduceTask, or store
+    * them in the result cache of the command and return an empty map
     * 
     * @param reducer ReduceCommand sent from MapReduceTask
     * @return map of reduced output keys and values returned to MapReduceTask
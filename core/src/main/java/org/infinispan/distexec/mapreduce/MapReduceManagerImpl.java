@@ -2,20 +2,24 @@
 
 import static org.infinispan.distexec.mapreduce.MapReduceTask.DEFAULT_TMP_CACHE_CONFIGURATION_NAME;
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.atomic.Delta;
@@ -23,21 +27,34 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commons.CacheException;
-import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
 import org.infinispan.distexec.mapreduce.spi.MapReduceTaskLifecycleService;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.CacheLoaderTask;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.TaskContext;
 import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.core.MarshalledValue;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -50,15 +67,22 @@
  * @author Vladimir Blagojevic
  * @since 5.2
  */
+@MBean(objectName = "MapReduceManager", description = "Component that executes the map/reduce tasks on this node")
 public class MapReduceManagerImpl implements MapReduceManager {
 
    private static final Log log = LogFactory.getLog(MapReduceManagerImpl.class);
    private static final int CANCELLATION_CHECK_FREQUENCY = 20;
+   private static final int RESULT_BATCH_SIZE = 1000;
    private ClusteringDependentLogic cdl;
    private EmbeddedCacheManager cacheManager;
    private CacheLoaderManager cacheLoaderManager;
    private ExecutorService executorService;
    private TimeService timeService;
+   private DataContainer dataContainer;
+   private Configuration configuration;
+   private StreamingMarshaller marshaller;
+   private final AtomicLong spilledBytes = new AtomicLong();
+   private final AtomicLong mergeTime = new AtomicLong();
 
    MapReduceManagerImpl() {
    }
@@ -66,12 +90,16 @@ public class MapReduceManagerImpl implements MapReduceManager {
    @Inject
    public void init(EmbeddedCacheManager cacheManager, CacheLoaderManager cacheLoaderManager,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
-            ClusteringDependentLogic cdl, TimeService timeService) {
+            ClusteringDependentLogic cdl, TimeService timeService, DataContainer dataContainer,
+            Configuration configuration, @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cacheManager = cacheManager;
       this.cacheLoaderManager = cacheLoaderManager;
       this.cdl = cdl;
       this.executorService = asyncTransportExecutor;
       this.timeService = timeService;
+      this.dataContainer = dataContainer;
+      this.configuration = configuration;
+      this.marshaller = marshaller;
    }
 
    @Override
@@ -82,18 +110,98 @@ public ExecutorService getExecutorService() {
    @Override
    public <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> mapAndCombineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
-      CollectableCollector<KOut, VOut> collector = map(mcc);
-      return combineForLocalReduction(mcc, collector);
+      SpillingCollector<KOut, VOut> collector = createCollector(mcc, mcc.getMaxCollectorSize());
+      startCombiner(mcc);
+      try {
+         map(mcc, collector);
+         return combineForLocalReduction(mcc, collector);
+      } finally {
+         closeCollector(mcc, collector);
+         stopCombiner(mcc);
+      }
    }
 
    @Override
    public <KIn, VIn, KOut, VOut> Set<KOut> mapAndCombineForDistributedReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
-      CollectableCollector<KOut, VOut> collector = map(mcc);
+      SpillingCollector<KOut, VOut> collector = createCollector(mcc, mcc.getMaxCollectorSize());
+      startCombiner(mcc);
       try {
+         map(mcc, collector);
          return combine(mcc, collector);
+      } catch (InterruptedException e) {
+         throw e;
       } catch (Exception e) {
          throw new CacheException(e);
+      } finally {
+         closeCollector(mcc, collector);
+         stopCombiner(mcc);
+      }
+   }
+
+   /**
+    * @return the number of bytes of intermediate values spilled to disk by the map phases
+    */
+   @ManagedAttribute(
+         description = "Number of bytes of intermediate values spilled to disk by the map phases",
+         displayName = "Spilled bytes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSpilledBytes() {
+      return spilledBytes.get();
+   }
+
+   /**
+    * @return the time spent merging the intermediate values spilled to disk, in milliseconds
+    */
+   @ManagedAttribute(
+         description = "Time spent merging the intermediate values spilled to disk, in milliseconds",
+         displayName = "Merge time",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getMergeTime() {
+      return TimeUnit.NANOSECONDS.toMillis(mergeTime.get());
+   }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      spilledBytes.set(0);
+      mergeTime.set(0);
+   }
+
+   private <KOut, VOut> SpillingCollector<KOut, VOut> createCollector(MapCombineCommand<?, ?, KOut, VOut> mcc,
+            int maxValues) {
+      return new SpillingCollector<KOut, VOut>(mcc.getCombiner(), maxValues, marshaller,
+                                               "mapreduce-" + mcc.getTaskId() + "-", timeService);
+   }
+
+   private void closeCollector(MapCombineCommand<?, ?, ?, ?> mcc, SpillingCollector<?, ?> collector) {
+      if (collector.getRunCount() > 0) {
+         spilledBytes.addAndGet(collector.getSpilledBytes());
+         mergeTime.addAndGet(collector.getMergeTime());
+         log.tracef("For m/r task %s spilled %s bytes in %s runs, merged in %s milliseconds", mcc.getTaskId(),
+                    collector.getSpilledBytes(), collector.getRunCount(),
+                    TimeUnit.NANOSECONDS.toMillis(collector.getMergeTime()));
+      }
+      collector.close();
+   }
+
+   /**
+    * The combiner is invoked by the collector as the values are emitted, so it must be started before the map phase.
+    */
+   private void startCombiner(MapCombineCommand<?, ?, ?, ?> mcc) {
+      if (mcc.getCombiner() != null) {
+         Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
+         MapReduceTaskLifecycleService.getInstance().onPreExecute(mcc.getCombiner(), cache);
+      }
+   }
+
+   private void stopCombiner(MapCombineCommand<?, ?, ?, ?> mcc) {
+      if (mcc.getCombiner() != null) {
+         MapReduceTaskLifecycleService.getInstance().onPostExecute(mcc.getCombiner());
       }
    }
 
@@ -108,6 +216,10 @@ public <KOut, VOut> Map<KOut, VOut> reduce(ReduceCommand<KOut, VOut> reduceComma
       boolean noInputKeys = keys == null || keys.isEmpty();
       Cache<Object, List<VOut>> tmpCache = cacheManager.getCache(reduceCommand.getCacheName());
       Map<KOut,VOut> result = new HashMap<KOut, VOut>();
+      Cache<KOut, VOut> resultCache = null;
+      if (reduceCommand.getResultCacheName() != null) {
+         resultCache = cacheManager.getCache(reduceCommand.getResultCacheName());
+      }
       if (noInputKeys) {
          //illegal state, raise exception
          throw new IllegalStateException("Reduce phase of MapReduceTask " + taskId + " on node "
@@ -135,6 +247,12 @@ public <KOut, VOut> Map<KOut, VOut> reduce(ReduceCommand<KOut, VOut> reduceComma
                VOut reduced = reducer.reduce(key, value.iterator());
                result.put(key, reduced);
                log.tracef("For m/r task %s reduced %s to %s at %s ", taskId, key, reduced, cdl.getAddress());
+               if (resultCache != null && result.size() >= RESULT_BATCH_SIZE) {
+                  storeResults(resultCache, result);
+               }
+            }
+            if (resultCache != null) {
+               storeResults(resultCache, result);
             }
          } finally {
             if (log.isTraceEnabled()) {
@@ -147,14 +265,27 @@ public <KOut, VOut> Map<KOut, VOut> reduce(ReduceCommand<KOut, VOut> reduceComma
       return result;
    }
 
-   protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
-            MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
+   /**
+    * Writes a batch of reduced values to the result cache, so that they don't have to be sent back to the master node.
+    */
+   private <KOut, VOut> void storeResults(Cache<KOut, VOut> resultCache, Map<KOut, VOut> batch) {
+      if (batch.isEmpty()) return;
+      resultCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).putAll(batch);
+      batch.clear();
+   }
+
+   protected <KIn, VIn, KOut, VOut> void map(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+            SpillingCollector<KOut, VOut> collector) throws InterruptedException {
       Cache<KIn, VIn> cache = cacheManager.getCache(mcc.getCacheName());
       Set<KIn> keys = mcc.getKeys();
       Set<KIn> inputKeysCopy = null;
       Mapper<KIn, VIn, KOut, VOut> mapper = mcc.getMapper();
       DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
       boolean inputKeysSpecified = keys != null && !keys.isEmpty();
+      if (!inputKeysSpecified && mcc.getMapParallelism() > 1 && !configuration.compatibility().enabled()) {
+         mapInParallel(mcc, cache, dm, collector);
+         return;
+      }
       Set <KIn> inputKeys = keys;
       if (!inputKeysSpecified) {
          inputKeys = filterLocalPrimaryOwner(cache.keySet(), dm);
@@ -163,7 +294,6 @@ protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
       }
       // hook map function into lifecycle and execute it
       MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-      DefaultCollector<KOut, VOut> collector = new DefaultCollector<KOut, VOut>();
       log.tracef("For m/r task %s invoking %s with input keys %s",  mcc.getTaskId(), mcc, inputKeys);
       int interruptCount = 0;
       long start = log.isTraceEnabled() ? timeService.time() : 0;
@@ -205,11 +335,126 @@ protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
          }
          taskLifecycleService.onPostExecute(mapper);
       }
-      return collector;
    }
 
+   /**
+    * Maps all the entries of the data container and of the cache loader whose keys are primary owned by this node,
+    * from {@link MapCombineCommand#getMapParallelism()} threads. The entries are read directly from the data container
+    * and streamed from the loader, and passed to the mapper in partitions; each thread emits to its own collector, and
+    * the collectors are merged into <tt>result</tt> once all the partitions are mapped.
+    */
+   protected <KIn, VIn, KOut, VOut> void mapInParallel(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+            Cache<KIn, VIn> cache, DistributionManager dm, SpillingCollector<KOut, VOut> result)
+            throws InterruptedException {
+      Mapper<KIn, VIn, KOut, VOut> mapper = mcc.getMapper();
+      MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
+      PerThreadCollector<KOut, VOut> collector = new PerThreadCollector<KOut, VOut>(mcc);
+      CacheLoader cl = resolveCacheLoader();
+      // keys mapped from the data container must not be mapped again if found in the loader
+      Set<Object> mappedKeys = cl != null ? new ConcurrentHashSet<Object>() : null;
+      PrimaryOwnerFilter filter = new PrimaryOwnerFilter(dm, mappedKeys);
+      log.tracef("For m/r task %s invoking %s with %s threads", mcc.getTaskId(), mcc, mcc.getMapParallelism());
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      ExecutorService executor = ProcessingSupport.newExecutor(mcc.getMapParallelism(), "MapReduce," + mcc.getTaskId());
+      try {
+         taskLifecycleService.onPreExecute(mapper, cache);
+         mapDataContainer(mapper, collector, filter, mappedKeys, executor);
+         if (cl != null) {
+            mapCacheLoader(cl, mapper, collector, filter, executor);
+         }
+         collector.mergeInto(result);
+      } catch (CacheLoaderException e) {
+         // the traversals fail this way when they are interrupted while waiting for the partitions
+         if (Thread.currentThread().isInterrupted())
+            throw new InterruptedException();
+         throw new CacheException("Could not map the entries for M/R task " + mcc.getTaskId(), e);
+      } finally {
+         executor.shutdownNow();
+         collector.close();
+         if (log.isTraceEnabled()) {
+            log.tracef("Map phase for task %s took %s milliseconds",
+                       mcc.getTaskId(), timeService.timeDuration(start, TimeUnit.MILLISECONDS));
+         }
+         taskLifecycleService.onPostExecute(mapper);
+      }
+   }
+
+   private <KIn, VIn, KOut, VOut> void mapDataContainer(Mapper<KIn, VIn, KOut, VOut> mapper,
+            PerThreadCollector<KOut, VOut> collector, PrimaryOwnerFilter filter, Set<Object> mappedKeys,
+            ExecutorService executor) throws InterruptedException, CacheLoaderException {
+      ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(null, null, executor);
+      try {
+         long now = timeService.wallClockTime();
+         int interruptCount = 0;
+         List<InternalCacheEntry> partition = new ArrayList<InternalCacheEntry>(ProcessingSupport.PARTITION_SIZE);
+         for (InternalCacheEntry e : dataContainer) {
+            if (checkInterrupt(interruptCount++) && Thread.currentThread().isInterrupted())
+               throw new InterruptedException();
+
+            Object key = unwrap(e.getKey());
+            if (e.isExpired(now) || !filter.shouldLoadKey(key))
+               continue;
+            if (mappedKeys != null)
+               mappedKeys.add(key);
+            partition.add(e);
+            if (partition.size() == ProcessingSupport.PARTITION_SIZE) {
+               traversal.submit(mapPartition(mapper, collector, partition));
+               partition = new ArrayList<InternalCacheEntry>(ProcessingSupport.PARTITION_SIZE);
+            }
+         }
+         if (!partition.isEmpty()) {
+            traversal.submit(mapPartition(mapper, collector, partition));
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
+   private <KIn, VIn, KOut, VOut> Callable<Void> mapPartition(final Mapper<KIn, VIn, KOut, VOut> mapper,
+            final PerThreadCollector<KOut, VOut> collector, final List<InternalCacheEntry> partition) {
+      return new Callable<Void>() {
+         @Override
+         @SuppressWarnings("unchecked")
+         public Void call() throws Exception {
+            Collector<KOut, VOut> threadCollector = collector.get();
+            for (InternalCacheEntry e : partition) {
+               mapper.map((KIn) unwrap(e.getKey()), (VIn) unwrap(e.getValue()), threadCollector);
+            }
+            return null;
+         }
+      };
+   }
+
+   private <KIn, VIn, KOut, VOut> void mapCacheLoader(CacheLoader cl, final Mapper<KIn, VIn, KOut, VOut> mapper,
+            final PerThreadCollector<KOut, VOut> collector, PrimaryOwnerFilter filter, ExecutorService executor)
+            throws InterruptedException, CacheLoaderException {
+      final Thread mappingThread = Thread.currentThread();
+      ProcessingSupport.process(cl, filter, new CacheLoaderTask() {
+         @Override
+         @SuppressWarnings("unchecked")
+         public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) {
+            // the task is cancelled by interrupting the thread which invoked the map phase
+            if (mappingThread.isInterrupted()) {
+               context.stop();
+               return;
+            }
+            mapper.map((KIn) unwrap(key), (VIn) unwrap(entry.getValue()), collector.get());
+         }
+      }, executor, true);
+      if (Thread.currentThread().isInterrupted())
+         throw new InterruptedException();
+   }
+
+   private static Object unwrap(Object o) {
+      return o instanceof MarshalledValue ? ((MarshalledValue) o).get() : o;
+   }
+
+   /**
+    * Combines the values of each key, if a combiner is configured, and inserts them into the intermediate cache. The
+    * keys are read one at a time from the collector, so the values spilled to disk are never all loaded in memory.
+    */
    protected <KIn, VIn, KOut, VOut> Set<KOut> combine(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
-            CollectableCollector<KOut, VOut> collector) throws Exception{
+            SpillingCollector<KOut, VOut> collector) throws Exception{
 
       String taskId =  mcc.getTaskId();
       boolean emitCompositeIntermediateKeys = mcc.isEmitCompositeIntermediateKeys();
@@ -225,100 +470,42 @@ protected <KIn, VIn, KOut, VOut> Set<KOut> combine(MapCombineCommand<KIn, VIn, K
          throw new IllegalStateException("Temporary cache for MapReduceTask " + taskId
                   + " not found on " + cdl.getAddress());
       }
-      DistributionManager dm = tmpCache.getAdvancedCache().getDistributionManager();
 
       if (combiner != null) {
-         Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
          log.tracef("For m/r task %s invoking combiner %s at %s",  taskId, mcc, cdl.getAddress());
-         MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-         Map<KOut, VOut> combinedMap = new ConcurrentHashMap<KOut, VOut>();
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
-         try {
-            taskLifecycleService.onPreExecute(combiner, cache);
-            Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-            for (Entry<KOut, List<VOut>> e : collectedValues.entrySet()) {
-               List<VOut> list = e.getValue();
-               VOut combined;
-               if (list.size() > 1) {
-                  combined = combiner.reduce(e.getKey(), list.iterator());
-                  combinedMap.put(e.getKey(), combined);
+      }
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         Iterator<Entry<KOut, List<VOut>>> groups = collector.groups();
+         while (groups.hasNext()) {
+            Entry<KOut, List<VOut>> e = groups.next();
+            KOut key = e.getKey();
+            List<VOut> list = e.getValue();
+            DeltaAwareList<VOut> delta;
+            if (combiner != null) {
+               VOut combined = list.size() > 1 ? combiner.reduce(key, list.iterator()) : list.get(0);
+               log.tracef("For m/r task %s combined %s to %s at %s" , taskId, key, combined, cdl.getAddress());
+               delta = new DeltaAwareList<VOut>(combined);
+            } else {
+               delta = new DeltaAwareList<VOut>(list);
+            }
+            try {
+               if (emitCompositeIntermediateKeys) {
+                  tmpCache.put(new IntermediateCompositeKey<KOut>(taskId, key), delta);
                } else {
-                  combined = list.get(0);
-                  combinedMap.put(e.getKey(), combined);
+                  tmpCache.put(key, delta);
                }
-               log.tracef("For m/r task %s combined %s to %s at %s" , taskId, e.getKey(), combined, cdl.getAddress());
+            } catch (Exception ex) {
+               throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, ex);
             }
-         } finally {
-            if (log.isTraceEnabled()) {
-               log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
-                          timeService.timeDuration(start, TimeUnit.MILLISECONDS));
-            }
-            taskLifecycleService.onPostExecute(combiner);
+            mapPhaseKeys.add(key);
          }
-         Map<Address, List<KOut>> keysToNodes = mapKeysToNodes(dm, taskId, combinedMap.keySet(),
-                  emitCompositeIntermediateKeys);
-
-         start = log.isTraceEnabled() ? timeService.time() : 0;
-         try {
-            for (Entry<Address, List<KOut>> entry : keysToNodes.entrySet()) {
-               List<KOut> keysHashedToAddress = entry.getValue();
-               try {
-                  log.tracef("For m/r task %s migrating intermediate keys %s to %s",  taskId, keysHashedToAddress, entry.getKey());
-                  for (KOut key : keysHashedToAddress) {
-                     VOut value = combinedMap.get(key);
-                     DeltaAwareList<VOut> delta = new DeltaAwareList<VOut>(value);
-                     if (emitCompositeIntermediateKeys) {
-                        tmpCache.put(new IntermediateCompositeKey<KOut>(taskId, key), delta);
-                     } else {
-                        tmpCache.put(key, delta);
-                     }
-                     mapPhaseKeys.add(key);
-                  }
-               } catch (Exception e) {
-                  throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e);
-               }
-            }
-         } finally {
-            if (log.isTraceEnabled()) {
-               log.tracef("Migrating keys for task %s took %s milliseconds (Migrated %s keys)",
-                          mcc.getTaskId(),
-                          timeService.timeDuration(start, TimeUnit.MILLISECONDS),
-                          mapPhaseKeys.size());
-            }
-         }
-      } else {
-         // Combiner not specified so lets insert each key/uncombined-List pair into tmp cache
-
-         Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-         Map<Address, List<KOut>> keysToNodes = mapKeysToNodes(dm, taskId, collectedValues.keySet(),
-                  emitCompositeIntermediateKeys);
-
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
-         try {
-            for (Entry<Address, List<KOut>> entry : keysToNodes.entrySet()) {
-               List<KOut> keysHashedToAddress = entry.getValue();
-               try {
-                  log.tracef("For m/r task %s migrating intermediate keys %s to %s", taskId, keysHashedToAddress, entry.getKey());
-                  for (KOut key : keysHashedToAddress) {
-                     List<VOut> value = collectedValues.get(key);
-                     DeltaAwareList<VOut> delta = new DeltaAwareList<VOut>(value);
-                     if (emitCompositeIntermediateKeys) {
-                        tmpCache.put(new IntermediateCompositeKey<KOut>(taskId, key), delta);
-                     } else {
-                        tmpCache.put(key, delta);
-                     }
-                     mapPhaseKeys.add(key);
-                  }
-               } catch (Exception e) {
-                  throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e);
-               }
-            }
-         } finally {
-            if (log.isTraceEnabled()) {
-               log.tracef("Migrating keys for task %s took %s milliseconds (Migrated %s keys)", mcc.getTaskId(),
-                          timeService.timeDuration(start, TimeUnit.MILLISECONDS),
-                          mapPhaseKeys.size());
-            }
+      } finally {
+         if (log.isTraceEnabled()) {
+            log.tracef("Combining and migrating keys for task %s took %s milliseconds (Migrated %s keys)",
+                       mcc.getTaskId(),
+                       timeService.timeDuration(start, TimeUnit.MILLISECONDS),
+                       mapPhaseKeys.size());
          }
       }
       return mapPhaseKeys;
@@ -326,22 +513,19 @@ protected <KIn, VIn, KOut, VOut> Set<KOut> combine(MapCombineCommand<KIn, VIn, K
 
    private <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> combineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
-            CollectableCollector<KOut, VOut> collector) {
+            SpillingCollector<KOut, VOut> collector) {
 
       String taskId =  mcc.getTaskId();
       Reducer <KOut,VOut> combiner = mcc.getCombiner();
-      Map<KOut, List<VOut>> result = null;
+      Map<KOut, List<VOut>> result = new HashMap<KOut, List<VOut>>();
+      Iterator<Entry<KOut, List<VOut>>> groups = collector.groups();
 
       if (combiner != null) {
-         result = new HashMap<KOut, List<VOut>>();
          log.tracef("For m/r task %s invoking combiner %s at %s",  taskId, mcc, cdl.getAddress());
-         MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
          long start = log.isTraceEnabled() ? timeService.time() : 0;
          try {
-            Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
-            taskLifecycleService.onPreExecute(combiner, cache);
-            Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-            for (Entry<KOut, List<VOut>> e : collectedValues.entrySet()) {
+            while (groups.hasNext()) {
+               Entry<KOut, List<VOut>> e = groups.next();
                VOut combined;
                List<VOut> list = e.getValue();
                List<VOut> l = new LinkedList<VOut>();
@@ -359,11 +543,13 @@ private <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> combineForLocalReduction(
                log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
                           timeService.timeDuration(start, TimeUnit.MILLISECONDS));
             }
-            taskLifecycleService.onPostExecute(combiner);
          }
       } else {
          // Combiner not specified
-         result = collector.collectedValues();
+         while (groups.hasNext()) {
+            Entry<KOut, List<VOut>> e = groups.next();
+            result.put(e.getKey(), e.getValue());
+         }
       }
       return result;
    }
@@ -449,30 +635,87 @@ protected <KIn> Set<KIn> filterLocalPrimaryOwner(Set<KIn> nodeLocalKeys, Distrib
    }
 
    /**
-    * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
+    * Gives each mapping thread its own {@link SpillingCollector}, so that the threads don't contend on the emitted keys.
+    * Each of them may keep in memory an equal share of the values allowed by
+    * {@link MapCombineCommand#getMaxCollectorSize()}.
     */
-   private static class DefaultCollector<KOut, VOut> implements CollectableCollector<KOut, VOut> {
+   private class PerThreadCollector<KOut, VOut> {
+
+      private final List<SpillingCollector<KOut, VOut>> collectors =
+            Collections.synchronizedList(new ArrayList<SpillingCollector<KOut, VOut>>());
+
+      private final ThreadLocal<SpillingCollector<KOut, VOut>> threadCollector;
+
+      PerThreadCollector(final MapCombineCommand<?, ?, KOut, VOut> mcc) {
+         final int maxValues = mcc.getMaxCollectorSize() > 0
+               ? Math.max(1, mcc.getMaxCollectorSize() / mcc.getMapParallelism()) : 0;
+         threadCollector = new ThreadLocal<SpillingCollector<KOut, VOut>>() {
+            @Override
+            protected SpillingCollector<KOut, VOut> initialValue() {
+               SpillingCollector<KOut, VOut> collector = createCollector(mcc, maxValues);
+               collectors.add(collector);
+               return collector;
+            }
+         };
+      }
 
-      private final Map<KOut, List<VOut>> store = CollectionFactory.makeConcurrentMap();
+      SpillingCollector<KOut, VOut> get() {
+         return threadCollector.get();
+      }
 
-      @Override
-      public void emit(KOut key, VOut value) {
-         List<VOut> list = store.get(key);
-         if (list == null) {
-            list = new LinkedList<VOut>();
-            store.put(key, list);
+      /**
+       * Must only be invoked once all the mapping threads are done.
+       */
+      void mergeInto(SpillingCollector<KOut, VOut> result) {
+         synchronized (collectors) {
+            for (SpillingCollector<KOut, VOut> collector : collectors) {
+               result.addAll(collector);
+            }
          }
-         list.add(value);
       }
 
-      @Override
-      public Map<KOut, List<VOut>> collectedValues() {
-         return store;
+      /**
+       * Deletes the values spilled by the threads and not merged, e.g. because the map phase failed.
+       */
+      void close() {
+         synchronized (collectors) {
+            for (SpillingCollector<KOut, VOut> collector : collectors) {
+               collector.close();
+            }
+         }
       }
    }
 
-   private interface CollectableCollector<K,V> extends Collector<K, V>{
-      Map<K, List<V>> collectedValues();
+   /**
+    * Accepts the keys whose primary owner is this node and which have not been mapped already. The primary owner is
+    * looked up once per segment.
+    */
+   private class PrimaryOwnerFilter implements KeyFilter {
+
+      private final ConsistentHash ch;
+      private final boolean[] primarySegments;
+      private final Set<Object> mappedKeys;
+
+      PrimaryOwnerFilter(DistributionManager dm, Set<Object> mappedKeys) {
+         this.ch = dm != null ? dm.getConsistentHash() : null;
+         this.mappedKeys = mappedKeys;
+         if (ch != null) {
+            primarySegments = new boolean[ch.getNumSegments()];
+            for (int i = 0; i < primarySegments.length; i++) {
+               primarySegments[i] = cdl.getAddress().equals(ch.locatePrimaryOwnerForSegment(i));
+            }
+         } else {
+            primarySegments = null;
+         }
+      }
+
+      @Override
+      public boolean shouldLoadKey(Object key) {
+         Object k = unwrap(key);
+         if (primarySegments != null && !primarySegments[ch.getSegment(k)])
+            return false;
+         return mappedKeys == null || !mappedKeys.contains(k);
+      }
    }
 
    private static class DeltaAwareList<E> extends LinkedList<E> implements DeltaAware, Delta{
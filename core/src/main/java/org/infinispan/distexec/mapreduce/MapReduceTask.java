@@ -36,6 +36,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -120,6 +121,15 @@
  * Map&lt;String, Integer&gt; results = task.execute();
  * </pre>
  *
+ * Tasks whose final result is too large to be held by the master node can store it in a cache instead,
+ * using {@link #execute(String)}. Combined with a distributed reduce phase, each node then writes the
+ * values it reduced directly to that cache:
+ * <pre>
+ * MapReduceTask&lt;String, String, String, Integer&gt; task = new MapReduceTask&lt;String, String, String, Integer&gt;(cache, true);
+ * task.mappedWith(new WordCountMapper()).reducedWith(new WordCountReducer());
+ * task.execute("wordCounts");
+ * </pre>
+ *
  * Note that {@link Mapper} and {@link Reducer} should not be specified as inner classes. Inner classes
  * declared in non-static contexts contain implicit non-transient references to enclosing class instances,
  * serializing such an inner class instance will result in serialization of its associated outer class instance as well.
@@ -157,6 +167,8 @@
    protected final ClusteringDependentLogic clusteringDependentLogic;
    protected final boolean isLocalOnly;
    protected RpcOptionsBuilder rpcOptionsBuilder;
+   protected int mapParallelism = 1;
+   protected int maxCollectorSize;
 
    /**
     * Create a new MapReduceTask given a master cache node. All distributed task executions will be
@@ -281,6 +293,12 @@ public MapReduceTask<KIn, VIn, KOut, VOut> reducedWith(Reducer<KOut, VOut> reduc
     * serializing such an inner class instance will result in serialization of its associated outer
     * class instance as well.
     *
+    * <p>
+    * The combiner is applied to the values emitted for a key as they are collected, and possibly several times for
+    * the same key, so it must accept the values it returns as input as well. When the map phase uses several threads,
+    * see {@link #mapParallelism(int)}, the same combiner instance is invoked concurrently by all of them, so it must
+    * be thread safe.
+    *
     * @param combiner used to immediately combine results of map phase before reduce phase is invoked
     * @return this MapReduceTask itself
     * @since 5.2
@@ -314,12 +332,78 @@ public final long timeout(TimeUnit outputTimeUnit) {
       return rpcOptionsBuilder.timeout(outputTimeUnit);
    }
 
+   /**
+    * Sets the number of threads mapping the entries on each node, when the task is not restricted to some input keys
+    * with {@link #onKeys(Object[])}. With more than one thread, the entries are read directly from the data container
+    * and from the cache store instead of through the cache, split between the threads, and the values emitted by each
+    * thread are merged before the combine phase.
+    * <p>
+    * Note that with more than one thread the same {@link Mapper} instance is invoked concurrently, so it must be
+    * thread safe. The same applies to the combiner set with {@link #combinedWith(Reducer)}, which each thread invokes
+    * on the values it emits and before spilling them.
+    *
+    * @param mapParallelism
+    *           the number of threads mapping the entries on each node, 1 by default
+    * @return this MapReduceTask itself
+    * @since 6.0
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> mapParallelism(int mapParallelism) {
+      if (mapParallelism < 1)
+         throw new IllegalArgumentException("Map parallelism must be at least 1, but was " + mapParallelism);
+      this.mapParallelism = mapParallelism;
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of intermediate values each node keeps in memory during the map phase. Once the values
+    * emitted by the {@link Mapper} exceed it, they are sorted and spilled to local temporary files, which are merged
+    * back one key at a time by the combine phase. The keys and values emitted must then be marshallable.
+    * <p>
+    * When the map phase uses several threads, see {@link #mapParallelism(int)}, each of them keeps an equal share of
+    * the values in memory.
+    *
+    * @param maxCollectorSize
+    *           the maximum number of intermediate values kept in memory on each node, or 0 to keep them all in memory,
+    *           which is the default
+    * @return this MapReduceTask itself
+    * @since 6.0
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> maxCollectorSize(int maxCollectorSize) {
+      if (maxCollectorSize < 0)
+         throw new IllegalArgumentException("Max collector size cannot be negative, but was " + maxCollectorSize);
+      this.maxCollectorSize = maxCollectorSize;
+      return this;
+   }
+
    /**
     * Executes this task across Infinispan cluster nodes.
     *
     * @return a Map where each key is an output key and value is reduced value for that output key
     */
    public Map<KOut, VOut> execute() throws CacheException {
+      return executeHelper(null);
+   }
+
+   /**
+    * Executes this task across Infinispan cluster nodes and stores the reduced values in the cache
+    * named <code>resultsCache</code> instead of returning them, so that the master node doesn't
+    * have to hold the full result.
+    * <p>
+    * If the reduce phase is distributed, each node stores the values it reduced directly, in
+    * batches, and none of them are sent to the master node. Otherwise the master node still
+    * receives the map phase results, and stores each reduced value as it is produced. The results
+    * cache is started with the default configuration on the nodes it isn't running on yet.
+    *
+    * @param resultsCache
+    *           the name of the cache to store the reduced values in
+    */
+   public void execute(String resultsCache) throws CacheException {
+      if (resultsCache == null)
+         throw new NullPointerException("A valid name of the results cache is not set " + resultsCache);
+      executeHelper(resultsCache);
+   }
+
+   protected Map<KOut, VOut> executeHelper(String resultsCache) throws CacheException {
       if (mapper == null)
          throw new NullPointerException("A valid reference of Mapper is not set " + mapper);
 
@@ -342,7 +426,7 @@ public Map<KOut, VOut> execute() throws CacheException {
             Set<KOut> allMapPhasesResponses = executeMapPhase(useCompositeKeys);
 
             // reduce
-            return executeReducePhase(allMapPhasesResponses, useCompositeKeys);
+            return executeReducePhase(allMapPhasesResponses, useCompositeKeys, resultsCache);
          }
          catch (Exception cause){
             throw new CacheException(cause);
@@ -355,7 +439,7 @@ public Map<KOut, VOut> execute() throws CacheException {
          }
       } else {
          try {
-            return executeMapPhaseWithLocalReduction();
+            return executeMapPhaseWithLocalReduction(resultsCache);
          } catch (Exception cause){
             throw new CacheException(cause);
          }
@@ -444,7 +528,7 @@ protected Set<KOut> executeMapPhase(boolean useCompositeKeys) throws Interrupted
       return mapPhasesResult;
    }
 
-   protected Map<KOut, VOut> executeMapPhaseWithLocalReduction() throws InterruptedException,
+   protected Map<KOut, VOut> executeMapPhaseWithLocalReduction(String resultsCache) throws InterruptedException,
             ExecutionException {
       RpcManager rpc = cache.getRpcManager();
       MapCombineCommand<KIn, VIn, KOut, VOut> cmd = null;
@@ -499,11 +583,23 @@ protected Map<KOut, VOut> executeMapPhaseWithLocalReduction() throws Interrupted
       MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService
                .getInstance();
       log.tracef("For m/r task %s invoking %s locally", taskId, reducer);
+      Cache<KOut, VOut> resultCache = null;
+      if (resultsCache != null) {
+         resultCache = cache.getCacheManager().<KOut, VOut>getCache(resultsCache).getAdvancedCache()
+                  .withFlags(Flag.IGNORE_RETURN_VALUES);
+      }
       try {
          taskLifecycleService.onPreExecute(reducer, cache);
-         for (Entry<KOut, List<VOut>> e : mapPhasesResult.entrySet()) {
+         for (Iterator<Entry<KOut, List<VOut>>> it = mapPhasesResult.entrySet().iterator(); it.hasNext();) {
+            Entry<KOut, List<VOut>> e = it.next();
             // TODO in parallel with futures
-            reducedResult.put(e.getKey(), reducer.reduce(e.getKey(), e.getValue().iterator()));
+            VOut reduced = reducer.reduce(e.getKey(), e.getValue().iterator());
+            if (resultCache != null) {
+               resultCache.put(e.getKey(), reduced);
+               it.remove();
+            } else {
+               reducedResult.put(e.getKey(), reduced);
+            }
          }
       } finally {
          taskLifecycleService.onPostExecute(reducer);
@@ -519,7 +615,7 @@ protected <V> MapTaskPart<V> createTaskMapPart(MapCombineCommand<KIn, VIn, KOut,
    }
 
    protected Map<KOut, VOut> executeReducePhase(Set<KOut> allMapPhasesResponses,
-            boolean useCompositeKeys) throws InterruptedException, ExecutionException {
+            boolean useCompositeKeys, String resultsCache) throws InterruptedException, ExecutionException {
       RpcManager rpc = cache.getRpcManager();
       String destCache = null;
       if (useCompositeKeys) {
@@ -543,6 +639,7 @@ protected Map<KOut, VOut> executeReducePhase(Set<KOut> allMapPhasesResponses,
             reduceCommand = buildReduceCommand(taskId.toString(), destCache, reducer, keys,
                      useCompositeKeys);
          }
+         reduceCommand.setResultCacheName(resultsCache);
          ReduceTaskPart<Map<KOut, VOut>> part = createReducePart(reduceCommand, address, destCache);
          part.execute();
          reduceTasks.add(part);
@@ -587,6 +684,8 @@ private MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCommand(
       MapCombineCommand<KIn, VIn, KOut, VOut> c = factory.buildMapCombineCommand(taskId, m, r, keys);
       c.setReducePhaseDistributed(reducePhaseDistributed);
       c.setEmitCompositeIntermediateKeys(emitCompositeIntermediateKeys);
+      c.setMapParallelism(mapParallelism);
+      c.setMaxCollectorSize(maxCollectorSize);
       return c;
    }
 
@@ -621,6 +720,26 @@ public Map<KOut, VOut> call() throws Exception {
       });
    }
 
+   /**
+    * Executes this task across Infinispan cluster nodes asynchronously and stores the reduced values
+    * in the cache named <code>resultsCache</code>.
+    *
+    * @param resultsCache
+    *           the name of the cache to store the reduced values in
+    * @return a Future completed once all the reduced values have been stored
+    * @see #execute(String)
+    */
+   public Future<Void> executeAsynchronously(final String resultsCache) {
+      return new MapReduceTaskFuture<Void>(new Callable<Void>() {
+
+         @Override
+         public Void call() throws Exception {
+            execute(resultsCache);
+            return null;
+         }
+      });
+   }
+
    /**
     * Executes this task across Infinispan cluster but the final result is collated using specified
     * {@link Collator}
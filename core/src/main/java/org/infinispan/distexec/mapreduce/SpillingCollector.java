@@ -0,0 +1,389 @@
+package org.infinispan.distexec.mapreduce;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.util.TimeService;
+
+/**
+ * The {@link Collector} of the map phase, which keeps the intermediate values of a node in memory and spills them to
+ * local temporary files once there are too many of them.
+ * <p>
+ * When a combiner is configured, the values emitted for a key are combined every {@link #COMBINE_BATCH_SIZE} values,
+ * and once more before being spilled. When more than <tt>maxValues</tt> values are held in memory, they are sorted by
+ * the hash code of their key and written to a new file, a run. {@link #groups()} then merges the runs and the values
+ * still in memory, so that the values of each key are read back together without loading all the runs in memory.
+ * <p>
+ * A collector is used by a single thread, and {@link #close()} must be invoked once its values have been read so that
+ * its files are deleted. The combiner however is shared by the collectors of all the mapping threads, which is why
+ * {@link MapReduceTask#combinedWith(Reducer)} requires it to be thread safe with a map parallelism above one.
+ *
+ * @since 6.0
+ */
+class SpillingCollector<KOut, VOut> implements Collector<KOut, VOut> {
+
+   /**
+    * Number of values emitted for a key after which they are combined.
+    */
+   static final int COMBINE_BATCH_SIZE = 16;
+
+   private final Reducer<KOut, VOut> combiner;
+   private final int maxValues;
+   private final StreamingMarshaller marshaller;
+   private final String filePrefix;
+   private final TimeService timeService;
+
+   private Map<KOut, List<VOut>> values = new HashMap<KOut, List<VOut>>();
+   private int valueCount;
+   private final List<File> runs = new ArrayList<File>();
+   private long spilledBytes;
+   private long mergeTime;
+   private MergingIterator merging;
+
+   /**
+    * @param combiner    the combiner to apply to the values of each key, or null
+    * @param maxValues   the number of values to keep in memory before spilling them, or 0 to never spill
+    * @param marshaller  used to write and read the runs
+    * @param filePrefix  the prefix of the names of the runs, in the default temporary directory
+    * @param timeService used to measure the time spent merging the runs
+    */
+   SpillingCollector(Reducer<KOut, VOut> combiner, int maxValues, StreamingMarshaller marshaller, String filePrefix,
+                     TimeService timeService) {
+      this.combiner = combiner;
+      this.maxValues = maxValues;
+      this.marshaller = marshaller;
+      this.filePrefix = filePrefix;
+      this.timeService = timeService;
+   }
+
+   @Override
+   public void emit(KOut key, VOut value) {
+      List<VOut> list = values.get(key);
+      if (list == null) {
+         list = new ArrayList<VOut>(2);
+         values.put(key, list);
+      }
+      list.add(value);
+      valueCount++;
+      if (combiner != null && list.size() >= COMBINE_BATCH_SIZE) {
+         combine(key, list);
+      }
+      if (maxValues > 0 && valueCount > maxValues) {
+         spill();
+      }
+   }
+
+   /**
+    * Moves the values collected by another collector into this one. The runs of the other collector are taken over
+    * as they are, and the values it holds in memory are emitted to this collector.
+    */
+   void addAll(SpillingCollector<KOut, VOut> other) {
+      runs.addAll(other.runs);
+      other.runs.clear();
+      spilledBytes += other.spilledBytes;
+      for (Entry<KOut, List<VOut>> e : other.values.entrySet()) {
+         for (VOut value : e.getValue()) {
+            emit(e.getKey(), value);
+         }
+      }
+      other.values.clear();
+      other.valueCount = 0;
+   }
+
+   /**
+    * @return the values collected for each key. The iterator must be consumed before this collector is closed, and
+    *         the same key is never returned twice
+    */
+   Iterator<Entry<KOut, List<VOut>>> groups() {
+      if (runs.isEmpty()) {
+         return values.entrySet().iterator();
+      }
+      merging = new MergingIterator();
+      return merging;
+   }
+
+   /**
+    * @return the number of bytes written to the runs
+    */
+   long getSpilledBytes() {
+      return spilledBytes;
+   }
+
+   /**
+    * @return the number of runs written by this collector
+    */
+   int getRunCount() {
+      return runs.size();
+   }
+
+   /**
+    * @return the time spent reading and merging the runs, in nanoseconds
+    */
+   long getMergeTime() {
+      return mergeTime;
+   }
+
+   /**
+    * Deletes the runs.
+    */
+   void close() {
+      if (merging != null) {
+         merging.closeRuns();
+         merging = null;
+      }
+      for (File run : runs) {
+         if (!run.delete() && run.exists()) {
+            run.deleteOnExit();
+         }
+      }
+      runs.clear();
+      values = new HashMap<KOut, List<VOut>>();
+      valueCount = 0;
+   }
+
+   private void combine(KOut key, List<VOut> list) {
+      VOut combined = combiner.reduce(key, list.iterator());
+      valueCount -= list.size() - 1;
+      list.clear();
+      list.add(combined);
+   }
+
+   private void spill() {
+      List<Entry<KOut, List<VOut>>> entries = new ArrayList<Entry<KOut, List<VOut>>>(values.entrySet());
+      Collections.sort(entries, new KeyHashComparator<KOut, List<VOut>>());
+      File run = null;
+      try {
+         run = File.createTempFile(filePrefix, ".run");
+         runs.add(run);
+         OutputStream os = new BufferedOutputStream(new FileOutputStream(run));
+         try {
+            ObjectOutput out = marshaller.startObjectOutput(os, true);
+            try {
+               out.writeInt(entries.size());
+               for (Entry<KOut, List<VOut>> e : entries) {
+                  List<VOut> list = e.getValue();
+                  if (combiner != null && list.size() > 1) {
+                     combine(e.getKey(), list);
+                  }
+                  out.writeInt(hash(e.getKey()));
+                  out.writeObject(e.getKey());
+                  out.writeInt(list.size());
+                  for (VOut value : list) {
+                     out.writeObject(value);
+                  }
+               }
+            } finally {
+               marshaller.finishObjectOutput(out);
+            }
+         } finally {
+            os.close();
+         }
+      } catch (IOException e) {
+         throw new CacheException("Could not spill intermediate values to " + run, e);
+      }
+      spilledBytes += run.length();
+      values = new HashMap<KOut, List<VOut>>();
+      valueCount = 0;
+   }
+
+   private static int hash(Object key) {
+      return key == null ? 0 : key.hashCode();
+   }
+
+   private static final class KeyHashComparator<K, V> implements Comparator<Entry<K, V>> {
+      @Override
+      public int compare(Entry<K, V> e1, Entry<K, V> e2) {
+         int h1 = hash(e1.getKey());
+         int h2 = hash(e2.getKey());
+         return h1 < h2 ? -1 : (h1 == h2 ? 0 : 1);
+      }
+   }
+
+   /**
+    * A sorted sequence of keys and their values, read one key at a time.
+    */
+   private abstract class Run {
+      int hash;
+      KOut key;
+      List<VOut> values;
+
+      /**
+       * Moves to the next key.
+       *
+       * @return false if there are no more keys
+       */
+      abstract boolean advance() throws IOException, ClassNotFoundException;
+
+      void close() {
+      }
+   }
+
+   private final class FileRun extends Run {
+      private final InputStream is;
+      private final ObjectInput in;
+      private int remaining;
+
+      FileRun(File file) throws IOException {
+         is = new BufferedInputStream(new FileInputStream(file));
+         in = marshaller.startObjectInput(is, true);
+         remaining = in.readInt();
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      boolean advance() throws IOException, ClassNotFoundException {
+         if (remaining == 0) return false;
+         remaining--;
+         hash = in.readInt();
+         key = (KOut) in.readObject();
+         int size = in.readInt();
+         values = new ArrayList<VOut>(size);
+         for (int i = 0; i < size; i++) {
+            values.add((VOut) in.readObject());
+         }
+         return true;
+      }
+
+      @Override
+      void close() {
+         marshaller.finishObjectInput(in);
+         try {
+            is.close();
+         } catch (IOException e) {
+            // the run is deleted anyway
+         }
+      }
+   }
+
+   private final class MemoryRun extends Run {
+      private final Iterator<Entry<KOut, List<VOut>>> it;
+
+      MemoryRun(Map<KOut, List<VOut>> values) {
+         List<Entry<KOut, List<VOut>>> entries = new ArrayList<Entry<KOut, List<VOut>>>(values.entrySet());
+         Collections.sort(entries, new KeyHashComparator<KOut, List<VOut>>());
+         it = entries.iterator();
+      }
+
+      @Override
+      boolean advance() {
+         if (!it.hasNext()) return false;
+         Entry<KOut, List<VOut>> e = it.next();
+         hash = SpillingCollector.hash(e.getKey());
+         key = e.getKey();
+         values = e.getValue();
+         return true;
+      }
+   }
+
+   /**
+    * Merges the runs by the hash code of their keys. The keys with the same hash code are read from all the runs at
+    * once, and grouped by equality.
+    */
+   private final class MergingIterator implements Iterator<Entry<KOut, List<VOut>>> {
+      private final PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size() + 1, new Comparator<Run>() {
+         @Override
+         public int compare(Run r1, Run r2) {
+            return r1.hash < r2.hash ? -1 : (r1.hash == r2.hash ? 0 : 1);
+         }
+      });
+      private final List<Run> open = new ArrayList<Run>(runs.size() + 1);
+      private Iterator<Entry<KOut, List<VOut>>> pending = Collections.<Entry<KOut, List<VOut>>>emptyList().iterator();
+
+      MergingIterator() {
+         long start = timeService.time();
+         try {
+            for (File file : runs) {
+               addRun(new FileRun(file));
+            }
+            addRun(new MemoryRun(values));
+         } catch (Exception e) {
+            closeRuns();
+            throw new CacheException("Could not read intermediate values spilled to disk", e);
+         } finally {
+            mergeTime += timeService.time() - start;
+         }
+      }
+
+      private void addRun(Run run) throws IOException, ClassNotFoundException {
+         open.add(run);
+         if (run.advance()) {
+            queue.add(run);
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         if (pending.hasNext()) return true;
+         if (queue.isEmpty()) {
+            closeRuns();
+            return false;
+         }
+         long start = timeService.time();
+         try {
+            int hash = queue.peek().hash;
+            Map<KOut, List<VOut>> group = new LinkedHashMap<KOut, List<VOut>>();
+            while (!queue.isEmpty() && queue.peek().hash == hash) {
+               Run run = queue.poll();
+               List<VOut> list = group.get(run.key);
+               if (list == null) {
+                  group.put(run.key, run.values);
+               } else {
+                  list.addAll(run.values);
+               }
+               if (run.advance()) {
+                  queue.add(run);
+               }
+            }
+            pending = group.entrySet().iterator();
+            return true;
+         } catch (Exception e) {
+            closeRuns();
+            throw new CacheException("Could not read intermediate values spilled to disk", e);
+         } finally {
+            mergeTime += timeService.time() - start;
+         }
+      }
+
+      @Override
+      public Entry<KOut, List<VOut>> next() {
+         if (!hasNext()) throw new NoSuchElementException();
+         Entry<KOut, List<VOut>> e = pending.next();
+         return new AbstractMap.SimpleImmutableEntry<KOut, List<VOut>>(e.getKey(), e.getValue());
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private void closeRuns() {
+         for (Run run : open) {
+            run.close();
+         }
+         open.clear();
+         queue.clear();
+      }
+   }
+}
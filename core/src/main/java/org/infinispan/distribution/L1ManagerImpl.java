@@ -1,6 +1,7 @@
 package org.infinispan.distribution;
 
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.write.InvalidateCommand;
@@ -13,12 +14,15 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.TimeService;
 import org.infinispan.commons.util.concurrent.AggregatingNotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.commons.util.concurrent.NoOpFuture;
 import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
@@ -29,16 +33,13 @@
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
-
 public class L1ManagerImpl implements L1Manager {
 
    private static final Log log = LogFactory.getLog(L1ManagerImpl.class);
@@ -49,7 +50,6 @@ public class L1ManagerImpl implements L1Manager {
    private CommandsFactory commandsFactory;
    private int threshold;
    private long l1Lifespan;
-   private ExecutorService asyncTransportExecutor;
 
    // TODO replace this with a custom, expirable collection
    private final ConcurrentMap<Object, ConcurrentMap<Address, Long>> requestors;
@@ -66,13 +66,11 @@ public L1ManagerImpl() {
 
    @Inject
    public void init(Configuration configuration, RpcManager rpcManager, CommandsFactory commandsFactory,
-                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
                     @ComponentName(KnownComponentNames.EVICTION_SCHEDULED_EXECUTOR) ScheduledExecutorService scheduledExecutor,
                     TimeService timeService) {
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
       this.configuration = configuration;
-      this.asyncTransportExecutor = asyncTransportExecutor;
       this.scheduledExecutor = scheduledExecutor;
       this.timeService = timeService;
    }
@@ -157,23 +155,11 @@ public Future<Object> flushCache(Collection<Object> keys, Address origin, boolea
          boolean multicast = isUseMulticast(nodes);
          if (trace) log.tracef("Invalidating keys %s on nodes %s. Use multicast? %s", keys, invalidationAddresses, multicast);
 
-         Runnable toExecute;
          if (multicast) {
-            toExecute = new Runnable() {
-               @Override
-               public void run() {
-                  rpcManager.invokeRemotely(null, rpcCommand, rpcManager.getDefaultRpcOptions(true));
-               }
-            };
+            return invalidateAsync(null, rpcCommand, rpcManager.getDefaultRpcOptions(true), null);
          } else {
-            toExecute = new Runnable() {
-               @Override
-               public void run() {
-                  rpcManager.invokeRemotely(invalidationAddresses, rpcCommand, syncRpcOptions);
-               }
-            };
+            return invalidateAsync(invalidationAddresses, rpcCommand, syncRpcOptions, null);
          }
-         return (Future<Object>) asyncTransportExecutor.submit(toExecute);
       } else {
          if (trace) log.tracef("No L1 caches to invalidate for keys %s", keys);
          return null;
@@ -203,13 +189,7 @@ private Future<Object> flushCache(Collection<Object> keys, final Object retval,
                rpcManager.invokeRemotelyInFuture(null, ic, rpcManager.getDefaultRpcOptions(true), future);
                return future;
             } else {
-               return asyncTransportExecutor.submit(new Callable<Object>() {
-                  @Override
-                  public Object call() throws Exception {
-                     rpcManager.invokeRemotely(null, ic, rpcManager.getDefaultRpcOptions(true));
-                     return retval;
-                  }
-               });
+               return invalidateAsync(null, ic, rpcManager.getDefaultRpcOptions(true), retval);
             }
          } else {
             final CacheRpcCommand rpc = commandsFactory.buildSingleRpcCommand(
@@ -222,13 +202,7 @@ public Object call() throws Exception {
                rpcManager.invokeRemotelyInFuture(invalidationAddresses, rpc, syncIgnoreLeaversRpcOptions, future);
                return future;
             } else {
-               return asyncTransportExecutor.submit(new Callable<Object>() {
-                  @Override
-                  public Object call() throws Exception {
-                     rpcManager.invokeRemotely(invalidationAddresses, rpc, syncRpcOptions);
-                     return retval;
-                  }
-               });
+               return invalidateAsync(invalidationAddresses, rpc, syncRpcOptions, retval);
             }
          }
       } else {
@@ -237,6 +211,34 @@ public Object call() throws Exception {
       }
    }
 
+   /**
+    * Sends the invalidation without blocking the caller or an executor thread while waiting for the responses.
+    *
+    * @return a future completed with {@code retval} when the invalidation is done
+    */
+   private Future<Object> invalidateAsync(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options,
+                                          final Object retval) {
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      try {
+         rpcManager.invokeRemotelyAsync(recipients, rpc, options).attachListener(new FutureListener<Map<Address, Response>>() {
+            @Override
+            public void futureDone(Future<Map<Address, Response>> future) {
+               try {
+                  future.get();
+                  result.complete(retval);
+               } catch (ExecutionException e) {
+                  result.completeExceptionally(e.getCause());
+               } catch (Throwable t) {
+                  result.completeExceptionally(t);
+               }
+            }
+         });
+      } catch (Throwable t) {
+         result.completeExceptionally(t);
+      }
+      return result;
+   }
+
    private Collection<Address> buildInvalidationAddressList(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
       Collection<Address> addresses = new HashSet<Address>(2);
       boolean originIsInRequestorsList = false;
@@ -16,7 +16,12 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /**
+    * Window TinyLFU: a small LRU admission window in front of a segmented LRU space, which only admits entries
+    * estimated to be accessed more frequently than the ones they would replace
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
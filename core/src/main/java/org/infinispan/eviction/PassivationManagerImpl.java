@@ -11,12 +11,19 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.BatchSupport;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -83,21 +90,54 @@ public void passivate(InternalCacheEntry entry) {
       }
    }
 
+   /**
+    * Writes the content of the data container to the store in partitions, from
+    * {@link org.infinispan.configuration.cache.LoadersConfiguration#parallelism()} threads. The partitions are written
+    * with {@link BatchSupport#writeBatch}, so stores that support it write each partition as a single batch.
+    */
    @Override
    @Stop(priority = 9)
    public void passivateAll() throws CacheLoaderException {
       if (enabled) {
          long start = timeService.time();
          log.passivatingAllEntries();
-         for (InternalCacheEntry e : container) {
-            if (trace) log.tracef("Passivating %s", e.getKey());
-            cacheStore.store(e);
+         ExecutorService executor = ProcessingSupport.newExecutor(cfg.loaders().parallelism(), "Passivation");
+         try {
+            ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(null, null, executor);
+            try {
+               List<InternalCacheEntry> partition = new ArrayList<InternalCacheEntry>(ProcessingSupport.PARTITION_SIZE);
+               for (InternalCacheEntry e : container) {
+                  if (trace) log.tracef("Passivating %s", e.getKey());
+                  partition.add(e);
+                  if (partition.size() == ProcessingSupport.PARTITION_SIZE) {
+                     traversal.submit(storePartition(partition));
+                     partition = new ArrayList<InternalCacheEntry>(ProcessingSupport.PARTITION_SIZE);
+                  }
+               }
+               if (!partition.isEmpty()) {
+                  traversal.submit(storePartition(partition));
+               }
+            } finally {
+               traversal.awaitCompletion();
+            }
+         } finally {
+            executor.shutdownNow();
          }
          log.passivatedEntries(container.size(),
                                Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
       }
    }
 
+   private Callable<Void> storePartition(final List<InternalCacheEntry> partition) {
+      return new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            BatchSupport.writeBatch(cacheStore, partition, Collections.emptyList());
+            return null;
+         }
+      };
+   }
+
    @Override
    public long getPassivationCount() {
       return passivations.get();
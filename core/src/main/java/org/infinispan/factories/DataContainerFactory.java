@@ -3,8 +3,15 @@
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.HashConfiguration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.ReplicatedConsistentHashFactory;
+import org.infinispan.distribution.ch.SyncConsistentHashFactory;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
@@ -33,27 +40,52 @@ public <T> T construct(Class<T> componentType) {
 
          switch (st) {
             case NONE:
-               return (T) DefaultDataContainer.unBoundedDataContainer(
-                     level, keyEquivalence, valueEquivalence);
+               return (T) unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
             case UNORDERED:
             case LRU:
             case FIFO:
             case LIRS:
+            case TINY_LFU:
                int maxEntries = configuration.eviction().maxEntries();
                //handle case when < 0 value signifies unbounded container 
                if(maxEntries < 0) {
-                   return (T) DefaultDataContainer.unBoundedDataContainer(
-                         level, keyEquivalence, valueEquivalence);
+                   return (T) unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
                }
 
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
+               long maxMemory = configuration.eviction().maxMemory();
 
                return (T) DefaultDataContainer.boundedDataContainer(
-                  level, maxEntries, st, policy, keyEquivalence, valueEquivalence);
+                  level, maxEntries, maxMemory, st, policy, keyEquivalence, valueEquivalence);
             default:
                throw new CacheConfigurationException("Unknown eviction strategy "
                         + configuration.eviction().strategy());
          }
       }
    }
+
+   /**
+    * Clustered caches get a container partitioned by segment, so that state transfer only needs to touch the segments
+    * being moved, as long as we know how their consistent hash maps keys to segments.
+    */
+   private DataContainer unBoundedDataContainer(int level, Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      CacheMode cacheMode = configuration.clustering().cacheMode();
+      if (cacheMode.isDistributed() || cacheMode.isReplicated()) {
+         HashConfiguration hash = configuration.clustering().hash();
+         ConsistentHashFactory chFactory = hash.consistentHashFactory();
+         boolean replicated;
+         if (chFactory == null) {
+            replicated = cacheMode.isReplicated();
+         } else if (chFactory instanceof DefaultConsistentHashFactory || chFactory instanceof SyncConsistentHashFactory) {
+            replicated = false;
+         } else if (chFactory instanceof ReplicatedConsistentHashFactory) {
+            replicated = true;
+         } else {
+            return DefaultDataContainer.unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
+         }
+         return new DefaultSegmentedDataContainer(level, hash.numSegments(), hash.hash(), replicated,
+               keyEquivalence, valueEquivalence);
+      }
+      return DefaultDataContainer.unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
+   }
 }
@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -70,6 +71,13 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
    }
 
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      Object retval = super.visitProcessEntryCommand(ctx, command);
+      removeFromStoreIfNeeded(command.getKey());
+      return retval;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Object retval = super.visitPutMapCommand(ctx, command);
@@ -1,6 +1,7 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
@@ -8,19 +9,25 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.util.concurrent.jdk8backported.LongAdder;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.offheap.OffHeapDataContainer;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.jmx.annotations.Units;
+import org.infinispan.stats.LatencyHistogram;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -30,25 +37,34 @@
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Captures cache management statistics
+ * Captures cache management statistics.
+ * <p/>
+ * The counters are {@link LongAdder}s rather than {@link AtomicLong}s, so that threads updating them concurrently
+ * don't contend on the same cache line. Latency histograms of the local reads, writes and removes can be enabled
+ * at runtime with {@link #setLatencyHistogramsEnabled(boolean)}, to read latency percentiles.
  *
  * @author Jerry Gauthier
  * @since 4.0
  */
 @MBean(objectName = "Statistics", description = "General statistics such as timings, hit/miss ratio, etc.")
 public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
-   private final AtomicLong hitTimes = new AtomicLong(0);
-   private final AtomicLong missTimes = new AtomicLong(0);
-   private final AtomicLong storeTimes = new AtomicLong(0);
-   private final AtomicLong removeTimes = new AtomicLong(0);
-   private final AtomicLong hits = new AtomicLong(0);
-   private final AtomicLong misses = new AtomicLong(0);
-   private final AtomicLong stores = new AtomicLong(0);
-   private final AtomicLong evictions = new AtomicLong(0);
+   private final LongAdder hitTimes = new LongAdder();
+   private final LongAdder missTimes = new LongAdder();
+   private final LongAdder storeTimes = new LongAdder();
+   private final LongAdder removeTimes = new LongAdder();
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder stores = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
    private final AtomicLong startNanoseconds = new AtomicLong(0);
    private final AtomicLong resetNanoseconds = new AtomicLong(0);
-   private final AtomicLong removeHits = new AtomicLong(0);
-   private final AtomicLong removeMisses = new AtomicLong(0);
+   private final LongAdder removeHits = new LongAdder();
+   private final LongAdder removeMisses = new LongAdder();
+
+   // null unless the latency histograms are enabled
+   private volatile LatencyHistogram readLatencies;
+   private volatile LatencyHistogram writeLatencies;
+   private volatile LatencyHistogram removeLatencies;
 
    private DataContainer dataContainer;
    private TimeService timeService;
@@ -77,7 +93,7 @@ public void start() {
    public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
       if (getStatisticsEnabled(command))
-         evictions.incrementAndGet();
+         evictions.increment();
 
       return returnValue;
    }
@@ -91,17 +107,44 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
 
       Object retval = invokeNextInterceptor(ctx, command);
 
-      if (statisticsEnabled) {
+      if (statisticsEnabled && ctx.isOriginLocal()) {
+         long intervalNanoseconds = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         long intervalMilliseconds = TimeUnit.NANOSECONDS.toMillis(intervalNanoseconds);
+         if (retval == null) {
+            missTimes.add(intervalMilliseconds);
+            misses.increment();
+         } else {
+            hitTimes.add(intervalMilliseconds);
+            hits.increment();
+         }
+         record(readLatencies, intervalNanoseconds);
+      }
+
+      return retval;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      long start = 0;
+      boolean statisticsEnabled = getStatisticsEnabled(command);
+      if (statisticsEnabled)
+         start = timeService.time();
+
+      Map<Object, Object> retval = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+
+      if (statisticsEnabled && ctx.isOriginLocal()) {
          long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-         if (ctx.isOriginLocal()) {
-            if (retval == null) {
-               missTimes.getAndAdd(intervalMilliseconds);
-               misses.incrementAndGet();
-            } else {
-               hitTimes.getAndAdd(intervalMilliseconds);
-               hits.incrementAndGet();
-            }
+         int requests = command.getKeys().size();
+         int hitCount = retval.size();
+         if (requests > 0) {
+            // Split the time between hits and misses, as a read of each key
+            long hitTime = intervalMilliseconds * hitCount / requests;
+            hitTimes.add(hitTime);
+            missTimes.add(intervalMilliseconds - hitTime);
          }
+         hits.add(hitCount);
+         misses.add(requests - hitCount);
       }
 
       return retval;
@@ -120,8 +163,8 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
          final long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
          final Map<Object, Object> data = command.getMap();
          if (data != null && ctx.isOriginLocal() && !data.isEmpty()) {
-            storeTimes.getAndAdd(intervalMilliseconds);
-            stores.getAndAdd(data.size());
+            storeTimes.add(intervalMilliseconds);
+            stores.add(data.size());
          }
       }
 
@@ -148,9 +191,10 @@ private Object updateStoreStatistics(InvocationContext ctx, WriteCommand command
       Object retval = invokeNextInterceptor(ctx, command);
 
       if (statisticsEnabled && ctx.isOriginLocal() && command.isSuccessful()) {
-         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-         storeTimes.getAndAdd(intervalMilliseconds);
-         stores.incrementAndGet();
+         long intervalNanoseconds = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         storeTimes.add(TimeUnit.NANOSECONDS.toMillis(intervalNanoseconds));
+         stores.increment();
+         record(writeLatencies, intervalNanoseconds);
       }
 
       return retval;
@@ -167,11 +211,12 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
 
       if (statisticsEnabled && ctx.isOriginLocal()) {
          if (retval == null) {
-            removeMisses.incrementAndGet();
+            removeMisses.increment();
          } else {
-            long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-            removeTimes.getAndAdd(intervalMilliseconds);
-            removeHits.incrementAndGet();
+            long intervalNanoseconds = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+            removeTimes.add(TimeUnit.NANOSECONDS.toMillis(intervalNanoseconds));
+            removeHits.increment();
+            record(removeLatencies, intervalNanoseconds);
          }
       }
 
@@ -184,7 +229,7 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
          measurementType = MeasurementType.TRENDSUP,
          displayType = DisplayType.SUMMARY)
    public long getHits() {
-      return hits.get();
+      return hits.sum();
    }
 
    @ManagedAttribute(
@@ -194,7 +239,7 @@ public long getHits() {
          displayType = DisplayType.SUMMARY
    )
    public long getMisses() {
-      return misses.get();
+      return misses.sum();
    }
 
    @ManagedAttribute(
@@ -204,7 +249,7 @@ public long getMisses() {
          displayType = DisplayType.SUMMARY
    )
    public long getRemoveHits() {
-      return removeHits.get();
+      return removeHits.sum();
    }
 
    @ManagedAttribute(
@@ -214,7 +259,7 @@ public long getRemoveHits() {
          displayType = DisplayType.SUMMARY
    )
    public long getRemoveMisses() {
-      return removeMisses.get();
+      return removeMisses.sum();
    }
 
    @ManagedAttribute(
@@ -224,7 +269,7 @@ public long getRemoveMisses() {
          displayType = DisplayType.SUMMARY
    )
    public long getStores() {
-      return stores.get();
+      return stores.sum();
    }
 
    @ManagedAttribute(
@@ -234,7 +279,35 @@ public long getStores() {
          displayType = DisplayType.SUMMARY
    )
    public long getEvictions() {
-      return evictions.get();
+      return evictions.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Estimated memory footprint of the entries in the cache, or -1 if eviction is not bounded by memory",
+         displayName = "Memory in use",
+         units = Units.BYTES,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getMemoryInUse() {
+      if (dataContainer instanceof DefaultDataContainer)
+         return ((DefaultDataContainer) dataContainer).memoryInUse();
+      if (dataContainer instanceof OffHeapDataContainer)
+         return ((OffHeapDataContainer) dataContainer).memoryInUse();
+      return -1;
+   }
+
+   @ManagedAttribute(
+         description = "Maximum memory footprint of the entries in the cache before eviction kicks in, or -1 if eviction is not bounded by memory",
+         displayName = "Maximum memory",
+         units = Units.BYTES,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getMaxMemory() {
+      if (dataContainer instanceof DefaultDataContainer)
+         return ((DefaultDataContainer) dataContainer).maxMemory();
+      if (dataContainer instanceof OffHeapDataContainer)
+         return ((OffHeapDataContainer) dataContainer).maxMemory();
+      return -1;
    }
 
    @ManagedAttribute(
@@ -245,8 +318,8 @@ public long getEvictions() {
    )
    @SuppressWarnings("unused")
    public double getHitRatio() {
-      long hitsL = hits.get();
-      double total = hitsL + misses.get();
+      long hitsL = hits.sum();
+      double total = hitsL + misses.sum();
       // The reason for <= is that equality checks
       // should be avoided for floating point numbers.
       if (total <= 0)
@@ -262,9 +335,10 @@ public double getHitRatio() {
    )
    @SuppressWarnings("unused")
    public double getReadWriteRatio() {
-      if (stores.get() == 0)
+      long storesL = stores.sum();
+      if (storesL == 0)
          return 0;
-      return (((double) (hits.get() + misses.get()) / (double) stores.get()));
+      return (((double) (hits.sum() + misses.sum()) / (double) storesL));
    }
 
    @ManagedAttribute(
@@ -275,10 +349,10 @@ public double getReadWriteRatio() {
    )
    @SuppressWarnings("unused")
    public long getAverageReadTime() {
-      long total = hits.get() + misses.get();
+      long total = hits.sum() + misses.sum();
       if (total == 0)
          return 0;
-      return (hitTimes.get() + missTimes.get()) / total;
+      return (hitTimes.sum() + missTimes.sum()) / total;
    }
 
    @ManagedAttribute(
@@ -289,9 +363,10 @@ public long getAverageReadTime() {
    )
    @SuppressWarnings("unused")
    public long getAverageWriteTime() {
-      if (stores.get() == 0)
+      long storesL = stores.sum();
+      if (storesL == 0)
          return 0;
-      return (storeTimes.get()) / stores.get();
+      return (storeTimes.sum()) / storesL;
    }
 
    @ManagedAttribute(
@@ -305,7 +380,7 @@ public long getAverageRemoveTime() {
       long removes = getRemoveHits();
       if (removes == 0)
          return 0;
-      return (removeTimes.get()) / removes;
+      return (removeTimes.sum()) / removes;
    }
 
    @ManagedAttribute(
@@ -345,18 +420,144 @@ public long getTimeSinceReset() {
          displayName = "Reset Statistics (Statistics)"
    )
    public void resetStatistics() {
-      hits.set(0);
-      misses.set(0);
-      stores.set(0);
-      evictions.set(0);
-      hitTimes.set(0);
-      missTimes.set(0);
-      storeTimes.set(0);
-      removeHits.set(0);
-      removeMisses.set(0);
+      hits.reset();
+      misses.reset();
+      stores.reset();
+      evictions.reset();
+      hitTimes.reset();
+      missTimes.reset();
+      storeTimes.reset();
+      removeTimes.reset();
+      removeHits.reset();
+      removeMisses.reset();
+      reset(readLatencies);
+      reset(writeLatencies);
+      reset(removeLatencies);
       resetNanoseconds.set(timeService.time());
    }
 
+   @ManagedAttribute(
+         description = "Enables or disables the latency histograms of the local reads, writes and removes, from which the latency percentiles are computed",
+         displayName = "Latency histograms enabled",
+         dataType = DataType.TRAIT,
+         writable = true
+   )
+   public boolean getLatencyHistogramsEnabled() {
+      return readLatencies != null;
+   }
+
+   public void setLatencyHistogramsEnabled(@Parameter(name = "enabled", description = "Whether latency histograms should be enabled or disabled (true/false)") boolean enabled) {
+      if (enabled == getLatencyHistogramsEnabled())
+         return;
+      readLatencies = enabled ? new LatencyHistogram() : null;
+      writeLatencies = enabled ? new LatencyHistogram() : null;
+      removeLatencies = enabled ? new LatencyHistogram() : null;
+   }
+
+   @ManagedAttribute(
+         description = "Median number of milliseconds for a read operation on the cache, if latency histograms are enabled",
+         displayName = "Read time median",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getReadTimeP50() {
+      return percentile(readLatencies, 50);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the number of milliseconds for a read operation on the cache, if latency histograms are enabled",
+         displayName = "Read time 99th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getReadTimeP99() {
+      return percentile(readLatencies, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the number of milliseconds for a read operation on the cache, if latency histograms are enabled",
+         displayName = "Read time 99.9th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getReadTimeP999() {
+      return percentile(readLatencies, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "Median number of milliseconds for a write operation in the cache, if latency histograms are enabled",
+         displayName = "Write time median",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getWriteTimeP50() {
+      return percentile(writeLatencies, 50);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the number of milliseconds for a write operation in the cache, if latency histograms are enabled",
+         displayName = "Write time 99th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getWriteTimeP99() {
+      return percentile(writeLatencies, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the number of milliseconds for a write operation in the cache, if latency histograms are enabled",
+         displayName = "Write time 99.9th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getWriteTimeP999() {
+      return percentile(writeLatencies, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "Median number of milliseconds for a remove operation in the cache, if latency histograms are enabled",
+         displayName = "Remove time median",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getRemoveTimeP50() {
+      return percentile(removeLatencies, 50);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the number of milliseconds for a remove operation in the cache, if latency histograms are enabled",
+         displayName = "Remove time 99th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getRemoveTimeP99() {
+      return percentile(removeLatencies, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the number of milliseconds for a remove operation in the cache, if latency histograms are enabled",
+         displayName = "Remove time 99.9th percentile",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getRemoveTimeP999() {
+      return percentile(removeLatencies, 99.9);
+   }
+
+   private static void record(LatencyHistogram histogram, long nanoseconds) {
+      if (histogram != null)
+         histogram.record(nanoseconds);
+   }
+
+   private static void reset(LatencyHistogram histogram) {
+      if (histogram != null)
+         histogram.reset();
+   }
+
+   private static double percentile(LatencyHistogram histogram, double percentile) {
+      return histogram == null ? 0 : histogram.getValueAtPercentile(percentile, TimeUnit.MILLISECONDS);
+   }
+
    private boolean getStatisticsEnabled(FlagAffectedCommand cmd) {
       return super.getStatisticsEnabled() && !cmd.hasFlag(Flag.SKIP_STATISTICS);
    }
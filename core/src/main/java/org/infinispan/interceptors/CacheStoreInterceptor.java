@@ -21,11 +21,16 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.decorators.AbstractDelegatingStore;
+import org.infinispan.loaders.decorators.AsyncStore;
+import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
@@ -47,6 +52,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -205,6 +211,25 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       return returnValue;
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      if (!isStoreEnabled(command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+      if (!isProperWriter(ctx, command, command.getKey())) return returnValue;
+
+      Object key = command.getKey();
+      if (command.isRemoval()) {
+         boolean resp = store.remove(key);
+         if (getLog().isTraceEnabled()) getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         InternalCacheEntry se = getStoredEntry(key, ctx);
+         store.store(se);
+         if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", se, key);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
@@ -397,6 +422,9 @@ private Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand comma
    )
    public void resetStatistics() {
       cacheStores.set(0);
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         asyncStore.resetStatistics();
+      }
    }
 
    @ManagedAttribute(
@@ -408,6 +436,81 @@ public long getCacheLoaderStores() {
       return cacheStores.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications queued by the async stores and not yet written to the cache store",
+         displayName = "Async store queue size"
+   )
+   public long getAsyncStoreQueueSize() {
+      long queueSize = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         queueSize += asyncStore.getQueueSize();
+      }
+      return queueSize;
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches of modifications written by the async stores",
+         displayName = "Async store batches",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getAsyncStoreBatches() {
+      long batches = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         batches += asyncStore.getFlushedBatches();
+      }
+      return batches;
+   }
+
+   @ManagedAttribute(
+         description = "Average number of modifications in a batch written by the async stores",
+         displayName = "Average async store batch size",
+         displayType = DisplayType.SUMMARY
+   )
+   public double getAverageAsyncStoreBatchSize() {
+      long batches = 0;
+      long modifications = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         batches += asyncStore.getFlushedBatches();
+         modifications += asyncStore.getFlushedModifications();
+      }
+      return batches == 0 ? 0 : (double) modifications / batches;
+   }
+
+   @ManagedAttribute(
+         description = "Average number of milliseconds for the async stores to write a batch of modifications",
+         displayName = "Average async store flush time",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAverageAsyncStoreFlushTime() {
+      long batches = 0;
+      long flushTime = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         batches += asyncStore.getFlushedBatches();
+         flushTime += asyncStore.getFlushTime();
+      }
+      return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(flushTime / batches);
+   }
+
+   private List<AsyncStore> getAsyncStores() {
+      List<AsyncStore> asyncStores = new ArrayList<AsyncStore>();
+      collectAsyncStores(store, asyncStores);
+      return asyncStores;
+   }
+
+   private static void collectAsyncStores(CacheStore store, List<AsyncStore> asyncStores) {
+      if (store instanceof ChainingCacheStore) {
+         for (CacheStore s : ((ChainingCacheStore) store).getStores().keySet()) {
+            collectAsyncStores(s, asyncStores);
+         }
+      } else if (store instanceof AbstractDelegatingStore) {
+         if (store instanceof AsyncStore) {
+            asyncStores.add((AsyncStore) store);
+         }
+         collectAsyncStores(((AbstractDelegatingStore) store).getDelegate(), asyncStores);
+      }
+   }
+
    InternalCacheEntry getStoredEntry(Object key, InvocationContext ctx) {
       CacheEntry entry = ctx.lookupEntry(key);
       if (entry instanceof InternalCacheEntry) {
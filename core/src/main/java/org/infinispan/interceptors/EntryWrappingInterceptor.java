@@ -5,6 +5,7 @@
 import org.infinispan.commands.AbstractVisitor;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -110,6 +111,28 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
       }
    }
 
+   @Override
+   public final Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         for (Object key : command.getKeys()) {
+            entryFactory.wrapEntryForReading(ctx, key);
+         }
+         return invokeNextInterceptor(ctx, command);
+      } finally {
+         //needed because entries might be added in L1
+         if (!ctx.isInTxScope())
+            commitContextEntries(ctx, command, null);
+         else {
+            for (Object key : command.getKeys()) {
+               CacheEntry entry = ctx.lookupEntry(key);
+               if (entry != null) {
+                  entry.setSkipRemoteGet(true);
+               }
+            }
+         }
+      }
+   }
+
    @Override
    public final Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
       if (command.getKeys() != null) {
@@ -182,6 +205,15 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
       return invokeNextInterceptor(ctx, command);
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      if (shouldWrap(command.getKey(), ctx, command)) {
+         // the processor always needs the previous value
+         entryFactory.wrapEntryForPut(ctx, command.getKey(), null, true, command, false);
+      }
+      return setSkipRemoteGetsAndInvokeNextForDataCommand(ctx, command, command.getMetadata());
+   }
+
    @Override
    public final Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       if (shouldWrap(command.getKey(), ctx, command)) {
@@ -15,6 +15,7 @@
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -92,6 +93,11 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return handleInvalidate(ctx, command, command.getKey());
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      return handleInvalidate(ctx, command, command.getKey());
+   }
+
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
       Object retval = invokeNextInterceptor(ctx, command);
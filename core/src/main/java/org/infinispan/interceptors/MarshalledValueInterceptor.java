@@ -2,10 +2,12 @@
 
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -30,6 +32,7 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -141,6 +144,35 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       }
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      MarshalledValue key = null;
+      if (wrapKeys) {
+         if (!isTypeExcluded(command.getKey().getClass())) {
+            key = createMarshalledValue(command.getKey(), ctx);
+            command.setKey(key);
+         }
+      }
+      if (wrapValues) {
+         command.setValueMarshaller(marshaller);
+      }
+
+      boolean isRawComparisonRequired = !ctx.isOriginLocal() && command.getKey() instanceof MarshalledValue;
+      if (isRawComparisonRequired)
+         ((MarshalledValue) command.getKey()).setEqualityPreferenceForInstance(false);
+
+      try {
+         Object retVal = invokeNextInterceptor(ctx, command);
+         compact(key);
+         if (command.getNewValue() instanceof MarshalledValue)
+            compact((MarshalledValue) command.getNewValue());
+         return retVal;
+      } finally {
+         if (isRawComparisonRequired)
+            ((MarshalledValue) command.getKey()).setEqualityPreferenceForInstance(true);
+      }
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       MarshalledValue value = null;
@@ -184,6 +216,38 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      List<MarshalledValue> marshalledKeys = InfinispanCollections.emptyList();
+      if (wrapKeys) {
+         List<Object> keys = new ArrayList<Object>(command.getKeys().size());
+         marshalledKeys = new ArrayList<MarshalledValue>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            if (isTypeExcluded(key.getClass())) {
+               keys.add(key);
+            } else {
+               MarshalledValue mv = createMarshalledValue(key, ctx);
+               marshalledKeys.add(mv);
+               keys.add(mv);
+            }
+         }
+         command.setKeys(keys);
+      }
+      Map<Object, Object> retVal = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      for (MarshalledValue mv : marshalledKeys) {
+         compact(mv);
+      }
+      if (!ctx.isOriginLocal()) {
+         return retVal;
+      }
+      Map<Object, Object> unwrapped = new HashMap<Object, Object>(retVal.size());
+      for (Map.Entry<Object, Object> entry : retVal.entrySet()) {
+         unwrapped.put(processRetVal(entry.getKey(), ctx), processRetVal(entry.getValue(), ctx));
+      }
+      return unwrapped;
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.compat;
 
 import org.infinispan.commands.MetadataAwareCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -17,6 +18,9 @@
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.metadata.Metadata;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
@@ -108,6 +112,35 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return null;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      TypeConverter<Object, Object, Object, Object> converter =
+            determineTypeConverter(command.getFlags());
+      Map<Object, Object> keys = new HashMap<Object, Object>(command.getKeys().size());
+      for (Object key : command.getKeys()) {
+         keys.put(converter.boxKey(key), key);
+      }
+      command.setKeys(new ArrayList<Object>(keys.keySet()));
+      Map<Object, Object> ret = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      Map<Object, Object> unboxed = new HashMap<Object, Object>(ret.size());
+      for (Map.Entry<Object, Object> entry : ret.entrySet()) {
+         Object key = keys.get(entry.getKey());
+         Object value = entry.getValue();
+         if (command.isReturnEntries() && value instanceof InternalCacheEntry) {
+            InternalCacheEntry ice = (InternalCacheEntry) value;
+            // Create a copy of the entry to avoid modifying the internal entry
+            value = entryFactory.create(
+                  ice.getKey(), converter.unboxValue(ice.getValue()), ice.getMetadata(),
+                  ice.getLifespan(), ice.getMaxIdle());
+         } else if (!command.isReturnEntries()) {
+            value = converter.unboxValue(value);
+         }
+         unboxed.put(key, value);
+      }
+      return unboxed;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       Object key = command.getKey();
@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.WriteCommand;
@@ -10,6 +11,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
@@ -22,12 +24,15 @@
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -92,6 +97,113 @@ protected final InternalCacheEntry retrieveFromRemoteSource(Object key, Invocati
       return null;
    }
 
+   /**
+    * Retrieves several entries from remote sources with a single {@link ClusteredGetAllCommand} per owner, the
+    * commands being sent in parallel. Keys are grouped by their primary owner, and the keys that an owner could not
+    * look up, because it left the cluster, did not have the cache running or was affected by a rehash, are retried on
+    * their next owner.
+    *
+    * @return the entries that were found
+    * @throws SuspectException if all the owners of a key have been suspected
+    */
+   protected final Map<Object, InternalCacheEntry> retrieveAllFromRemoteSources(Collection<?> keys, FlagAffectedCommand command) throws Throwable {
+      ConsistentHash readCH = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      List<Address> members = rpcManager.getTransport().getMembers();
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>(keys.size());
+      // index of the next owner to ask for each key
+      Map<Object, Integer> nextOwners = new HashMap<Object, Integer>(keys.size());
+      Map<Address, List<Object>> requests = new HashMap<Address, List<Object>>();
+      for (Object key : keys) {
+         if (!addToNextOwner(key, readCH, members, nextOwners, requests)) {
+            if (log.isTraceEnabled()) log.tracef("No owner of key %s is available, not doing a remote get", key);
+         }
+      }
+
+      RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS, false).build();
+      while (!requests.isEmpty()) {
+         if (log.isTraceEnabled()) log.tracef("Doing a remote get for keys %s", requests);
+         // The requests are sent without waiting for the previous responses, and without a thread per request
+         Map<Address, Future<Map<Address, Response>>> futures = new HashMap<Address, Future<Map<Address, Response>>>(requests.size());
+         for (Map.Entry<Address, List<Object>> request : requests.entrySet()) {
+            ClusteredGetAllCommand get = cf.buildClusteredGetAllCommand(request.getValue(), command.getFlags());
+            futures.put(request.getKey(), rpcManager.invokeRemotelyAsync(Collections.singleton(request.getKey()), get, options));
+         }
+
+         Map<Address, List<Object>> retries = new HashMap<Address, List<Object>>();
+         for (Map.Entry<Address, Future<Map<Address, Response>>> f : futures.entrySet()) {
+            Address owner = f.getKey();
+            Map<Object, InternalCacheValue> values = null;
+            SuspectException suspected = null;
+            try {
+               values = getClusteredGetAllValues(owner, getResponses(f.getValue()));
+            } catch (SuspectException e) {
+               if (log.isTraceEnabled()) log.tracef("Owner %s was suspected, trying the next owners", owner);
+               suspected = e;
+            }
+            for (Object key : requests.get(owner)) {
+               if (values != null && values.containsKey(key)) {
+                  InternalCacheValue value = values.get(key);
+                  if (value != null) {
+                     entries.put(key, value.toInternalCacheEntry(key));
+                  }
+               } else if (!addToNextOwner(key, readCH, members, nextOwners, retries) && suspected != null) {
+                  // Let the caller retry with the new topology, as it does for a single key
+                  throw suspected;
+               }
+            }
+         }
+         requests = retries;
+      }
+      return entries;
+   }
+
+   private boolean addToNextOwner(Object key, ConsistentHash readCH, List<Address> members,
+                                  Map<Object, Integer> nextOwners, Map<Address, List<Object>> requests) {
+      // The primary owner comes first
+      List<Address> owners = readCH.locateOwners(key);
+      Integer next = nextOwners.get(key);
+      for (int i = next == null ? 0 : next; i < owners.size(); i++) {
+         Address owner = owners.get(i);
+         if (!owner.equals(rpcManager.getAddress()) && members.contains(owner)) {
+            nextOwners.put(key, i + 1);
+            List<Object> ownerKeys = requests.get(owner);
+            if (ownerKeys == null) {
+               ownerKeys = new ArrayList<Object>();
+               requests.put(owner, ownerKeys);
+            }
+            ownerKeys.add(key);
+            return true;
+         }
+      }
+      nextOwners.put(key, owners.size());
+      return false;
+   }
+
+   private static Map<Address, Response> getResponses(Future<Map<Address, Response>> future) throws Throwable {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * @return the values returned by the owner, or {@code null} if the owner did not run the command
+    */
+   @SuppressWarnings("unchecked")
+   private Map<Object, InternalCacheValue> getClusteredGetAllValues(Address owner, Map<Address, Response> responses) {
+      Response response = responses.get(owner);
+      if (response instanceof SuccessfulResponse) {
+         return (Map<Object, InternalCacheValue>) ((SuccessfulResponse) response).getResponseValue();
+      }
+      if (response instanceof ExceptionResponse) {
+         Throwable cause = ((ExceptionResponse) response).getException();
+         throw new CacheException("Got unsuccessful response from owner " + owner + ": " + response, cause);
+      }
+      if (log.isTraceEnabled()) log.tracef("Got response %s from owner %s, trying the next owners", response, owner);
+      return null;
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -159,7 +271,7 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
       }
    }
 
-   private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
+   protected final Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
       Response fromPrimaryOwner = addressResponseMap.get(primaryOwner);
       if (fromPrimaryOwner == null) {
          log.tracef("Primary owner %s returned null", primaryOwner);
@@ -1,9 +1,11 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.InvalidateL1Command;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -12,6 +14,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.EntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.distribution.L1Manager;
@@ -24,7 +27,9 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
@@ -118,6 +123,58 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return returnValue;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (!ctx.isOriginLocal()) {
+         Map<Object, Object> returnValues = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+         for (Object key : returnValues.keySet()) {
+            l1Manager.addRequestor(key, ctx.getOrigin());
+         }
+         return returnValues;
+      }
+      if (command.hasFlag(Flag.CACHE_MODE_LOCAL) || command.hasFlag(Flag.SKIP_REMOTE_LOOKUP)
+            || command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
+         return invokeNextInterceptor(ctx, command);
+      }
+      // Register a synchronizer for each key that may be fetched remotely, so that concurrent writes can cancel the
+      // L1 update. Keys already being fetched by another thread are read, but only that thread stores them in L1.
+      Map<Object, L1WriteSynchronizer> l1WriteSyncs = new HashMap<Object, L1WriteSynchronizer>();
+      for (Object key : command.getKeys()) {
+         if (!cdl.localNodeIsOwner(key) && !dataContainer.containsKey(key)) {
+            L1WriteSynchronizer l1WriteSync = new L1WriteSynchronizer(dataContainer, l1Lifespan, stateTransferLock,
+                                                                      cdl);
+            if (concurrentWrites.putIfAbsent(key, l1WriteSync) == null) {
+               l1WriteSyncs.put(key, l1WriteSync);
+            }
+         }
+      }
+      if (l1WriteSyncs.isEmpty()) {
+         return invokeNextInterceptor(ctx, command);
+      }
+      try {
+         Map<Object, Object> returnValues = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+         Map<Object, InternalCacheEntry> remotelyFetched = command.getRemotelyFetched();
+         for (Map.Entry<Object, L1WriteSynchronizer> entry : l1WriteSyncs.entrySet()) {
+            Object key = entry.getKey();
+            InternalCacheEntry ice = remotelyFetched != null ? remotelyFetched.get(key) : null;
+            entry.getValue().runL1UpdateIfPossible(returnValues.get(key), key, ice);
+         }
+         return returnValues;
+      }
+      catch (Throwable t) {
+         for (L1WriteSynchronizer l1WriteSync : l1WriteSyncs.values()) {
+            l1WriteSync.retrievalEncounteredException(t);
+         }
+         throw t;
+      }
+      finally {
+         for (Object key : l1WriteSyncs.keySet()) {
+            concurrentWrites.remove(key);
+         }
+      }
+   }
+
    @Override
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
       return handleDataWriteCommand(ctx, command, true);
@@ -133,6 +190,12 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return handleDataWriteCommand(ctx, command, true);
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      // the originator doesn't see the new value, so its L1 entry must be invalidated too
+      return handleDataWriteCommand(ctx, command, false);
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Future<Object> invalidationFuture = null;
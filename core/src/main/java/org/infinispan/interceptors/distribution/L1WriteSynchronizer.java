@@ -164,11 +164,19 @@ public void retrievalEncounteredException(Throwable t) {
     * just set the value to release blockers
     */
    public void runL1UpdateIfPossible(Object value, GetKeyValueCommand command) {
+      runL1UpdateIfPossible(value, command.getKey(), command.getRemotelyFetchedValue());
+   }
+
+   /**
+    * Same as {@link #runL1UpdateIfPossible(Object, GetKeyValueCommand)}, for an entry fetched by a command reading
+    * several keys.
+    *
+    * @param ice the remotely fetched entry, or {@code null} if the key was not fetched remotely
+    */
+   public void runL1UpdateIfPossible(Object value, Object key, InternalCacheEntry ice) {
       try {
-         InternalCacheEntry ice;
-         if ((ice = command.getRemotelyFetchedValue()) != null) {
-            Object key;
-            if (sync.attemptUpdateToRunning() && !dc.containsKey((key = command.getKey()))) {
+         if (ice != null) {
+            if (sync.attemptUpdateToRunning() && !dc.containsKey(key)) {
                // Acquire the transfer lock to ensure that we don't have a rehash and change to become an owner,
                // note we check the ownership in following if
                stateTransferLock.acquireSharedTopologyLock();
@@ -1,8 +1,11 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -11,8 +14,10 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -60,6 +65,40 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       }
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         Map<Object, Object> returnValues = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+         List<Object> remoteKeys = new ArrayList<Object>();
+         for (Object key : command.getKeys()) {
+            if (!returnValues.containsKey(key) && needsRemoteGet(ctx, command, key)) {
+               remoteKeys.add(key);
+            }
+         }
+         if (!remoteKeys.isEmpty()) {
+            Map<Object, InternalCacheEntry> remoteEntries = retrieveAllFromRemoteSources(remoteKeys, command);
+            for (Map.Entry<Object, InternalCacheEntry> remoteEntry : remoteEntries.entrySet()) {
+               InternalCacheEntry ice = remoteEntry.getValue();
+               command.addRemotelyFetched(remoteEntry.getKey(), ice);
+               returnValues.put(remoteEntry.getKey(), command.isReturnEntries() ? ice : ice.getValue());
+            }
+         }
+         for (Object key : command.getKeys()) {
+            if (!returnValues.containsKey(key)) {
+               InternalCacheEntry localEntry = localGetCacheEntry(ctx, key, false, command);
+               if (localEntry != null) {
+                  returnValues.put(key, command.isReturnEntries() ? localEntry : localEntry.getValue());
+               }
+            }
+         }
+         return returnValues;
+      } catch (SuspectException e) {
+         // retry
+         return visitGetAllCommand(ctx, command);
+      }
+   }
+
    private Object computeGetReturn(InternalCacheEntry entry, GetKeyValueCommand command) {
       if (!command.isReturnEntry() && entry != null)
          return entry.getValue();
@@ -72,6 +111,57 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       return handleNonTxWriteCommand(ctx, command);
    }
 
+   /**
+    * Unlike the other write commands, an entry processor is only invoked on the primary owner, which then sends the
+    * resulting change to the backup owners.
+    */
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      if (isLocalModeForced(command)) {
+         remoteGetBeforeWrite(ctx, command, new SingleKeyRecipientGenerator(command.getKey()));
+         return invokeNextInterceptor(ctx, command);
+      }
+
+      boolean isSync = isSynchronous(command);
+      Address primaryOwner = cdl.getPrimaryOwner(command.getKey());
+      int commandTopologyId = command.getTopologyId();
+      int currentTopologyId = stateTransferManager.getCacheTopology().getTopologyId();
+      if (isSync && currentTopologyId != commandTopologyId && commandTopologyId != -1) {
+         throw new OutdatedTopologyException("Cache topology changed while the command was executing: expected " +
+               commandTopologyId + ", got " + currentTopologyId);
+      }
+
+      if (!primaryOwner.equals(rpcManager.getAddress())) {
+         if (!ctx.isOriginLocal()) {
+            // invoking the processor here would not be atomic, let the originator retry with the new topology
+            throw new OutdatedTopologyException("Node " + rpcManager.getAddress() + " is no longer the primary owner of " +
+                  command.getKey());
+         }
+         if (trace) log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be processed", primaryOwner);
+         // the caller always waits for the result of the processor
+         Map<Address, Response> addressResponseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner),
+               command, rpcManager.getDefaultRpcOptions(true));
+         return getResponseFromPrimaryOwner(primaryOwner, addressResponseMap);
+      }
+
+      // the processor must see the current value, even if state transfer hasn't brought it here yet
+      remoteGetBeforeWrite(ctx, command, new SingleKeyRecipientGenerator(command.getKey()));
+      Object result = invokeNextInterceptor(ctx, command);
+      DataWriteCommand backupCommand = command.createBackupCommand();
+      if (backupCommand == null) {
+         if (trace) log.tracef("The processor did not change the entry, nothing to replicate (%s).", command);
+         return result;
+      }
+      List<Address> recipients = cdl.getOwners(command.getKey());
+      if (trace) log.tracef("I'm the primary owner, sending %s to all (%s) the recipients in order to be applied.", backupCommand, recipients);
+      rpcManager.invokeRemotely(recipients, backupCommand, rpcManager.getDefaultRpcOptions(isSync));
+      if (!ctx.isOriginLocal()) {
+         // the originator can't forward the change to the new owners, as it doesn't know it
+         stateTransferManager.forwardCommandIfNeeded(backupCommand, command.getAffectedKeys(), ctx.getOrigin(), false);
+      }
+      return result;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       if (ctx.isOriginLocal()) {
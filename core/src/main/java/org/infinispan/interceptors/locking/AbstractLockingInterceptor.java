@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.locking;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.InvalidateL1Command;
@@ -8,14 +9,20 @@
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.EntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.util.concurrent.IsolationLevel;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.concurrent.locks.LockManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Base class for various locking interceptors in this package.
@@ -25,17 +32,85 @@
  */
 public abstract class AbstractLockingInterceptor extends CommandInterceptor {
 
+   /**
+    * System property that can be set to {@code false} to make every read go through the whole interceptor chain, see
+    * {@link #readFromContainer(InvocationContext, GetKeyValueCommand)}.
+    */
+   public static final String CONTAINER_READS_PROPERTY = "infinispan.locking.containerReads";
+
    protected LockManager lockManager;
    protected DataContainer dataContainer;
    protected EntryFactory entryFactory;
    protected ClusteringDependentLogic cdl;
+   private CacheNotifier notifier;
+   private boolean containerReads;
+   // the interceptors after this one when the cache started
+   private CommandInterceptor[] downstream;
 
    @Inject
-   public void setDependencies(LockManager lockManager, DataContainer dataContainer, EntryFactory entryFactory, ClusteringDependentLogic cdl) {
+   public void setDependencies(LockManager lockManager, DataContainer dataContainer, EntryFactory entryFactory,
+                               ClusteringDependentLogic cdl, CacheNotifier notifier) {
       this.lockManager = lockManager;
       this.dataContainer = dataContainer;
       this.entryFactory = entryFactory;
       this.cdl = cdl;
+      this.notifier = notifier;
+   }
+
+   @Start
+   public void startContainerReads() {
+      // custom interceptors may be placed after this one and expect to see every read, and so may the interceptors
+      // added to the chain later, see isChainUnchanged()
+      containerReads = Boolean.parseBoolean(System.getProperty(CONTAINER_READS_PROPERTY, "true"))
+            && cacheConfiguration.customInterceptors().interceptors().isEmpty()
+            && (!cacheConfiguration.transaction().transactionMode().isTransactional()
+                      || cacheConfiguration.locking().isolationLevel() == IsolationLevel.READ_COMMITTED);
+      List<CommandInterceptor> interceptors = new ArrayList<CommandInterceptor>();
+      for (CommandInterceptor next = getNext(); next != null; next = next.getNext()) {
+         interceptors.add(next);
+      }
+      downstream = interceptors.toArray(new CommandInterceptor[interceptors.size()]);
+   }
+
+   /**
+    * Reads the key of a {@link GetKeyValueCommand} directly from the data container, without wrapping it in the
+    * context and without invoking the rest of the interceptor chain, if the cache is non-transactional or
+    * {@link IsolationLevel#READ_COMMITTED}, the key was not already looked up in this context, no lock is requested,
+    * and there are no custom interceptors after this one.
+    * <p/>
+    * The interceptors after this one don't change the outcome of a read of a key that is in the data container, so
+    * only the visited notifications, normally sent by the {@link org.infinispan.interceptors.CallInterceptor}, are
+    * sent here.
+    *
+    * @return the entry, or {@code null} if the command has to be passed down the interceptor chain, e.g. because the
+    *         key is not in the data container and has to be loaded or fetched remotely
+    */
+   protected final InternalCacheEntry readFromContainer(InvocationContext ctx, GetKeyValueCommand command) {
+      Object key = command.getKey();
+      if (!containerReads || command.hasFlag(Flag.FORCE_WRITE_LOCK) || ctx.lookupEntry(key) != null
+            || !isChainUnchanged()) {
+         return null;
+      }
+      InternalCacheEntry entry = dataContainer.get(key);
+      if (entry != null) {
+         notifier.notifyCacheEntryVisited(key, entry.getValue(), true, ctx, command);
+         notifier.notifyCacheEntryVisited(key, entry.getValue(), false, ctx, command);
+      }
+      return entry;
+   }
+
+   /**
+    * @return false if interceptors were added after this one, or removed, since the cache started
+    */
+   private boolean isChainUnchanged() {
+      CommandInterceptor next = getNext();
+      for (CommandInterceptor interceptor : downstream) {
+         if (next != interceptor) {
+            return false;
+         }
+         next = next.getNext();
+      }
+      return next == null;
    }
 
    @Override
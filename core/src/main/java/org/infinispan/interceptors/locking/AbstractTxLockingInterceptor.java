@@ -7,6 +7,7 @@
 import org.infinispan.commands.tx.RollbackCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.configuration.cache.Configurations;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
@@ -71,6 +72,10 @@ public final Object visitEvictCommand(InvocationContext ctx, EvictCommand comman
 
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+      InternalCacheEntry entry = readFromContainer(ctx, command);
+      if (entry != null) {
+         return command.isReturnEntry() ? entry : entry.getValue();
+      }
       try {
          return super.visitGetKeyValueCommand(ctx, command);
       } finally {
@@ -4,9 +4,11 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.EvictCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.util.logging.Log;
@@ -30,6 +32,10 @@ protected Log getLog() {
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       assertNonTransactional(ctx);
+      InternalCacheEntry entry = readFromContainer(ctx, command);
+      if (entry != null) {
+         return command.isReturnEntry() ? entry : entry.getValue();
+      }
       try {
          return invokeNextInterceptor(ctx, command);
       } finally {
@@ -75,6 +81,21 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       }
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      assertNonTransactional(ctx);
+      try {
+         if (!shouldLock(command.getKey(), command))
+            return invokeNextInterceptor(ctx, command);
+         lockKey(ctx, command);
+         return invokeNextInterceptor(ctx, command);
+      } catch (Throwable te) {
+         throw cleanLocksAndRethrow(ctx, te);
+      } finally {
+         lockManager.unlockAll(ctx);
+      }
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       assertNonTransactional(ctx);
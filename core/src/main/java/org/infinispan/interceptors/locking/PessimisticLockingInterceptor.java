@@ -60,6 +60,10 @@ public void init(CommandsFactory factory) {
 
    @Override
    public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+      InternalCacheEntry entry = readFromContainer(ctx, command);
+      if (entry != null) {
+         return command.isReturnEntry() ? entry : entry.getValue();
+      }
       try {
          if (command.hasFlag(Flag.FORCE_WRITE_LOCK)) {
             boolean skipLocking = hasSkipLocking(command);
@@ -0,0 +1,47 @@
+package org.infinispan.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} reading the remaining bytes of a {@link java.nio.ByteBuffer}, e.g. a region of a memory-mapped
+ * file, without copying them to an intermediate array first. Reading advances the position of the buffer.
+ *
+ * @since 6.0
+ */
+public class NioByteBufferInputStream extends InputStream {
+
+   private final ByteBuffer buffer;
+
+   public NioByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+   }
+
+   @Override
+   public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) {
+      if (len == 0)
+         return 0;
+      if (!buffer.hasRemaining())
+         return -1;
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+   }
+
+   @Override
+   public long skip(long n) {
+      int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+   }
+
+   @Override
+   public int available() {
+      return buffer.remaining();
+   }
+}
@@ -3,12 +3,20 @@
 import org.infinispan.configuration.cache.LockSupportStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.KeyFilter;
 import org.infinispan.loaders.spi.LockSupportCacheStore;
+import org.infinispan.loaders.spi.ProcessingSupport;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Base class for CacheStore implementations that combine entries into buckets when storing data.
@@ -94,6 +102,72 @@ protected boolean removeLockSafe(Object key, Integer lockingKey) throws CacheLoa
       }
    }
 
+   /**
+    * Applies all the modifications of a bucket before writing it, so each bucket touched by the batch is loaded and
+    * written once.
+    */
+   @Override
+   protected void writeBatchLockSafe(List<InternalCacheEntry> toStore, List<Object> toRemove, Map<Object, Integer> lockingKeys) throws CacheLoaderException {
+      Map<Integer, Bucket> buckets = new HashMap<Integer, Bucket>();
+      Set<Integer> newBuckets = new HashSet<Integer>();
+      Set<Integer> modifiedBuckets = new HashSet<Integer>();
+      for (InternalCacheEntry entry : toStore) {
+         Integer bucketId = lockingKeys.get(entry.getKey());
+         Bucket bucket = getBucketForBatch(bucketId, buckets, newBuckets);
+         bucket.addEntry(entry);
+         modifiedBuckets.add(bucketId);
+      }
+      for (Object key : toRemove) {
+         Integer bucketId = lockingKeys.get(key);
+         Bucket bucket = getBucketForBatch(bucketId, buckets, newBuckets);
+         if (bucket.removeEntry(key)) {
+            modifiedBuckets.add(bucketId);
+         }
+      }
+
+      List<Bucket> toInsert = new ArrayList<Bucket>();
+      List<Bucket> toUpdate = new ArrayList<Bucket>();
+      for (Integer bucketId : modifiedBuckets) {
+         if (newBuckets.contains(bucketId)) {
+            toInsert.add(buckets.get(bucketId));
+         } else {
+            toUpdate.add(buckets.get(bucketId));
+         }
+      }
+      writeBuckets(toInsert, toUpdate);
+   }
+
+   private Bucket getBucketForBatch(Integer bucketId, Map<Integer, Bucket> buckets, Set<Integer> newBuckets) throws CacheLoaderException {
+      Bucket bucket = buckets.get(bucketId);
+      if (bucket == null) {
+         bucket = loadBucket(bucketId);
+         if (bucket == null) {
+            bucket = new Bucket(timeService);
+            bucket.setBucketId(bucketId);
+            newBuckets.add(bucketId);
+         }
+         buckets.put(bucketId, bucket);
+      }
+      return bucket;
+   }
+
+   /**
+    * Writes the buckets modified by a batch, see {@link #writeBatch(Collection, Collection)}. This implementation
+    * invokes {@link #insertBucket(Bucket)} and {@link #updateBucket(Bucket)} for each bucket, subclasses may override
+    * it to write all the buckets at once.
+    *
+    * @param toInsert buckets that did not exist in the store
+    * @param toUpdate buckets that already existed in the store
+    */
+   protected void writeBuckets(List<Bucket> toInsert, List<Bucket> toUpdate) throws CacheLoaderException {
+      for (Bucket bucket : toInsert) {
+         insertBucket(bucket);
+      }
+      for (Bucket bucket : toUpdate) {
+         updateBucket(bucket);
+      }
+   }
+
    /**
     * For {@link BucketBasedCacheStore}s the lock should be acquired at bucket level. So we're locking based on the
     * hash code of the key, as all keys having same hash code will be mapped to same bucket.
@@ -199,6 +273,49 @@ public boolean consider(Collection<? extends InternalCacheEntry> entries) {
       return g.generate();
    }
 
+   /**
+    * Loops over the buckets with {@link #loopOverBuckets(BucketHandler)}, the entries of each bucket being processed
+    * as a partition.
+    */
+   @Override
+   protected void processLockSafe(KeyFilter filter, CacheLoaderTask task, Executor executor, final boolean fetchValue) throws CacheLoaderException {
+      final ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(filter, task, executor);
+      try {
+         loopOverBuckets(new BucketHandler() {
+            @Override
+            public boolean handle(final Bucket bucket) throws CacheLoaderException {
+               if (bucket != null) {
+                  traversal.submit(new Callable<Void>() {
+                     @Override
+                     public Void call() throws Exception {
+                        processBucket(bucket, traversal, fetchValue);
+                        return null;
+                     }
+                  });
+               }
+               return traversal.isStopped();
+            }
+         });
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
+   /**
+    * Passes the non-expired entries of a bucket accepted by the filter of the traversal to its task.
+    */
+   protected void processBucket(Bucket bucket, ProcessingSupport.Traversal traversal, boolean fetchValue) throws CacheLoaderException {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (InternalCacheEntry ice : bucket.getStoredEntries()) {
+         if (traversal.isStopped()) {
+            break;
+         }
+         if (!ice.isExpired(currentTimeMillis) && traversal.accept(ice.getKey())) {
+            traversal.process(ice.getKey(), fetchValue ? ice : null);
+         }
+      }
+   }
+
    /**
     * A mechanism to loop over all buckets in the cache store.  Implementations should, very simply, loop over all
     * available buckets, and for each deserialized bucket, pass it to the handler.
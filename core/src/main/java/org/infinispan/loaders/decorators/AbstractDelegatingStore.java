@@ -7,13 +7,17 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.spi.AdvancedCacheLoader;
 import org.infinispan.loaders.spi.CacheLoader;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Simple delegate that delegates all calls.  This is intended as a building block for other decorators who wish to add
@@ -22,7 +26,7 @@
  * @author Manik Surtani
  * @since 4.0
  */
-public class AbstractDelegatingStore implements CacheStore {
+public class AbstractDelegatingStore implements CacheStore, AdvancedCacheLoader {
 
    CacheStore delegate;
 
@@ -109,6 +113,11 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return delegate.load(numEntries);
    }
 
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      ProcessingSupport.process(delegate, filter, task, executor, fetchValue);
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       return delegate.loadAllKeys(keysToExclude);
@@ -14,7 +14,11 @@
 import org.infinispan.loaders.modifications.ModificationsList;
 import org.infinispan.loaders.modifications.Remove;
 import org.infinispan.loaders.modifications.Store;
+import org.infinispan.loaders.spi.BatchCacheStore;
+import org.infinispan.loaders.spi.BatchSupport;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
@@ -31,13 +35,17 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The AsyncStore is a delegating CacheStore that buffers changes and writes them asynchronously to
@@ -57,6 +65,11 @@
  * <p/>
  * Write operations affecting same key are now coalesced so that only the final state is actually stored.
  * <p/>
+ * Modifications are written to the underlying store in batches of at most {@link AsyncStoreConfiguration#batchSize()}
+ * modifications, through {@link BatchCacheStore#writeBatch(java.util.Collection, java.util.Collection)} if the store
+ * supports it. If {@link AsyncStoreConfiguration#batchDelay()} is positive, the modifications are only flushed once a
+ * full batch is available, the delay has elapsed or the modification queue is full.
+ * <p/>
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -83,6 +96,17 @@ public class AsyncStore extends AbstractDelegatingStore {
    @GuardedBy("stateLock")
    private volatile State state;
 
+   /**
+    * Signalled when a batch is ready while the coordinator waits for one, see {@link #isBatchReady(State)}.
+    */
+   private final ReentrantLock batchLock = new ReentrantLock();
+   private final Condition batchReady = batchLock.newCondition();
+   private volatile boolean awaitingBatch;
+
+   private final AtomicLong flushedBatches = new AtomicLong();
+   private final AtomicLong flushedModifications = new AtomicLong();
+   private final AtomicLong flushNanos = new AtomicLong();
+
    protected AsyncStoreConfiguration asyncConfiguration;
 
    public AsyncStore(CacheStore delegate) {
@@ -132,6 +156,23 @@ private void put(Modification mod, int count) {
       } finally {
          stateLock.writeUnlock();
       }
+      signalBatchIfReady();
+   }
+
+   private boolean isBatchReady(State s) {
+      return s.stopped || s.clear || s.modifications.size() >= asyncConfiguration.batchSize() || stateLock.isFull();
+   }
+
+   private void signalBatchIfReady() {
+      // the coordinator sets awaitingBatch before checking the state, so either it or this thread sees the change
+      if (awaitingBatch && isBatchReady(state)) {
+         batchLock.lock();
+         try {
+            batchReady.signal();
+         } finally {
+            batchLock.unlock();
+         }
+      }
    }
 
    @Override
@@ -199,6 +240,15 @@ public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       return load(Integer.MAX_VALUE);
    }
 
+   /**
+    * {@inheritDoc} Modifications not yet applied to the back-end store must be taken into account, so all the keys are
+    * loaded in memory first, and the entries are then loaded one by one.
+    */
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      ProcessingSupport.processKeys(this, loadAllKeys(null), filter, task, executor, fetchValue);
+   }
+
    @Override
    public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
       Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>();
@@ -227,6 +277,7 @@ public void clear() {
          stateLock.reset(1);
          stateLock.writeUnlock();
       }
+      signalBatchIfReady();
    }
 
    @Override
@@ -313,6 +364,7 @@ public void stop() throws CacheLoaderException {
       stateLock.writeLock(1);
       state.stopped = true;
       stateLock.writeUnlock();
+      signalBatchIfReady();
       try {
          coordinator.join(shutdownTimeout);
          if (coordinator.isAlive())
@@ -325,7 +377,50 @@ public void stop() throws CacheLoaderException {
    }
 
    protected void applyModificationsSync(List<Modification> mods) throws CacheLoaderException {
-      getDelegate().prepare(mods, txFactory.newGlobalTransaction(null, false), true);
+      CacheStore delegate = getDelegate();
+      if (delegate instanceof BatchCacheStore) {
+         BatchSupport.applyModifications(delegate, mods);
+      } else {
+         delegate.prepare(mods, txFactory.newGlobalTransaction(null, false), true);
+      }
+   }
+
+   /**
+    * Returns the number of modifications that have not been written to the underlying store yet, including the ones
+    * being written.
+    */
+   public int getQueueSize() {
+      int size = 0;
+      for (State s = state; s != null; s = s.next)
+         size += s.modifications.size();
+      return size;
+   }
+
+   /**
+    * Returns the number of batches written to the underlying store.
+    */
+   public long getFlushedBatches() {
+      return flushedBatches.get();
+   }
+
+   /**
+    * Returns the number of modifications written to the underlying store.
+    */
+   public long getFlushedModifications() {
+      return flushedModifications.get();
+   }
+
+   /**
+    * Returns the total time spent writing batches to the underlying store, in nanoseconds.
+    */
+   public long getFlushTime() {
+      return flushNanos.get();
+   }
+
+   public void resetStatistics() {
+      flushedBatches.set(0);
+      flushedModifications.set(0);
+      flushNanos.set(0);
    }
 
    private static class State {
@@ -436,6 +531,10 @@ private static class Counter extends AbstractQueuedSynchronizer {
             this.size = size;
          }
 
+         boolean isFull() {
+            return getState() >= size;
+         }
+
          int add(int count) {
             for (;;) {
                int state = getState();
@@ -577,6 +676,20 @@ void readUnlock() {
          sync.release(1);
       }
 
+      /**
+       * Blocks until data is available, without acquiring the read lock.
+       */
+      void awaitAvailable() {
+         available.acquireShared(1);
+      }
+
+      /**
+       * Returns true if the buffer is full, i.e. if writers would block.
+       */
+      boolean isFull() {
+         return counter != null && counter.isFull();
+      }
+
       /**
        * Resets the buffer counter to the specified number.
        *
@@ -615,6 +728,7 @@ public void run() {
                   return;
                }
 
+               awaitBatch();
                stateLock.readLock();
                try {
                   s = state;
@@ -709,6 +823,34 @@ private boolean shouldStop(State s) {
          return s.stopped && s.modifications.isEmpty();
       }
 
+      /**
+       * If a batch delay is configured, waits until a full batch of modifications is available, the delay has elapsed,
+       * the buffer is full or the store is cleared or stopped.
+       */
+      private void awaitBatch() {
+         long batchDelay = asyncConfiguration.batchDelay();
+         if (batchDelay <= 0)
+            return;
+
+         stateLock.awaitAvailable();
+         long endTime = timeService.expectedEndTime(batchDelay, TimeUnit.MILLISECONDS);
+         batchLock.lock();
+         try {
+            awaitingBatch = true;
+            for (;;) {
+               long remaining = timeService.remainingTime(endTime, TimeUnit.NANOSECONDS);
+               if (isBatchReady(state) || remaining <= 0)
+                  return;
+               batchReady.awaitNanos(remaining);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } finally {
+            awaitingBatch = false;
+            batchLock.unlock();
+         }
+      }
+
       private void workerThreadsAwait(CountDownLatch latch) throws InterruptedException {
          boolean await = latch.await(shutdownTimeout, TimeUnit.MILLISECONDS);
          if (!await)
@@ -727,8 +869,11 @@ private class AsyncStoreProcessor implements Runnable {
 
       @Override
       public void run() {
-         // try 3 times to store the modifications
-         retryWork(3);
+         int batchSize = asyncConfiguration.batchSize();
+         for (int start = 0; start < modifications.size(); start += batchSize) {
+            // try 3 times to store each batch
+            retryWork(modifications.subList(start, Math.min(start + batchSize, modifications.size())), 3);
+         }
 
          // decrement active worker threads and disconnect myState if this was the last one
          myState.workerThreads.countDown();
@@ -738,13 +883,17 @@ public void run() {
                   s.next = null;
       }
 
-      private void retryWork(int maxRetries) {
+      private void retryWork(List<Modification> batch, int maxRetries) {
          for (int attempt = 0; attempt < maxRetries; attempt++) {
             if (attempt > 0 && log.isDebugEnabled())
                log.debugf("Retrying due to previous failure. %s attempts left.", maxRetries - attempt);
 
             try {
-               AsyncStore.this.applyModificationsSync(modifications);
+               long startTime = timeService.time();
+               AsyncStore.this.applyModificationsSync(batch);
+               flushNanos.addAndGet(timeService.timeDuration(startTime, TimeUnit.NANOSECONDS));
+               flushedBatches.incrementAndGet();
+               flushedModifications.addAndGet(batch.size());
                return;
             } catch (Exception e) {
                if (log.isDebugEnabled())
@@ -8,9 +8,13 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.spi.AdvancedCacheLoader;
 import org.infinispan.loaders.spi.CacheLoader;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -25,6 +29,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -42,7 +47,7 @@
  * @author Manik Surtani
  * @since 4.0
  */
-public class ChainingCacheStore implements CacheStore {
+public class ChainingCacheStore implements CacheStore, AdvancedCacheLoader {
    private static final Log log = LogFactory.getLog(ChainingCacheStore.class);
    private final ReadWriteLock loadersAndStoresMutex = new ReentrantReadWriteLock();
    @GuardedBy("loadersAndStoresMutex")
@@ -237,6 +242,31 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return set;
    }
 
+   /**
+    * {@inheritDoc} The stores are traversed one after the other, and a key found in several stores is only processed
+    * for the first one. Note that this requires keeping all the keys processed in memory.
+    */
+   @Override
+   public void process(final KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      final Set<Object> processedKeys = new ConcurrentHashSet<Object>();
+      KeyFilter chainFilter = new KeyFilter() {
+         @Override
+         public boolean shouldLoadKey(Object key) {
+            return (filter == null || filter.shouldLoadKey(key)) && processedKeys.add(key);
+         }
+      };
+      ProcessingSupport.ChainedTask chainedTask = new ProcessingSupport.ChainedTask(task);
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheStore s : stores.keySet()) {
+            ProcessingSupport.process(s, chainFilter, chainedTask, executor, fetchValue);
+            if (chainedTask.isStopped()) break;
+         }
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
       loadersAndStoresMutex.readLock().lock();
@@ -9,6 +9,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.bucket.Bucket;
 import org.infinispan.loaders.bucket.BucketBasedCacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
@@ -30,8 +32,13 @@
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -92,6 +99,36 @@ protected void loopOverBuckets(BucketHandler handler) throws CacheLoaderExceptio
       }
    }
 
+   /**
+    * Each bucket file is read and processed by a separate partition, so that deserialization runs in parallel too.
+    */
+   @Override
+   protected void processLockSafe(KeyFilter filter, CacheLoaderTask task, Executor executor, final boolean fetchValue) throws CacheLoaderException {
+      final ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(filter, task, executor);
+      try {
+         File[] listFiles;
+         if (root != null && (listFiles = root.listFiles(NUMERIC_NAMED_FILES_FILTER)) != null) {
+            for (final File bucketFile : listFiles) {
+               if (traversal.isStopped()) {
+                  break;
+               }
+               traversal.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() throws Exception {
+                     Bucket bucket = loadBucket(bucketFile);
+                     if (bucket != null) {
+                        processBucket(bucket, traversal, fetchValue);
+                     }
+                     return null;
+                  }
+               });
+            }
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
    @Override
    protected void fromStreamLockSafe(ObjectInput objectInput) throws CacheLoaderException {
       try {
@@ -301,15 +338,7 @@ protected Bucket loadBucket(File bucketFile) throws CacheLoaderException, Interr
 
    @Override
    public void updateBucket(Bucket b) throws CacheLoaderException {
-      File f = new File(root, b.getBucketIdAsString());
-      if (f.exists()) {
-         if (!purgeFile(f)) {
-            log.problemsRemovingFile(f);
-         } else if (trace) {
-            log.tracef("Successfully deleted file: '%s'", f.getName());
-         }
-      }
-
+      File f = purgeBucketFile(b);
       if (!b.getEntries().isEmpty()) {
          try {
             byte[] bytes = marshaller.objectToByteBuffer(b);
@@ -322,10 +351,52 @@ public void updateBucket(Bucket b) throws CacheLoaderException {
                log.trace("Interrupted while marshalling a bucket");
             }
             Thread.currentThread().interrupt(); // Restore interrupted status
+            throw new CacheLoaderException("Interrupted while marshalling a bucket", ie);
          }
       }
    }
 
+   /**
+    * Writes all the buckets before forcing them to the file system, see {@link FileSync#writeAll(Map)}.
+    */
+   @Override
+   protected void writeBuckets(List<Bucket> toInsert, List<Bucket> toUpdate) throws CacheLoaderException {
+      List<Bucket> buckets = new ArrayList<Bucket>(toInsert.size() + toUpdate.size());
+      buckets.addAll(toInsert);
+      buckets.addAll(toUpdate);
+      Map<File, byte[]> contents = new LinkedHashMap<File, byte[]>();
+      try {
+         for (Bucket b : buckets) {
+            File f = purgeBucketFile(b);
+            if (!b.getEntries().isEmpty()) {
+               contents.put(f, marshaller.objectToByteBuffer(b));
+            }
+         }
+         fileSync.writeAll(contents);
+      } catch (IOException ex) {
+         log.errorf(ex, "Exception while saving %d buckets", buckets.size());
+         throw new CacheLoaderException(ex);
+      } catch (InterruptedException ie) {
+         if (trace) {
+            log.trace("Interrupted while marshalling a bucket");
+         }
+         Thread.currentThread().interrupt(); // Restore interrupted status
+         throw new CacheLoaderException(String.format("Interrupted while saving %d buckets", buckets.size()), ie);
+      }
+   }
+
+   private File purgeBucketFile(Bucket b) {
+      File f = new File(root, b.getBucketIdAsString());
+      if (f.exists()) {
+         if (!purgeFile(f)) {
+            log.problemsRemovingFile(f);
+         } else if (trace) {
+            log.tracef("Successfully deleted file: '%s'", f.getName());
+         }
+      }
+      return f;
+   }
+
    @Override
    public void start() throws CacheLoaderException {
       super.start();
@@ -454,6 +525,15 @@ private interface FileSync {
        */
       void write(byte[] bytes, File f) throws IOException;
 
+      /**
+       * Writes the given bytes to each file, like {@link #write(byte[], File)}, but forces the changes to the
+       * underlying file system only once all the files have been written.
+       *
+       * @param contents the bytes to write, by file
+       * @throws IOException if an I/O error occurs
+       */
+      void writeAll(Map<File, byte[]> contents) throws IOException;
+
       /**
        * Force the file changes to be flushed to the underlying file system. Client code calling this flush method
        * should in advance check whether the file exists and so this method assumes that check was already done.
@@ -516,6 +596,14 @@ public void write(byte[] bytes, File f) throws IOException {
          channel.write(ByteBuffer.wrap(bytes));
       }
 
+      @Override
+      public void writeAll(Map<File, byte[]> contents) throws IOException {
+         // the changes are not forced on write
+         for (Map.Entry<File, byte[]> e : contents.entrySet()) {
+            write(e.getValue(), e.getKey());
+         }
+      }
+
       @Override
       public void deleteFile(File f) {
          String path = f.getPath();
@@ -639,6 +727,30 @@ public void write(byte[] bytes, File f) throws IOException {
          }
       }
 
+      @Override
+      public void writeAll(Map<File, byte[]> contents) throws IOException {
+         List<FileOutputStream> streams = new ArrayList<FileOutputStream>(contents.size());
+         try {
+            for (Map.Entry<File, byte[]> e : contents.entrySet()) {
+               if (e.getValue().length > 0) {
+                  FileOutputStream fos = new FileOutputStream(e.getKey());
+                  streams.add(fos);
+                  fos.write(e.getValue());
+               } else {
+                  deleteFile(e.getKey());
+               }
+            }
+            for (FileOutputStream fos : streams) {
+               fos.flush();
+               fos.getChannel().force(true);
+            }
+         } finally {
+            for (FileOutputStream fos : streams) {
+               Util.close(fos);
+            }
+         }
+      }
+
       @Override
       public void flush(File f) throws IOException {
          // No-op since flush always happens upon write
@@ -0,0 +1,1134 @@
+package org.infinispan.loaders.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.configuration.cache.CacheLoaderConfiguration;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
+import org.infinispan.util.concurrent.locks.StripedLock;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * A filesystem-based implementation of a {@link CacheStore} that never overwrites data in place. Every store or
+ * remove appends a record to the current log file in <tt>&lt;location&gt;/&lt;cache name&gt;/</tt>, and keys and
+ * record positions are kept in a concurrent in-memory index.
+ * <p/>
+ * Once the current log file reaches {@link LogFileCacheStoreConfiguration#maxFileSize()}, a new one is started. The
+ * records of a log file that have been overwritten, removed or expired are garbage; when the ratio of garbage in a
+ * complete log file exceeds {@link LogFileCacheStoreConfiguration#compactionThreshold()}, a background thread appends
+ * its live records to the current log file and deletes it.
+ * <p/>
+ * Removals append a tombstone record, so that an older record of the same key is not resurrected when the index is
+ * rebuilt from the log files. When the store is stopped, the index is written to a snapshot file which is read back
+ * on the next start instead of scanning all the log files. The snapshot is deleted as soon as it has been read, so
+ * after a crash the index is rebuilt from the log files.
+ * <p/>
+ * Like the {@link SingleFileCacheStore}, this store keeps all the keys in memory. Writes of different keys, reads and
+ * compaction proceed concurrently; writes of the same key are serialized by a striped lock.
+ *
+ * @since 6.0
+ */
+public class LogFileCacheStore extends AbstractCacheStore {
+
+   private static final Log log = LogFactory.getLog(LogFileCacheStore.class);
+
+   private static final byte[] MAGIC = new byte[] { 'L', 'F', 'S', '1' };
+   private static final byte[] INDEX_MAGIC = new byte[] { 'L', 'F', 'I', '1' };
+   private static final String LOG_FILE_SUFFIX = ".log";
+   private static final String INDEX_FILE_NAME = "index";
+   private static final int HEADER_SIZE = 4 + 4 + 8;
+   private static final int TOMBSTONE = -1;
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   private static final FileFilter LOG_FILES_FILTER = new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+         return file.isFile() && parseFileId(file) >= 0;
+      }
+   };
+
+   private LogFileCacheStoreConfiguration configuration;
+
+   private File directory;
+   private ConcurrentMap<Object, EntryPosition> index;
+   private ConcurrentMap<Integer, LogFile> files;
+   private StripedLock locks;
+   private ExecutorService compactor;
+   private volatile boolean stopping;
+
+   /**
+    * Guards the allocation of space at the end of {@link #current} and the creation of new log files.
+    */
+   private final Object appendLock = new Object();
+   private volatile LogFile current;
+
+   /** {@inheritDoc} */
+   @Override
+   public void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMarshaller m) throws
+           CacheLoaderException {
+      this.configuration = validateConfigurationClass(configuration, LogFileCacheStoreConfiguration.class);
+      super.init(configuration, cache, m);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void start() throws CacheLoaderException {
+      super.start();
+      try {
+         String location = configuration.location();
+         if (location == null || location.trim().length() == 0)
+            location = "Infinispan-LogFileCacheStore";
+
+         directory = new File(location, cache.getName());
+         if (!directory.exists() && !directory.mkdirs())
+            throw log.directoryCannotBeCreated(directory.getAbsolutePath());
+
+         index = CollectionFactory.makeConcurrentMap(1024, getConcurrencyLevel());
+         files = CollectionFactory.makeConcurrentMap();
+         locks = new StripedLock(getConcurrencyLevel());
+         stopping = false;
+
+         if (!readIndexSnapshot())
+            rebuildIndex();
+
+         // resume appending to the most recent log file, if any
+         int lastId = -1;
+         for (LogFile file : files.values())
+            lastId = Math.max(lastId, file.id);
+         current = lastId < 0 ? createLogFile(0) : files.get(lastId);
+
+         final String threadName = cache.getName() + "-LogFileCacheStore-Compactor";
+         compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread t = new Thread(r, threadName);
+               t.setDaemon(true);
+               return t;
+            }
+         });
+         for (LogFile file : files.values())
+            scheduleCompactionIfNeeded(file);
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void stop() throws CacheLoaderException {
+      try {
+         if (compactor != null) {
+            // let the running compaction notice the flag, interrupting it would close the file channels
+            stopping = true;
+            compactor.shutdown();
+            while (!compactor.awaitTermination(1, TimeUnit.SECONDS)) {
+               log.tracef("Waiting for the compaction of %s to stop", directory);
+            }
+            compactor = null;
+         }
+         if (files != null) {
+            writeIndexSnapshot();
+            for (LogFile file : files.values())
+               file.close();
+            files = null;
+            index = null;
+            current = null;
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException(e);
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+      super.stop();
+   }
+
+   /**
+    * Rebuilds the in-memory index by reading the records of all the log files in the order they were written. Values
+    * are skipped, only the keys are deserialized.
+    */
+   private void rebuildIndex() throws Exception {
+      File[] logFiles = directory.listFiles(LOG_FILES_FILTER);
+      Arrays.sort(logFiles, new Comparator<File>() {
+         @Override
+         public int compare(File f1, File f2) {
+            int id1 = parseFileId(f1), id2 = parseFileId(f2);
+            return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+         }
+      });
+      for (File f : logFiles) {
+         if (f.length() < MAGIC.length) {
+            // crashed right after creating the log file
+            createLogFile(parseFileId(f));
+            continue;
+         }
+         LogFile file = openLogFile(parseFileId(f));
+         long validSize = MAGIC.length;
+         DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), BUFFER_SIZE));
+         try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic))
+               throw new CacheLoaderException("Unknown format of log file " + f);
+
+            for (;;) {
+               long offset = validSize;
+               int keyLen, dataLen;
+               long expiryTime;
+               byte[] key;
+               try {
+                  keyLen = in.readInt();
+                  dataLen = in.readInt();
+                  expiryTime = in.readLong();
+                  // a record that was not completely written before a crash
+                  if (keyLen <= 0 || dataLen < TOMBSTONE || offset + HEADER_SIZE + keyLen + Math.max(dataLen, 0) > f.length())
+                     break;
+                  key = new byte[keyLen];
+                  in.readFully(key);
+                  skipFully(in, Math.max(dataLen, 0));
+               } catch (EOFException e) {
+                  break;
+               }
+
+               EntryPosition pos = new EntryPosition(file.id, offset, keyLen, dataLen, expiryTime);
+               validSize += pos.size();
+               Object k = getMarshaller().objectFromByteBuffer(key);
+               if (dataLen == TOMBSTONE) {
+                  free(index.remove(k));
+                  file.freeBytes.addAndGet(pos.size());
+               } else {
+                  free(index.put(k, pos));
+               }
+            }
+         } finally {
+            in.close();
+         }
+         // discard the incomplete record, if any, so that it does not hide the records appended after it
+         if (validSize < file.channel.size())
+            file.channel.truncate(validSize);
+         file.size = validSize;
+      }
+   }
+
+   /**
+    * Reads the index snapshot written by {@link #writeIndexSnapshot()}, provided it matches the log files on disk.
+    *
+    * @return true if the index has been read, false if it must be rebuilt from the log files
+    */
+   private boolean readIndexSnapshot() throws Exception {
+      File snapshot = new File(directory, INDEX_FILE_NAME);
+      if (!snapshot.exists())
+         return false;
+
+      boolean valid = false;
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot), BUFFER_SIZE));
+      try {
+         byte[] magic = new byte[INDEX_MAGIC.length];
+         in.readFully(magic);
+         if (!Arrays.equals(INDEX_MAGIC, magic))
+            return false;
+
+         // the snapshot is only valid if the log files have not changed since it was written
+         Set<Integer> fileIds = new HashSet<Integer>();
+         for (File f : directory.listFiles(LOG_FILES_FILTER))
+            fileIds.add(parseFileId(f));
+         int numFiles = in.readInt();
+         long[] sizes = new long[numFiles];
+         long[] freeBytes = new long[numFiles];
+         int[] ids = new int[numFiles];
+         for (int i = 0; i < numFiles; i++) {
+            ids[i] = in.readInt();
+            sizes[i] = in.readLong();
+            freeBytes[i] = in.readLong();
+            if (!fileIds.remove(ids[i]) || logFile(ids[i]).length() != sizes[i])
+               return false;
+         }
+         if (!fileIds.isEmpty())
+            return false;
+
+         for (int i = 0; i < numFiles; i++) {
+            LogFile file = openLogFile(ids[i]);
+            file.size = sizes[i];
+            file.freeBytes.set(freeBytes[i]);
+         }
+         int numEntries = in.readInt();
+         for (int i = 0; i < numEntries; i++) {
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            EntryPosition pos = new EntryPosition(in.readInt(), in.readLong(), in.readInt(), in.readInt(), in.readLong());
+            index.put(getMarshaller().objectFromByteBuffer(key), pos);
+         }
+         valid = true;
+         return true;
+      } catch (EOFException e) {
+         return false;
+      } finally {
+         in.close();
+         if (!valid) {
+            // start over from the log files
+            for (LogFile file : files.values())
+               file.close();
+            files.clear();
+            index.clear();
+         }
+         // a crash before the next clean stop must not find a stale snapshot
+         if (!snapshot.delete())
+            throw new CacheLoaderException("Unable to delete the index snapshot " + snapshot);
+      }
+   }
+
+   /**
+    * Writes the in-memory index and the sizes of the log files to the snapshot file.
+    */
+   private void writeIndexSnapshot() throws Exception {
+      File snapshot = new File(directory, INDEX_FILE_NAME);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshot), BUFFER_SIZE));
+      boolean written = false;
+      try {
+         out.write(INDEX_MAGIC);
+         out.writeInt(files.size());
+         for (LogFile file : files.values()) {
+            file.channel.force(false);
+            out.writeInt(file.id);
+            out.writeLong(file.size);
+            out.writeLong(file.freeBytes.get());
+         }
+         out.writeInt(index.size());
+         for (Map.Entry<Object, EntryPosition> entry : index.entrySet()) {
+            byte[] key = getMarshaller().objectToByteBuffer(entry.getKey());
+            EntryPosition pos = entry.getValue();
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(pos.fileId);
+            out.writeLong(pos.offset);
+            out.writeInt(pos.keyLen);
+            out.writeInt(pos.dataLen);
+            out.writeLong(pos.expiryTime);
+         }
+         written = true;
+      } finally {
+         out.close();
+         if (!written)
+            snapshot.delete();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The base class implementation calls {@link #load(Object)} for this, we can do better because
+    * we keep all keys in memory.
+    */
+   @Override
+   public boolean containsKey(Object key) throws CacheLoaderException {
+      EntryPosition pos = index.get(key);
+      return pos != null && !pos.isExpired(System.currentTimeMillis());
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void store(InternalCacheEntry entry) throws CacheLoaderException {
+      try {
+         byte[] key = getMarshaller().objectToByteBuffer(entry.getKey());
+         byte[] data = getMarshaller().objectToByteBuffer(entry.toInternalCacheValue());
+         locks.acquireLock(entry.getKey(), true);
+         try {
+            EntryPosition pos = append(key, data, entry.getExpiryTime());
+            free(index.put(entry.getKey(), pos));
+         } finally {
+            locks.releaseLock(entry.getKey());
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public boolean remove(Object key) throws CacheLoaderException {
+      return remove(key, null);
+   }
+
+   /**
+    * Removes the key and appends a tombstone record.
+    *
+    * @param expected if not null, the key is only removed if it is still mapped to this position
+    */
+   private boolean remove(Object key, EntryPosition expected) throws CacheLoaderException {
+      try {
+         locks.acquireLock(key, true);
+         try {
+            EntryPosition pos = index.get(key);
+            if (pos == null || (expected != null && expected != pos))
+               return false;
+            free(append(getMarshaller().objectToByteBuffer(key), null, -1));
+            index.remove(key);
+            free(pos);
+            return true;
+         } finally {
+            locks.releaseLock(key);
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /**
+    * {@inheritDoc} The records of the batch are appended to the log with a single write, unless the batch does not fit
+    * in the current log file.
+    */
+   @Override
+   public void writeBatch(Collection<InternalCacheEntry> entries, Collection<Object> keysToRemove) throws CacheLoaderException {
+      try {
+         List<Object> keys = new ArrayList<Object>(entries.size() + keysToRemove.size());
+         List<PendingRecord> records = new ArrayList<PendingRecord>(entries.size() + keysToRemove.size());
+         for (InternalCacheEntry entry : entries) {
+            keys.add(entry.getKey());
+            records.add(new PendingRecord(entry.getKey(), getMarshaller().objectToByteBuffer(entry.getKey()),
+                  getMarshaller().objectToByteBuffer(entry.toInternalCacheValue()), entry.getExpiryTime()));
+         }
+         keys.addAll(keysToRemove);
+         locks.acquireOrderedLocks(keys, true);
+         try {
+            for (Object key : keysToRemove) {
+               // no tombstone is needed for a key that is not in the store
+               if (index.containsKey(key))
+                  records.add(new PendingRecord(key, getMarshaller().objectToByteBuffer(key), null, -1));
+            }
+            EntryPosition[] positions = append(records);
+            for (int i = 0; i < positions.length; i++) {
+               PendingRecord record = records.get(i);
+               if (record.data != null) {
+                  free(index.put(record.key, positions[i]));
+               } else {
+                  free(positions[i]);
+                  free(index.remove(record.key));
+               }
+            }
+         } finally {
+            locks.releaseOrderedLocks(keys);
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void clear() throws CacheLoaderException {
+      if (!locks.acquireGlobalLock(true, Long.MAX_VALUE))
+         throw new CacheLoaderException("Unable to acquire the global lock to clear " + directory);
+      try {
+         synchronized (appendLock) {
+            index.clear();
+            int nextId = current.id + 1;
+            for (LogFile file : files.values()) {
+               files.remove(file.id);
+               file.close();
+               file.delete();
+            }
+            current = createLogFile(nextId);
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      } finally {
+         locks.releaseGlobalLock(true);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public InternalCacheEntry load(Object key) throws CacheLoaderException {
+      try {
+         for (;;) {
+            EntryPosition pos = index.get(key);
+            if (pos == null || pos.isExpired(System.currentTimeMillis()))
+               return null;
+
+            LogFile file = files.get(pos.fileId);
+            if (file != null) {
+               byte[] data = new byte[pos.dataLen];
+               try {
+                  read(file, ByteBuffer.wrap(data), pos.offset + HEADER_SIZE + pos.keyLen);
+                  return ((InternalCacheValue) getMarshaller().objectFromByteBuffer(data)).toInternalCacheEntry(key);
+               } catch (ClosedByInterruptException e) {
+                  throw e;
+               } catch (ClosedChannelException e) {
+                  // the log file has just been compacted, look up the new position of the key
+               }
+            }
+            if (index.get(key) == pos)
+               throw new CacheLoaderException("Log file " + pos.fileId + " of " + directory + " is not available");
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
+      return load(Integer.MAX_VALUE);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>();
+      for (Object key : index.keySet()) {
+         if (result.size() >= numEntries)
+            break;
+         InternalCacheEntry ice = load(key);
+         if (ice != null)
+            result.add(ice);
+      }
+      return result;
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
+      long now = System.currentTimeMillis();
+      Set<Object> result = new HashSet<Object>();
+      for (Map.Entry<Object, EntryPosition> entry : index.entrySet()) {
+         if (!entry.getValue().isExpired(now))
+            result.add(entry.getKey());
+      }
+      if (keysToExclude != null)
+         result.removeAll(keysToExclude);
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The keys are taken from the in-memory index and sorted by their position in the log files, so that the values
+    * are read mostly sequentially.
+    */
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, final boolean fetchValue) throws CacheLoaderException {
+      final ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(filter, task, executor);
+      try {
+         List<Map.Entry<Object, EntryPosition>> entries = new ArrayList<Map.Entry<Object, EntryPosition>>(index.entrySet());
+         Collections.sort(entries, new Comparator<Map.Entry<Object, EntryPosition>>() {
+            @Override
+            public int compare(Map.Entry<Object, EntryPosition> e1, Map.Entry<Object, EntryPosition> e2) {
+               return e1.getValue().compareTo(e2.getValue());
+            }
+         });
+         for (int start = 0; start < entries.size() && !traversal.isStopped(); start += ProcessingSupport.PARTITION_SIZE) {
+            final List<Map.Entry<Object, EntryPosition>> partition = entries.subList(start, Math.min(start + ProcessingSupport.PARTITION_SIZE, entries.size()));
+            traversal.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  long now = System.currentTimeMillis();
+                  for (Map.Entry<Object, EntryPosition> entry : partition) {
+                     if (traversal.isStopped()) break;
+                     Object key = entry.getKey();
+                     if (!traversal.accept(key)) continue;
+                     if (fetchValue) {
+                        InternalCacheEntry ice = load(key);
+                        if (ice != null)
+                           traversal.process(key, ice);
+                     } else {
+                        EntryPosition pos = index.get(key);
+                        if (pos != null && !pos.isExpired(now))
+                           traversal.process(key, null);
+                     }
+                  }
+                  return null;
+               }
+            });
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   protected void purgeInternal() throws CacheLoaderException {
+      long now = System.currentTimeMillis();
+      for (Map.Entry<Object, EntryPosition> entry : index.entrySet()) {
+         // a tombstone is needed, otherwise an older record of the key could be found when rebuilding the index
+         if (entry.getValue().isExpired(now))
+            remove(entry.getKey(), entry.getValue());
+      }
+   }
+
+   /**
+    * {@inheritDoc} The content of the store is replaced by the log files read from the stream, and the index is rebuilt
+    * from them.
+    */
+   @Override
+   public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
+      if (!locks.acquireGlobalLock(true, Long.MAX_VALUE))
+         throw new CacheLoaderException("Unable to acquire the global lock to read a stream into " + directory);
+      try {
+         synchronized (appendLock) {
+            int nextId = current.id + 1;
+            index.clear();
+            for (LogFile file : files.values()) {
+               files.remove(file.id);
+               file.close();
+               file.delete();
+            }
+            int numFiles = inputStream.readInt();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int i = 0; i < numFiles; i++) {
+               long remaining = inputStream.readLong();
+               BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(logFile(nextId + i)), BUFFER_SIZE);
+               try {
+                  while (remaining > 0) {
+                     int len = (int) Math.min(buffer.length, remaining);
+                     inputStream.readFully(buffer, 0, len);
+                     out.write(buffer, 0, len);
+                     remaining -= len;
+                  }
+               } finally {
+                  out.close();
+               }
+            }
+            rebuildIndex();
+            current = numFiles == 0 ? createLogFile(nextId) : files.get(nextId + numFiles - 1);
+         }
+         for (LogFile file : files.values())
+            scheduleCompactionIfNeeded(file);
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      } finally {
+         locks.releaseGlobalLock(true);
+      }
+   }
+
+   /**
+    * {@inheritDoc} The log files are written to the stream as they are, in the order they were created.
+    */
+   @Override
+   public void toStream(ObjectOutput outputStream) throws CacheLoaderException {
+      if (!locks.acquireGlobalLock(false, Long.MAX_VALUE))
+         throw new CacheLoaderException("Unable to acquire the global lock to write " + directory + " to a stream");
+      try {
+         // no record is appended and no log file is deleted by the compaction meanwhile
+         synchronized (appendLock) {
+            List<LogFile> logFiles = new ArrayList<LogFile>(files.values());
+            Collections.sort(logFiles, new Comparator<LogFile>() {
+               @Override
+               public int compare(LogFile f1, LogFile f2) {
+                  return f1.id < f2.id ? -1 : (f1.id == f2.id ? 0 : 1);
+               }
+            });
+            outputStream.writeInt(logFiles.size());
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (LogFile file : logFiles) {
+               outputStream.writeLong(file.size);
+               for (long position = 0; position < file.size; ) {
+                  ByteBuffer buf = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, file.size - position));
+                  read(file, buf, position);
+                  outputStream.write(buffer, 0, buf.position());
+                  position += buf.position();
+               }
+            }
+         }
+      } catch (IOException e) {
+         throw new CacheLoaderException("I/O error while writing " + directory + " to a stream", e);
+      } finally {
+         locks.releaseGlobalLock(false);
+      }
+   }
+
+   /**
+    * Appends a record to the current log file, starting a new log file if the current one is full. Must be invoked
+    * with the lock of the key held, so that the records of a key are appended in the same order as the index is
+    * updated.
+    *
+    * @param data the serialized value, or null to append a tombstone
+    */
+   private EntryPosition append(byte[] key, byte[] data, long expiryTime) throws IOException {
+      return append(Collections.singletonList(new PendingRecord(null, key, data, expiryTime)))[0];
+   }
+
+   /**
+    * Appends records to the log, with a single write for each log file they end up in. Must be invoked with the locks
+    * of the keys held.
+    *
+    * @return the positions of the records, in the same order
+    */
+   private EntryPosition[] append(List<PendingRecord> records) throws IOException {
+      EntryPosition[] positions = new EntryPosition[records.size()];
+      // runs of consecutive records appended to the same log file
+      List<LogFile> runFiles = new ArrayList<LogFile>();
+      List<Integer> runStarts = new ArrayList<Integer>();
+      synchronized (appendLock) {
+         LogFile file = current;
+         for (int i = 0; i < records.size(); i++) {
+            PendingRecord record = records.get(i);
+            if (file.size > MAGIC.length && file.size + record.size() > configuration.maxFileSize()) {
+               file = createLogFile(file.id + 1);
+               LogFile full = current;
+               current = file;
+               scheduleCompactionIfNeeded(full);
+            }
+            if (runFiles.isEmpty() || runFiles.get(runFiles.size() - 1) != file) {
+               // the full log file is not compacted until the run has been written
+               file.pendingWrites.incrementAndGet();
+               runFiles.add(file);
+               runStarts.add(i);
+            }
+            positions[i] = new EntryPosition(file.id, file.size, record.keyBytes.length, record.dataLen(), record.expiryTime);
+            file.size += record.size();
+         }
+      }
+
+      IOException failure = null;
+      for (int run = 0; run < runFiles.size(); run++) {
+         LogFile file = runFiles.get(run);
+         int start = runStarts.get(run);
+         int end = run + 1 < runStarts.size() ? runStarts.get(run + 1) : records.size();
+         try {
+            if (failure == null) {
+               long offset = positions[start].offset;
+               ByteBuffer buf = ByteBuffer.allocate((int) (positions[end - 1].offset + positions[end - 1].size() - offset));
+               for (int i = start; i < end; i++) {
+                  PendingRecord record = records.get(i);
+                  buf.putInt(positions[i].keyLen);
+                  buf.putInt(positions[i].dataLen);
+                  buf.putLong(positions[i].expiryTime);
+                  buf.put(record.keyBytes);
+                  if (record.data != null)
+                     buf.put(record.data);
+               }
+               buf.flip();
+               write(file, buf, offset);
+            }
+         } catch (IOException e) {
+            failure = e;
+         } finally {
+            if (file.pendingWrites.decrementAndGet() == 0) {
+               synchronized (file) {
+                  file.notifyAll();
+               }
+            }
+         }
+      }
+      if (failure != null)
+         throw failure;
+      return positions;
+   }
+
+   /**
+    * Accounts for a record that is not referenced by the index any more.
+    */
+   private void free(EntryPosition pos) {
+      if (pos != null) {
+         LogFile file = files.get(pos.fileId);
+         if (file != null) {
+            file.freeBytes.addAndGet(pos.size());
+            scheduleCompactionIfNeeded(file);
+         }
+      }
+   }
+
+   private void scheduleCompactionIfNeeded(final LogFile file) {
+      // the current log file is only compacted once it is full
+      if (file == current || compactor == null || stopping)
+         return;
+      if (file.freeBytes.get() <= configuration.compactionThreshold() * (file.size - MAGIC.length))
+         return;
+      if (file.compactionScheduled.compareAndSet(false, true)) {
+         compactor.submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  compact(file);
+               } catch (Throwable t) {
+                  // the file will be compacted again on the next start
+                  log.errorf(t, "Failed to compact log file %s", file.file);
+               }
+            }
+         });
+      }
+   }
+
+   /**
+    * Appends the live records of a log file to the current log file, and deletes it.
+    */
+   private void compact(LogFile file) throws Exception {
+      // wait for the writes started before the file was full
+      synchronized (file) {
+         while (file.pendingWrites.get() > 0)
+            file.wait();
+      }
+
+      // tombstones are only needed as long as an older log file may contain a record of the same key
+      boolean keepTombstones = false;
+      for (Integer id : files.keySet())
+         keepTombstones |= id < file.id;
+
+      long offset = MAGIC.length;
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.file), BUFFER_SIZE));
+      try {
+         skipFully(in, MAGIC.length);
+         while (offset < file.size) {
+            if (stopping)
+               return;
+            int keyLen = in.readInt();
+            int dataLen = in.readInt();
+            long expiryTime = in.readLong();
+            byte[] key = new byte[keyLen];
+            in.readFully(key);
+            byte[] data = null;
+            if (dataLen != TOMBSTONE) {
+               data = new byte[dataLen];
+               in.readFully(data);
+            }
+            long recordOffset = offset;
+            offset += HEADER_SIZE + keyLen + Math.max(dataLen, 0);
+
+            Object k = getMarshaller().objectFromByteBuffer(key);
+            locks.acquireLock(k, true);
+            try {
+               // the store has been cleared meanwhile
+               if (files.get(file.id) != file)
+                  return;
+               EntryPosition pos = index.get(k);
+               if (data == null) {
+                  if (keepTombstones && pos == null)
+                     free(append(key, null, -1));
+               } else if (pos != null && pos.fileId == file.id && pos.offset == recordOffset) {
+                  if (!pos.isExpired(System.currentTimeMillis())) {
+                     index.put(k, append(key, data, expiryTime));
+                  } else {
+                     // drop the expired record, with a tombstone if an older log file may contain the key
+                     index.remove(k);
+                     if (keepTombstones)
+                        free(append(key, null, -1));
+                  }
+               }
+            } finally {
+               locks.releaseLock(k);
+            }
+         }
+      } finally {
+         in.close();
+      }
+
+      // toStream() must not see the log file disappear
+      synchronized (appendLock) {
+         if (!files.remove(file.id, file))
+            return;
+         file.close();
+         file.delete();
+      }
+      log.tracef("Compacted log file %s", file.file);
+   }
+
+   private LogFile createLogFile(int id) throws IOException {
+      LogFile file = openLogFile(id);
+      file.channel.truncate(0);
+      file.channel.write(ByteBuffer.wrap(MAGIC), 0);
+      file.size = MAGIC.length;
+      return file;
+   }
+
+   private LogFile openLogFile(int id) throws IOException {
+      File f = logFile(id);
+      LogFile file = new LogFile(id, f, new RandomAccessFile(f, "rw").getChannel());
+      files.put(id, file);
+      return file;
+   }
+
+   private File logFile(int id) {
+      return new File(directory, id + LOG_FILE_SUFFIX);
+   }
+
+   private static int parseFileId(File file) {
+      String name = file.getName();
+      if (!name.endsWith(LOG_FILE_SUFFIX))
+         return -1;
+      try {
+         return Integer.parseInt(name.substring(0, name.length() - LOG_FILE_SUFFIX.length()));
+      } catch (NumberFormatException e) {
+         return -1;
+      }
+   }
+
+   /**
+    * Reads from a log file. A thread interrupted while reading closes the channel for every other thread, so the
+    * channel is reopened and the other threads retry their read. The interrupted thread gets the
+    * {@link ClosedByInterruptException}.
+    */
+   private static void read(LogFile file, ByteBuffer buf, long position) throws IOException {
+      for (;;) {
+         FileChannel channel = file.channel;
+         try {
+            readFully(channel, buf, position);
+            return;
+         } catch (ClosedChannelException e) {
+            file.reopen(channel);
+            if (e instanceof ClosedByInterruptException)
+               throw e;
+         }
+      }
+   }
+
+   /**
+    * Writes to a log file, reopening its channel if a thread interrupted while using it closed it. The write is
+    * completed even if the current thread is the one interrupted, since an incomplete record would hide the records
+    * appended after it when the index is rebuilt.
+    */
+   private static void write(LogFile file, ByteBuffer buf, long position) throws IOException {
+      boolean interrupted = false;
+      try {
+         for (;;) {
+            FileChannel channel = file.channel;
+            try {
+               while (buf.hasRemaining())
+                  channel.write(buf, position + buf.position());
+               return;
+            } catch (ClosedChannelException e) {
+               file.reopen(channel);
+               if (e instanceof ClosedByInterruptException) {
+                  // clear the flag, otherwise the next write would close the channel again
+                  Thread.interrupted();
+                  interrupted = true;
+               }
+            }
+         }
+      } finally {
+         if (interrupted)
+            Thread.currentThread().interrupt();
+      }
+   }
+
+   private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+      while (buf.hasRemaining()) {
+         if (channel.read(buf, position + buf.position()) < 0)
+            throw new EOFException();
+      }
+   }
+
+   private static void skipFully(DataInputStream in, int len) throws IOException {
+      if (in.skipBytes(len) != len)
+         throw new EOFException();
+   }
+
+   Map<Object, EntryPosition> getIndex() {
+      return index;
+   }
+
+   int getLogFileCount() {
+      return files.size();
+   }
+
+   /**
+    * A record to append to the log.
+    */
+   private static final class PendingRecord {
+      final Object key;
+      final byte[] keyBytes;
+      final byte[] data;
+      final long expiryTime;
+
+      PendingRecord(Object key, byte[] keyBytes, byte[] data, long expiryTime) {
+         this.key = key;
+         this.keyBytes = keyBytes;
+         this.data = data;
+         this.expiryTime = expiryTime;
+      }
+
+      int dataLen() {
+         return data == null ? TOMBSTONE : data.length;
+      }
+
+      int size() {
+         return HEADER_SIZE + keyBytes.length + (data == null ? 0 : data.length);
+      }
+   }
+
+   /**
+    * Position of a record in the log files.
+    * <p/>
+    * Each log file starts with a 4 bytes magic number, followed by records in the following format:
+    * <ul>
+    * <li>4 bytes: {@link #keyLen}</li>
+    * <li>4 bytes: {@link #dataLen}, -1 for a tombstone</li>
+    * <li>8 bytes: {@link #expiryTime}</li>
+    * <li>{@link #keyLen} bytes: serialized key</li>
+    * <li>{@link #dataLen} bytes: serialized data, absent for a tombstone</li>
+    * </ul>
+    */
+   static final class EntryPosition implements Comparable<EntryPosition> {
+      /**
+       * Id of the log file.
+       */
+      private final int fileId;
+
+      /**
+       * Offset of the record in the log file.
+       */
+      private final long offset;
+
+      /**
+       * Size of serialized key.
+       */
+      private final int keyLen;
+
+      /**
+       * Size of serialized data.
+       */
+      private final int dataLen;
+
+      /**
+       * Time stamp when the entry will expire (i.e. will be collected by purge).
+       */
+      private final long expiryTime;
+
+      private EntryPosition(int fileId, long offset, int keyLen, int dataLen, long expiryTime) {
+         this.fileId = fileId;
+         this.offset = offset;
+         this.keyLen = keyLen;
+         this.dataLen = dataLen;
+         this.expiryTime = expiryTime;
+      }
+
+      int fileId() {
+         return fileId;
+      }
+
+      private int size() {
+         return HEADER_SIZE + keyLen + Math.max(dataLen, 0);
+      }
+
+      private boolean isExpired(long now) {
+         return expiryTime > 0 && expiryTime < now;
+      }
+
+      /** {@inheritDoc} */
+      @Override
+      public int compareTo(EntryPosition o) {
+         if (fileId != o.fileId)
+            return fileId < o.fileId ? -1 : 1;
+         return offset < o.offset ? -1 : (offset == o.offset ? 0 : 1);
+      }
+   }
+
+   /**
+    * A log file and its space accounting.
+    */
+   private static final class LogFile {
+      private final int id;
+      private final File file;
+
+      /**
+       * Replaced by {@link #reopen(FileChannel)} when closed by an interrupted thread.
+       */
+      private volatile FileChannel channel;
+
+      private volatile boolean closed;
+
+      /**
+       * End of the allocated records, guarded by {@link LogFileCacheStore#appendLock} while the file is current.
+       */
+      private volatile long size;
+
+      /**
+       * Total size of the records that are not referenced by the index any more.
+       */
+      private final AtomicLong freeBytes = new AtomicLong();
+
+      /**
+       * Number of records allocated but not written yet.
+       */
+      private final AtomicInteger pendingWrites = new AtomicInteger();
+
+      private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+      private LogFile(int id, File file, FileChannel channel) {
+         this.id = id;
+         this.file = file;
+         this.channel = channel;
+      }
+
+      private void close() throws IOException {
+         closed = true;
+         channel.close();
+      }
+
+      /**
+       * Replaces a channel closed by an interrupted thread, unless the log file itself has been closed.
+       *
+       * @throws ClosedChannelException if the log file has been closed
+       */
+      private synchronized void reopen(FileChannel failed) throws IOException {
+         if (closed)
+            throw new ClosedChannelException();
+         if (channel == failed && !failed.isOpen())
+            channel = new RandomAccessFile(file, "rw").getChannel();
+      }
+
+      private void delete() throws IOException {
+         if (!file.delete() && file.exists())
+            throw new IOException("Unable to delete log file " + file);
+      }
+   }
+}
@@ -5,27 +5,37 @@
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
 import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.io.NioByteBufferInputStream;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.spi.AbstractCacheStore;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -53,6 +63,11 @@
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
+ * <p/>
+ * If {@link SingleFileCacheStoreConfiguration#memoryMapped()} is enabled, the
+ * file is mapped in windows of 64 MB, and keys and
+ * values are deserialized directly from the mapped windows. Entries spanning
+ * two windows are still read with a positional read.
  *
  * @author Karsten Blees
  * @since 6.0
@@ -65,6 +80,7 @@ public class SingleFileCacheStore extends AbstractCacheStore {
    private static final byte[] ZERO_INT = { 0, 0, 0, 0 };
    private static final int KEYLEN_POS = 4;
    private static final int KEY_POS = 4 + 4 + 4 + 8;
+   private static final int MAPPING_WINDOW_SIZE = 64 * 1024 * 1024;
 
    private SingleFileCacheStoreConfiguration configuration;
 
@@ -73,6 +89,17 @@ public class SingleFileCacheStore extends AbstractCacheStore {
    private SortedSet<FileEntry> freeList;
    private long filePos = MAGIC.length;
 
+   /**
+    * Read-only mappings of the file, indexed by window number. Replaced (copy on write) when a window is remapped
+    * because the file has grown. Only used if the store is memory-mapped.
+    */
+   private volatile MappedByteBuffer[] windows;
+   /**
+    * The windows replaced by a remapping, which concurrent readers may still use. They are released by the garbage
+    * collector, unless {@link #clear()} unmaps them first.
+    */
+   private final List<WeakReference<MappedByteBuffer>> replacedWindows = new ArrayList<WeakReference<MappedByteBuffer>>();
+   private final Object mappingLock = new Object();
 
    /** {@inheritDoc} */
    @Override
@@ -110,6 +137,7 @@ public void start() throws CacheLoaderException {
             entryMap = new HashMap<Object, FileEntry>();
          entries = Collections.synchronizedMap(entryMap);
          freeList = Collections.synchronizedSortedSet(new TreeSet<FileEntry>());
+         windows = new MappedByteBuffer[0];
 
          // check file format and read persistent state if enabled for the cache
          byte[] header = new byte[MAGIC.length];
@@ -132,6 +160,7 @@ public void stop() throws CacheLoaderException {
             file = null;
             entries = null;
             freeList = null;
+            windows = null;
             filePos = MAGIC.length;
          }
       } catch (Exception e) {
@@ -147,18 +176,16 @@ private void rebuildIndex() throws Exception {
       ByteBuffer buf = ByteBuffer.allocate(KEY_POS);
       for (;;) {
          // read FileEntry fields from file (size, keyLen etc.)
-         buf.clear().limit(KEY_POS);
-         file.read(buf, filePos);
+         ByteBuffer header = readRegion(filePos, KEY_POS, buf);
          // return if end of file is reached
-         if (buf.remaining() > 0)
+         if (header == null)
             return;
-         buf.flip();
 
          // initialize FileEntry from buffer
-         FileEntry fe = new FileEntry(filePos, buf.getInt());
-         fe.keyLen = buf.getInt();
-         fe.dataLen = buf.getInt();
-         fe.expiryTime = buf.getLong();
+         FileEntry fe = new FileEntry(filePos, header.getInt());
+         fe.keyLen = header.getInt();
+         fe.dataLen = header.getInt();
+         fe.expiryTime = header.getLong();
 
          // update file pointer
          filePos += fe.size;
@@ -169,11 +196,12 @@ private void rebuildIndex() throws Exception {
             if (buf.capacity() < fe.keyLen)
                buf = ByteBuffer.allocate(fe.keyLen);
 
-            buf.clear().limit(fe.keyLen);
-            file.read(buf, fe.offset + KEY_POS);
+            ByteBuffer keyRegion = readRegion(fe.offset + KEY_POS, fe.keyLen, buf);
+            if (keyRegion == null)
+               return;
 
             // deserialize key and add to entries map
-            Object key = getMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
+            Object key = unmarshall(keyRegion);
             entries.put(key, fe);
          } else {
             // add to free list
@@ -182,6 +210,113 @@ private void rebuildIndex() throws Exception {
       }
    }
 
+   /**
+    * Reads a region of the file: from the mapped window containing it if the store is memory-mapped, otherwise into
+    * the given buffer, which must be large enough.
+    *
+    * @return the region, positioned at its start, or null if the end of the file is reached
+    */
+   private ByteBuffer readRegion(long offset, int len, ByteBuffer buf) throws IOException {
+      if (configuration.memoryMapped()) {
+         ByteBuffer region = mappedRegion(offset, len);
+         if (region != null)
+            return region;
+      }
+      buf.clear().limit(len);
+      file.read(buf, offset);
+      if (buf.remaining() > 0)
+         return null;
+      buf.flip();
+      return buf;
+   }
+
+   /**
+    * Returns a view of a region of the file backed by the mapped window containing it, remapping the window if the
+    * file has grown since it was mapped.
+    *
+    * @return the region, or null if it spans two windows or goes beyond the end of the file
+    */
+   private ByteBuffer mappedRegion(long offset, int len) throws IOException {
+      int index = (int) (offset / MAPPING_WINDOW_SIZE);
+      int start = (int) (offset % MAPPING_WINDOW_SIZE);
+      if (start + len > MAPPING_WINDOW_SIZE)
+         return null;
+
+      MappedByteBuffer[] mapped = windows;
+      MappedByteBuffer window = index < mapped.length ? mapped[index] : null;
+      if (window == null || window.capacity() < start + len) {
+         window = remap(index, start + len);
+         if (window == null)
+            return null;
+      }
+      // a private view, the position of the shared window must not be modified
+      ByteBuffer region = window.duplicate();
+      region.limit(start + len);
+      region.position(start);
+      return region.slice();
+   }
+
+   /**
+    * Maps a window again, up to the current end of the file, so that readers of entries appended since the window
+    * was mapped can see them. The previous mapping is still valid for concurrent readers, and is released when it is
+    * garbage collected.
+    */
+   private MappedByteBuffer remap(int index, int minLength) throws IOException {
+      synchronized (mappingLock) {
+         MappedByteBuffer[] mapped = windows;
+         if (index < mapped.length && mapped[index] != null && mapped[index].capacity() >= minLength)
+            return mapped[index];
+
+         long start = (long) index * MAPPING_WINDOW_SIZE;
+         // never map beyond the end of the file, that would extend it
+         long length = Math.min(MAPPING_WINDOW_SIZE, file.size() - start);
+         if (length < minLength)
+            return null;
+
+         MappedByteBuffer window = file.map(FileChannel.MapMode.READ_ONLY, start, length);
+         if (index < mapped.length && mapped[index] != null)
+            replacedWindows.add(new WeakReference<MappedByteBuffer>(mapped[index]));
+         MappedByteBuffer[] remapped = Arrays.copyOf(mapped, Math.max(mapped.length, index + 1));
+         remapped[index] = window;
+         windows = remapped;
+         return window;
+      }
+   }
+
+   /**
+    * Releases a mapping right away rather than when it is garbage collected. There is no public API for this, so it
+    * relies on the cleaner of the JDK's direct buffers, and otherwise leaves the mapping to the garbage collector.
+    */
+   private static void unmap(MappedByteBuffer window) {
+      if (window == null)
+         return;
+      try {
+         Method cleanerMethod = window.getClass().getMethod("cleaner");
+         cleanerMethod.setAccessible(true);
+         Object cleaner = cleanerMethod.invoke(window);
+         if (cleaner != null)
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+      } catch (Exception e) {
+         log.debugf(e, "Unable to unmap a window of the file, leaving it to the garbage collector");
+      }
+   }
+
+   /**
+    * Deserializes an object from a region of the file, without copying it if the region is a mapped window.
+    */
+   private Object unmarshall(ByteBuffer region) throws IOException, ClassNotFoundException, InterruptedException {
+      if (region.hasArray())
+         return getMarshaller().objectFromByteBuffer(region.array(), region.arrayOffset() + region.position(), region.remaining());
+
+      StreamingMarshaller marshaller = getMarshaller();
+      ObjectInput input = marshaller.startObjectInput(new NioByteBufferInputStream(region), false);
+      try {
+         return marshaller.objectFromObjectStream(input);
+      } finally {
+         marshaller.finishObjectInput(input);
+      }
+   }
+
    /**
     * {@inheritDoc}
     * <p/>
@@ -318,6 +453,17 @@ public void clear() throws CacheLoaderException {
                // clear in-memory state
                entries.clear();
                freeList.clear();
+               // the file must not be truncated while mapped: this fails on Windows, and elsewhere reading a stale
+               // mapping beyond the new end of the file crashes the JVM. No reader uses them anymore, the windows
+               // are mapped again on demand.
+               synchronized (mappingLock) {
+                  for (MappedByteBuffer window : windows)
+                     unmap(window);
+                  for (WeakReference<MappedByteBuffer> ref : replacedWindows)
+                     unmap(ref.get());
+                  replacedWindows.clear();
+                  windows = new MappedByteBuffer[0];
+               }
 
                // reset file
                file.truncate(0);
@@ -371,6 +517,13 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
                return null;
             }
 
+            // deserialize from the mapped file, which requires the entry to stay locked meanwhile
+            if (configuration.memoryMapped()) {
+               ByteBuffer region = mappedRegion(fe.offset + KEY_POS + fe.keyLen, fe.dataLen);
+               if (region != null)
+                  return ((InternalCacheValue) unmarshall(region)).toInternalCacheEntry(key);
+            }
+
             // load serialized data from disk
             data = new byte[fe.dataLen];
             file.read(ByteBuffer.wrap(data), fe.offset + KEY_POS + fe.keyLen);
@@ -420,6 +573,48 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return result;
    }
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The keys are taken from the in-memory index, so only the values of the entries being processed are loaded in
+    * memory, and listing the keys does not require any disk access.
+    */
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, final boolean fetchValue) throws CacheLoaderException {
+      final ProcessingSupport.Traversal traversal = new ProcessingSupport.Traversal(filter, task, executor);
+      try {
+         List<Object> keys;
+         synchronized (entries) {
+            keys = new ArrayList<Object>(entries.keySet());
+         }
+         for (int start = 0; start < keys.size() && !traversal.isStopped(); start += ProcessingSupport.PARTITION_SIZE) {
+            final List<Object> partition = keys.subList(start, Math.min(start + ProcessingSupport.PARTITION_SIZE, keys.size()));
+            traversal.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  long now = System.currentTimeMillis();
+                  for (Object key : partition) {
+                     if (traversal.isStopped()) break;
+                     if (!traversal.accept(key)) continue;
+                     if (fetchValue) {
+                        InternalCacheEntry ice = load(key);
+                        if (ice != null)
+                           traversal.process(key, ice);
+                     } else {
+                        FileEntry fe = entries.get(key);
+                        if (fe != null && !fe.isExpired(now))
+                           traversal.process(key, null);
+                     }
+                  }
+                  return null;
+               }
+            });
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
    /** {@inheritDoc} */
    @Override
    protected void purgeInternal() throws CacheLoaderException {
@@ -28,6 +28,13 @@ public interface CacheLoaderManager extends Lifecycle {
 
    void preload();
 
+   /**
+    * Waits until the cache has been preloaded, or until it is known that it doesn't need to be. Components that read
+    * the whole content of the data container on behalf of other nodes, e.g. for state transfer, must wait for the
+    * preload first, since a clustered cache with a shared store is preloaded after joining the cluster.
+    */
+   void awaitPreload() throws InterruptedException;
+
    boolean isEnabled();
 
    void disableCacheStore(String loaderType);
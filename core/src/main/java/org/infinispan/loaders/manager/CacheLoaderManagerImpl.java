@@ -6,6 +6,9 @@
 import static org.infinispan.loaders.decorators.AbstractDelegatingStore.undelegateCacheLoader;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
@@ -15,6 +18,7 @@
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
 import org.infinispan.configuration.cache.LoadersConfiguration;
 import org.infinispan.configuration.cache.CacheStoreConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContextContainer;
@@ -30,14 +34,20 @@
 import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.decorators.ReadOnlyStore;
 import org.infinispan.loaders.decorators.SingletonStore;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.CacheLoaderTask;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.TaskContext;
 import org.infinispan.loaders.spi.CacheLoader;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.KeyFilter;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.configuration.ConfigurationFor;
 import org.infinispan.commons.marshall.StreamingMarshaller;
-import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.Util;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -52,6 +62,7 @@ public class CacheLoaderManagerImpl implements CacheLoaderManager {
    InvocationContextContainer icc;
    TransactionManager transactionManager;
    private TimeService timeService;
+   private final CountDownLatch preloadLatch = new CountDownLatch(1);
    private static final Log log = LogFactory.getLog(CacheLoaderManagerImpl.class);
 
    @Inject
@@ -204,75 +215,150 @@ public <T extends CacheLoader> List<T> getCacheLoaders(Class<T> loaderClass) {
 
    /**
     * Performs a preload on the cache based on the cache loader preload configs used when configuring the cache.
+    * <p/>
+    * Caches with a shared store that receive their in-memory state from the other members when joining are preloaded
+    * by {@link #preloadOwnedSegments()} instead, once they have joined the cluster.
     */
    @Override
    @Start(priority = 56)
    public void preload() {
-      if (loader != null) {
-         if (clmConfig.preload()) {
-            long start = 0;
-            boolean debugTiming = log.isDebugEnabled();
-            if (debugTiming) {
-               start = timeService.time();
-               log.debugf("Preloading transient state from cache loader %s", loader);
+      if (!isSegmentAwarePreload()) {
+         try {
+            if (loader != null && clmConfig.preload()) {
+               preload(KeyFilter.LOAD_ALL_FILTER);
             }
-            Set<InternalCacheEntry> state;
-            try {
-               state = loadState();
-            } catch (CacheLoaderException e) {
-               throw new CacheException("Unable to preload!", e);
+         } finally {
+            preloadLatch.countDown();
+         }
+      }
+   }
+
+   /**
+    * Preloads only the keys of the segments this node owns in the topology it received when joining the cluster. The
+    * first member owns all the segments and preloads everything, while the members joining later preload nothing
+    * and receive the entries they own through state transfer, instead of loading entries that would be discarded
+    * after the rebalance. Since state transfer only brings in the segments that are not owned yet, it does not
+    * overlap with the preload.
+    * <p/>
+    * Only used with a shared store: a private store may hold entries that no other member has, which must be
+    * preloaded even if this node does not own them yet.
+    */
+   // needs to be AFTER the StateTransferManager has joined the cluster
+   @Start(priority = 61)
+   @SuppressWarnings("unused")
+   public void preloadOwnedSegments() {
+      if (isSegmentAwarePreload()) {
+         try {
+            if (loader != null && clmConfig.preload()) {
+               StateTransferManager stateTransferManager = cache.getComponentRegistry().getStateTransferManager();
+               final ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
+               final Address address = cache.getRpcManager().getAddress();
+               preload(new KeyFilter() {
+                  @Override
+                  public boolean shouldLoadKey(Object key) {
+                     return ch.isKeyLocalToNode(address, key);
+                  }
+               });
             }
+         } finally {
+            preloadLatch.countDown();
+         }
+      }
+   }
 
-            List<Flag> flags = new ArrayList<Flag>(Arrays.asList(
-                  CACHE_MODE_LOCAL, SKIP_OWNERSHIP_CHECK, IGNORE_RETURN_VALUES, SKIP_CACHE_STORE, SKIP_LOCKING));
+   @Override
+   public void awaitPreload() throws InterruptedException {
+      preloadLatch.await();
+   }
 
-            if (clmConfig.shared() || !(loader instanceof ChainingCacheStore)) {
-               flags.add(SKIP_CACHE_STORE);
-               if (!localIndexingEnabled())
-                  flags.add(SKIP_INDEXING);
-            } else {
-               flags.add(SKIP_INDEXING);
-            }
+   private boolean isSegmentAwarePreload() {
+      CacheMode cacheMode = configuration.clustering().cacheMode();
+      return clmConfig != null && clmConfig.shared()
+            && (cacheMode.isDistributed() || cacheMode.isReplicated())
+            && configuration.clustering().stateTransfer().fetchInMemoryState();
+   }
 
-            AdvancedCache<Object, Object> flaggedCache = cache.getAdvancedCache()
-                  .withFlags(flags.toArray(new Flag[flags.size()]));
+   /**
+    * Streams the accepted entries from the loader and inserts them into the cache from
+    * {@link LoadersConfiguration#parallelism()} threads.
+    */
+   private void preload(KeyFilter filter) {
+      long start = 0;
+      boolean debugTiming = log.isDebugEnabled();
+      if (debugTiming) {
+         start = timeService.time();
+         log.debugf("Preloading transient state from cache loader %s", loader);
+      }
+      List<Flag> flags = new ArrayList<Flag>(Arrays.asList(
+            CACHE_MODE_LOCAL, SKIP_OWNERSHIP_CHECK, IGNORE_RETURN_VALUES, SKIP_CACHE_STORE, SKIP_LOCKING));
 
-            for (InternalCacheEntry e : state)
-               flaggedCache.put(e.getKey(), e.getValue(), e.getMetadata());
+      if (clmConfig.shared() || !(loader instanceof ChainingCacheStore)) {
+         flags.add(SKIP_CACHE_STORE);
+         if (!localIndexingEnabled())
+            flags.add(SKIP_INDEXING);
+      } else {
+         flags.add(SKIP_INDEXING);
+      }
 
-            if (debugTiming) {
-               log.debugf("Preloaded %s keys in %s", state.size(),
-                          Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+      final AdvancedCache<Object, Object> flaggedCache = cache.getAdvancedCache()
+            .withFlags(flags.toArray(new Flag[flags.size()]));
+
+      final int maxEntries = getMaxEntries();
+      final AtomicInteger loadedEntries = new AtomicInteger();
+      if (maxEntries != 0) {
+         // entries are streamed from the loader instead of being loaded in memory all at once
+         CacheLoaderTask task = new CacheLoaderTask() {
+            @Override
+            public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) {
+               if (maxEntries > 0) {
+                  // the entries are inserted concurrently, so the limit must be checked before inserting
+                  int loaded = loadedEntries.incrementAndGet();
+                  if (loaded >= maxEntries) {
+                     context.stop();
+                     if (loaded > maxEntries) {
+                        loadedEntries.decrementAndGet();
+                        return;
+                     }
+                  }
+               } else {
+                  loadedEntries.incrementAndGet();
+               }
+               flaggedCache.put(entry.getKey(), entry.getValue(), entry.getMetadata());
             }
+         };
+         ExecutorService executor = ProcessingSupport.newExecutor(clmConfig.parallelism(), "Preload," + cache.getName());
+         try {
+            ProcessingSupport.process(loader, filter, task, executor, true);
+         } catch (CacheLoaderException e) {
+            throw new CacheException("Unable to preload!", e);
+         } finally {
+            executor.shutdownNow();
          }
       }
+
+      if (debugTiming) {
+         log.debugf("Preloaded %s keys in %s", loadedEntries.get(),
+                    Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+      }
    }
 
    private boolean localIndexingEnabled() {
       return configuration.indexing().enabled() && configuration.indexing().indexLocalOnly();
    }
 
-   private Set<InternalCacheEntry> loadState() throws CacheLoaderException {
-      int ne = -1;
-      if (configuration.eviction().strategy().isEnabled()) ne = configuration.eviction().maxEntries();
-      Set<InternalCacheEntry> state;
-      switch (ne) {
-         case -1:
-            state = loader.loadAll();
-            break;
-         case 0:
-            state = InfinispanCollections.emptySet();
-            break;
-         default:
-            state = loader.load(ne);
-            break;
-      }
-      return state;
+   /**
+    * @return the maximum number of entries to preload, or -1 if there is no limit
+    */
+   private int getMaxEntries() {
+      if (configuration.eviction().strategy().isEnabled()) return configuration.eviction().maxEntries();
+      return -1;
    }
 
    @Override
    @Stop
    public void stop() {
+      // don't keep anybody waiting for a preload that won't happen
+      preloadLatch.countDown();
       if (loader != null) {
          try {
             loader.stop();
@@ -8,6 +8,8 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.concurrent.Executor;
+
 /**
  * An abstract {@link org.infinispan.loaders.spi.CacheLoader} that holds common implementations for some methods
  *
@@ -17,7 +19,7 @@
  * @author Tristan Tarrant
  * @since 6.0
  */
-public abstract class AbstractCacheLoader implements CacheLoader {
+public abstract class AbstractCacheLoader implements AdvancedCacheLoader {
    private static final Log log = LogFactory.getLog(AbstractCacheLoader.class);
 
    protected volatile StreamingMarshaller marshaller;
@@ -34,6 +36,15 @@ public boolean containsKey(Object key) throws CacheLoaderException {
       return load(key) != null;
    }
 
+   /**
+    * {@inheritDoc} This implementation loads the whole content of the loader in memory through {@link #loadAll()} or
+    * {@link #loadAllKeys(java.util.Set)}, subclasses should override it whenever they can do better.
+    */
+   @Override
+   public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      ProcessingSupport.processMaterialized(this, filter, task, executor, fetchValue);
+   }
+
    @Override
    public void init(CacheLoaderConfiguration config, Cache<?, ?> cache, StreamingMarshaller m) throws
          CacheLoaderException {
@@ -3,10 +3,9 @@
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
 import org.infinispan.configuration.cache.CacheStoreConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
-import org.infinispan.loaders.modifications.Remove;
-import org.infinispan.loaders.modifications.Store;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -16,6 +15,7 @@
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,7 +37,7 @@
  * @since 4.0
  */
 public abstract class AbstractCacheStore extends AbstractCacheLoader
-      implements CacheStore {
+      implements BatchCacheStore {
 
    private static final Log log = LogFactory.getLog(AbstractCacheStore.class);
 
@@ -134,24 +134,21 @@ public CacheLoaderConfiguration getConfiguration() {
 
    protected abstract void purgeInternal() throws CacheLoaderException;
 
+   /**
+    * Applies the modifications in order, writing consecutive stores and removals of distinct keys with
+    * {@link #writeBatch(Collection, Collection)}.
+    */
    protected void applyModifications(List<? extends Modification> mods) throws CacheLoaderException {
-      for (Modification m : mods) {
-         switch (m.getType()) {
-            case STORE:
-               Store s = (Store) m;
-               store(s.getStoredEntry());
-               break;
-            case CLEAR:
-               clear();
-               break;
-            case REMOVE:
-               Remove r = (Remove) m;
-               remove(r.getKey());
-               break;
-            default:
-               throw new IllegalArgumentException("Unknown modification type " + m.getType());
-         }
-      }
+      BatchSupport.applyModifications(this, mods);
+   }
+
+   /**
+    * {@inheritDoc} This implementation stores and removes the entries one by one, subclasses should override it
+    * whenever they can do better.
+    */
+   @Override
+   public void writeBatch(Collection<InternalCacheEntry> entries, Collection<Object> keysToRemove) throws CacheLoaderException {
+      BatchSupport.writeOneByOne(this, entries, keysToRemove);
    }
 
    @Override
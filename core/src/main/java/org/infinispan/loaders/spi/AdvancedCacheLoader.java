@@ -0,0 +1,64 @@
+package org.infinispan.loaders.spi;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link CacheLoader} that can iterate over its content without materializing it on the heap, unlike
+ * {@link #loadAll()}, {@link #load(int)} and {@link #loadAllKeys(java.util.Set)}.
+ * <p/>
+ * Implementations split the traversal in partitions (e.g. a bucket, a file or a batch of rows) and run them on the
+ * given executor, keeping only a bounded number of partitions in memory at any time. Use
+ * {@link ProcessingSupport#process(CacheLoader, KeyFilter, CacheLoaderTask, Executor, boolean)} to iterate over any
+ * loader, whether it implements this interface or not.
+ *
+ * @since 6.0
+ */
+public interface AdvancedCacheLoader extends CacheLoader {
+
+   /**
+    * Iterates over the non-expired entries of the loader and passes the ones accepted by the filter to the task.
+    * <p/>
+    * The task may be invoked concurrently from the threads of the executor, and the order in which entries are
+    * processed is unspecified. The method returns once all the entries have been processed, or soon after one of the
+    * invocations of the task has called {@link TaskContext#stop()}.
+    *
+    * @param filter     the keys to process, or null to process all of them
+    * @param task       the task to invoke for each entry
+    * @param executor   the executor the partitions of the traversal are submitted to; a
+    *                   {@link org.infinispan.util.concurrent.WithinThreadExecutor} processes the entries sequentially in
+    *                   the caller thread
+    * @param fetchValue if false, the task receives only the keys and the implementation may avoid reading the values
+    *                   from the underlying storage
+    * @throws CacheLoaderException in the event of problems reading from source, or if the task fails
+    */
+   void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException;
+
+   /**
+    * Callback invoked for each entry processed by {@link AdvancedCacheLoader#process(KeyFilter, CacheLoaderTask, Executor, boolean)}.
+    */
+   interface CacheLoaderTask {
+
+      /**
+       * @param key     the key of the entry
+       * @param entry   the entry, or null if the values are not fetched
+       * @param context allows the task to stop the traversal
+       */
+      void processEntry(Object key, InternalCacheEntry entry, TaskContext context) throws CacheLoaderException;
+   }
+
+   /**
+    * Shared by all the invocations of a {@link CacheLoaderTask} for one traversal.
+    */
+   interface TaskContext {
+
+      /**
+       * Stops the traversal. Entries already being processed by other threads are not interrupted.
+       */
+      void stop();
+
+      boolean isStopped();
+   }
+}
@@ -0,0 +1,32 @@
+package org.infinispan.loaders.spi;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+
+import java.util.Collection;
+
+/**
+ * A {@link CacheStore} that can write several entries and remove several keys in a single operation, e.g. in a single
+ * database transaction or with a single write to the file system. The
+ * {@link org.infinispan.loaders.decorators.AsyncStore} flushes its modifications through this interface.
+ * <p/>
+ * Use {@link BatchSupport#writeBatch(CacheStore, Collection, Collection)} to write a batch to any store, whether it
+ * implements this interface or not.
+ *
+ * @since 6.0
+ */
+public interface BatchCacheStore extends CacheStore {
+
+   /**
+    * Stores the entries and removes the keys. A key appears at most once in the batch, either in <tt>entries</tt> or
+    * in <tt>keysToRemove</tt>, so the modifications can be applied in any order.
+    * <p/>
+    * Implementations should apply the batch atomically if the underlying storage allows it, but callers must not rely
+    * on it: if an exception is thrown, any subset of the batch may have been applied.
+    *
+    * @param entries      the entries to store
+    * @param keysToRemove the keys to remove, removing a key that is not in the store is not an error
+    * @throws CacheLoaderException in the event of problems writing to the store
+    */
+   void writeBatch(Collection<InternalCacheEntry> entries, Collection<Object> keysToRemove) throws CacheLoaderException;
+}
@@ -0,0 +1,122 @@
+package org.infinispan.loaders.spi;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.modifications.ModificationsList;
+import org.infinispan.loaders.modifications.Remove;
+import org.infinispan.loaders.modifications.Store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helpers for implementing and invoking {@link BatchCacheStore#writeBatch(Collection, Collection)}.
+ *
+ * @since 6.0
+ */
+public final class BatchSupport {
+
+   private BatchSupport() {
+   }
+
+   /**
+    * Writes a batch to any store. Stores that do not implement {@link BatchCacheStore} are written one entry at a
+    * time.
+    *
+    * @see BatchCacheStore#writeBatch(Collection, Collection)
+    */
+   public static void writeBatch(CacheStore store, Collection<InternalCacheEntry> entries,
+                                 Collection<Object> keysToRemove) throws CacheLoaderException {
+      if (entries.isEmpty() && keysToRemove.isEmpty()) {
+         return;
+      }
+      if (store instanceof BatchCacheStore) {
+         ((BatchCacheStore) store).writeBatch(entries, keysToRemove);
+      } else {
+         writeOneByOne(store, entries, keysToRemove);
+      }
+   }
+
+   /**
+    * Writes a batch with {@link CacheStore#store(InternalCacheEntry)} and {@link CacheStore#remove(Object)}.
+    */
+   public static void writeOneByOne(CacheStore store, Collection<InternalCacheEntry> entries,
+                                    Collection<Object> keysToRemove) throws CacheLoaderException {
+      for (InternalCacheEntry entry : entries) {
+         store.store(entry);
+      }
+      for (Object key : keysToRemove) {
+         store.remove(key);
+      }
+   }
+
+   /**
+    * Applies a list of modifications to a store, in order. Consecutive STORE and REMOVE modifications are written as a
+    * single batch, which is ended whenever a key is modified a second time or another type of modification is met, so
+    * the outcome is the same as if the modifications had been applied one by one.
+    */
+   public static void applyModifications(CacheStore store, List<? extends Modification> mods) throws CacheLoaderException {
+      Batch batch = new Batch();
+      apply(store, mods, batch);
+      batch.flush(store);
+   }
+
+   private static void apply(CacheStore store, List<? extends Modification> mods, Batch batch) throws CacheLoaderException {
+      for (Modification m : mods) {
+         switch (m.getType()) {
+            case STORE:
+               InternalCacheEntry entry = ((Store) m).getStoredEntry();
+               batch.prepareFor(store, entry.getKey());
+               batch.entries.add(entry);
+               break;
+            case REMOVE:
+               Object key = ((Remove) m).getKey();
+               batch.prepareFor(store, key);
+               batch.keysToRemove.add(key);
+               break;
+            case CLEAR:
+               batch.flush(store);
+               store.clear();
+               break;
+            case PURGE_EXPIRED:
+               batch.flush(store);
+               store.purgeExpired();
+               break;
+            case LIST:
+               apply(store, ((ModificationsList) m).getList(), batch);
+               break;
+            default:
+               throw new IllegalArgumentException("Unknown modification type " + m.getType());
+         }
+      }
+   }
+
+   private static class Batch {
+      final List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>();
+      final List<Object> keysToRemove = new ArrayList<Object>();
+      final Set<Object> keys = new HashSet<Object>();
+
+      /**
+       * Flushes the batch if it already contains a modification of the key.
+       */
+      void prepareFor(CacheStore store, Object key) throws CacheLoaderException {
+         if (!keys.add(key)) {
+            flush(store);
+            keys.add(key);
+         }
+      }
+
+      void flush(CacheStore store) throws CacheLoaderException {
+         if (!keys.isEmpty()) {
+            writeBatch(store, entries, keysToRemove);
+            entries.clear();
+            keysToRemove.clear();
+            keys.clear();
+         }
+      }
+   }
+}
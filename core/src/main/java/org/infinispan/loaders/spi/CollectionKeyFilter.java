@@ -0,0 +1,26 @@
+package org.infinispan.loaders.spi;
+
+import java.util.Collection;
+
+/**
+ * A {@link KeyFilter} that rejects the keys of a given collection, the equivalent of the <tt>keysToExclude</tt>
+ * parameter of {@link CacheLoader#loadAllKeys(java.util.Set)}.
+ *
+ * @since 6.0
+ */
+public class CollectionKeyFilter implements KeyFilter {
+
+   private final Collection<?> keysToExclude;
+
+   /**
+    * @param keysToExclude the keys to reject. An empty collection or null will accept every key.
+    */
+   public CollectionKeyFilter(Collection<?> keysToExclude) {
+      this.keysToExclude = keysToExclude;
+   }
+
+   @Override
+   public boolean shouldLoadKey(Object key) {
+      return keysToExclude == null || !keysToExclude.contains(key);
+   }
+}
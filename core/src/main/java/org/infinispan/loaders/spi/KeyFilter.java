@@ -0,0 +1,26 @@
+package org.infinispan.loaders.spi;
+
+/**
+ * Used by {@link AdvancedCacheLoader#process(KeyFilter, AdvancedCacheLoader.CacheLoaderTask, java.util.concurrent.Executor, boolean)}
+ * to select the keys that should be passed to the task.
+ *
+ * @since 6.0
+ */
+public interface KeyFilter {
+
+   /**
+    * A filter that accepts every key.
+    */
+   KeyFilter LOAD_ALL_FILTER = new KeyFilter() {
+      @Override
+      public boolean shouldLoadKey(Object key) {
+         return true;
+      }
+   };
+
+   /**
+    * @param key a key found in the loader
+    * @return true if the entry mapped to the key should be processed, false otherwise
+    */
+   boolean shouldLoadKey(Object key);
+}
@@ -2,7 +2,14 @@
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
@@ -171,6 +178,21 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
    }
 
 
+   /**
+    * {@inheritDoc} The traversal holds the global read lock, like {@link #loadAll()}.
+    */
+   @Override
+   public final void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      boolean success = acquireGlobalLock(false);
+      try {
+         processLockSafe(filter, task, executor, fetchValue);
+      } finally {
+         if(success){
+            releaseGlobalLock(false);
+         }
+      }
+   }
+
    @Override
    public final void store(InternalCacheEntry ed) throws CacheLoaderException {
       if (trace) {
@@ -222,6 +244,42 @@ public final boolean remove(Object key) throws CacheLoaderException {
       }
    }
 
+   /**
+    * {@inheritDoc} The locks of all the keys of the batch are acquired before invoking
+    * {@link #writeBatchLockSafe(List, List, Map)}, expired entries being removed rather than stored.
+    */
+   @Override
+   public final void writeBatch(Collection<InternalCacheEntry> entries, Collection<Object> keysToRemove) throws CacheLoaderException {
+      if (trace) {
+         log.tracef("writeBatch(%d entries, %d removals)", entries.size(), keysToRemove.size());
+      }
+      long currentTimeMillis = timeService.wallClockTime();
+      List<InternalCacheEntry> toStore = new ArrayList<InternalCacheEntry>(entries.size());
+      List<Object> toRemove = new ArrayList<Object>(keysToRemove);
+      for (InternalCacheEntry entry : entries) {
+         if (entry.canExpire() && entry.isExpired(currentTimeMillis)) {
+            toRemove.add(entry.getKey());
+         } else {
+            toStore.add(entry);
+         }
+      }
+
+      Map<Object, L> lockingKeys = new HashMap<Object, L>();
+      for (InternalCacheEntry entry : toStore) {
+         lockingKeys.put(entry.getKey(), getLockFromKey(entry.getKey()));
+      }
+      for (Object key : toRemove) {
+         lockingKeys.put(key, getLockFromKey(key));
+      }
+      Collection<L> lockedKeys = new HashSet<L>(lockingKeys.values());
+      locks.acquireOrderedLocks(lockedKeys, true);
+      try {
+         writeBatchLockSafe(toStore, toRemove, lockingKeys);
+      } finally {
+         locks.releaseOrderedLocks(lockedKeys);
+      }
+   }
+
    @Override
    public final void fromStream(ObjectInput objectInput) throws CacheLoaderException {
       boolean success = acquireGlobalLock(true);
@@ -273,6 +331,34 @@ public int getTotalLockCount() {
 
    protected abstract Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws CacheLoaderException;
 
+   /**
+    * Iterates over the content of the store, see {@link #process(KeyFilter, CacheLoaderTask, Executor, boolean)}. This
+    * implementation loads the whole content of the store in memory, subclasses should override it whenever they can do
+    * better.
+    */
+   protected void processLockSafe(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue) throws CacheLoaderException {
+      if (fetchValue) {
+         ProcessingSupport.processEntries(loadAllLockSafe(), filter, task, executor);
+      } else {
+         ProcessingSupport.processKeys(this, loadAllKeysLockSafe(null), filter, task, executor, false);
+      }
+   }
+
+   /**
+    * Writes a batch, see {@link #writeBatch(Collection, Collection)}. This implementation stores and removes the entries
+    * one by one, subclasses should override it whenever they can do better.
+    *
+    * @param lockingKeys the locking key of every key of the batch, as returned by {@link #getLockFromKey(Object)}
+    */
+   protected void writeBatchLockSafe(List<InternalCacheEntry> toStore, List<Object> toRemove, Map<Object, L> lockingKeys) throws CacheLoaderException {
+      for (InternalCacheEntry entry : toStore) {
+         storeLockSafe(entry, lockingKeys.get(entry.getKey()));
+      }
+      for (Object key : toRemove) {
+         removeLockSafe(key, lockingKeys.get(key));
+      }
+   }
+
    protected abstract void toStreamLockSafe(ObjectOutput oos) throws CacheLoaderException;
 
    protected abstract void fromStreamLockSafe(ObjectInput ois) throws CacheLoaderException;
@@ -0,0 +1,314 @@
+package org.infinispan.loaders.spi;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.CacheLoaderTask;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.TaskContext;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helpers for implementing and invoking {@link AdvancedCacheLoader#process(KeyFilter, CacheLoaderTask, Executor, boolean)}.
+ *
+ * @since 6.0
+ */
+public final class ProcessingSupport {
+
+   /**
+    * Number of keys or entries in a partition, for loaders that cannot partition their content more naturally.
+    */
+   public static final int PARTITION_SIZE = 1000;
+
+   private ProcessingSupport() {
+   }
+
+   /**
+    * Iterates over the content of any loader. Loaders that do not implement {@link AdvancedCacheLoader} are traversed
+    * through {@link CacheLoader#loadAll()} or {@link CacheLoader#loadAllKeys(java.util.Set)}, so their whole content
+    * is still loaded in memory.
+    *
+    * @see AdvancedCacheLoader#process(KeyFilter, CacheLoaderTask, Executor, boolean)
+    */
+   public static void process(CacheLoader loader, KeyFilter filter, CacheLoaderTask task, Executor executor,
+                              boolean fetchValue) throws CacheLoaderException {
+      if (loader instanceof AdvancedCacheLoader) {
+         ((AdvancedCacheLoader) loader).process(filter, task, executor, fetchValue);
+      } else {
+         processMaterialized(loader, filter, task, executor, fetchValue);
+      }
+   }
+
+   /**
+    * Iterates over the content of a loader through {@link CacheLoader#loadAll()} or
+    * {@link CacheLoader#loadAllKeys(java.util.Set)}.
+    */
+   public static void processMaterialized(CacheLoader loader, KeyFilter filter, CacheLoaderTask task, Executor executor,
+                                          boolean fetchValue) throws CacheLoaderException {
+      if (fetchValue) {
+         processEntries(loader.loadAll(), filter, task, executor);
+      } else {
+         processKeys(loader, loader.loadAllKeys(null), filter, task, executor, false);
+      }
+   }
+
+   /**
+    * Iterates over entries that have already been loaded in memory.
+    */
+   public static void processEntries(Collection<InternalCacheEntry> entries, KeyFilter filter, CacheLoaderTask task,
+                                     Executor executor) throws CacheLoaderException {
+      Traversal traversal = new Traversal(filter, task, executor);
+      try {
+         for (List<InternalCacheEntry> partition : partition(entries)) {
+            if (traversal.isStopped()) break;
+            traversal.submitEntries(partition);
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
+   /**
+    * Iterates over the given keys of a loader, loading the entries one by one with {@link CacheLoader#load(Object)}.
+    * Useful for loaders that can list their keys efficiently but not their entries.
+    *
+    * @param loader the loader to load the entries from, only used if <tt>fetchValue</tt> is true
+    */
+   public static void processKeys(CacheLoader loader, Collection<Object> keys, KeyFilter filter, CacheLoaderTask task,
+                                  Executor executor, boolean fetchValue) throws CacheLoaderException {
+      Traversal traversal = new Traversal(filter, task, executor);
+      try {
+         for (List<Object> partition : partition(keys)) {
+            if (traversal.isStopped()) break;
+            traversal.submitKeys(loader, partition, fetchValue);
+         }
+      } finally {
+         traversal.awaitCompletion();
+      }
+   }
+
+   /**
+    * Creates an executor to process the partitions of a traversal with <tt>threads</tt> threads, or a
+    * {@link WithinThreadExecutor} if <tt>threads</tt> is 1. The threads are daemon threads, and the executor must be
+    * shut down once the traversal is complete.
+    */
+   public static ExecutorService newExecutor(int threads, final String threadNamePrefix) {
+      if (threads <= 1) {
+         return new WithinThreadExecutor();
+      }
+      return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+         private final AtomicInteger threadCount = new AtomicInteger();
+
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, threadNamePrefix + "-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+         }
+      });
+   }
+
+   private static <T> List<List<T>> partition(Collection<T> elements) {
+      List<List<T>> partitions = new ArrayList<List<T>>(elements.size() / PARTITION_SIZE + 1);
+      List<T> current = null;
+      for (T element : elements) {
+         if (current == null || current.size() == PARTITION_SIZE) {
+            current = new ArrayList<T>(Math.min(PARTITION_SIZE, elements.size()));
+            partitions.add(current);
+         }
+         current.add(element);
+      }
+      return partitions;
+   }
+
+   /**
+    * The state of one traversal: submits partitions to the executor, allowing at most twice as many partitions as
+    * there are processors to be pending, and passes the accepted entries to the task.
+    * <p/>
+    * {@link #awaitCompletion()} must always be invoked, even if a partition could not be submitted, so that no
+    * partition is still running once the traversal has returned.
+    */
+   public static final class Traversal {
+      private final KeyFilter filter;
+      private final CacheLoaderTask task;
+      private final CompletionService<Void> completionService;
+      private final int maxPending;
+      private final TaskContextImpl context = new TaskContextImpl();
+      private int pending;
+      private CacheLoaderException failure;
+
+      public Traversal(KeyFilter filter, CacheLoaderTask task, Executor executor) {
+         this.filter = filter == null ? KeyFilter.LOAD_ALL_FILTER : filter;
+         this.task = task;
+         this.completionService = new ExecutorCompletionService<Void>(executor == null ? new WithinThreadExecutor() : executor);
+         this.maxPending = Runtime.getRuntime().availableProcessors() * 2;
+      }
+
+      public boolean isStopped() {
+         return context.isStopped();
+      }
+
+      public boolean accept(Object key) {
+         return filter.shouldLoadKey(key);
+      }
+
+      /**
+       * Passes an entry to the task, provided the traversal has not been stopped. The key must have been accepted by
+       * the filter already.
+       */
+      public void process(Object key, InternalCacheEntry entry) throws CacheLoaderException {
+         if (!context.isStopped()) {
+            task.processEntry(key, entry, context);
+         }
+      }
+
+      /**
+       * Submits a partition, after waiting for a pending one to complete if there are too many of them.
+       *
+       * @throws CacheLoaderException if a partition submitted earlier has failed
+       */
+      public void submit(Callable<Void> partition) throws CacheLoaderException {
+         while (pending >= maxPending) {
+            takeCompleted();
+         }
+         if (failure != null) {
+            throw failure;
+         }
+         completionService.submit(partition);
+         pending++;
+      }
+
+      /**
+       * Waits until all the submitted partitions are completed.
+       *
+       * @throws CacheLoaderException if a partition has failed
+       */
+      public void awaitCompletion() throws CacheLoaderException {
+         while (pending > 0) {
+            takeCompleted();
+         }
+         if (failure != null) {
+            throw failure;
+         }
+      }
+
+      private void submitEntries(final List<InternalCacheEntry> entries) throws CacheLoaderException {
+         submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (InternalCacheEntry entry : entries) {
+                  if (isStopped()) break;
+                  if (accept(entry.getKey())) {
+                     process(entry.getKey(), entry);
+                  }
+               }
+               return null;
+            }
+         });
+      }
+
+      private void submitKeys(final CacheLoader loader, final List<Object> keys, final boolean fetchValue) throws CacheLoaderException {
+         submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (Object key : keys) {
+                  if (isStopped()) break;
+                  if (accept(key)) {
+                     if (fetchValue) {
+                        // the entry may have expired or have been removed since the keys were listed
+                        InternalCacheEntry entry = loader.load(key);
+                        if (entry != null) {
+                           process(key, entry);
+                        }
+                     } else {
+                        process(key, null);
+                     }
+                  }
+               }
+               return null;
+            }
+         });
+      }
+
+      private void takeCompleted() {
+         Future<Void> future;
+         try {
+            future = completionService.take();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new CacheLoaderException("Interrupted while iterating over the cache loader", e));
+            // the remaining partitions are still running, but we cannot wait for them any longer
+            pending = 0;
+            return;
+         }
+         pending--;
+         try {
+            future.get();
+         } catch (InterruptedException e) {
+            // cannot happen, the future is already completed
+            Thread.currentThread().interrupt();
+         } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            fail(cause instanceof CacheLoaderException ? (CacheLoaderException) cause : new CacheLoaderException(cause));
+         }
+      }
+
+      private void fail(CacheLoaderException e) {
+         context.stop();
+         if (failure == null) {
+            failure = e;
+         }
+      }
+   }
+
+   /**
+    * Wraps the task of a traversal made of several consecutive traversals, e.g. one per underlying store, and
+    * remembers whether one of them has been stopped so that the next ones are not started.
+    */
+   public static class ChainedTask implements CacheLoaderTask {
+      private final CacheLoaderTask task;
+      private volatile boolean stopped;
+
+      public ChainedTask(CacheLoaderTask task) {
+         this.task = task;
+      }
+
+      @Override
+      public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) throws CacheLoaderException {
+         task.processEntry(key, entry, context);
+         if (context.isStopped()) {
+            stopped = true;
+         }
+      }
+
+      public boolean isStopped() {
+         return stopped;
+      }
+   }
+
+   private static class TaskContextImpl implements TaskContext {
+      private volatile boolean stopped;
+
+      @Override
+      public void stop() {
+         stopped = true;
+      }
+
+      @Override
+      public boolean isStopped() {
+         return stopped;
+      }
+   }
+}
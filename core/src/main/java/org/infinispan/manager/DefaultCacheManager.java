@@ -4,6 +4,7 @@
 import org.infinispan.Version;
 import org.infinispan.commands.RemoveCacheCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.OutputBufferPool;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.FileLookupFactory;
 import org.infinispan.commons.util.Immutables;
@@ -720,6 +721,8 @@ public void stop() {
                }
                globalComponentRegistry.getComponent(CacheManagerJmxRegistration.class).stop();
                globalComponentRegistry.stop();
+               // don't let the threads of the container keep the marshalling buffers after a redeployment
+               OutputBufferPool.clear();
 
             } else {
                log.trace("Ignore call to stop as the cache manager is stopping");
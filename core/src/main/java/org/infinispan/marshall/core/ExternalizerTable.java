@@ -87,6 +87,7 @@
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.WeakHashMap;
 
@@ -334,6 +335,19 @@ else if (config.getKey() != null)
          id = checkForeignIdLimit(id, ext);
          updateExtReadersWritersWithTypes(new ForeignExternalizerAdapter(id, ext), generateForeignReaderIndex(id));
       }
+
+      // Externalizers generated for classes annotated with @GenerateExternalizer, or otherwise listed in
+      // META-INF/services/org.infinispan.commons.marshall.AdvancedExternalizer
+      for (AdvancedExternalizer<?> ext : ServiceLoader.load(AdvancedExternalizer.class, globalCfg.classLoader())) {
+         Integer id = ext.getId();
+         if (id == null)
+            throw new CacheConfigurationException(String.format(
+                  "No advanced externalizer identifier set for externalizer %s",
+                  ext.getClass().getName()));
+
+         id = checkForeignIdLimit(id, ext);
+         updateExtReadersWritersWithTypes(new ForeignExternalizerAdapter(id, ext), generateForeignReaderIndex(id));
+      }
    }
 
    private void updateExtReadersWriters(ExternalizerAdapter adapter, Class<?> typeClass, int readerIndex) {
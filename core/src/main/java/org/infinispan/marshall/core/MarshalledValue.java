@@ -185,6 +185,15 @@ public MarshalledValueByteStream getRaw() {
       return rawValue;
    }
 
+   /**
+    * Returns the size in bytes of the serialized representation. This is exact once the instance has been serialized
+    * and only an estimate otherwise. Unlike {@link #getRaw()}, this never forces serialization.
+    */
+   public int getSerialisedSize() {
+      MarshalledValueByteStream rawValue = raw;
+      return rawValue != null ? rawValue.size() : serialisedSize;
+   }
+
    /**
     * Returns the 'cached' instance
     */
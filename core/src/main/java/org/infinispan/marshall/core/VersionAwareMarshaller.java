@@ -6,6 +6,7 @@
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.OutputBufferPool;
 import org.infinispan.commons.marshall.AbstractMarshaller;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -65,7 +66,17 @@ public void stop() {
 
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
+      ExposedByteArrayOutputStream baos = OutputBufferPool.acquire(estimatedSize);
+      try {
+         marshall(obj, baos, estimatedSize);
+         // the pooled buffer is reused by the next call, so the caller gets its own exact-sized copy
+         return new ByteBuffer(OutputBufferPool.toByteArray(baos), 0, baos.size());
+      } finally {
+         OutputBufferPool.release(baos);
+      }
+   }
+
+   private void marshall(Object obj, ExposedByteArrayOutputStream baos, int estimatedSize) throws IOException, InterruptedException {
       ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
       try {
          defaultMarshaller.objectToObjectStream(obj, out);
@@ -83,7 +94,6 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
       } finally {
          finishObjectOutput(out);
       }
-      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
@@ -5,6 +5,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -230,6 +231,21 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
    void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options,
                                NotifyingNotifiableFuture<Object> future);
 
+   /**
+    * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * except that the caller is not blocked while waiting for the responses. The returned future is completed by the
+    * transport when the responses are received, so listeners attached to it must not block.
+    *
+    * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
+    *                   entire cluster.
+    * @param rpc        command to execute remotely.
+    * @param options    it configures the invocation. The same instance can be re-used since {@link RpcManager} does
+    *                   not change it.
+    * @return a future holding the map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                               RpcOptions options);
+
    /**
     * @return a reference to the underlying transport.
     */
@@ -2,6 +2,7 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.OutputBufferPool;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.TopologyAffectedCommand;
@@ -31,6 +32,9 @@
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.util.TimeService;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -41,7 +45,9 @@
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -339,6 +345,74 @@ public Object call() throws Exception {
       futureSet.countDown();
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                                      final RpcOptions options) {
+      if (trace) log.tracef("%s invoking asynchronously %s to recipient list %s with options %s", t.getAddress(), rpc,
+                            recipients, options);
+
+      if (!options.skipReplicationQueue() && useReplicationQueue(options.responseMode().isSynchronous())) {
+         if (trace) {
+            log.tracef("Using replication queue for command [%s]", rpc);
+         }
+         replicationQueue.add(rpc);
+         return CompletableNotifyingFuture.completed(null);
+      }
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+      if (!(rpc instanceof CacheRpcCommand)) {
+         rpc = cf.buildSingleRpcCommand(rpc);
+      }
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+         }
+      }
+      final ReplicableCommand command = rpc;
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<Map<Address, Response>>();
+      NotifyingFuture<Map<Address, Response>> transportFuture;
+      try {
+         transportFuture = t.invokeRemotelyAsync(recipients, command, options.responseMode(),
+                                                 options.timeUnit().toMillis(options.timeout()), !options.fifoOrder(),
+                                                 options.responseFilter(), options.totalOrder(),
+                                                 configuration.clustering().cacheMode().isDistributed());
+      } catch (Throwable th) {
+         transportFuture = CompletableNotifyingFuture.failed(th);
+      }
+      transportFuture.attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            try {
+               Map<Address, Response> responses = future.get();
+               if (statisticsEnabled) replicationCount.incrementAndGet();
+               if (trace) log.tracef("Response(s) to %s is %s", command, responses);
+               if (options.responseMode().isSynchronous()) {
+                  checkResponses(responses);
+               }
+               result.complete(responses);
+            } catch (Throwable th) {
+               if (th instanceof ExecutionException) th = th.getCause();
+               if (statisticsEnabled) replicationFailures.incrementAndGet();
+               if (th instanceof CacheException) {
+                  log.trace("replication exception: ", th);
+                  result.completeExceptionally(th);
+               } else {
+                  log.unexpectedErrorReplicating(th);
+                  result.completeExceptionally(new CacheException(th));
+               }
+            } finally {
+               if (statisticsEnabled) {
+                  long timeTaken = timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS);
+                  totalReplicationTime.getAndAdd(timeTaken);
+               }
+            }
+         }
+      });
+      return result;
+   }
+
    @Override
    public Transport getTransport() {
       return t;
@@ -372,6 +446,7 @@ public void resetStatistics() {
       replicationCount.set(0);
       replicationFailures.set(0);
       totalReplicationTime.set(0);
+      OutputBufferPool.resetStatistics();
    }
 
    @ManagedAttribute(description = "Number of successful replications", displayName = "Number of successful replications", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
@@ -432,6 +507,21 @@ public long getAverageReplicationTime() {
       return totalReplicationTime.get() / replicationCount.get();
    }
 
+   @ManagedAttribute(description = "Number of marshalling buffers requested since the statistics were last reset, shared by all the caches", displayName = "Marshalling buffer requests", measurementType = MeasurementType.TRENDSUP)
+   public long getMarshallingBufferAcquisitions() {
+      return OutputBufferPool.getAcquisitions();
+   }
+
+   @ManagedAttribute(description = "Number of marshalling buffer requests that could not reuse a pooled buffer since the statistics were last reset, shared by all the caches", displayName = "Marshalling buffer allocations", measurementType = MeasurementType.TRENDSUP)
+   public long getMarshallingBufferAllocations() {
+      return OutputBufferPool.getAllocations();
+   }
+
+   @ManagedAttribute(description = "Total size of the marshalling buffers allocated since the statistics were last reset, shared by all the caches", displayName = "Marshalling buffer allocated bytes", units = Units.BYTES, measurementType = MeasurementType.TRENDSUP)
+   public long getMarshallingBufferAllocatedBytes() {
+      return OutputBufferPool.getAllocatedBytes();
+   }
+
    // mainly for unit testing
    public void setTransport(Transport t) {
       this.t = t;
@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
@@ -49,6 +50,21 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
                                  boolean usePriorityQueue, ResponseFilter responseFilter, boolean totalOrder,
                                  boolean anycast) throws Exception;
 
+   /**
+    * Asynchronous version of {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand,
+    * ResponseMode, long, boolean, ResponseFilter, boolean, boolean)}: the call returns as soon as the command is sent,
+    * and the future is completed with the responses, or with the exception the synchronous version would have thrown,
+    * by the thread receiving the last response. No thread waits for the responses, so the listeners attached to the
+    * future must not block.
+    *
+    * @return a future completed with the map of responses from each member contacted.
+    * @since 6.0
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                               ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                               ResponseFilter responseFilter, boolean totalOrder,
+                                                               boolean anycast) throws Exception;
+
 
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception;
 
@@ -3,10 +3,12 @@
 import net.jcip.annotations.GuardedBy;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.BatchedRpcCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.context.Flag;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.remoting.responses.SuccessfulResponse;
@@ -41,14 +43,17 @@
 import org.jgroups.util.RspList;
 
 import java.io.NotSerializableException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -73,6 +78,7 @@ public class CommandAwareRpcDispatcher extends RpcDispatcher {
    private final JGroupsTransport transport;
    private final GlobalComponentRegistry gcr;
    private final BackupReceiverRepository backupReceiverRepository;
+   private volatile RpcBatcher rpcBatcher;
 
    public CommandAwareRpcDispatcher(Channel channel,
                                     JGroupsTransport transport,
@@ -102,6 +108,22 @@ public CommandAwareRpcDispatcher(Channel channel,
       asyncDispatching(true);
    }
 
+   /**
+    * Coalesces the unicast commands sent concurrently to the same node into a single message.
+    *
+    * @see RpcBatcher
+    */
+   public void enableBatching(int maxBatchSize, long maxDelayMicros) {
+      rpcBatcher = new RpcBatcher(this, asyncExecutor, maxBatchSize, maxDelayMicros);
+   }
+
+   /**
+    * @return the batcher of outgoing commands, or {@code null} if batching is not enabled.
+    */
+   public RpcBatcher getRpcBatcher() {
+      return rpcBatcher;
+   }
+
    private boolean isValid(Message req) {
       if (req == null || req.getLength() == 0) {
          log.msgOrMsgBufferEmpty();
@@ -187,6 +209,57 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
       return invokeRemoteCommands(null, command, mode, timeout, oob, filter, asyncMarshalling, ignoreLeavers, totalOrder);
    }
 
+   /**
+    * Sends the command without waiting for the responses. The returned future is completed from the JGroups response
+    * callbacks once every recipient has replied, or been suspected, once the filter doesn't need more responses, or
+    * when the timeout expires, in which case the recipients that did not reply are reported as not received.
+    *
+    * @param recipients the recipients, or {@code null} to broadcast the command. Must <b>not</b> contain self.
+    * @param mode a synchronous response mode
+    */
+   public org.infinispan.commons.util.concurrent.NotifyingFuture<RspList<Object>> invokeRemoteCommandsAsync(
+         List<Address> recipients, ReplicableCommand command, ResponseMode mode, long timeout, boolean oob,
+         RspFilter filter) {
+      if (trace) log.tracef("Replication task sending %s to addresses %s with response mode %s, not waiting for responses", command, recipients, mode);
+
+      /// HACK ALERT!  Used for ISPN-1789.  Enable RSVP if the command is a cache topology control command.
+      boolean rsvp = command instanceof CacheTopologyControlCommand
+            || isRsvpCommand(command);
+      try {
+         if (recipients == null || FORCE_MCAST) {
+            Buffer buf = marshallCall(req_marshaller, command);
+            RequestOptions opts = new RequestOptions(mode, timeout, false, filter);
+            opts.setExclusionList(getChannel().getAddress());
+            NotifyingFuture<RspList<Object>> future = castMessageWithFuture(recipients,
+                  constructMessage(buf, null, oob, mode, rsvp, false), opts);
+            BroadcastResponseListener listener = new BroadcastResponseListener(future);
+            listener.scheduleTimeout(timeout);
+            future.setListener(listener);
+            return listener.result;
+         }
+
+         if (recipients.isEmpty()) return CompletableNotifyingFuture.completed(new RspList<Object>());
+         RpcBatcher batcher = rsvp ? null : rpcBatcher;
+         Buffer buf = batcher == null ? marshallCall(req_marshaller, command) : null;
+         RequestOptions opts = new RequestOptions(mode, timeout);
+         opts.setExclusionList(getChannel().getAddress());
+         ResponseCollector collector = new ResponseCollector(recipients, filter);
+         collector.scheduleTimeout(timeout);
+         for (Address dest : recipients) {
+            NotifyingFuture<Object> f = batcher != null ? batcher.submit(command, dest, oob, mode, timeout)
+                  : this.<Object>sendMessageWithFuture(constructMessage(buf, dest, oob, mode, rsvp, false), opts);
+            collector.watchFuture(f, dest);
+         }
+         return collector.result;
+      } catch (Exception e) {
+         return CompletableNotifyingFuture.failed(e);
+      }
+   }
+
+   private Future<?> scheduleTimeout(Runnable task, long timeout) {
+      return getChannel().getProtocolStack().getTransport().getTimer().schedule(task, timeout, MILLISECONDS);
+   }
+
    private boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
@@ -207,6 +280,8 @@ public void handle(Message req, org.jgroups.blocks.Response response) throws Exc
             if (cmd == null) throw new NullPointerException("Unable to execute a null command!  Message was " + req);
             if (req.getSrc() instanceof SiteAddress) {
                executeCommandFromRemoteSite(cmd, (SiteAddress) req.getSrc(), response, preserveOrder);
+            } else if (cmd instanceof BatchedRpcCommand) {
+               executeBatchFromLocalCluster((BatchedRpcCommand) cmd, req, response, preserveOrder);
             } else {
                executeCommandFromLocalCluster(cmd, req, response, preserveOrder);
             }
@@ -253,6 +328,26 @@ public void run() {
       });
    }
 
+   private void executeBatchFromLocalCluster(BatchedRpcCommand batch, Message req, org.jgroups.blocks.Response response, boolean preserveOrder) {
+      ReplicableCommand[] commands = batch.getCommands();
+      if (trace) log.tracef("Unpacking a batch of %d commands [sender=%s]", commands.length, req.getSrc());
+      BatchedResponse batchedResponse = response == null ? null : new BatchedResponse(response, commands.length);
+      // Each command is handled as if it had been sent on its own, and replies to its own slot of the batch response
+      for (int i = 0; i < commands.length; i++) {
+         ReplicableCommand cmd = commands[i];
+         org.jgroups.blocks.Response commandResponse = batchedResponse == null ? null : batchedResponse.forCommand(i);
+         try {
+            executeCommandFromLocalCluster(cmd, req, commandResponse, preserveOrder);
+         } catch (InterruptedException e) {
+            log.shutdownHandlingCommand(cmd);
+            reply(commandResponse, new ExceptionResponse(new CacheException("Cache is shutting down")));
+         } catch (Throwable x) {
+            log.exceptionHandlingCommand(cmd, x);
+            reply(commandResponse, new ExceptionResponse(new CacheException("Problems invoking command.", x)));
+         }
+      }
+   }
+
    private void executeCommandFromLocalCluster(final ReplicableCommand cmd, final Message req, final org.jgroups.blocks.Response response, boolean preserveOrder) throws Throwable {
       if (cmd instanceof CacheRpcCommand) {
          if (trace) log.tracef("Attempting to execute command: %s [sender=%s]", cmd, req.getSrc());
@@ -348,10 +443,15 @@ private static Response processSingleCall(ReplicableCommand command, long timeou
             || isRsvpCommand(command);
 
       Response retval;
-      Buffer buf;
-      buf = marshallCall(marshaller, command);
-      retval = card.sendMessage(constructMessage(buf, destination, oob, mode, rsvp, false),
-                                new RequestOptions(mode, timeout));
+      RpcBatcher batcher = card.rpcBatcher;
+      if (batcher != null && !rsvp) {
+         retval = (Response) batcher.invoke(command, destination, oob, mode, timeout);
+      } else {
+         Buffer buf;
+         buf = marshallCall(marshaller, command);
+         retval = card.sendMessage(constructMessage(buf, destination, oob, mode, rsvp, false),
+                                   new RequestOptions(mode, timeout));
+      }
 
       // we only bother parsing responses if we are not in ASYNC mode.
       if (trace) log.tracef("Response: %s", retval);
@@ -404,7 +504,8 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
          opts.setExclusionList(card.getChannel().getAddress());
 
          if (dests.isEmpty()) return new RspList<Object>();
-         buf = marshallCall(marshaller, command);
+         RpcBatcher batcher = rsvp ? null : card.rpcBatcher;
+         buf = batcher == null ? marshallCall(marshaller, command) : null;
 
          // if at all possible, try not to use JGroups' ANYCAST for now.  Multiple (parallel) UNICASTs are much faster.
          if (filter != null) {
@@ -413,7 +514,8 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             // (see FutureCollator) and the first successful response is used.
             FutureCollator futureCollator = new FutureCollator(filter, dests.size(), timeout, card.gcr.getTimeService());
             for (Address a : dests) {
-               NotifyingFuture<Object> f = card.sendMessageWithFuture(constructMessage(buf, a, oob, mode, rsvp, false), opts);
+               NotifyingFuture<Object> f = batcher != null ? batcher.submit(command, a, oob, mode, timeout)
+                     : card.sendMessageWithFuture(constructMessage(buf, a, oob, mode, rsvp, false), opts);
                futureCollator.watchFuture(f, a);
             }
             retval = futureCollator.getResponseList();
@@ -421,8 +523,12 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             // A SYNC call that needs to go everywhere
             Map<Address, Future<Object>> futures = new HashMap<Address, Future<Object>>(dests.size());
 
-            for (Address dest : dests)
-               futures.put(dest, card.sendMessageWithFuture(constructMessage(buf, dest, oob, mode, rsvp, false), opts));
+            for (Address dest : dests) {
+               if (batcher != null)
+                  futures.put(dest, batcher.submit(command, dest, oob, mode, timeout));
+               else
+                  futures.put(dest, card.sendMessageWithFuture(constructMessage(buf, dest, oob, mode, rsvp, false), opts));
+            }
 
             retval = new RspList<Object>();
 
@@ -444,7 +550,12 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             }
          } else if (mode == ResponseMode.GET_NONE) {
             // An ASYNC call.  We don't care about responses.
-            for (Address dest : dests) card.sendMessage(constructMessage(buf, dest, oob, mode, rsvp, false), opts);
+            for (Address dest : dests) {
+               if (batcher != null)
+                  batcher.submit(command, dest, oob, mode, timeout);
+               else
+                  card.sendMessage(constructMessage(buf, dest, oob, mode, rsvp, false), opts);
+            }
          }
       }
 
@@ -469,6 +580,164 @@ private static boolean isRsvpCommand(ReplicableCommand command) {
             && ((FlagAffectedCommand) command).hasFlag(Flag.GUARANTEED_DELIVERY);
    }
 
+   /**
+    * Collects the responses of the commands of a {@link BatchedRpcCommand} and sends them back as a single array once
+    * every command has replied.
+    */
+   private static final class BatchedResponse {
+      private final org.jgroups.blocks.Response response;
+      private final Object[] replies;
+      private final AtomicInteger pendingReplies;
+
+      BatchedResponse(org.jgroups.blocks.Response response, int numCommands) {
+         this.response = response;
+         this.replies = new Object[numCommands];
+         this.pendingReplies = new AtomicInteger(numCommands);
+      }
+
+      org.jgroups.blocks.Response forCommand(final int index) {
+         return new org.jgroups.blocks.Response() {
+            @Override
+            public void send(Object reply, boolean isException) {
+               replies[index] = reply;
+               if (pendingReplies.decrementAndGet() == 0) {
+                  response.send(replies, false);
+               }
+            }
+
+            public void send(Message reply, boolean isException) {
+               send(reply.getObject(), isException);
+            }
+         };
+      }
+   }
+
+   /**
+    * Completes a future with the responses of the unicasts sent to each recipient, as they arrive.
+    */
+   private final class ResponseCollector implements FutureListener<Object>, Runnable {
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<RspList<Object>>();
+      private final RspFilter filter;
+      @GuardedBy("this")
+      private final RspList<Object> responses = new RspList<Object>();
+      @GuardedBy("this")
+      private final Map<Future<Object>, Address> futures = new HashMap<Future<Object>, Address>();
+      @GuardedBy("this")
+      private int expectedResponses;
+      @GuardedBy("this")
+      private boolean finished;
+      private volatile Future<?> timeoutTask;
+
+      ResponseCollector(List<Address> recipients, RspFilter filter) {
+         this.filter = filter;
+         this.expectedResponses = recipients.size();
+         for (Address recipient : recipients) {
+            responses.put(recipient, new Rsp<Object>(recipient));
+         }
+      }
+
+      void scheduleTimeout(long timeout) {
+         timeoutTask = CommandAwareRpcDispatcher.this.scheduleTimeout(this, timeout);
+      }
+
+      void watchFuture(NotifyingFuture<Object> f, Address address) {
+         synchronized (this) {
+            futures.put(f, address);
+         }
+         f.setListener(this);
+      }
+
+      @Override
+      public void futureDone(Future<Object> future) {
+         synchronized (this) {
+            // JGroups may notify a listener twice
+            Address sender = futures.remove(future);
+            if (sender == null || finished) return;
+            Rsp<Object> rsp = responses.get(sender);
+            try {
+               Object response = future.get();
+               if (trace) log.tracef("Received response: %s from %s", response, sender);
+               rsp.setValue(response);
+               if (filter != null) {
+                  filter.isAcceptable(response, sender);
+                  if (!filter.needMoreResponses()) finished = true;
+               }
+            } catch (ExecutionException e) {
+               if (e.getCause() instanceof SuspectedException) {
+                  rsp.setSuspected();
+               } else {
+                  rsp.setException(e.getCause());
+               }
+            } catch (CancellationException e) {
+               rsp.setException(e);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               rsp.setException(e);
+            }
+            if (--expectedResponses == 0) finished = true;
+            if (!finished) return;
+         }
+         finish();
+      }
+
+      /**
+       * Invoked on timeout: the recipients that did not reply yet are left as not received.
+       */
+      @Override
+      public void run() {
+         synchronized (this) {
+            if (finished) return;
+            finished = true;
+         }
+         if (trace) log.tracef("Timed out waiting for responses, got %s", responses);
+         finish();
+      }
+
+      private void finish() {
+         Future<?> task = timeoutTask;
+         if (task != null) task.cancel(false);
+         List<Future<Object>> pending;
+         synchronized (this) {
+            pending = new ArrayList<Future<Object>>(futures.keySet());
+            futures.clear();
+         }
+         // Stop waiting for the responses we don't need anymore
+         for (Future<Object> f : pending) f.cancel(false);
+         result.complete(responses);
+      }
+   }
+
+   /**
+    * Completes a future with the responses of a broadcast.
+    */
+   private final class BroadcastResponseListener implements FutureListener<RspList<Object>>, Runnable {
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<RspList<Object>>();
+      private final NotifyingFuture<RspList<Object>> future;
+      private volatile Future<?> timeoutTask;
+
+      BroadcastResponseListener(NotifyingFuture<RspList<Object>> future) {
+         this.future = future;
+      }
+
+      void scheduleTimeout(long timeout) {
+         timeoutTask = CommandAwareRpcDispatcher.this.scheduleTimeout(this, timeout);
+      }
+
+      @Override
+      public void futureDone(Future<RspList<Object>> f) {
+         Future<?> task = timeoutTask;
+         if (task != null) task.cancel(false);
+         result.completeWith(f);
+      }
+
+      @Override
+      public void run() {
+         if (result.completeExceptionally(new TimeoutException("Timed out waiting for responses to a broadcast"))) {
+            future.cancel(false);
+         }
+      }
+   }
+
    static class SenderContainer {
       final Address address;
       volatile boolean processed = false;
@@ -15,6 +15,9 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.responses.Response;
@@ -59,6 +62,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -76,6 +80,14 @@
  * <li><tt>channelLookup</tt> - Fully qualified class name of a
  * {@link org.infinispan.remoting.transport.jgroups.JGroupsChannelLookup} instance</li>
  * </ul>
+ * The batching of outgoing commands is configured with the following properties:
+ * <ul>
+ * <li><tt>rpcBatching</tt> - if <tt>true</tt>, commands sent concurrently to the same node are coalesced into a
+ * single message by a {@link RpcBatcher}. Disabled by default.</li>
+ * <li><tt>rpcBatchMaxSize</tt> - maximum number of commands in a batch, 64 by default</li>
+ * <li><tt>rpcBatchMaxDelay</tt> - maximum time, in microseconds, that a batch waits for more commands while other
+ * threads are sending to the same node, 20 by default</li>
+ * </ul>
  * These are normally passed in as Properties in
  * {@link org.infinispan.config.GlobalConfiguration#setTransportProperties(java.util.Properties)} or
  * in the Infinispan XML configuration file.
@@ -89,6 +101,11 @@ public class JGroupsTransport extends AbstractTransport implements MembershipLis
    public static final String CONFIGURATION_XML = "configurationXml";
    public static final String CONFIGURATION_FILE = "configurationFile";
    public static final String CHANNEL_LOOKUP = "channelLookup";
+   public static final String RPC_BATCHING = "rpcBatching";
+   public static final String RPC_BATCH_MAX_SIZE = "rpcBatchMaxSize";
+   public static final String RPC_BATCH_MAX_DELAY = "rpcBatchMaxDelay";
+   private static final int DEFAULT_RPC_BATCH_MAX_SIZE = 64;
+   private static final long DEFAULT_RPC_BATCH_MAX_DELAY = 20;
    protected static final String DEFAULT_JGROUPS_CONFIGURATION_FILE = "jgroups-udp.xml";
 
    static final Log log = LogFactory.getLog(JGroupsTransport.class);
@@ -313,6 +330,10 @@ private void initChannelAndRPCDispatcher() throws CacheException {
       MarshallerAdapter adapter = new MarshallerAdapter(marshaller);
       dispatcher.setRequestMarshaller(adapter);
       dispatcher.setResponseMarshaller(adapter);
+      if (props != null && props.getBooleanProperty(RPC_BATCHING, false)) {
+         dispatcher.enableBatching(props.getIntProperty(RPC_BATCH_MAX_SIZE, DEFAULT_RPC_BATCH_MAX_SIZE),
+                                   props.getLongProperty(RPC_BATCH_MAX_DELAY, DEFAULT_RPC_BATCH_MAX_DELAY));
+      }
       dispatcher.start();
    }
 
@@ -527,19 +548,83 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
             responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
       } else {
-         Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+         responses = parseResponses(rsps, responseFilter != null, ignoreLeavers);
+      }
+      return responses;
+   }
+
+   private Map<Address, Response> parseResponses(RspList<Object> rsps, boolean usedResponseFilter, boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+               usedResponseFilter, ignoreLeavers);
+      }
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
+   }
+
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
+                                                                      boolean usePriorityQueue, final ResponseFilter responseFilter,
+                                                                      boolean totalOrder, boolean anycast) throws Exception {
+      if (!mode.isSynchronous() || totalOrder) {
+         // Either there are no responses to wait for, or they must be delivered in total order
+         return CompletableNotifyingFuture.completed(invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue,
+                                                                    responseFilter, totalOrder, anycast));
+      }
+      if (recipients != null && recipients.isEmpty()) {
+         // don't send if recipients list is empty
+         log.trace("Destination list is empty: no need to send message");
+         return CompletableNotifyingFuture.completed(InfinispanCollections.<Address, Response>emptyMap());
+      }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                  responseFilter != null, ignoreLeavers);
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s, async invocation", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      if (recipients != null && !getMembers().containsAll(recipients)) {
+         if (ignoreLeavers) { // SYNCHRONOUS_IGNORE_LEAVERS || WAIT_FOR_VALID_RESPONSE
+            recipients = new HashSet<Address>(recipients);
+            recipients.retainAll(getMembers());
+         } else { // SYNCHRONOUS
+            throw new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand);
          }
+      }
+      if (!usePriorityQueue && (ResponseMode.SYNCHRONOUS == mode || ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS == mode))
+         usePriorityQueue = true;
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+      List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(recipients, false);
+      int membersSize = members.size();
+      boolean broadcast = jgAddressList == null || recipients.size() == membersSize;
+      if (membersSize < 3 || (jgAddressList != null && jgAddressList.size() < 2)) broadcast = false;
+      if (broadcast) {
+         jgAddressList = null;
+      } else if (jgAddressList == null) {
+         jgAddressList = toJGroupsAddressListExcludingSelf(members, false);
       }
-      return responses;
+      if (jgAddressList != null && jgAddressList.isEmpty()) {
+         return CompletableNotifyingFuture.completed(InfinispanCollections.<Address, Response>emptyMap());
+      }
+
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<Map<Address, Response>>();
+      dispatcher.invokeRemoteCommandsAsync(jgAddressList, rpcCommand, toJGroupsMode(mode), timeout, usePriorityQueue,
+                                           toJGroupsFilter(responseFilter))
+            .attachListener(new FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> future) {
+                  try {
+                     result.complete(parseResponses(future.get(), responseFilter != null, ignoreLeavers));
+                  } catch (ExecutionException e) {
+                     result.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            });
+      return result;
    }
 
    @Override
@@ -629,6 +714,11 @@ public void viewAccepted(View newView) {
       coordinator = fromJGroupsAddress(newView.getCreator());
       isCoordinator = coordinator != null && coordinator.equals(getAddress());
 
+      CommandAwareRpcDispatcher d = dispatcher;
+      if (d != null && d.getRpcBatcher() != null) {
+         d.getRpcBatcher().retainAll(newMembers);
+      }
+
       // Wake up any threads that are waiting to know about who the isCoordinator is
       // do it before the notifications, so if a listener throws an exception we can still start
       channelConnectedLatch.countDown();
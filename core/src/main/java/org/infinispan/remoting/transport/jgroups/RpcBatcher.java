@@ -0,0 +1,419 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.BatchedRpcCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.jgroups.Address;
+import org.jgroups.Message;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.jgroups.util.Buffer;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.NotifyingFuture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coalesces the commands sent concurrently to the same node into a single {@link BatchedRpcCommand} message.
+ * <p/>
+ * Every destination has a queue of pending commands. The thread that submits a command becomes the sender for that
+ * destination if no other thread is currently sending to it, and sends everything queued up to then, its own command
+ * included, as one message. While it marshals and sends, other threads only enqueue their commands, which go out with
+ * the next batch. Once its own command has been sent, a submitter hands the commands queued meanwhile over to the
+ * executor instead of sending them too, so that the latency of its own call does not grow with the load of the
+ * other threads. A batch is flushed:
+ * <ul>
+ *    <li>as soon as it holds {@code maxBatchSize} commands,</li>
+ *    <li>when the queue is empty, i.e. the senders have gone idle, so a lone command is never delayed,</li>
+ *    <li>or, if the previous batch for the destination coalesced several commands, when the {@code maxDelay}
+ *    deadline passes while waiting for more commands to join it.</li>
+ * </ul>
+ * A batch holding a single command is sent as a plain message. Regular and OOB commands are queued separately, and the
+ * batches of a destination are sent one at a time, so the order of regular messages is preserved. Synchronous and
+ * asynchronous commands can share a batch: the receiver replies with one response per command and the futures
+ * returned by {@link #submit(ReplicableCommand, Address, boolean, ResponseMode, long)} are completed with their own
+ * response.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class RpcBatcher {
+
+   private static final Log log = LogFactory.getLog(RpcBatcher.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final CommandAwareRpcDispatcher dispatcher;
+   private final Executor executor;
+   private final int maxBatchSize;
+   private final long maxDelayNanos;
+   private final ConcurrentMap<Address, Destination> regularDestinations = new ConcurrentHashMap<Address, Destination>();
+   private final ConcurrentMap<Address, Destination> oobDestinations = new ConcurrentHashMap<Address, Destination>();
+
+   /**
+    * @param executor       sends the commands queued after the submitter's own command has been sent
+    * @param maxBatchSize   maximum number of commands sent in a single message
+    * @param maxDelayMicros maximum time, in microseconds, that a batch waits for more commands when the destination is
+    *                       busy. 0 disables the wait, so only the commands already queued are coalesced.
+    */
+   public RpcBatcher(CommandAwareRpcDispatcher dispatcher, Executor executor, int maxBatchSize, long maxDelayMicros) {
+      if (maxBatchSize < 1) throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+      this.dispatcher = dispatcher;
+      this.executor = executor;
+      this.maxBatchSize = maxBatchSize;
+      this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+   }
+
+   /**
+    * Queues the command for sending to the destination. The returned future is completed with the response of the
+    * destination, or with {@code null} if the response mode is {@link ResponseMode#GET_NONE}.
+    */
+   public NotifyingFuture<Object> submit(ReplicableCommand command, Address destination, boolean oob,
+                                         ResponseMode mode, long timeout) {
+      PendingRpc rpc = new PendingRpc(command, mode, timeout);
+      Destination d = getDestination(destination, oob);
+      d.queue.add(rpc);
+      Thread waiter = d.waiter;
+      if (waiter != null) LockSupport.unpark(waiter);
+      flush(d, rpc);
+      return rpc;
+   }
+
+   /**
+    * Same as {@link #submit(ReplicableCommand, Address, boolean, ResponseMode, long)}, but waits for the response and
+    * throws the same exceptions as {@link org.jgroups.blocks.MessageDispatcher#sendMessage(Message, RequestOptions)}.
+    */
+   public Object invoke(ReplicableCommand command, Address destination, boolean oob, ResponseMode mode,
+                        long timeout) throws Exception {
+      NotifyingFuture<Object> future = submit(command, destination, oob, mode, timeout);
+      if (mode == ResponseMode.GET_NONE) return null;
+      try {
+         return future.get(timeout, MILLISECONDS);
+      } catch (java.util.concurrent.TimeoutException e) {
+         throw new org.jgroups.TimeoutException("timeout waiting for response from " + destination + ", request: " + command);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof Exception) throw (Exception) cause;
+         throw new CacheException("Caught a throwable", cause);
+      }
+   }
+
+   /**
+    * Drops the queues of the nodes that are no longer members of the cluster.
+    */
+   public void retainAll(Collection<Address> members) {
+      regularDestinations.keySet().retainAll(members);
+      oobDestinations.keySet().retainAll(members);
+   }
+
+   private Destination getDestination(Address address, boolean oob) {
+      ConcurrentMap<Address, Destination> destinations = oob ? oobDestinations : regularDestinations;
+      Destination d = destinations.get(address);
+      if (d == null) {
+         d = new Destination(address, oob);
+         Destination existing = destinations.putIfAbsent(address, d);
+         if (existing != null) d = existing;
+      }
+      return d;
+   }
+
+   /**
+    * @param own the command of the submitting thread, or {@code null} if flushing on behalf of the submitters
+    */
+   private void flush(final Destination d, PendingRpc own) {
+      // Re-check the queue after releasing the flag: a command queued while we were sending would be stranded if
+      // its submitter found the flag still set
+      while (!d.queue.isEmpty()) {
+         if (own != null && own.drained && !d.flushing.get()) {
+            // Our own command is on its way, don't keep the caller sending the commands of the other threads
+            try {
+               executor.execute(new Runnable() {
+                  @Override
+                  public void run() {
+                     flush(d, null);
+                  }
+               });
+               return;
+            } catch (RejectedExecutionException e) {
+               if (trace) log.tracef("Executor rejected the flush of %s, flushing in the caller", d.address);
+               own = null;
+            }
+         }
+         if (!d.flushing.compareAndSet(false, true)) return;
+         try {
+            List<PendingRpc> batch = drain(d);
+            if (!batch.isEmpty()) send(d, batch);
+         } finally {
+            d.flushing.set(false);
+         }
+      }
+   }
+
+   @GuardedBy("d.flushing")
+   private List<PendingRpc> drain(Destination d) {
+      List<PendingRpc> batch = new ArrayList<PendingRpc>();
+      PendingRpc rpc;
+      while (batch.size() < maxBatchSize && (rpc = d.queue.poll()) != null) {
+         rpc.drained = true;
+         batch.add(rpc);
+      }
+      if (!batch.isEmpty() && batch.size() < maxBatchSize && maxDelayNanos > 0 && d.lastBatchSize > 1) {
+         // Other threads have been sending to this node, give them a chance to join the batch
+         long deadline = System.nanoTime() + maxDelayNanos;
+         // Registered before polling, so a command queued after an empty poll unparks us
+         d.waiter = Thread.currentThread();
+         try {
+            while (batch.size() < maxBatchSize) {
+               rpc = d.queue.poll();
+               if (rpc != null) {
+                  rpc.drained = true;
+                  batch.add(rpc);
+                  continue;
+               }
+               long remaining = deadline - System.nanoTime();
+               // parkNanos() returns immediately while the interrupt flag is set
+               if (remaining <= 0 || Thread.currentThread().isInterrupted()) break;
+               LockSupport.parkNanos(this, remaining);
+            }
+         } finally {
+            d.waiter = null;
+         }
+      }
+      d.lastBatchSize = batch.size();
+      return batch;
+   }
+
+   @GuardedBy("d.flushing")
+   private void send(Destination d, List<PendingRpc> batch) {
+      ReplicableCommand payload;
+      ResponseMode mode;
+      long timeout;
+      if (batch.size() == 1) {
+         PendingRpc rpc = batch.get(0);
+         payload = rpc.command;
+         mode = rpc.mode;
+         timeout = rpc.timeout;
+      } else {
+         List<ReplicableCommand> commands = new ArrayList<ReplicableCommand>(batch.size());
+         mode = ResponseMode.GET_NONE;
+         timeout = 0;
+         for (PendingRpc rpc : batch) {
+            commands.add(rpc.command);
+            if (rpc.isSync()) {
+               mode = ResponseMode.GET_ALL;
+               timeout = Math.max(timeout, rpc.timeout);
+            }
+         }
+         payload = new BatchedRpcCommand(commands);
+      }
+      if (trace) log.tracef("Sending %d commands to %s with response mode %s", batch.size(), d.address, mode);
+
+      try {
+         Buffer buf = CommandAwareRpcDispatcher.marshallCall(dispatcher.getMarshaller(), payload);
+         Message msg = CommandAwareRpcDispatcher.constructMessage(buf, d.address, d.oob, mode, false, false);
+         RequestOptions opts = new RequestOptions(mode, timeout);
+         if (mode == ResponseMode.GET_NONE) {
+            dispatcher.sendMessage(msg, opts);
+            for (PendingRpc rpc : batch) rpc.complete(null);
+         } else {
+            NotifyingFuture<Object> future = dispatcher.sendMessageWithFuture(msg, opts);
+            future.setListener(new BatchListener(batch));
+         }
+      } catch (Exception e) {
+         for (PendingRpc rpc : batch) {
+            if (!rpc.isSync()) log.errorf(e, "Failed to send asynchronous command %s to %s", rpc.command, d.address);
+            rpc.fail(e);
+         }
+      }
+   }
+
+   private static final class Destination {
+      final Address address;
+      final boolean oob;
+      final Queue<PendingRpc> queue = new ConcurrentLinkedQueue<PendingRpc>();
+      final AtomicBoolean flushing = new AtomicBoolean();
+      @GuardedBy("flushing")
+      int lastBatchSize;
+      /**
+       * The sender waiting for more commands to join its batch, unparked when a command is queued.
+       */
+      volatile Thread waiter;
+
+      Destination(Address address, boolean oob) {
+         this.address = address;
+         this.oob = oob;
+      }
+   }
+
+   /**
+    * Demultiplexes the response of a batch to the futures of its commands.
+    */
+   private static final class BatchListener implements FutureListener<Object> {
+      private final List<PendingRpc> batch;
+
+      BatchListener(List<PendingRpc> batch) {
+         this.batch = batch;
+      }
+
+      @Override
+      public void futureDone(Future<Object> future) {
+         Object reply;
+         try {
+            reply = future.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(e);
+            return;
+         } catch (ExecutionException e) {
+            failAll(e.getCause());
+            return;
+         }
+         if (batch.size() == 1) {
+            batch.get(0).complete(reply);
+         } else if (reply instanceof Object[] && ((Object[]) reply).length == batch.size()) {
+            Object[] replies = (Object[]) reply;
+            for (int i = 0; i < replies.length; i++) {
+               batch.get(i).complete(replies[i]);
+            }
+         } else {
+            // The envelope itself failed on the receiver (e.g. it could not be unmarshalled)
+            for (PendingRpc rpc : batch) rpc.complete(reply);
+         }
+      }
+
+      private void failAll(Throwable t) {
+         for (PendingRpc rpc : batch) rpc.fail(t);
+      }
+   }
+
+   /**
+    * The future of a single command, completed once the batch it was sent with gets a response.
+    */
+   private static final class PendingRpc implements NotifyingFuture<Object> {
+      final ReplicableCommand command;
+      final ResponseMode mode;
+      final long timeout;
+      /**
+       * Set once taken off the queue of its destination.
+       */
+      volatile boolean drained;
+      @GuardedBy("this")
+      private boolean done;
+      @GuardedBy("this")
+      private Object value;
+      @GuardedBy("this")
+      private Throwable exception;
+      @GuardedBy("this")
+      private FutureListener<Object> listener;
+
+      PendingRpc(ReplicableCommand command, ResponseMode mode, long timeout) {
+         this.command = command;
+         this.mode = mode;
+         this.timeout = timeout;
+      }
+
+      boolean isSync() {
+         return mode != ResponseMode.GET_NONE;
+      }
+
+      void complete(Object value) {
+         set(value, null);
+      }
+
+      void fail(Throwable exception) {
+         set(null, exception);
+      }
+
+      private void set(Object value, Throwable exception) {
+         FutureListener<Object> l;
+         synchronized (this) {
+            // The JGroups future may notify its listener twice
+            if (done) return;
+            this.done = true;
+            this.value = value;
+            this.exception = exception;
+            l = listener;
+            notifyAll();
+         }
+         if (l != null) l.futureDone(this);
+      }
+
+      @Override
+      public NotifyingFuture<Object> setListener(FutureListener<Object> listener) {
+         boolean notify;
+         synchronized (this) {
+            this.listener = listener;
+            notify = done;
+         }
+         if (notify) listener.futureDone(this);
+         return this;
+      }
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+         return false;
+      }
+
+      @Override
+      public boolean isCancelled() {
+         return false;
+      }
+
+      @Override
+      public synchronized boolean isDone() {
+         return done;
+      }
+
+      @Override
+      public synchronized Object get() throws InterruptedException, ExecutionException {
+         while (!done) {
+            wait();
+         }
+         return result();
+      }
+
+      @Override
+      public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                                                                         java.util.concurrent.TimeoutException {
+         long remaining = unit.toNanos(timeout);
+         long deadline = System.nanoTime() + remaining;
+         while (!done) {
+            if (remaining <= 0) {
+               throw new java.util.concurrent.TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+         }
+         return result();
+      }
+
+      @GuardedBy("this")
+      private Object result() throws ExecutionException {
+         if (exception != null) throw new ExecutionException(exception);
+         return value;
+      }
+
+      @Override
+      public String toString() {
+         return "PendingRpc{command=" + command + ", mode=" + mode + '}';
+      }
+   }
+}
@@ -55,6 +55,11 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
       return Collections.singleton(command.getKey());
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) {
+      return command.getAffectedKeys();
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) {
       return command.getAffectedKeys();
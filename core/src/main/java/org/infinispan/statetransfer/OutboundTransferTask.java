@@ -4,6 +4,7 @@
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.loaders.CacheLoaderException;
@@ -130,12 +131,27 @@ public Set<Integer> getSegments() {
    //todo [anistor] check thread interrupt status in loops to implement faster cancellation
    public void run() {
       try {
+         // the first member of the cluster only preloads the segments it owns once it has joined
+         cacheLoaderManager.awaitPreload();
+
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         if (dataContainer instanceof SegmentedDataContainer) {
+            // only visit the requested segments
+            SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+            for (int segmentId : segments) {
+               Iterator<InternalCacheEntry> it = segmentedDataContainer.iterator(Collections.singleton(segmentId));
+               // stop early if the segment gets cancelled
+               while (it.hasNext() && segments.contains(segmentId)) {
+                  sendEntry(it.next(), segmentId);
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId)) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
@@ -8,6 +8,7 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -804,10 +805,34 @@ private void invalidateSegments(Set<Integer> newSegments, Set<Integer> segmentsT
       // so we delete all entries that don't belong to this node in the current OR previous topology.
       Set<Object> keysToL1 = new HashSet<Object>();
       Set<Object> keysToRemove = new HashSet<Object>();
+      CacheStore cacheStore = getCacheStore();
 
       // gather all keys from data container that belong to the segments that are being removed/moved to L1
-      for (InternalCacheEntry ice : dataContainer) {
-         Object key = ice.getKey();
+      Iterator<InternalCacheEntry> entries;
+      if (dataContainer instanceof SegmentedDataContainer) {
+         // only visit the segments we do not own
+         SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+         Set<Integer> segmentsToRemove = new HashSet<Integer>();
+         for (int i = 0; i < cacheTopology.getWriteConsistentHash().getNumSegments(); i++) {
+            if (!newSegments.contains(i) && !segmentsToL1.contains(i)) {
+               segmentsToRemove.add(i);
+            }
+         }
+         if (cacheStore == null && !configuration.indexing().enabled() && cacheNotifier.getListeners().isEmpty()) {
+            // nobody needs to see the individual invalidations, so the segments can be dropped in bulk
+            if (trace) log.tracef("Removing segments %s from the data container of cache %s", segmentsToRemove, cacheName);
+            segmentedDataContainer.removeSegments(segmentsToRemove);
+            entries = segmentedDataContainer.iterator(segmentsToL1);
+         } else {
+            Set<Integer> segmentsToVisit = new HashSet<Integer>(segmentsToRemove);
+            segmentsToVisit.addAll(segmentsToL1);
+            entries = segmentedDataContainer.iterator(segmentsToVisit);
+         }
+      } else {
+         entries = dataContainer.iterator();
+      }
+      while (entries.hasNext()) {
+         Object key = entries.next().getKey();
          int keySegment = getSegment(key);
          if (segmentsToL1.contains(keySegment)) {
             keysToL1.add(key);
@@ -817,7 +842,6 @@ private void invalidateSegments(Set<Integer> newSegments, Set<Integer> segmentsT
       }
 
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
-      CacheStore cacheStore = getCacheStore();
       if (cacheStore != null) {
          //todo [anistor] extend CacheStore interface to be able to specify a filter when loading keys (ie. keys should belong to desired segments)
          try {
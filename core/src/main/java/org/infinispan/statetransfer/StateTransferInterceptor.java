@@ -143,6 +143,11 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return handleNonTxWriteCommand(ctx, command);
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      return handleNonTxWriteCommand(ctx, command);
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       return handleNonTxWriteCommand(ctx, command);
@@ -218,10 +223,20 @@ private Object handleNonTxWriteCommand(InvocationContext ctx, WriteCommand comma
          localResult = handleNonTxWriteCommand(ctx, command);
       }
 
-      stateTransferManager.forwardCommandIfNeeded(command, command.getAffectedKeys(), ctx.getOrigin(), false);
+      forwardCommandIfNeeded(ctx, command);
       return localResult;
    }
 
+   private void forwardCommandIfNeeded(InvocationContext ctx, WriteCommand command) {
+      WriteCommand toForward = command;
+      if (command instanceof ProcessEntryCommand) {
+         // the new owners must not invoke the processor again, they only need its result
+         toForward = ((ProcessEntryCommand) command).createBackupCommand();
+         if (toForward == null) return;
+      }
+      stateTransferManager.forwardCommandIfNeeded(toForward, command.getAffectedKeys(), ctx.getOrigin(), false);
+   }
+
    @Override
    protected Object handleDefault(InvocationContext ctx, VisitableCommand command) throws Throwable {
       if (command instanceof TopologyAffectedCommand) {
@@ -0,0 +1,129 @@
+package org.infinispan.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of operation latencies, recorded in nanoseconds, from which percentiles can be read.
+ * <p/>
+ * Values are counted in log-linear buckets, like HdrHistogram does: every power of two range is split into 8 buckets
+ * of the same width, so the value reported for a percentile is at most 12.5% bigger than the recorded one, whatever
+ * its magnitude. Values above {@link #MAX_VALUE} are counted in the last bucket.
+ * <p/>
+ * The counters are striped by thread, so that concurrent threads recording values don't contend on the same cache
+ * lines. Reading a percentile sums the stripes, so it's much more expensive than recording a value, and it's not an
+ * atomic snapshot when values are recorded concurrently.
+ *
+ * @since 6.0
+ */
+public final class LatencyHistogram {
+
+   /**
+    * Values bigger than this, about 18 minutes in nanoseconds, are counted as this value.
+    */
+   public static final long MAX_VALUE = (1L << 40) - 1;
+
+   private static final int SUB_BUCKET_BITS = 3;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int NUM_BUCKETS = bucketIndex(MAX_VALUE) + 1;
+   private static final int MAX_STRIPES = 16;
+
+   private final AtomicLongArray[] stripes;
+   private final int stripeMask;
+
+   public LatencyHistogram() {
+      int numStripes = 1;
+      while (numStripes < Runtime.getRuntime().availableProcessors() && numStripes < MAX_STRIPES) {
+         numStripes <<= 1;
+      }
+      stripes = new AtomicLongArray[numStripes];
+      for (int i = 0; i < numStripes; i++) {
+         stripes[i] = new AtomicLongArray(NUM_BUCKETS);
+      }
+      stripeMask = numStripes - 1;
+   }
+
+   /**
+    * @param nanos the latency of an operation, in nanoseconds
+    */
+   public void record(long nanos) {
+      int index = bucketIndex(nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE));
+      stripes[(int) Thread.currentThread().getId() & stripeMask].incrementAndGet(index);
+   }
+
+   /**
+    * @return the number of values recorded since the histogram was created or reset
+    */
+   public long getCount() {
+      long count = 0;
+      for (long bucketCount : sumStripes()) {
+         count += bucketCount;
+      }
+      return count;
+   }
+
+   /**
+    * @param percentile a percentile between 0 and 100, e.g. 99.9
+    * @param unit the unit of the returned value
+    * @return the value below which {@code percentile}% of the recorded values fall, or 0 if no value was recorded
+    */
+   public double getValueAtPercentile(double percentile, TimeUnit unit) {
+      if (percentile < 0 || percentile > 100) {
+         throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+      }
+      long[] counts = sumStripes();
+      long count = 0;
+      for (long bucketCount : counts) {
+         count += bucketCount;
+      }
+      if (count == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      int index = 0;
+      for (; index < counts.length - 1; index++) {
+         seen += counts[index];
+         if (seen >= rank) {
+            break;
+         }
+      }
+      return (double) highestValueInBucket(index) / unit.toNanos(1);
+   }
+
+   public void reset() {
+      for (AtomicLongArray stripe : stripes) {
+         for (int i = 0; i < NUM_BUCKETS; i++) {
+            stripe.set(i, 0);
+         }
+      }
+   }
+
+   private long[] sumStripes() {
+      long[] counts = new long[NUM_BUCKETS];
+      for (AtomicLongArray stripe : stripes) {
+         for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += stripe.get(i);
+         }
+      }
+      return counts;
+   }
+
+   static int bucketIndex(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int magnitude = 63 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   static long highestValueInBucket(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int shift = index / SUB_BUCKETS - 1;
+      long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+      return lowest + (1L << shift) - 1;
+   }
+}
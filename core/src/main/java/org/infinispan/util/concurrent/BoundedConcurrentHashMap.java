@@ -170,7 +170,10 @@
    private transient final Equivalence<K> keyEquivalence;
    private transient final Equivalence<V> valueEquivalence;
    private transient final EvictionListener<K, V> evictionListener;
+   private transient final EntrySizeCalculator<? super K, ? super V> sizeCalculator;
    private final int evictCap;
+   private final long evictMemoryCap;
+   private final long maxMemory;
 
    /* ---------------- Small Utilities -------------- */
 
@@ -220,6 +223,11 @@ final Segment<K,V> segmentFor(int hash) {
       final int hash;
       volatile V value;
       final HashEntry<K, V> next;
+      /**
+       * Estimated footprint of this entry in bytes. Only maintained, under the segment lock, when the map is
+       * bounded by memory; copied over whenever the entry is cloned.
+       */
+      int memorySize;
 
       HashEntry(K key, int hash, HashEntry<K, V> next, V value) {
          this.key = key;
@@ -282,11 +290,28 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
             return new LIRS<K,V>(s,capacity,capacity*10,lf);
          }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+            return new TinyLFU<K,V>(s,capacity,capacity*10,lf);
+         }
       };
 
       abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf);
    }
 
+   /**
+    * Estimates the memory footprint of a mapping. Used by maps bounded by memory rather than by number of entries.
+    */
+   public interface EntrySizeCalculator<K, V> {
+
+      /**
+       * @return the estimated size, in bytes, of the given mapping
+       */
+      long calculateSize(K key, V value);
+   }
+
    public interface EvictionListener<K, V> {
 
       void onEntryEviction(Map<K, V> evicted);
@@ -366,6 +391,17 @@ public void onEntryRemoved(Object key) {
        */
       void onEntryRemove(HashEntry<K, V> e);
 
+      /**
+       * Invoked to notify EvictionPolicy implementation that an entry in Segment has been replaced by a copy, because
+       * an entry following it in its bucket has been removed. The copy is not an access to the entry.
+       *
+       * @param oldEntry
+       *            replaced entry in Segment
+       * @param newEntry
+       *            copy replacing it
+       */
+      void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry);
+
       /**
        * Invoked to notify EvictionPolicy implementation that all Segment entries have been
        * cleared.
@@ -388,6 +424,17 @@ public void onEntryRemoved(Object key) {
        * @return true if batching threshold has expired, false otherwise.
        */
       boolean thresholdExpired();
+
+      /**
+       * Evicts entries, in the order dictated by the eviction algorithm, until the owning Segment no longer exceeds
+       * its memory budget. The most recently accessed entry is never evicted, so a single entry larger than the
+       * budget is still kept.
+       * <p>
+       * Invoked while holding the lock on Segment, and only if the map is bounded by memory.
+       *
+       * @return non null set of evicted entries.
+       */
+      Set<HashEntry<K, V>> trimToMemoryLimit();
    }
 
    static class NullEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
@@ -417,6 +464,11 @@ public void onEntryRemove(HashEntry<K, V> e) {
          // Do nothing.
       }
 
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         // Do nothing.
+      }
+
       @Override
       public boolean thresholdExpired() {
          return false;
@@ -426,6 +478,11 @@ public boolean thresholdExpired() {
       public Eviction strategy() {
          return Eviction.NONE;
       }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToMemoryLimit() {
+         return InfinispanCollections.emptySet();
+      }
       
       @Override
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
@@ -509,6 +566,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         onEntryRemove(oldEntry);
+         onEntryMiss(newEntry);
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -521,6 +584,21 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToMemoryLimit() {
+         Set<HashEntry<K, V>> evictedCopy = InfinispanCollections.emptySet();
+         while (segment.isAboveMemoryLimit() && size() > 1) {
+            // a fresh iterator each time, since removing from the segment removes from this map as well
+            HashEntry<K, V> eldest = keySet().iterator().next();
+            segment.remove(eldest.key, eldest.hash, null, true);
+            if (evictedCopy.isEmpty()) {
+               evictedCopy = new HashSet<HashEntry<K, V>>();
+            }
+            evictedCopy.add(eldest);
+         }
+         return evictedCopy;
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -641,6 +719,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         onEntryRemove(oldEntry);
+         onEntryMiss(newEntry);
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -654,6 +738,21 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToMemoryLimit() {
+         Set<HashEntry<K, V>> evictedCopy = InfinispanCollections.emptySet();
+         while (segment.isAboveMemoryLimit() && size() > 1) {
+            // removing from the segment also unlinks the entry from the doubly-linked list
+            LRUHashEntry<K, V> eldest = head.nextEntry;
+            segment.remove(eldest.key, eldest.hash, null, true);
+            if (evictedCopy.isEmpty()) {
+               evictedCopy = new HashSet<HashEntry<K, V>>();
+            }
+            evictedCopy.add(eldest);
+         }
+         return evictedCopy;
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -1264,6 +1363,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         onEntryRemove(oldEntry);
+         onEntryMiss(newEntry);
+      }
+
       @Override
       public void clear() {
          accessQueue.clear();
@@ -1275,6 +1380,30 @@ public Eviction strategy() {
          return Eviction.LIRS;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToMemoryLimit() {
+         Set<HashEntry<K, V>> evicted = new HashSet<HashEntry<K, V>>();
+         while (segment.isAboveMemoryLimit() && size > 1) {
+            LIRSHashEntry<K, V> victim = queueFront();
+            if (victim == null) {
+               // every resident entry is hot; demote the least recent one so that it can be evicted
+               LIRSHashEntry<K, V> bottom = stackBottom();
+               if (bottom == null) {
+                  break;
+               }
+               bottom.migrateToQueue();
+               Set<HashEntry<K, V>> pruned = new HashSet<HashEntry<K, V>>();
+               pruneStack(pruned);
+               removeFromSegment(pruned);
+               evicted.addAll(pruned);
+               victim = queueFront();
+            }
+            evicted.add(victim);
+            removeFromSegment(Collections.<HashEntry<K, V>>singleton(victim));
+         }
+         return evicted;
+      }
+
       /**
        * Returns the entry at the bottom of the stack.
        */
@@ -1306,6 +1435,412 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       }
    }
 
+   /**
+    * Regions of a {@link TinyLFU} segment.
+    */
+   private enum TinyLFURegion {
+      WINDOW, PROBATION, PROTECTED, NONE
+   }
+
+   /**
+    * Links entries into the doubly-linked list of the {@link TinyLFU} region they belong to.
+    */
+   private static final class TinyLFUHashEntry<K, V> extends HashEntry<K, V> {
+
+      TinyLFUHashEntry<K, V> previousEntry, nextEntry;
+      TinyLFURegion region = TinyLFURegion.NONE;
+
+      TinyLFUHashEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         super(key, hash, next, value);
+      }
+
+      private void unlink() {
+         previousEntry.nextEntry = nextEntry;
+         nextEntry.previousEntry = previousEntry;
+      }
+
+      private void addBefore(TinyLFUHashEntry<K, V> entry) {
+         nextEntry = entry;
+         previousEntry = entry.previousEntry;
+         previousEntry.nextEntry = this;
+         nextEntry.previousEntry = this;
+      }
+   }
+
+   /**
+    * A Count-Min sketch of 4-bit counters estimating how often a hash has been accessed. Once the number of recorded
+    * accesses reaches the sample size all counters are halved, so that estimates reflect recent history.
+    * <p/>
+    * Not thread safe, used under the lock of the owning Segment.
+    */
+   static final class FrequencySketch {
+
+      private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+      private static final long RESET_MASK = 0x7777777777777777L;
+      private static final long ONE_MASK = 0x1111111111111111L;
+
+      private final long[] table;
+      private final int tableMask;
+      private final int sampleSize;
+      private int additions;
+
+      FrequencySketch(int capacity) {
+         int length = 16;
+         while (length < capacity && length < (1 << 30)) {
+            length <<= 1;
+         }
+         table = new long[length];
+         tableMask = length - 1;
+         sampleSize = 10 * length;
+      }
+
+      /**
+       * @return the estimated number of accesses of the hash, at most 15
+       */
+      int frequency(int hash) {
+         int h = spread(hash);
+         int start = (h & 3) << 2;
+         int frequency = Integer.MAX_VALUE;
+         for (int i = 0; i < 4; i++) {
+            int count = (int) ((table[indexOf(h, i)] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+         }
+         return frequency;
+      }
+
+      /**
+       * Records an access of the hash, aging all counters if the sample size is reached.
+       */
+      void increment(int hash) {
+         int h = spread(hash);
+         int start = (h & 3) << 2;
+         boolean added = false;
+         for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(h, i), start + i);
+         }
+         if (added && ++additions == sampleSize) {
+            reset();
+         }
+      }
+
+      void clear() {
+         Arrays.fill(table, 0L);
+         additions = 0;
+      }
+
+      private boolean incrementAt(int index, int counter) {
+         int offset = counter << 2;
+         long mask = 0xfL << offset;
+         if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+         }
+         return false;
+      }
+
+      private void reset() {
+         int odd = 0;
+         for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+         }
+         additions = (additions >>> 1) - (odd >>> 2);
+      }
+
+      private int indexOf(int h, int row) {
+         long hash = SEEDS[row] * h;
+         hash += hash >>> 32;
+         return ((int) hash) & tableMask;
+      }
+
+      /**
+       * Hashes of a segment share their upper bits, so they are remixed before use.
+       */
+      private static int spread(int x) {
+         x = ((x >>> 16) ^ x) * 0x45d9f3b;
+         x = ((x >>> 16) ^ x) * 0x45d9f3b;
+         return (x >>> 16) ^ x;
+      }
+   }
+
+   /**
+    * Window TinyLFU eviction policy, as described in "TinyLFU: A Highly Efficient Cache Admission Policy" by Einziger,
+    * Friedman and Manes.
+    * <p/>
+    * New entries enter a small LRU window. When the window overflows its eldest entry becomes a candidate for the main
+    * space, a segmented LRU made of a probation and a protected region, and is only admitted if a
+    * {@link FrequencySketch} estimates it has been accessed more often than the main space's eviction victim.
+    * Otherwise the candidate itself is evicted. One-off accesses, as in scans, therefore cannot flush out the hot
+    * entries.
+    * <p/>
+    * Like LRU and LIRS, hits are batched in a queue and applied under the segment lock.
+    */
+   static final class TinyLFU<K, V> implements EvictionPolicy<K, V> {
+
+      /**
+       * The percentage of the segment capacity dedicated to the admission window.
+       */
+      private static final float WINDOW_PERCENTAGE = 0.01f;
+
+      /**
+       * The percentage of the main space dedicated to entries accessed again after admission.
+       */
+      private static final float PROTECTED_PERCENTAGE = 0.8f;
+
+      private final Segment<K, V> segment;
+      private final ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>> accessQueue;
+      private final AtomicInteger accessQueueSize = new AtomicInteger(0);
+      private final int maxBatchQueueSize;
+      private final float batchQueueSizeThreshold;
+      private final FrequencySketch sketch;
+      private final Set<HashEntry<K, V>> evicted;
+
+      private final int maximumSize;
+      private final int maxWindowSize;
+      private final int maxProtectedSize;
+
+      /** Sentinels of the region lists, eldest entry first */
+      private final TinyLFUHashEntry<K, V> window;
+      private final TinyLFUHashEntry<K, V> probation;
+      private final TinyLFUHashEntry<K, V> protectedRegion;
+      private int windowSize;
+      private int probationSize;
+      private int protectedSize;
+
+      public TinyLFU(Segment<K, V> s, int capacity, int maxBatchSize, float batchThresholdFactor) {
+         this.segment = s;
+         this.maximumSize = capacity;
+         this.maxWindowSize = Math.max(1, (int) (capacity * WINDOW_PERCENTAGE));
+         this.maxProtectedSize = (int) ((capacity - maxWindowSize) * PROTECTED_PERCENTAGE);
+         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
+         this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
+         this.accessQueue = new ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>>();
+         this.evicted = new HashSet<HashEntry<K, V>>();
+         this.sketch = new FrequencySketch(capacity);
+         this.window = newSentinel();
+         this.probation = newSentinel();
+         this.protectedRegion = newSentinel();
+      }
+
+      private static <K, V> TinyLFUHashEntry<K, V> newSentinel() {
+         TinyLFUHashEntry<K, V> sentinel = new TinyLFUHashEntry<K, V>(null, -1, null, null);
+         sentinel.previousEntry = sentinel.nextEntry = sentinel;
+         return sentinel;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> execute() {
+         TinyLFUHashEntry<K, V> e;
+         while ((e = accessQueue.poll()) != null) {
+            accessQueueSize.decrementAndGet();
+            onAccess(e);
+         }
+         // the caller may add further evicted entries to the returned set
+         Set<HashEntry<K, V>> evictedCopy = new HashSet<HashEntry<K, V>>(evicted);
+         evicted.clear();
+         return evictedCopy;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> e) {
+         TinyLFUHashEntry<K, V> entry = (TinyLFUHashEntry<K, V>) e;
+         link(entry, TinyLFURegion.WINDOW);
+         sketch.increment(entry.hash);
+         evictEntries();
+         return drainEvicted();
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean onEntryHit(HashEntry<K, V> e) {
+         accessQueue.add((TinyLFUHashEntry<K, V>) e);
+         int sz = accessQueueSize.incrementAndGet();
+         return sz >= batchQueueSizeThreshold;
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean thresholdExpired() {
+         return accessQueueSize.get() >= maxBatchQueueSize;
+      }
+
+      @Override
+      public void onEntryRemove(HashEntry<K, V> e) {
+         // entries still in the access queue are skipped once unlinked
+         unlink((TinyLFUHashEntry<K, V>) e);
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) oldEntry;
+         TinyLFUHashEntry<K, V> copy = (TinyLFUHashEntry<K, V>) newEntry;
+         if (e.region == TinyLFURegion.NONE) {
+            return;
+         }
+         // the copy takes the place of the entry in its region
+         copy.addBefore(e.nextEntry);
+         e.unlink();
+         copy.region = e.region;
+         e.region = TinyLFURegion.NONE;
+      }
+
+      @Override
+      public void clear() {
+         window.previousEntry = window.nextEntry = window;
+         probation.previousEntry = probation.nextEntry = probation;
+         protectedRegion.previousEntry = protectedRegion.nextEntry = protectedRegion;
+         windowSize = probationSize = protectedSize = 0;
+         accessQueue.clear();
+         accessQueueSize.set(0);
+         sketch.clear();
+      }
+
+      @Override
+      public Eviction strategy() {
+         return Eviction.TINY_LFU;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToMemoryLimit() {
+         while (segment.isAboveMemoryLimit() && size() > 1) {
+            evict(eldest());
+         }
+         return drainEvicted();
+      }
+
+      @Override
+      public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         return new TinyLFUHashEntry<K, V>(key, hash, next, value);
+      }
+
+      private int size() {
+         return windowSize + probationSize + protectedSize;
+      }
+
+      private void onAccess(TinyLFUHashEntry<K, V> e) {
+         if (e.region == TinyLFURegion.NONE) {
+            // removed since it was accessed
+            return;
+         }
+         sketch.increment(e.hash);
+         if (e.region == TinyLFURegion.PROBATION) {
+            // accessed again after being admitted, so promote it
+            unlink(e);
+            link(e, TinyLFURegion.PROTECTED);
+            while (protectedSize > maxProtectedSize) {
+               TinyLFUHashEntry<K, V> demoted = protectedRegion.nextEntry;
+               unlink(demoted);
+               link(demoted, TinyLFURegion.PROBATION);
+            }
+         } else {
+            TinyLFURegion region = e.region;
+            unlink(e);
+            link(e, region);
+         }
+      }
+
+      private void evictEntries() {
+         while (windowSize > maxWindowSize) {
+            TinyLFUHashEntry<K, V> candidate = window.nextEntry;
+            if (size() <= maximumSize) {
+               // there is still room in the main space
+               unlink(candidate);
+               link(candidate, TinyLFURegion.PROBATION);
+               continue;
+            }
+            TinyLFUHashEntry<K, V> victim = probationSize > 0 ? probation.nextEntry : protectedRegion.nextEntry;
+            if (victim.region != TinyLFURegion.NONE
+                  && sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+               evict(victim);
+               // evicting may have replaced the candidate with a copy, still at the head of the window
+               candidate = window.nextEntry;
+               unlink(candidate);
+               link(candidate, TinyLFURegion.PROBATION);
+            } else {
+               evict(candidate);
+            }
+         }
+         while (size() > maximumSize) {
+            evict(eldest());
+         }
+      }
+
+      /**
+       * @return the entry the policy would evict first
+       */
+      private TinyLFUHashEntry<K, V> eldest() {
+         if (probationSize > 0) {
+            return probation.nextEntry;
+         } else if (protectedSize > 0) {
+            return protectedRegion.nextEntry;
+         } else {
+            return window.nextEntry;
+         }
+      }
+
+      private void evict(TinyLFUHashEntry<K, V> e) {
+         // unlinks the entry through onEntryRemove
+         segment.remove(e.key, e.hash, null, true);
+         if (e.region != TinyLFURegion.NONE) {
+            // the segment no longer holds a mapping for it
+            unlink(e);
+         }
+         evicted.add(e);
+      }
+
+      private void link(TinyLFUHashEntry<K, V> e, TinyLFURegion region) {
+         switch (region) {
+            case WINDOW:
+               e.addBefore(window);
+               windowSize++;
+               break;
+            case PROBATION:
+               e.addBefore(probation);
+               probationSize++;
+               break;
+            case PROTECTED:
+               e.addBefore(protectedRegion);
+               protectedSize++;
+               break;
+            default:
+               throw new IllegalArgumentException("Cannot link to " + region);
+         }
+         e.region = region;
+      }
+
+      private void unlink(TinyLFUHashEntry<K, V> e) {
+         switch (e.region) {
+            case WINDOW:
+               windowSize--;
+               break;
+            case PROBATION:
+               probationSize--;
+               break;
+            case PROTECTED:
+               protectedSize--;
+               break;
+            default:
+               return;
+         }
+         e.unlink();
+         e.region = TinyLFURegion.NONE;
+      }
+
+      private Set<HashEntry<K, V>> drainEvicted() {
+         if (evicted.isEmpty()) {
+            return InfinispanCollections.emptySet();
+         }
+         Set<HashEntry<K, V>> evictedCopy = new HashSet<HashEntry<K, V>>(evicted);
+         evicted.clear();
+         return evictedCopy;
+      }
+   }
+
    /**
     * Segments are specialized versions of hash tables.  This
     * subclasses from ReentrantLock opportunistically, just to
@@ -1390,6 +1925,12 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
 
       transient final BoundedConcurrentHashMap map;
 
+      /**
+       * The estimated footprint, in bytes, of the entries in this segment. Only maintained if the map is bounded
+       * by memory.
+       */
+      transient volatile long memoryInUse;
+
       Segment(int cap, float lf, Eviction es, BoundedConcurrentHashMap map) {
          this.map = map;
          loadFactor = lf;
@@ -1406,6 +1947,43 @@ EvictionListener<K, V> getEvictionListener() {
          return map.evictionListener;
       }
 
+      boolean isAboveMemoryLimit() {
+         return map.evictMemoryCap > 0 && memoryInUse > map.evictMemoryCap;
+      }
+
+      /**
+       * Recomputes the estimated size of an entry after its value has been set and adjusts the memory in use.
+       * Call only while holding lock.
+       */
+      @SuppressWarnings("unchecked")
+      private void updateMemorySize(HashEntry<K, V> e) {
+         if (map.sizeCalculator != null) {
+            long size = map.sizeCalculator.calculateSize(e.key, e.value);
+            int newSize = size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+            memoryInUse += newSize - e.memorySize;
+            e.memorySize = newSize;
+         }
+      }
+
+      /**
+       * Evicts entries until this segment is back within its memory budget. Call only while holding lock.
+       */
+      private Set<HashEntry<K, V>> trimToMemoryLimit(Set<HashEntry<K, V>> evicted) {
+         if (!isAboveMemoryLimit()) {
+            return evicted;
+         }
+         Set<HashEntry<K, V>> newlyEvicted = eviction.trimToMemoryLimit();
+         if (newlyEvicted.isEmpty()) {
+            return evicted;
+         } else if (evicted == null || evicted.isEmpty()) {
+            return newlyEvicted;
+         } else {
+            Set<HashEntry<K, V>> merged = new HashSet<HashEntry<K, V>>(evicted);
+            merged.addAll(newlyEvicted);
+            return merged;
+         }
+      }
+
       /**
        * Sets table to new HashEntry array.
        * Call only while holding lock or in constructor.
@@ -1516,9 +2094,11 @@ boolean replace(K key, int hash, V oldValue, V newValue) {
             if (e != null && map.valueEquivalence.equals(oldValue, e.value)) {
                replaced = true;
                e.value = newValue;
+               updateMemorySize(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToMemoryLimit(evicted);
             }
             return replaced;
          } finally {
@@ -1540,9 +2120,11 @@ V replace(K key, int hash, V newValue) {
             if (e != null) {
                oldValue = e.value;
                e.value = newValue;
+               updateMemorySize(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToMemoryLimit(evicted);
             }
             return oldValue;
          } finally {
@@ -1572,7 +2154,9 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                oldValue = e.value;
                if (!onlyIfAbsent) {
                   e.value = value;
+                  updateMemorySize(e);
                   eviction.onEntryHit(e);
+                  evicted = trimToMemoryLimit(evicted);
                }
             } else {
                oldValue = null;
@@ -1587,6 +2171,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                   }
                   // add a new entry
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  updateMemorySize(tab[index]);
                   // notify a miss
                   Set<HashEntry<K, V>> newlyEvicted = eviction.onEntryMiss(tab[index]);
                   if (!newlyEvicted.isEmpty()) {
@@ -1596,6 +2181,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                         evicted = newlyEvicted;
                      }
                   }
+                  evicted = trimToMemoryLimit(evicted);
                } else {
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
                }
@@ -1665,6 +2251,7 @@ void rehash() {
                      int k = p.hash & sizeMask;
                      HashEntry<K,V> n = newTable[k];
                      newTable[k] = eviction.createNewEntry(p.key, p.hash, n, p.value);
+                     newTable[k].memorySize = p.memorySize;
                   }
                }
             }
@@ -1708,15 +2295,16 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
 
                   HashEntry<K, V> newFirst = e.next;
                   for (HashEntry<K, V> p = first; p != e; p = p.next) {
-                     // TODO A remove operation makes the map behave like all the other keys in the bucket were just added???
-                     // allow p to be GC-ed
-                     eviction.onEntryRemove(p);
                      newFirst = eviction.createNewEntry(p.key, p.hash, newFirst, p.value);
-                     // and notify eviction algorithm about new hash entries
-                     eviction.onEntryMiss(newFirst);
+                     newFirst.memorySize = p.memorySize;
+                     // the copy takes over p in the eviction order, allowing p to be GC-ed
+                     eviction.onEntryReplaced(p, newFirst);
                   }
 
                   tab[index] = newFirst;
+                  if (map.sizeCalculator != null) {
+                     memoryInUse -= e.memorySize;
+                  }
                   count = c; // write-volatile
                }
             }
@@ -1750,6 +2338,7 @@ void clear() {
                }
                ++modCount;
                eviction.clear();
+               memoryInUse = 0;
                count = 0; // write-volatile
             } finally {
                unlock();
@@ -1832,6 +2421,41 @@ private void notifyEvictionListener(Set<HashEntry<K, V>> evicted) {
    public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
          Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
+      this(capacity, -1, concurrencyLevel, evictionStrategy, evictionListener, null, keyEquivalence, valueEquivalence);
+   }
+
+   /**
+    * Creates a new, empty map bounded both by the number of elements and by their estimated memory footprint.
+    * Entries are evicted, in the order dictated by the eviction strategy, as soon as either bound is exceeded.
+    *
+    * @param capacity
+    *            is the upper bound capacity for the number of elements in this map
+    *
+    * @param maxMemory
+    *            is the upper bound, in bytes, for the estimated footprint of the elements in this map as reported
+    *            by the sizeCalculator. Zero or a negative value disables the memory bound.
+    *
+    * @param concurrencyLevel
+    *            the estimated number of concurrently updating threads. The implementation performs
+    *            internal sizing to try to accommodate this many threads.
+    *
+    * @param evictionStrategy
+    *            the algorithm used to evict elements from this map
+    *
+    * @param evictionListener
+    *            the evicton listener callback to be notified about evicted elements
+    *
+    * @param sizeCalculator
+    *            estimates the footprint of each mapping; required if maxMemory is positive
+    *
+    * @throws IllegalArgumentException
+    *             if the initial capacity is negative or the load factor or concurrencyLevel are
+    *             nonpositive, or if the memory bound is used without an eviction strategy or size calculator.
+    */
+   public BoundedConcurrentHashMap(int capacity, long maxMemory, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
+         EntrySizeCalculator<? super K, ? super V> sizeCalculator,
+         Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
 
@@ -1853,6 +2477,13 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
 
       this.evictionListener = evictionListener;
 
+      if (maxMemory > 0 && (sizeCalculator == null || evictionStrategy == Eviction.NONE)) {
+         throw new IllegalArgumentException("A memory bound requires both an eviction strategy and a size calculator");
+      }
+
+      this.maxMemory = maxMemory > 0 ? maxMemory : -1;
+      this.sizeCalculator = maxMemory > 0 ? sizeCalculator : null;
+
       if (concurrencyLevel > MAX_SEGMENTS) {
          concurrencyLevel = MAX_SEGMENTS;
       }
@@ -1878,6 +2509,7 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
       }
 
       this.evictCap = c;
+      this.evictMemoryCap = maxMemory > 0 ? Math.max(maxMemory / ssize, 1) : -1;
 
       for (int i = 0; i < this.segments.length; ++i) {
          this.segments[i] = new Segment<K, V>(cap, DEFAULT_LOAD_FACTOR, evictionStrategy, this);
@@ -1951,6 +2583,32 @@ public BoundedConcurrentHashMap(Equivalence<K> keyEquivalence, Equivalence<V> va
       this(DEFAULT_MAXIMUM_CAPACITY, DEFAULT_CONCURRENCY_LEVEL, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Returns the estimated footprint, in bytes, of the entries in this map. The value is only maintained when the
+    * map is bounded by memory; otherwise -1 is returned.
+    *
+    * @return the estimated memory in use, or -1 if this map is not bounded by memory
+    */
+   public long memoryInUse() {
+      if (sizeCalculator == null) {
+         return -1;
+      }
+      long sum = 0;
+      for (Segment<K, V> segment : segments) {
+         sum += segment.memoryInUse;
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the maximum estimated footprint, in bytes, allowed for the entries in this map.
+    *
+    * @return the memory bound, or -1 if this map is not bounded by memory
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
    /**
     * Returns <tt>true</tt> if this map contains no key-value mappings.
     *
@@ -4,7 +4,10 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -173,6 +176,50 @@ public void acquireAllLocks(List<Object> keys, boolean exclusive) {
     }
    }
 
+   /**
+    * Acquires the locks of all the keys passed in, in the order of the shared locks rather than in the order of the
+    * keys, so that two threads locking overlapping sets of keys cannot deadlock. Each shared lock is only acquired
+    * once, even if several keys map to it. The locks must be released with {@link #releaseOrderedLocks(Collection)}.
+    *
+    * @param keys      keys to lock
+    * @param exclusive whether locks are exclusive.
+    */
+   public void acquireOrderedLocks(Collection<?> keys, boolean exclusive) {
+      for (int index : lockIndexes(keys)) {
+         if (exclusive) {
+            sharedLocks[index].writeLock().lock();
+         } else {
+            sharedLocks[index].readLock().lock();
+         }
+      }
+      if (trace) log.tracef("%s acquired for %d keys", exclusive ? "WL" : "RL", keys.size());
+   }
+
+   /**
+    * Releases the locks acquired by {@link #acquireOrderedLocks(Collection, boolean)} for the same keys.
+    *
+    * @param keys keys to unlock
+    */
+   public void releaseOrderedLocks(Collection<?> keys) {
+      for (int index : lockIndexes(keys)) {
+         ReentrantReadWriteLock lock = sharedLocks[index];
+         if (lock.isWriteLockedByCurrentThread()) {
+            lock.writeLock().unlock();
+         } else {
+            lock.readLock().unlock();
+         }
+      }
+      if (trace) log.tracef("Locks released for %d keys", keys.size());
+   }
+
+   private SortedSet<Integer> lockIndexes(Collection<?> keys) {
+      SortedSet<Integer> indexes = new TreeSet<Integer>();
+      for (Object key : keys) {
+         indexes.add(hashToIndex(key));
+      }
+      return indexes;
+   }
+
    /**
     * Returns the total number of locks held by this class.
     */
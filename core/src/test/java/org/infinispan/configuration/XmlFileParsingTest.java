@@ -505,6 +505,7 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertTrue(c.loaders().preload());
       assertTrue(!c.loaders().passivation());
       assertTrue(!c.loaders().shared());
+      assertEquals(3, c.loaders().parallelism());
       assertEquals(1, c.loaders().cacheLoaders().size());
 
       FileCacheStoreConfiguration loaderCfg = (FileCacheStoreConfiguration) c.loaders().cacheLoaders().get(0);
@@ -521,6 +522,8 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertEquals(15000, loaderCfg.async().flushLockTimeout());
       assertTrue(loaderCfg.async().enabled());
       assertEquals(700, loaderCfg.async().modificationQueueSize());
+      assertEquals(50, loaderCfg.async().batchSize());
+      assertEquals(10, loaderCfg.async().batchDelay());
 
       c = cm.getCacheConfiguration("withClusterLoader");
       assertEquals(1, c.loaders().cacheLoaders().size());
@@ -0,0 +1,132 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.DefaultTimeService;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests {@link ExpirationIndex} and its use by {@link DefaultDataContainer#purgeExpired()}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "container.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+
+   public void testDrainOnlyDueBuckets() {
+      ExpirationIndex index = new ExpirationIndex(null, 100);
+      index.register("a", 50);
+      index.register("b", 150);
+      index.register("c", 199);
+      index.register("d", 1000);
+      assertEquals(3, index.bucketCount());
+
+      assertEquals(Arrays.<Object>asList("a"), index.drain(99));
+      // the bucket containing the current time is drained too
+      assertEquals(new HashSet<Object>(Arrays.asList("b", "c")), new HashSet<Object>(index.drain(150)));
+      assertTrue(index.drain(999 - 100).isEmpty());
+      assertEquals(1, index.bucketCount());
+      assertEquals(Arrays.<Object>asList("d"), index.drain(Long.MAX_VALUE));
+      assertEquals(0, index.bucketCount());
+   }
+
+   public void testKeyRegisteredOncePerBucket() {
+      ExpirationIndex index = new ExpirationIndex(null, 100);
+      index.register("a", 10);
+      index.register("a", 20);
+      index.register("a", 120);
+      assertEquals(Arrays.<Object>asList("a", "a"), index.drain(200));
+   }
+
+   public void testUnregister() {
+      ExpirationIndex index = new ExpirationIndex(null, 100);
+      index.register("a", 10);
+      index.register("b", 20);
+      index.register("c", 150);
+      index.unregister("a", 10);
+      // the bucket is left empty and dropped
+      index.unregister("c", 150);
+      assertEquals(1, index.bucketCount());
+      // a different bucket, nothing to unregister
+      index.unregister("b", 120);
+      assertEquals(Arrays.<Object>asList("b"), index.drain(Long.MAX_VALUE));
+   }
+
+   public void testRemovedAndReplacedEntriesUnregistered() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      DefaultDataContainer dc = new DefaultDataContainer(16, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(timeService);
+      dc.initialize(null, null, internalEntryFactory, null, null, timeService);
+
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, "v", new EmbeddedMetadata.Builder().lifespan(1, TimeUnit.DAYS).build());
+      }
+      dc.put("replaced", "v", new EmbeddedMetadata.Builder().lifespan(1, TimeUnit.DAYS).build());
+      dc.put("replaced", "v2", new EmbeddedMetadata.Builder().lifespan(2, TimeUnit.DAYS).build());
+      assertEquals(2, dc.expirationIndex().bucketCount());
+      for (int i = 0; i < 100; i++) {
+         dc.remove("k" + i);
+      }
+      assertEquals(1, dc.expirationIndex().bucketCount());
+      assertEquals(Arrays.<Object>asList("replaced"), dc.expirationIndex().drain(Long.MAX_VALUE));
+   }
+
+   public void testPurgeOnlyVisitsDueEntries() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      DefaultDataContainer dc = new DefaultDataContainer(16, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(timeService);
+      dc.initialize(null, null, internalEntryFactory, null, null, timeService);
+
+      dc.put("immortal", "v", new EmbeddedMetadata.Builder().build());
+      dc.put("mortal", "v", new EmbeddedMetadata.Builder().lifespan(10, TimeUnit.SECONDS).build());
+      dc.put("transient", "v", new EmbeddedMetadata.Builder().maxIdle(10, TimeUnit.SECONDS).build());
+      dc.put("renewed", "v", new EmbeddedMetadata.Builder().lifespan(10, TimeUnit.SECONDS).build());
+      dc.put("renewed", "v2", new EmbeddedMetadata.Builder().lifespan(60, TimeUnit.SECONDS).build());
+
+      timeService.advance(5000);
+      // touching the transient entry doesn't update the index, it's checked again when its first expiry time is due
+      assertNotNull(dc.get("transient"));
+      dc.purgeExpired();
+      assertEquals(4, dc.size());
+
+      timeService.advance(6000);
+      dc.purgeExpired();
+      assertEquals(3, dc.size());
+      assertNull(dc.peek("mortal"));
+      assertNotNull(dc.peek("transient"));
+      assertNotNull(dc.peek("renewed"));
+
+      timeService.advance(5000);
+      dc.purgeExpired();
+      assertNull(dc.peek("transient"));
+      assertEquals(2, dc.size());
+
+      timeService.advance(60000);
+      dc.purgeExpired();
+      assertNull(dc.peek("renewed"));
+      assertNotNull(dc.peek("immortal"));
+      assertEquals(1, dc.size());
+   }
+
+   private static class ControlledTimeService extends DefaultTimeService {
+      private long now = 1000000;
+
+      @Override
+      public long wallClockTime() {
+         return now;
+      }
+
+      void advance(long millis) {
+         now += millis;
+      }
+   }
+}
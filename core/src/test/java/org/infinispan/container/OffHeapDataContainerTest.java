@@ -0,0 +1,150 @@
+package org.infinispan.container;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends SimpleDataContainerTest {
+
+   @Override
+   protected DataContainer createContainer() {
+      OffHeapDataContainer dc = new OffHeapDataContainer();
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(new TestObjectStreamMarshaller(), internalEntryFactory, TIME_SERVICE, null, null, null,
+                    new ConfigurationBuilder().build());
+      return dc;
+   }
+
+   /**
+    * Entries are copied out of native memory on every read, so the last used stamp is checked on a fresh copy.
+    */
+   @Override
+   public void testUpdatingLastUsed() throws Exception {
+      long idle = 600000;
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(idle, TimeUnit.MILLISECONDS).build());
+      InternalCacheEntry ice = dc.get("k");
+      assert ice.getClass().equals(transienttype());
+      assert ice.getMaxIdle() == idle;
+      long oldTime = System.currentTimeMillis();
+      Thread.sleep(100); // for time calc granularity
+      ice = dc.get("k");
+      assert ice.getLastUsed() > oldTime;
+      Thread.sleep(100); // for time calc granularity
+      assert dc.peek("k").getLastUsed() == ice.getLastUsed();
+   }
+
+   public void testNativeMemoryReleased() {
+      OffHeapDataContainer container = (OffHeapDataContainer) dc;
+      assertEquals(0, container.memoryInUse());
+      dc.put("k1", new byte[1024], new EmbeddedMetadata.Builder().build());
+      dc.put("k2", new byte[1024], new EmbeddedMetadata.Builder().build());
+      long twoEntries = container.memoryInUse();
+      assertTrue(twoEntries > 2048);
+      dc.remove("k2");
+      assertTrue(container.memoryInUse() < twoEntries);
+      assertNull(dc.get("k2"));
+      dc.put("k1", new byte[4096], new EmbeddedMetadata.Builder().build());
+      assertTrue(container.memoryInUse() > twoEntries);
+      assertEquals(4096, ((byte[]) dc.get("k1").getValue()).length);
+      dc.clear();
+      assertEquals(0, container.memoryInUse());
+   }
+
+   public void testMemoryBoundedEviction() {
+      long maxMemory = 16 * 1024;
+      EvictionManager evictionManager = mock(EvictionManager.class);
+      OffHeapDataContainer container = new OffHeapDataContainer();
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.eviction().strategy(EvictionStrategy.LRU).maxEntries(1000).maxMemory(maxMemory)
+            .locking().concurrencyLevel(1);
+      container.initialize(new TestObjectStreamMarshaller(), internalEntryFactory, TIME_SERVICE, evictionManager,
+                           mock(PassivationManager.class), mock(ActivationManager.class), builder.build());
+      try {
+         assertEquals(maxMemory, container.maxMemory());
+         container.put("k0", new byte[1024], new EmbeddedMetadata.Builder().build());
+         for (int i = 1; i < 100; i++) {
+            container.put("k" + i, new byte[1024], new EmbeddedMetadata.Builder().build());
+            // keep the first entry recently used
+            assertNotNull(container.get("k0"));
+            assertTrue("Memory in use " + container.memoryInUse() + " exceeds " + maxMemory,
+                       container.memoryInUse() <= maxMemory);
+         }
+         assertTrue("Expected entries to be evicted, size is " + container.size(), container.size() < 16);
+         // the least recently used entries are the victims
+         assertNotNull(container.peek("k0"));
+         assertNotNull(container.peek("k99"));
+         assertNull(container.peek("k1"));
+         verify(evictionManager, atLeastOnce()).onEntryEviction(anyMap());
+      } finally {
+         container.stop();
+      }
+      assertEquals(0, container.memoryInUse());
+   }
+
+   public void testStopReleasesNativeMemory() {
+      OffHeapDataContainer container = (OffHeapDataContainer) dc;
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, new byte[1024], new EmbeddedMetadata.Builder().build());
+      }
+      assertTrue(container.memoryInUse() > 100 * 1024);
+      container.stop();
+      assertEquals(0, container.memoryInUse());
+      assertEquals(0, dc.size());
+   }
+
+   public void testOverwriteKeepsLastUsed() throws Exception {
+      long idle = 600000;
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(idle, TimeUnit.MILLISECONDS).build());
+      long lastUsed = dc.peek("k").getLastUsed();
+      Thread.sleep(100); // for time calc granularity
+      dc.put("k", "v2", new EmbeddedMetadata.Builder().maxIdle(idle, TimeUnit.MILLISECONDS).build());
+      // as in the heap based container, the transient entry is updated rather than re-created
+      assertEquals(lastUsed, dc.peek("k").getLastUsed());
+      assertEquals("v2", dc.peek("k").getValue());
+   }
+
+   public void testIterationDuringRehash() {
+      for (int i = 0; i < 10; i++) {
+         dc.put("k" + i, "v", new EmbeddedMetadata.Builder().build());
+      }
+      Iterator<InternalCacheEntry> it = dc.iterator();
+      Set<Object> seen = new HashSet<Object>();
+      seen.add(it.next().getKey());
+      // resizes the tables while the iteration is in progress
+      for (int i = 10; i < 1000; i++) {
+         dc.put("k" + i, "v", new EmbeddedMetadata.Builder().build());
+      }
+      while (it.hasNext()) {
+         Object key = it.next().getKey();
+         assertTrue("Returned twice: " + key, seen.add(key));
+      }
+      for (int i = 0; i < 10; i++) {
+         assertTrue("Not returned: k" + i, seen.contains("k" + i));
+      }
+   }
+}
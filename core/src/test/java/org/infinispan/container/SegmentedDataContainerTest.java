@@ -0,0 +1,82 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.ReplicatedConsistentHashFactory;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends SimpleDataContainerTest {
+
+   private static final int NUM_SEGMENTS = 20;
+
+   @Override
+   protected DataContainer createContainer() {
+      return createContainer(false);
+   }
+
+   private DefaultSegmentedDataContainer createContainer(boolean replicated) {
+      DefaultSegmentedDataContainer dc = new DefaultSegmentedDataContainer(16, NUM_SEGMENTS, new MurmurHash3(),
+            replicated, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(internalEntryFactory, TIME_SERVICE, null);
+      return dc;
+   }
+
+   public void testSegmentsMatchConsistentHash() {
+      List<Address> members = Arrays.<Address>asList(new TestAddress(0), new TestAddress(1), new TestAddress(2));
+      ConsistentHash dch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 2, NUM_SEGMENTS, members);
+      ConsistentHash rch = new ReplicatedConsistentHashFactory().create(new MurmurHash3(), 2, NUM_SEGMENTS, members);
+      DefaultSegmentedDataContainer distContainer = createContainer(false);
+      DefaultSegmentedDataContainer replContainer = createContainer(true);
+      for (int i = 0; i < 1000; i++) {
+         String key = "k" + i;
+         assertEquals(dch.getSegment(key), distContainer.getSegment(key));
+         assertEquals(rch.getSegment(key), replContainer.getSegment(key));
+      }
+   }
+
+   public void testSegmentIterationAndRemoval() {
+      DefaultSegmentedDataContainer container = (DefaultSegmentedDataContainer) dc;
+      for (int i = 0; i < 200; i++) {
+         container.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      int segment = container.getSegment("k0");
+      int segmentSize = container.size(segment);
+      assertTrue(segmentSize > 0);
+
+      int count = 0;
+      for (Iterator<InternalCacheEntry> it = container.iterator(Collections.singleton(segment)); it.hasNext(); ) {
+         assertEquals(segment, container.getSegment(it.next().getKey()));
+         count++;
+      }
+      assertEquals(segmentSize, count);
+
+      Set<Integer> removed = new HashSet<Integer>(Arrays.asList(segment));
+      container.removeSegments(removed);
+      assertEquals(0, container.size(segment));
+      assertEquals(200 - segmentSize, container.size());
+      assertFalse(container.containsKey("k0"));
+      for (InternalCacheEntry ice : container) {
+         assertTrue(segment != container.getSegment(ice.getKey()));
+      }
+   }
+}
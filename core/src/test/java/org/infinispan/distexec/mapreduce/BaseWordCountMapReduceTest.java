@@ -3,6 +3,8 @@
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.test.MultipleCacheManagersTest;
 import org.testng.AssertJUnit;
 import org.testng.annotations.Test;
@@ -195,6 +197,36 @@ public void testinvokeMapReduceOnAllKeysAsync() throws Exception {
       verifyResults(mapReduce);
    }
 
+   public void testinvokeMapReduceIntoResultsCache() throws Exception {
+      String resultsCacheName = defineResultsCache();
+      Map<String, Integer> expected = invokeMapReduce(null).execute();
+
+      MapReduceTask<String,String,String,Integer> task = invokeMapReduce(null);
+      task.execute(resultsCacheName);
+      Cache<String, Integer> results = cache(0, resultsCacheName);
+      for (Entry<String, Integer> e : expected.entrySet()) {
+         assertEquals(e.getValue(), results.get(e.getKey()));
+      }
+   }
+
+   public void testinvokeMapReduceIntoResultsCacheAsync() throws Exception {
+      String resultsCacheName = defineResultsCache();
+      MapReduceTask<String,String,String,Integer> task = invokeMapReduce(new String[]{"1", "2", "3"});
+      Future<Void> future = task.executeAsynchronously(resultsCacheName);
+      future.get();
+      Cache<String, Integer> results = cache(1, resultsCacheName);
+      assertEquals(Integer.valueOf(2), results.get("world"));
+      assertEquals(Integer.valueOf(1), results.get("Boston"));
+   }
+
+   protected String defineResultsCache() {
+      Configuration configuration = getDefaultClusteredCacheConfig(getCacheMode(), false).build();
+      for (EmbeddedCacheManager cm : cacheManagers) {
+         cm.defineConfiguration("mapreduceresults", configuration);
+      }
+      return "mapreduceresults";
+   }
+
    public void testinvokeMapReduceOnSubsetOfKeys() throws Exception {
       MapReduceTask<String,String,String,Integer> task = invokeMapReduce(new String[]{"1", "2", "3"});
       Map<String, Integer> mapReduce = task.execute();
@@ -0,0 +1,19 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.testng.annotations.Test;
+
+/**
+ * Maps the entries streamed from the cache store from several threads.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.ParallelMapTwoNodesWithCacheStoreMapReduceTest")
+public class ParallelMapTwoNodesWithCacheStoreMapReduceTest extends TwoNodesWithCacheStoreMapReduceTest {
+
+   @Override
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c) {
+      return new MapReduceTask<String, String, String, Integer>(c).mapParallelism(4);
+   }
+}
@@ -0,0 +1,157 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.DefaultTimeService;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests {@link SpillingCollector}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "distexec.mapreduce.SpillingCollectorTest")
+public class SpillingCollectorTest extends AbstractInfinispanTest {
+
+   public void testSpillAndMerge() {
+      SpillingCollector<Object, Integer> collector = newCollector(null, 10);
+      try {
+         for (int i = 0; i < 100; i++) {
+            collector.emit("k" + (i % 7), i);
+            // keys with the same hash code are grouped by equality
+            collector.emit(new CollidingKey(i % 3), i);
+         }
+         assertTrue(collector.getRunCount() > 1);
+         assertTrue(collector.getSpilledBytes() > 0);
+
+         Map<Object, List<Integer>> groups = readGroups(collector);
+         assertEquals(10, groups.size());
+         for (int k = 0; k < 7; k++) {
+            List<Integer> values = groups.get("k" + k);
+            Collections.sort(values);
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = k; i < 100; i += 7) {
+               expected.add(i);
+            }
+            assertEquals(expected, values);
+         }
+         assertEquals(34, groups.get(new CollidingKey(0)).size());
+         assertEquals(33, groups.get(new CollidingKey(2)).size());
+      } finally {
+         collector.close();
+      }
+   }
+
+   public void testCombineOnEmit() {
+      SpillingCollector<Object, Integer> collector = newCollector(new SumReducer(), 0);
+      for (int i = 0; i < 1000; i++) {
+         collector.emit("k", 1);
+      }
+      Map<Object, List<Integer>> groups = readGroups(collector);
+      List<Integer> values = groups.get("k");
+      assertTrue(values.size() < SpillingCollector.COMBINE_BATCH_SIZE);
+      assertEquals(1000, sum(values));
+      assertEquals(0, collector.getRunCount());
+      collector.close();
+   }
+
+   public void testCombineBeforeSpill() {
+      SpillingCollector<Object, Integer> collector = newCollector(new SumReducer(), 3);
+      try {
+         for (int i = 0; i < 100; i++) {
+            collector.emit("k" + (i % 2), 1);
+         }
+         Map<Object, List<Integer>> groups = readGroups(collector);
+         assertEquals(50, sum(groups.get("k0")));
+         assertEquals(50, sum(groups.get("k1")));
+      } finally {
+         collector.close();
+      }
+   }
+
+   public void testAddAll() {
+      SpillingCollector<Object, Integer> first = newCollector(null, 5);
+      SpillingCollector<Object, Integer> second = newCollector(null, 5);
+      try {
+         for (int i = 0; i < 20; i++) {
+            first.emit("k", i);
+            second.emit("k", i);
+         }
+         second.emit("other", 1);
+         first.addAll(second);
+         assertEquals(0, second.getRunCount());
+
+         Map<Object, List<Integer>> groups = readGroups(first);
+         assertEquals(40, groups.get("k").size());
+         assertEquals(Collections.singletonList(1), groups.get("other"));
+      } finally {
+         first.close();
+         second.close();
+      }
+   }
+
+   private SpillingCollector<Object, Integer> newCollector(Reducer<Object, Integer> combiner, int maxValues) {
+      return new SpillingCollector<Object, Integer>(combiner, maxValues, new TestObjectStreamMarshaller(),
+                                                    "SpillingCollectorTest", new DefaultTimeService());
+   }
+
+   private Map<Object, List<Integer>> readGroups(SpillingCollector<Object, Integer> collector) {
+      Map<Object, List<Integer>> groups = new HashMap<Object, List<Integer>>();
+      Iterator<Map.Entry<Object, List<Integer>>> it = collector.groups();
+      while (it.hasNext()) {
+         Map.Entry<Object, List<Integer>> e = it.next();
+         assertFalse("Key returned twice: " + e.getKey(), groups.containsKey(e.getKey()));
+         groups.put(e.getKey(), new ArrayList<Integer>(e.getValue()));
+      }
+      return groups;
+   }
+
+   private static int sum(List<Integer> values) {
+      int sum = 0;
+      for (Integer value : values) {
+         sum += value;
+      }
+      return sum;
+   }
+
+   private static class SumReducer implements Reducer<Object, Integer> {
+      @Override
+      public Integer reduce(Object key, Iterator<Integer> iter) {
+         int sum = 0;
+         while (iter.hasNext()) {
+            sum += iter.next();
+         }
+         return sum;
+      }
+   }
+
+   private static class CollidingKey implements Serializable {
+      private final int id;
+
+      CollidingKey(int id) {
+         this.id = id;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+      }
+
+      @Override
+      public int hashCode() {
+         return 42;
+      }
+   }
+}
@@ -0,0 +1,19 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.testng.annotations.Test;
+
+/**
+ * Spills the intermediate values of the map phase to disk after every few values.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.SpillingTwoNodesMapReduceTest")
+public class SpillingTwoNodesMapReduceTest extends DistributedTwoNodesMapReduceTest {
+
+   @Override
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c) {
+      return super.createMapReduceTask(c).maxCollectorSize(3);
+   }
+}
@@ -0,0 +1,123 @@
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.EntryProcessor;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that {@link org.infinispan.AdvancedCache#invoke(Object, EntryProcessor)} runs the processor once, on the
+ * primary owner, and applies its changes on all the owners.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistEntryProcessorTest")
+public class DistEntryProcessorTest extends BaseDistFunctionalTest {
+
+   // the caches run in the same JVM, so the processors can count their invocations
+   private static final AtomicInteger invocations = new AtomicInteger();
+
+   public DistEntryProcessorTest() {
+      sync = true;
+      tx = false;
+      testRetVals = true;
+   }
+
+   public void testUpdateFromNonOwner() {
+      String key = "update";
+      c1.put(key, "v");
+      invocations.set(0);
+
+      String previous = getFirstNonOwner(key).getAdvancedCache().invoke(key, new AppendProcessor("-1"));
+      assertEquals("v", previous);
+      assertEquals(1, invocations.get());
+      assertOnAllCachesAndOwnership(key, "v-1");
+   }
+
+   public void testCreateFromOwner() {
+      String key = "create";
+      invocations.set(0);
+
+      assertNull(getFirstOwner(key).getAdvancedCache().invoke(key, new AppendProcessor("-1")));
+      assertEquals(1, invocations.get());
+      assertOnAllCachesAndOwnership(key, "-1");
+   }
+
+   public void testRemove() {
+      String key = "remove";
+      c1.put(key, "v");
+
+      Boolean existed = getSecondNonOwner(key).getAdvancedCache().invoke(key, new RemoveProcessor());
+      assertEquals(Boolean.TRUE, existed);
+      for (Cache<Object, String> c : caches) {
+         assertNull(c.getAdvancedCache().getDataContainer().get(key));
+      }
+      assertRemovedOnAllCaches(key);
+   }
+
+   public void testReadOnlyProcessorDoesNotWrite() {
+      String key = "read";
+      c1.put(key, "v");
+
+      assertEquals("v", getFirstNonOwner(key).getAdvancedCache().invoke(key, new ReadProcessor()));
+      assertOnAllCachesAndOwnership(key, "v");
+   }
+
+   public void testExceptionDiscardsChanges() {
+      String key = "exception";
+      c1.put(key, "v");
+
+      try {
+         getFirstNonOwner(key).getAdvancedCache().invoke(key, new FailingProcessor());
+         fail("The processor exception should have been thrown");
+      } catch (RuntimeException expected) {
+      }
+      assertOnAllCachesAndOwnership(key, "v");
+   }
+
+   public static class AppendProcessor implements EntryProcessor<Object, String, String>, Serializable {
+      private final String suffix;
+
+      public AppendProcessor(String suffix) {
+         this.suffix = suffix;
+      }
+
+      @Override
+      public String process(MutableEntry<Object, String> entry) {
+         invocations.incrementAndGet();
+         String value = entry.getValue();
+         entry.setValue(value == null ? suffix : value + suffix);
+         return value;
+      }
+   }
+
+   public static class RemoveProcessor implements EntryProcessor<Object, String, Boolean>, Serializable {
+      @Override
+      public Boolean process(MutableEntry<Object, String> entry) {
+         boolean exists = entry.exists();
+         entry.remove();
+         return exists;
+      }
+   }
+
+   public static class ReadProcessor implements EntryProcessor<Object, String, String>, Serializable {
+      @Override
+      public String process(MutableEntry<Object, String> entry) {
+         return entry.getValue();
+      }
+   }
+
+   public static class FailingProcessor implements EntryProcessor<Object, String, String>, Serializable {
+      @Override
+      public String process(MutableEntry<Object, String> entry) {
+         entry.setValue("changed");
+         throw new IllegalStateException("Processor failure");
+      }
+   }
+}
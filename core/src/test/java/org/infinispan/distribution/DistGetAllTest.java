@@ -0,0 +1,78 @@
+package org.infinispan.distribution;
+
+import org.infinispan.context.Flag;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that {@link org.infinispan.AdvancedCache#getAll(java.util.Set)} fetches the keys owned by other nodes and
+ * caches them in L1.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistGetAllTest")
+public class DistGetAllTest extends BaseDistFunctionalTest {
+
+   private static final int NUM_KEYS = 100;
+
+   public DistGetAllTest() {
+      sync = true;
+      tx = false;
+      testRetVals = true;
+   }
+
+   public void testGetAll() {
+      Map<Object, String> data = putData("getAll");
+
+      Set<Object> keys = new HashSet<Object>(data.keySet());
+      keys.add("getAll-missing");
+      assertEquals(data, c1.getAdvancedCache().getAll(keys));
+
+      for (Object key : data.keySet()) {
+         if (!isOwner(c1, key)) {
+            assertIsInL1(c1, key);
+         }
+      }
+      // Served from L1 and from the local data container
+      assertEquals(data, c1.getAdvancedCache().getAll(keys));
+   }
+
+   public void testGetAllAsync() throws Exception {
+      Map<Object, String> data = putData("getAllAsync");
+      Map<Object, String> values = c2.getAdvancedCache().getAllAsync(data.keySet()).get(10, TimeUnit.SECONDS);
+      assertEquals(data, values);
+   }
+
+   public void testGetAllSkipRemoteLookup() {
+      Map<Object, String> data = putData("skipRemoteLookup");
+      Map<Object, String> values = c3.getAdvancedCache().withFlags(Flag.SKIP_REMOTE_LOOKUP).getAll(data.keySet());
+      for (Object key : data.keySet()) {
+         if (isOwner(c3, key)) {
+            assertEquals(data.get(key), values.get(key));
+         } else {
+            assertTrue(!values.containsKey(key));
+         }
+      }
+   }
+
+   public void testGetAllEmpty() {
+      assertTrue(c4.getAdvancedCache().getAll(new HashSet<Object>()).isEmpty());
+   }
+
+   private Map<Object, String> putData(String prefix) {
+      Map<Object, String> data = new HashMap<Object, String>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         data.put(prefix + "-k" + i, prefix + "-v" + i);
+      }
+      c4.putAll(data);
+      return data;
+   }
+}
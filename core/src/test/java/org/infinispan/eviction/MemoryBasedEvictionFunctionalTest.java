@@ -0,0 +1,72 @@
+package org.infinispan.eviction;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests eviction bounded by the estimated memory footprint of the entries.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionFunctionalTest")
+public class MemoryBasedEvictionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 1000;
+   private static final long MAX_MEMORY = 64 * 1024;
+
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.LRU;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().maxEntries(MAX_ENTRIES).maxMemory(MAX_MEMORY).strategy(getEvictionStrategy())
+            .locking().concurrencyLevel(1);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testMemoryBoundHonoured() {
+      for (int i = 0; i < MAX_ENTRIES; i++) {
+         cache.put("key-" + i, new byte[1024]);
+      }
+      DefaultDataContainer dc = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      assertEquals(MAX_MEMORY, dc.maxMemory());
+      assertTrue("Memory in use " + dc.memoryInUse() + " exceeds " + MAX_MEMORY, dc.memoryInUse() <= MAX_MEMORY);
+      assertTrue("Expected entries to be evicted, size is " + dc.size(), dc.size() < MAX_MEMORY / 1024);
+      // the most recently written entry is never the victim
+      assertTrue(cache.containsKey("key-" + (MAX_ENTRIES - 1)));
+   }
+
+   public void testLargeValueEvictsSmallOnes() {
+      for (int i = 0; i < 100; i++) {
+         cache.put("small-" + i, new byte[128]);
+      }
+      DefaultDataContainer dc = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      int sizeBefore = dc.size();
+      cache.put("large", new byte[(int) (MAX_MEMORY / 2)]);
+      assertTrue(dc.size() < sizeBefore);
+      assertTrue(dc.memoryInUse() <= MAX_MEMORY);
+      assertTrue(cache.containsKey("large"));
+   }
+
+   public void testMemoryReleasedOnRemoveAndClear() {
+      cache.put("k1", new byte[1024]);
+      cache.put("k2", new byte[1024]);
+      DefaultDataContainer dc = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      long twoEntries = dc.memoryInUse();
+      cache.remove("k2");
+      assertTrue(dc.memoryInUse() < twoEntries);
+      cache.put("k1", new byte[4096]);
+      assertTrue(dc.memoryInUse() > twoEntries);
+      cache.clear();
+      assertEquals(0, dc.memoryInUse());
+   }
+}
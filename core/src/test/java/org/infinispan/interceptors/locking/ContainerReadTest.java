@@ -0,0 +1,108 @@
+package org.infinispan.interceptors.locking;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.InterceptorConfiguration.Position;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.interceptors.FooInterceptor;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.cachelistener.CacheListener;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.transaction.TransactionMode;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.transaction.TransactionManager;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests the reads served directly from the data container by the locking interceptors.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "interceptors.locking.ContainerReadTest")
+public class ContainerReadTest extends AbstractInfinispanTest {
+
+   private EmbeddedCacheManager cm;
+
+   @BeforeClass
+   public void setUp() {
+      cm = TestCacheManagerFactory.createCacheManager(false);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      TestingUtil.killCacheManagers(cm);
+      cm = null;
+   }
+
+   public void testReadFromContainer() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      // with repeatable read, a read going through the whole chain would return a wrapped entry
+      builder.locking().isolationLevel(IsolationLevel.REPEATABLE_READ);
+      cm.defineConfiguration("nonTx", builder.build());
+      Cache<String, String> cache = cm.getCache("nonTx");
+      cache.put("k", "v");
+      CacheListener listener = new CacheListener();
+      cache.addListener(listener);
+
+      CacheEntry entry = cache.getAdvancedCache().getCacheEntry("k");
+      assertSame(cache.getAdvancedCache().getDataContainer().peek("k"), entry);
+      assertEquals("v", cache.get("k"));
+      // visited notifications are still sent, before and after each read
+      assertEquals(4, listener.getInvocationCount());
+   }
+
+   public void testCustomInterceptorDisablesContainerReads() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.locking().isolationLevel(IsolationLevel.REPEATABLE_READ);
+      builder.customInterceptors().addInterceptor().interceptor(new FooInterceptor()).position(Position.LAST);
+      cm.defineConfiguration("customInterceptor", builder.build());
+      Cache<String, String> cache = cm.getCache("customInterceptor");
+      cache.put("k", "v");
+
+      CacheEntry entry = cache.getAdvancedCache().getCacheEntry("k");
+      assertNotSame(cache.getAdvancedCache().getDataContainer().peek("k"), entry);
+      assertEquals("v", entry.getValue());
+   }
+
+   public void testTransactionSeesItsOwnWrites() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL);
+      builder.locking().isolationLevel(IsolationLevel.READ_COMMITTED);
+      cm.defineConfiguration("tx", builder.build());
+      Cache<String, String> cache = cm.getCache("tx");
+      cache.put("k", "v1");
+
+      TransactionManager tm = cache.getAdvancedCache().getTransactionManager();
+      tm.begin();
+      try {
+         assertEquals("v1", cache.get("k"));
+         cache.put("k", "v2");
+         assertEquals("v2", cache.get("k"));
+      } finally {
+         tm.rollback();
+      }
+      assertEquals("v1", cache.get("k"));
+   }
+
+   public void testMissingKeyIsLoaded() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().addLoader(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .storeName(getClass().getSimpleName());
+      cm.defineConfiguration("loader", builder.build());
+      Cache<String, String> cache = cm.getCache("loader");
+      cache.put("k", "v");
+      cache.evict("k");
+      assertNull(cache.getAdvancedCache().getDataContainer().peek("k"));
+
+      assertEquals("v", cache.get("k"));
+      assertNotNull(cache.getAdvancedCache().getDataContainer().peek("k"));
+   }
+}
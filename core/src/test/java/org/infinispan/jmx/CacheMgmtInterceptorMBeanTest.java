@@ -10,6 +10,7 @@
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import javax.management.Attribute;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 import java.util.HashMap;
@@ -152,11 +153,41 @@ public void testRemoves() throws Exception {
       assertRemoveMisses(1);
    }
 
+   public void testLatencyHistograms() throws Exception {
+      assertAttributeValue("LatencyHistogramsEnabled", "false");
+      cache.put("key", "value");
+      assertAttributeValue("WriteTimeP50", 0);
+
+      server.setAttribute(mgmtInterceptor, new Attribute("LatencyHistogramsEnabled", true));
+      try {
+         assertAttributeValue("LatencyHistogramsEnabled", "true");
+         cache.put("key", "value");
+         cache.get("key");
+         cache.remove("key");
+         for (String operation : new String[]{"Read", "Write", "Remove"}) {
+            double median = (Double) server.getAttribute(mgmtInterceptor, operation + "TimeP50");
+            double p999 = (Double) server.getAttribute(mgmtInterceptor, operation + "TimeP999");
+            assert median > 0 : "Expected a " + operation + " latency, but received " + median;
+            assert p999 >= median;
+         }
+
+         resetStats();
+         assertAttributeValue("ReadTimeP50", 0);
+      } finally {
+         server.setAttribute(mgmtInterceptor, new Attribute("LatencyHistogramsEnabled", false));
+      }
+   }
+
    private void assertAttributeValue(String attrName, float expectedValue) throws Exception {
       String receivedVal = server.getAttribute(mgmtInterceptor, attrName).toString();
       assert Float.parseFloat(receivedVal) == expectedValue : "expecting " + expectedValue + " for " + attrName + ", but received " + receivedVal;
    }
 
+   private void assertAttributeValue(String attrName, String expectedValue) throws Exception {
+      String receivedVal = server.getAttribute(mgmtInterceptor, attrName).toString();
+      assert expectedValue.equals(receivedVal) : "expecting " + expectedValue + " for " + attrName + ", but received " + receivedVal;
+   }
+
    private void assertEvictions(float expectedValue) throws Exception {
       assertAttributeValue("Evictions", expectedValue);
       assert expectedValue == advanced.getStats().getEvictions();
@@ -12,12 +12,18 @@
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -32,8 +38,13 @@
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.modifications.Remove;
 import org.infinispan.loaders.modifications.Store;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.CacheLoaderTask;
+import org.infinispan.loaders.spi.AdvancedCacheLoader.TaskContext;
+import org.infinispan.loaders.spi.BatchSupport;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.CollectionKeyFilter;
 import org.infinispan.loaders.spi.LockSupportCacheStore;
+import org.infinispan.loaders.spi.ProcessingSupport;
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.core.MarshalledValue;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -42,6 +53,8 @@
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.transaction.xa.TransactionFactory;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -289,6 +302,28 @@ public void testOnePhaseCommit() throws CacheLoaderException {
       assert cs.containsKey("k3");
    }
 
+   public void testWriteBatch() throws CacheLoaderException {
+      cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+
+      List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>();
+      entries.add(TestInternalCacheEntryFactory.create("k2", "v2-new"));
+      entries.add(TestInternalCacheEntryFactory.create("k3", "v3"));
+      entries.add(TestInternalCacheEntryFactory.create("k4", "v4", 1000000));
+      BatchSupport.writeBatch(cs, entries, Arrays.<Object>asList("k1", "k5"));
+
+      assert !cs.containsKey("k1");
+      assert cs.load("k2").getValue().equals("v2-new");
+      assert cs.load("k3").getValue().equals("v3");
+      assert cs.load("k4").getValue().equals("v4");
+      assert !cs.containsKey("k5");
+
+      BatchSupport.writeBatch(cs, Collections.<InternalCacheEntry>emptyList(), Arrays.<Object>asList("k2", "k3", "k4"));
+      assert !cs.containsKey("k2");
+      assert !cs.containsKey("k3");
+      assert !cs.containsKey("k4");
+   }
+
    public void testTwoPhaseCommit() throws CacheLoaderException {
       List<Modification> mods = new ArrayList<Modification>();
       mods.add(new Store(TestInternalCacheEntryFactory.create("k1", "v1")));
@@ -534,6 +569,65 @@ public void testLoadKeys() throws CacheLoaderException {
       assert !s.contains("k3");
    }
 
+   public void testProcess() throws CacheLoaderException {
+      for (int i = 0; i < 20; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+
+      final Map<Object, Object> processed = new ConcurrentHashMap<Object, Object>();
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try {
+         ProcessingSupport.process(cs, null, new CacheLoaderTask() {
+            @Override
+            public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) {
+               assert processed.put(key, entry.getValue()) == null : "Key processed twice: " + key;
+            }
+         }, executor, true);
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertEquals(20, processed.size());
+      for (int i = 0; i < 20; i++) {
+         assertEquals("v" + i, processed.get("k" + i));
+      }
+   }
+
+   public void testProcessKeysWithFilter() throws CacheLoaderException {
+      cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      cs.store(TestInternalCacheEntryFactory.create("k3", "v3"));
+
+      final Set<Object> keys = new ConcurrentHashSet<Object>();
+      ProcessingSupport.process(cs, new CollectionKeyFilter(Collections.singleton("k2")), new CacheLoaderTask() {
+         @Override
+         public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) {
+            assert entry == null : "Values should not be fetched";
+            keys.add(key);
+         }
+      }, new WithinThreadExecutor(), false);
+
+      assertEquals(new HashSet<Object>(Arrays.asList("k1", "k3")), keys);
+   }
+
+   public void testProcessStop() throws CacheLoaderException {
+      for (int i = 0; i < 10; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+
+      final AtomicInteger count = new AtomicInteger();
+      ProcessingSupport.process(cs, null, new CacheLoaderTask() {
+         @Override
+         public void processEntry(Object key, InternalCacheEntry entry, TaskContext context) {
+            if (count.incrementAndGet() == 3) {
+               context.stop();
+            }
+         }
+      }, new WithinThreadExecutor(), true);
+
+      assertEquals(3, count.get());
+   }
+
    public void testStreamingAPI() throws IOException, CacheLoaderException {
       cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
       cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
@@ -0,0 +1,63 @@
+package org.infinispan.loaders;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests preloading a cache and passivating it on shutdown with several threads.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "loaders.ParallelPreloadTest")
+public class ParallelPreloadTest extends AbstractInfinispanTest {
+
+   private static final int NUM_ENTRIES = 5000;
+
+   public void testParallelPreload() {
+      doTest(false);
+   }
+
+   public void testParallelPassivationAndPreload() {
+      doTest(true);
+   }
+
+   private void doTest(boolean passivation) {
+      String storeName = getClass().getSimpleName() + (passivation ? "-passivation" : "-preload");
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(buildConfiguration(storeName, passivation));
+      try {
+         Cache<Object, Object> cache = cm.getCache();
+         for (int i = 0; i < NUM_ENTRIES; i++) {
+            cache.put("key" + i, "value" + i);
+         }
+      } finally {
+         // with passivation, the entries are only written to the store when the cache stops
+         TestingUtil.killCacheManagers(cm);
+      }
+
+      cm = TestCacheManagerFactory.createCacheManager(buildConfiguration(storeName, passivation));
+      try {
+         Cache<Object, Object> cache = cm.getCache();
+         assertEquals(NUM_ENTRIES, cache.getAdvancedCache().getDataContainer().size());
+         for (int i = 0; i < NUM_ENTRIES; i++) {
+            assertEquals("value" + i, cache.getAdvancedCache().getDataContainer().get("key" + i).getValue());
+         }
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+
+   private ConfigurationBuilder buildConfiguration(String storeName, boolean passivation) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().preload(true).passivation(passivation).parallelism(4)
+            .addLoader(DummyInMemoryCacheStoreConfigurationBuilder.class).storeName(storeName);
+      return builder;
+   }
+}
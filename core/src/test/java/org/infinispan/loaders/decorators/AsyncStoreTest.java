@@ -690,6 +690,62 @@ public void call() {
       });
    }
 
+   @Test(timeOut=10000)
+   public void testBatching() throws Exception {
+      DummyInMemoryCacheStoreConfigurationBuilder dummyCfg = TestCacheManagerFactory.getDefaultCacheConfiguration(false)
+            .loaders()
+               .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+                  .storeName(AsyncStoreTest.class.getName());
+      dummyCfg
+         .async()
+            .enable()
+            .batchSize(20)
+            .batchDelay(60000);
+      final AtomicInteger maxBatchSize = new AtomicInteger();
+      store = new AsyncStore(new DummyInMemoryCacheStore()) {
+         @Override
+         protected void applyModificationsSync(List<Modification> mods) throws CacheLoaderException {
+            if (mods.size() > maxBatchSize.get())
+               maxBatchSize.set(mods.size());
+            super.applyModificationsSync(mods);
+         }
+      };
+      store.init(dummyCfg.create(), getCache(), null);
+      store.start();
+
+      // less than a batch, nothing is flushed until the delay has elapsed
+      for (int i = 0; i < 10; i++)
+         store.store(TestInternalCacheEntryFactory.create("testBatching-k" + i, "testBatching-v" + i));
+      TestingUtil.sleepThread(200);
+      assert store.getFlushedBatches() == 0;
+      assert store.getQueueSize() == 10;
+
+      // a full batch is flushed right away
+      for (int i = 10; i < 50; i++)
+         store.store(TestInternalCacheEntryFactory.create("testBatching-k" + i, "testBatching-v" + i));
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return store.getQueueSize() < 20;
+         }
+      });
+
+      // the remaining modifications are flushed on stop
+      store.stop();
+      assert store.getQueueSize() == 0;
+      assert store.getFlushedModifications() == 50;
+      assert store.getFlushedBatches() >= 3;
+      assert maxBatchSize.get() <= 20;
+      for (int i = 0; i < 50; i++)
+         assert store.getDelegate().load("testBatching-k" + i).getValue().equals("testBatching-v" + i);
+
+      store.resetStatistics();
+      assert store.getFlushedBatches() == 0;
+      assert store.getFlushedModifications() == 0;
+      assert store.getFlushTime() == 0;
+      store = null;
+   }
+
    private Cache getCache() {
       return AbstractCacheStoreTest.mockCache(getClass().getName());
    }
@@ -0,0 +1,102 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.loaders.BaseCacheStoreFunctionalTest;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.CacheManagerCallable;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+
+import static org.infinispan.test.TestingUtil.*;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Log-structured file cache store functional test.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.LogFileCacheStoreFunctionalTest")
+public class LogFileCacheStoreFunctionalTest extends BaseCacheStoreFunctionalTest {
+
+   private String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+      new File(tmpDirectory).mkdirs();
+   }
+
+   @Override
+   protected LoadersConfigurationBuilder createCacheStoreConfig(LoadersConfigurationBuilder loaders) {
+      loaders
+         .addLogFileCacheStore()
+         .location(tmpDirectory)
+         .purgeSynchronously(true);
+      return loaders;
+   }
+
+   public void testParsingEmptyElement() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders passivation=\"false\" shared=\"false\" preload=\"true\"> \n" +
+            "<logFileStore/> \n" +
+            "</loaders>\n" +
+            "</default>\n" + INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Cache<Object, Object> cache = cm.getCache();
+            cache.put(1, "v1");
+            assertEquals("v1", cache.get(1));
+            CacheStore store = extractComponent(cache, CacheLoaderManager.class).getCacheStore();
+            assertTrue(store instanceof LogFileCacheStore);
+            LogFileCacheStoreConfiguration storeConfiguration = (LogFileCacheStoreConfiguration) store.getConfiguration();
+            assertEquals("Infinispan-LogFileCacheStore", storeConfiguration.location());
+            assertEquals(16 * 1024 * 1024, storeConfiguration.maxFileSize());
+            assertEquals(0.5, storeConfiguration.compactionThreshold());
+         }
+      });
+   }
+
+   public void testParsingElement() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders passivation=\"false\" shared=\"false\" preload=\"true\"> \n" +
+            "<logFileStore location=\"other-location\" maxFileSize=\"1048576\" compactionThreshold=\"0.25\"/> \n" +
+            "</loaders>\n" +
+            "</default>\n" + INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Cache<Object, Object> cache = cm.getCache();
+            cache.put(1, "v1");
+            assertEquals("v1", cache.get(1));
+            CacheStore store = extractComponent(cache, CacheLoaderManager.class).getCacheStore();
+            assertTrue(store instanceof LogFileCacheStore);
+            LogFileCacheStoreConfiguration storeConfiguration = (LogFileCacheStoreConfiguration) store.getConfiguration();
+            assertEquals("other-location", storeConfiguration.location());
+            assertEquals(1048576, storeConfiguration.maxFileSize());
+            assertEquals(0.25, storeConfiguration.compactionThreshold());
+         }
+      });
+   }
+
+}
@@ -0,0 +1,181 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.BaseCacheStoreTest;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.channels.ClosedByInterruptException;
+
+import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Low level log-structured file cache store tests.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.LogFileCacheStoreTest")
+public class LogFileCacheStoreTest extends BaseCacheStoreTest {
+
+   LogFileCacheStore store;
+   String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      clearTempDir();
+      store = createStore(16 * 1024 * 1024);
+      return store;
+   }
+
+   private LogFileCacheStore createStore(long maxFileSize) throws CacheLoaderException {
+      LogFileCacheStore store = new LogFileCacheStore();
+      LogFileCacheStoreConfiguration fileStoreConfiguration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(LogFileCacheStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .maxFileSize(maxFileSize)
+                  .purgeSynchronously(true)
+                  .create();
+      store.init(fileStoreConfiguration, getCache(), getMarshaller());
+      store.start();
+      return store;
+   }
+
+   private File indexSnapshot() {
+      return new File(new File(tmpDirectory, getCache().getName()), "index");
+   }
+
+   public void testRestartWithoutIndexSnapshot() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1-updated"));
+      store.remove("k2");
+
+      store.stop();
+      assertTrue(indexSnapshot().exists());
+      assertTrue(indexSnapshot().delete());
+      store.start();
+
+      assertEquals("v1-updated", store.load("k1").getValue());
+      // the tombstone hides the record of k2 in the log
+      assertNull(store.load("k2"));
+      assertEquals(1, store.loadAllKeys(null).size());
+   }
+
+   public void testIndexSnapshotIsDeletedOnStart() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      store.stop();
+      store.start();
+      // a crash must not find a stale snapshot
+      assertFalse(indexSnapshot().exists());
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      assertEquals("v1", store.load("k1").getValue());
+      assertEquals("v2", store.load("k2").getValue());
+   }
+
+   public void testCompaction() throws Exception {
+      cs.stop();
+      clearTempDir();
+      store = createStore(1024);
+      cs = store;
+
+      for (int round = 0; round < 20; round++) {
+         for (int i = 0; i < 10; i++) {
+            store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i + "-" + round));
+         }
+      }
+      store.remove("k0");
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            // about 50 log files were written, the ones holding only overwritten records are deleted
+            return store.getLogFileCount() < 10;
+         }
+      });
+      assertLiveEntries();
+
+      // the live entries and the tombstone of k0 survive a restart from the log files
+      store.stop();
+      assertTrue(indexSnapshot().delete());
+      store.start();
+      assertLiveEntries();
+   }
+
+   private void assertLiveEntries() throws CacheLoaderException {
+      assertNull(store.load("k0"));
+      for (int i = 1; i < 10; i++) {
+         InternalCacheEntry entry = store.load("k" + i);
+         assertEquals("v" + i + "-19", entry.getValue());
+      }
+      assertEquals(9, store.loadAllKeys(null).size());
+   }
+
+   public void testCompactionDropsExpiredEntries() throws Exception {
+      cs.stop();
+      clearTempDir();
+      store = createStore(1024);
+      cs = store;
+
+      store.store(TestInternalCacheEntryFactory.create("expired", "v", 1));
+      Thread.sleep(10);
+      for (int round = 0; round < 20; round++) {
+         for (int i = 0; i < 10; i++) {
+            store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i + "-" + round));
+         }
+      }
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return store.getLogFileCount() < 10;
+         }
+      });
+      // the first log file has been compacted without copying the expired record
+      assertFalse(store.getIndex().containsKey("expired"));
+      assertEquals(10, store.getIndex().size());
+   }
+
+   public void testInterruptedReadDoesNotCloseTheStore() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      Thread.currentThread().interrupt();
+      try {
+         store.load("k1");
+         fail("The interrupted read should have failed");
+      } catch (CacheLoaderException e) {
+         assertTrue(e.getCause() instanceof ClosedByInterruptException);
+      } finally {
+         Thread.interrupted();
+      }
+      // the log file channel closed by the interrupt has been reopened
+      assertEquals("v1", store.load("k1").getValue());
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      assertEquals("v2", store.load("k2").getValue());
+   }
+
+}
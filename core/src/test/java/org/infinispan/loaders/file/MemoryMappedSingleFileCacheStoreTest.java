@@ -0,0 +1,85 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Low level single-file cache store tests, with the file read through memory-mapped windows.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.MemoryMappedSingleFileCacheStoreTest")
+public class MemoryMappedSingleFileCacheStoreTest extends SingleFileCacheStoreTest {
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      clearTempDir();
+      store = new SingleFileCacheStore();
+      SingleFileCacheStoreConfiguration fileStoreConfiguration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(SingleFileCacheStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .memoryMapped(true)
+                  .purgeSynchronously(true)
+                  .create();
+      store.init(fileStoreConfiguration, getCache(), getMarshaller());
+      store.start();
+      return store;
+   }
+
+   public void testLoadAfterFileGrowth() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k0", "v0"));
+      // maps the file as it is now
+      assertEquals("v0", store.load("k0").getValue());
+
+      // entries appended since then are only visible once the window is remapped
+      for (int i = 1; i < 100; i++) {
+         store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+         assertEquals("v" + i, store.load("k" + i).getValue());
+      }
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, store.load("k" + i).getValue());
+      }
+   }
+
+   public void testRebuildIndexFromMappedFile() throws CacheLoaderException {
+      for (int i = 0; i < 10; i++) {
+         store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      store.remove("k5");
+
+      store.stop();
+      store.start();
+
+      assertEquals(9, store.loadAllKeys(null).size());
+      assertNull(store.load("k5"));
+      for (int i = 0; i < 10; i++) {
+         if (i != 5)
+            assertEquals("v" + i, store.load("k" + i).getValue());
+      }
+   }
+
+   public void testLoadAfterClear() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      assertEquals("v1", store.load("k1").getValue());
+      // remaps the window, so both the current and the replaced mapping are unmapped by clear
+      store.store(TestInternalCacheEntryFactory.create("k3", "v3"));
+      assertEquals("v3", store.load("k3").getValue());
+      store.clear();
+      assertNull(store.load("k1"));
+      assertNull(store.load("k3"));
+      // the file has shrunk, the old windows must not be used any more
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      assertEquals("v2", store.load("k2").getValue());
+   }
+
+}
@@ -0,0 +1,128 @@
+package org.infinispan.marshall;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.apt.ExternalizerProcessor;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Compiles a class annotated with {@link org.infinispan.commons.marshall.GenerateExternalizer} with the
+ * {@link ExternalizerProcessor} and checks that the generated externalizer is registered automatically and produces a
+ * smaller payload than the reflective serialization.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "marshall.GeneratedExternalizerTest")
+public class GeneratedExternalizerTest extends AbstractInfinispanTest {
+
+   private static final String POJO_SOURCE =
+         "package gen;\n" +
+         "@org.infinispan.commons.marshall.GenerateExternalizer(id = 4242)\n" +
+         "public class Pojo implements java.io.Serializable {\n" +
+         "   int i; long l; char c; boolean b; double d; String s; java.util.List<String> list;\n" +
+         "   transient int ignored;\n" +
+         "   public static Pojo sample() {\n" +
+         "      Pojo p = new Pojo();\n" +
+         "      p.i = -3; p.l = 1234567890123L; p.c = 'x'; p.b = true; p.d = 0.5; p.s = \"text\";\n" +
+         "      p.list = java.util.Arrays.asList(\"a\", \"b\"); p.ignored = 7;\n" +
+         "      return p;\n" +
+         "   }\n" +
+         "   public String toString() {\n" +
+         "      return i + \",\" + l + \",\" + c + \",\" + b + \",\" + d + \",\" + s + \",\" + list + \",\" + ignored;\n" +
+         "   }\n" +
+         "}\n";
+
+   private final String tmpDirectory = TestingUtil.tmpDirectory(this);
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testGeneratedExternalizer() throws Exception {
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      if (compiler == null) {
+         throw new SkipException("No system Java compiler available");
+      }
+      File srcDir = new File(tmpDirectory, "src/gen");
+      File outDir = new File(tmpDirectory, "classes");
+      assertTrue(srcDir.mkdirs());
+      assertTrue(outDir.mkdirs());
+      File source = new File(srcDir, "Pojo.java");
+      write(source, POJO_SOURCE);
+
+      StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+      List<String> options = Arrays.asList("-d", outDir.getAbsolutePath(),
+            "-classpath", System.getProperty("java.class.path"),
+            "-processor", ExternalizerProcessor.class.getName());
+      try {
+         assertTrue(compiler.getTask(null, fileManager, null, options, null,
+               fileManager.getJavaFileObjects(source)).call());
+      } finally {
+         fileManager.close();
+      }
+
+      File serviceFile = new File(outDir, "META-INF/services/" + AdvancedExternalizer.class.getName());
+      Scanner scanner = new Scanner(serviceFile);
+      try {
+         assertEquals("gen.Pojo$$Externalizer", scanner.nextLine());
+      } finally {
+         scanner.close();
+      }
+
+      ClassLoader cl = new URLClassLoader(new URL[]{outDir.toURI().toURL()}, getClass().getClassLoader());
+      Object pojo = cl.loadClass("gen.Pojo").getMethod("sample").invoke(null);
+
+      GlobalConfigurationBuilder gcb = new GlobalConfigurationBuilder();
+      gcb.classLoader(cl);
+      EmbeddedCacheManager generated = TestCacheManagerFactory.createCacheManager(gcb, new ConfigurationBuilder());
+      EmbeddedCacheManager reflective = TestCacheManagerFactory.createCacheManager();
+      try {
+         generated.getCache(); // Start cache so that global marshaller is resolved
+         reflective.getCache();
+         StreamingMarshaller marshaller = TestingUtil.extractGlobalMarshaller(generated);
+         byte[] bytes = marshaller.objectToByteBuffer(pojo);
+         Object read = marshaller.objectFromByteBuffer(bytes);
+         assertEquals(pojo.getClass(), read.getClass());
+         // the transient field is not written
+         assertEquals("-3,1234567890123,x,true,0.5,text,[a, b],0", read.toString());
+
+         byte[] reflectiveBytes = TestingUtil.extractGlobalMarshaller(reflective).objectToByteBuffer(pojo);
+         log.debugf("Generated externalizer payload: %d bytes, reflective payload: %d bytes", bytes.length, reflectiveBytes.length);
+         assertTrue(bytes.length < reflectiveBytes.length);
+      } finally {
+         TestingUtil.killCacheManagers(generated, reflective);
+      }
+   }
+
+   private void write(File file, String contents) throws IOException {
+      FileWriter writer = new FileWriter(file);
+      try {
+         writer.write(contents);
+      } finally {
+         writer.close();
+      }
+   }
+}
@@ -0,0 +1,97 @@
+package org.infinispan.marshall;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.OutputBufferPool;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests the reuse of marshalling buffers by {@link OutputBufferPool}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "marshall.OutputBufferPoolTest")
+public class OutputBufferPoolTest extends AbstractInfinispanTest {
+
+   public void testBufferIsReused() {
+      ExposedByteArrayOutputStream buffer = OutputBufferPool.acquire(100);
+      buffer.write(1);
+      OutputBufferPool.release(buffer);
+
+      long allocations = OutputBufferPool.getAllocations();
+      ExposedByteArrayOutputStream reused = OutputBufferPool.acquire(100);
+      assertSame(buffer, reused);
+      assertEquals(0, reused.size());
+      assertEquals(allocations, OutputBufferPool.getAllocations());
+      OutputBufferPool.release(reused);
+   }
+
+   public void testNestedAcquisitionGetsAnotherBuffer() {
+      ExposedByteArrayOutputStream outer = OutputBufferPool.acquire(100);
+      ExposedByteArrayOutputStream inner = OutputBufferPool.acquire(100);
+      assertNotSame(outer, inner);
+      OutputBufferPool.release(inner);
+      OutputBufferPool.release(outer);
+   }
+
+   public void testBigBuffersAreNotPooled() {
+      ExposedByteArrayOutputStream buffer = OutputBufferPool.acquire(OutputBufferPool.MAX_POOLED_CAPACITY + 1);
+      OutputBufferPool.release(buffer);
+      assertNotSame(buffer, OutputBufferPool.acquire(OutputBufferPool.MAX_POOLED_CAPACITY + 1));
+   }
+
+   public void testClearDropsPooledBuffersOfAllThreads() throws Exception {
+      final ExposedByteArrayOutputStream[] otherThreadBuffer = new ExposedByteArrayOutputStream[1];
+      Thread other = new Thread() {
+         @Override
+         public void run() {
+            otherThreadBuffer[0] = OutputBufferPool.acquire(100);
+            OutputBufferPool.release(otherThreadBuffer[0]);
+            OutputBufferPool.clear();
+         }
+      };
+      ExposedByteArrayOutputStream buffer = OutputBufferPool.acquire(100);
+      OutputBufferPool.release(buffer);
+      other.start();
+      other.join();
+
+      ExposedByteArrayOutputStream afterClear = OutputBufferPool.acquire(100);
+      assertNotSame(buffer, afterClear);
+      OutputBufferPool.release(afterClear);
+   }
+
+   public void testResetStatistics() {
+      OutputBufferPool.release(OutputBufferPool.acquire(100));
+      OutputBufferPool.resetStatistics();
+      assertEquals(0, OutputBufferPool.getAcquisitions());
+      assertEquals(0, OutputBufferPool.getAllocations());
+      assertEquals(0, OutputBufferPool.getAllocatedBytes());
+   }
+
+   public void testMarshalledBytesAreNotShared() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager();
+      cm.getCache(); // Start cache so that global marshaller is resolved
+      try {
+         StreamingMarshaller marshaller = TestingUtil.extractGlobalMarshaller(cm);
+         byte[] big = new byte[10000];
+         Arrays.fill(big, (byte) 7);
+         ByteBuffer first = marshaller.objectToBuffer(big);
+         ByteBuffer second = marshaller.objectToBuffer("small");
+         assertNotSame(first.getBuf(), second.getBuf());
+         assertEquals(first.getLength(), first.getBuf().length);
+         assertTrue(Arrays.equals(big, (byte[]) marshaller.objectFromByteBuffer(first.getBuf(), first.getOffset(), first.getLength())));
+         assertEquals("small", marshaller.objectFromByteBuffer(second.getBuf(), second.getOffset(), second.getLength()));
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+}
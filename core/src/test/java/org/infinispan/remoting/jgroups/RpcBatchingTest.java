@@ -0,0 +1,105 @@
+package org.infinispan.remoting.jgroups;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+/**
+ * Tests that commands sent concurrently with RPC batching enabled all reach their destination and that every caller
+ * gets its own response.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "remoting.jgroups.RpcBatchingTest")
+public class RpcBatchingTest extends MultipleCacheManagersTest {
+   private static final String ASYNC_CACHE = "distAsync";
+   private static final int NUM_THREADS = 10;
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      GlobalConfigurationBuilder gcb = GlobalConfigurationBuilder.defaultClusteredBuilder();
+      gcb.transport()
+            .addProperty(JGroupsTransport.RPC_BATCHING, "true")
+            .addProperty(JGroupsTransport.RPC_BATCH_MAX_SIZE, "16")
+            .addProperty(JGroupsTransport.RPC_BATCH_MAX_DELAY, "100");
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2);
+      createCluster(gcb, builder, 3);
+      ConfigurationBuilder asyncBuilder = getDefaultClusteredCacheConfig(CacheMode.DIST_ASYNC, false);
+      asyncBuilder.clustering().hash().numOwners(2);
+      for (int i = 0; i < 3; i++) {
+         manager(i).defineConfiguration(ASYNC_CACHE, asyncBuilder.build());
+      }
+      waitForClusterToForm();
+      waitForClusterToForm(ASYNC_CACHE);
+   }
+
+   public void testBatchingEnabled() {
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      assertNotNull(transport.getCommandAwareRpcDispatcher().getRpcBatcher());
+   }
+
+   public void testConcurrentSyncWrites() throws Exception {
+      writeConcurrently(this.<Object, Object>cache(0));
+      for (int i = 0; i < 3; i++) {
+         assertEquals(NUM_THREADS * NUM_KEYS, countFound(this.<Object, Object>cache(i)));
+      }
+   }
+
+   public void testConcurrentAsyncWrites() throws Exception {
+      writeConcurrently(this.<Object, Object>cache(0, ASYNC_CACHE));
+      for (int i = 0; i < 3; i++) {
+         final Cache<Object, Object> c = cache(i, ASYNC_CACHE);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return countFound(c) == NUM_THREADS * NUM_KEYS;
+            }
+         });
+      }
+   }
+
+   private int countFound(Cache<Object, Object> c) {
+      int found = 0;
+      for (int t = 0; t < NUM_THREADS; t++) {
+         for (int k = 0; k < NUM_KEYS; k++) {
+            if (("v" + t + "-" + k).equals(c.get("k" + t + "-" + k))) found++;
+         }
+      }
+      return found;
+   }
+
+   private void writeConcurrently(final Cache<Object, Object> c) throws Exception {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>(NUM_THREADS);
+      for (int t = 0; t < NUM_THREADS; t++) {
+         final int thread = t;
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int k = 0; k < NUM_KEYS; k++) {
+                  // the previous value is returned by the owner, so every caller must get its own response
+                  assertEquals(null, c.put("k" + thread + "-" + k, "v" + thread + "-" + k));
+               }
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> f : futures) {
+         f.get(30, TimeUnit.SECONDS);
+      }
+   }
+}
@@ -0,0 +1,86 @@
+package org.infinispan.remoting.rpc;
+
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.RemoteException;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests {@link RpcManager#invokeRemotelyAsync(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}.
+ *
+ * @since 6.0
+ */
+@Test(testName = "remoting.rpc.RpcManagerAsyncTest", groups = "functional")
+public class RpcManagerAsyncTest extends MultipleCacheManagersTest {
+
+   private static final String TEST_CACHE = "testCache";
+   private static final String EXPECTED_RETURN_VALUE = "the-return-value";
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      createClusteredCaches(3, TEST_CACHE, builder);
+   }
+
+   public void testBroadcast() throws Exception {
+      RpcManager rpcManager = cache(0, TEST_CACHE).getAdvancedCache().getRpcManager();
+      NotifyingFuture<Map<Address, Response>> future = rpcManager.invokeRemotelyAsync(null,
+            new CustomReplicableCommand(EXPECTED_RETURN_VALUE), rpcManager.getDefaultRpcOptions(true));
+
+      Map<Address, Response> responses = future.get(10, TimeUnit.SECONDS);
+      assertEquals(2, responses.size());
+      for (Response response : responses.values()) {
+         assertEquals(EXPECTED_RETURN_VALUE, ((SuccessfulResponse) response).getResponseValue());
+      }
+   }
+
+   public void testUnicastNotifiesListener() throws Exception {
+      RpcManager rpcManager = cache(0, TEST_CACHE).getAdvancedCache().getRpcManager();
+      Address target = address(1);
+      NotifyingFuture<Map<Address, Response>> future = rpcManager.invokeRemotelyAsync(Collections.singleton(target),
+            new CustomReplicableCommand(EXPECTED_RETURN_VALUE), rpcManager.getDefaultRpcOptions(true));
+
+      final CountDownLatch notified = new CountDownLatch(1);
+      future.attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            notified.countDown();
+         }
+      });
+      assertTrue(notified.await(10, TimeUnit.SECONDS));
+      assertTrue(future.isDone());
+
+      Map<Address, Response> responses = future.get();
+      assertEquals(1, responses.size());
+      assertEquals(EXPECTED_RETURN_VALUE, ((SuccessfulResponse) responses.get(target)).getResponseValue());
+   }
+
+   public void testRemoteException() throws Exception {
+      RpcManager rpcManager = cache(0, TEST_CACHE).getAdvancedCache().getRpcManager();
+      NotifyingFuture<Map<Address, Response>> future = rpcManager.invokeRemotelyAsync(Collections.singleton(address(2)),
+            new CustomReplicableCommand(new IllegalArgumentException("exception!")), rpcManager.getDefaultRpcOptions(true));
+
+      try {
+         future.get(10, TimeUnit.SECONDS);
+         fail("Expected RemoteException not thrown");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof RemoteException);
+         assertTrue(e.getCause().getCause() instanceof IllegalArgumentException);
+      }
+   }
+}
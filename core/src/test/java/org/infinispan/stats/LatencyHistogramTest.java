@@ -0,0 +1,76 @@
+package org.infinispan.stats;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests {@link LatencyHistogram}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "stats.LatencyHistogramTest")
+public class LatencyHistogramTest extends AbstractInfinispanTest {
+
+   public void testBuckets() {
+      int previous = -1;
+      for (long value = 0; value < 100000; value++) {
+         int index = LatencyHistogram.bucketIndex(value);
+         assertTrue(index == previous || index == previous + 1);
+         long highest = LatencyHistogram.highestValueInBucket(index);
+         assertTrue(highest >= value);
+         assertTrue("Bucket too wide for " + value, highest - value <= value / 8);
+         assertEquals(index, LatencyHistogram.bucketIndex(highest));
+         previous = index;
+      }
+      long max = LatencyHistogram.MAX_VALUE;
+      assertEquals(max, LatencyHistogram.highestValueInBucket(LatencyHistogram.bucketIndex(max)));
+   }
+
+   public void testPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(0.0, histogram.getValueAtPercentile(50, TimeUnit.NANOSECONDS), 0);
+      for (int i = 1; i <= 1000; i++) {
+         histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+      }
+      assertEquals(1000, histogram.getCount());
+      assertPercentile(histogram, 50, 500);
+      assertPercentile(histogram, 99, 990);
+      assertPercentile(histogram, 100, 1000);
+      histogram.record(Long.MAX_VALUE);
+      assertEquals((double) LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100, TimeUnit.NANOSECONDS), 0);
+
+      histogram.reset();
+      assertEquals(0, histogram.getCount());
+   }
+
+   public void testConcurrentRecording() throws Exception {
+      final LatencyHistogram histogram = new LatencyHistogram();
+      Future<?>[] futures = new Future<?>[4];
+      for (int i = 0; i < futures.length; i++) {
+         futures[i] = fork(new Callable<Void>() {
+            @Override
+            public Void call() {
+               for (int j = 0; j < 10000; j++) {
+                  histogram.record(j);
+               }
+               return null;
+            }
+         });
+      }
+      for (Future<?> future : futures) {
+         future.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(40000, histogram.getCount());
+   }
+
+   private void assertPercentile(LatencyHistogram histogram, double percentile, double expectedMicros) {
+      double value = histogram.getValueAtPercentile(percentile, TimeUnit.MICROSECONDS);
+      assertTrue(percentile + "th percentile is " + value, value >= expectedMicros && value <= expectedMicros * 1.125);
+   }
+}
@@ -0,0 +1,118 @@
+package org.infinispan.stress;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays key traces against the eviction policies of {@link BoundedConcurrentHashMap} and reports their hit ratios.
+ * A miss is followed by a put of the key, like a cache backed by a store would do.
+ * <p/>
+ * Recorded traces are read from the files listed in the <tt>trace</tt> system property, separated by commas, with
+ * one key per line (anything after the first whitespace is ignored). Without recorded traces, synthetic ones are
+ * generated: a Zipf distributed workload, and the same workload interleaved with scans of keys never seen again.
+ * The cache capacity can be set with the <tt>size</tt> system property.
+ *
+ * @since 6.0
+ */
+@Test(testName = "stress.EvictionPolicySimulator", groups = "stress", enabled = false, description = "Disabled by default, designed to be run manually.")
+public class EvictionPolicySimulator {
+
+   private static final Eviction[] POLICIES = {Eviction.LRU, Eviction.LIRS, Eviction.TINY_LFU};
+   private static final int CAPACITY = Integer.getInteger("size", 1000);
+   private static final int SYNTHETIC_KEYS = CAPACITY * 20;
+   private static final int SYNTHETIC_LENGTH = CAPACITY * 500;
+
+   public void testHitRatios() throws IOException {
+      String traceFiles = System.getProperty("trace");
+      if (traceFiles != null) {
+         for (String file : traceFiles.split(",")) {
+            simulate(new File(file).getName(), readTrace(file.trim()));
+         }
+      } else {
+         simulate("zipf", zipfTrace(new Random(12345), SYNTHETIC_LENGTH, 0));
+         simulate("zipf+scans", zipfTrace(new Random(12345), SYNTHETIC_LENGTH, 0.3));
+      }
+   }
+
+   private void simulate(String traceName, List<String> trace) {
+      System.out.printf("Trace %s: %d accesses, capacity %d\n", traceName, trace.size(), CAPACITY);
+      for (Eviction policy : POLICIES) {
+         System.out.printf("   Policy %-10s  HitRatio %6.2f\n", policy, hitRatio(policy, CAPACITY, trace) * 100);
+      }
+   }
+
+   /**
+    * Replays the trace against a single segment map, so that the policy sees the whole key space.
+    *
+    * @return the fraction of accesses that were hits
+    */
+   public static double hitRatio(Eviction policy, int capacity, List<String> trace) {
+      BoundedConcurrentHashMap<String, String> map = new BoundedConcurrentHashMap<String, String>(
+            capacity, 1, policy, AnyEquivalence.<String>getInstance(), AnyEquivalence.<String>getInstance());
+      long hits = 0;
+      for (String key : trace) {
+         if (map.get(key) != null) {
+            hits++;
+         } else {
+            map.put(key, key);
+         }
+      }
+      return trace.isEmpty() ? 0 : (double) hits / trace.size();
+   }
+
+   /**
+    * Generates accesses to keys following a Zipf distribution. A fraction of the accesses is replaced by sequential
+    * scans of keys that are accessed only once.
+    */
+   public static List<String> zipfTrace(Random random, int length, double scanFraction) {
+      double[] cdf = new double[SYNTHETIC_KEYS];
+      double sum = 0;
+      for (int i = 0; i < cdf.length; i++) {
+         sum += 1.0 / (i + 1);
+         cdf[i] = sum;
+      }
+      List<String> trace = new ArrayList<String>(length);
+      int scanned = 0;
+      while (trace.size() < length) {
+         if (random.nextDouble() < scanFraction / CAPACITY) {
+            // a scan larger than the cache
+            int scanLength = Math.min(CAPACITY * 2, length - trace.size());
+            for (int i = 0; i < scanLength; i++) {
+               trace.add("scan" + scanned++);
+            }
+         } else {
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace.add("key" + (index < 0 ? -index - 1 : index));
+         }
+      }
+      return trace;
+   }
+
+   private static List<String> readTrace(String file) throws IOException {
+      List<String> trace = new ArrayList<String>();
+      BufferedReader reader = new BufferedReader(new FileReader(file));
+      try {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+               trace.add(line.split("\\s+", 2)[0]);
+            }
+         }
+      } finally {
+         reader.close();
+      }
+      return trace;
+   }
+}
@@ -11,6 +11,7 @@
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.concurrent.ReclosableLatch;
 import org.infinispan.util.logging.Log;
@@ -262,6 +263,16 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       waitAfter(rpc);
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("ControlledRpcManager.invokeRemotelyAsync");
+      failIfNeeded(rpc);
+      waitBefore(rpc);
+      NotifyingFuture<Map<Address, Response>> future = realOne.invokeRemotelyAsync(recipients, rpc, options);
+      waitAfter(rpc);
+      return future;
+   }
+
    @Override
    public Transport getTransport() {
       return realOne.getTransport();
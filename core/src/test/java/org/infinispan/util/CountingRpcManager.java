@@ -14,6 +14,7 @@
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -177,6 +178,13 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       realOne.invokeRemotelyInFuture(recipients, rpc, options, future);
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("CountingRpcManager.invokeRemotelyAsync");
+      aboutToInvokeRpc(rpc);
+      return realOne.invokeRemotelyAsync(recipients, rpc, options);
+   }
+
    @Override
    public Transport getTransport() {
       return realOne.getTransport();
@@ -1,5 +1,6 @@
 package org.infinispan.util.concurrent;
 
+import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.util.EquivalentHashMapTest;
 import org.testng.annotations.Test;
 
@@ -86,6 +87,61 @@ protected void byteArrayPutIfAbsentFail(
          assertNull(previous);
    }
 
+   public void testTinyLFUKeepsFrequentKeysDuringScan() {
+      BoundedConcurrentHashMap<String, String> map = new BoundedConcurrentHashMap<String, String>(
+            100, 1, BoundedConcurrentHashMap.Eviction.TINY_LFU,
+            AnyEquivalence.<String>getInstance(), AnyEquivalence.<String>getInstance());
+      for (int i = 0; i < 50; i++) {
+         map.put("hot" + i, "v");
+      }
+      for (int round = 0; round < 5; round++) {
+         for (int i = 0; i < 50; i++) {
+            map.get("hot" + i);
+         }
+      }
+      // scan keys are accessed only once, so they should not be admitted in place of the hot ones
+      for (int i = 0; i < 1000; i++) {
+         map.put("scan" + i, "v");
+      }
+      assertEquals(100, map.size());
+      for (int i = 0; i < 50; i++) {
+         assertTrue("Expected hot" + i + " to survive the scan", map.containsKey("hot" + i));
+      }
+   }
+
+   public void testTinyLFURemoveKeepsNeighbourProtected() {
+      BoundedConcurrentHashMap<String, String> map = new BoundedConcurrentHashMap<String, String>(
+            100, 1, BoundedConcurrentHashMap.Eviction.TINY_LFU,
+            AnyEquivalence.<String>getInstance(), AnyEquivalence.<String>getInstance());
+      // "Aa" and "BB" have the same hash code, so "BB" precedes "Aa" in their bucket
+      map.put("Aa", "v");
+      map.put("BB", "v");
+      for (int i = 0; i < 5; i++) {
+         map.put("k" + i, "v");
+      }
+      // accessed again after being admitted, "BB" is promoted to the protected region
+      map.get("BB");
+      map.segments[0].eviction.execute();
+
+      // removing "Aa" copies "BB", which must keep its place
+      map.remove("Aa");
+
+      // warm keys are estimated more frequent than "BB", so they only displace it if it was moved back to probation
+      for (int i = 0; i < 150; i++) {
+         String key = "warm" + i;
+         for (int j = 0; j < 4; j++) {
+            map.put(key, "v");
+            map.remove(key);
+         }
+         map.put(key, "v");
+      }
+      assertEquals(100, map.size());
+      assertTrue("Expected BB to survive as a protected entry", map.containsKey("BB"));
+      for (int i = 0; i < 5; i++) {
+         assertFalse("Expected k" + i + " to be evicted from probation", map.containsKey("k" + i));
+      }
+   }
+
    protected ConcurrentMap<byte[], byte[]> createStandardConcurrentMap() {
       return new ConcurrentHashMap<byte[], byte[]>();
    }
@@ -1,8 +1,11 @@
 package org.infinispan.jcache;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -28,11 +31,13 @@
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.util.ReflectionUtil;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.interceptors.EntryWrappingInterceptor;
 import org.infinispan.jcache.interceptor.ExpirationTrackingInterceptor;
 import org.infinispan.jcache.logging.Log;
 import org.infinispan.jmx.JmxUtil;
 import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.remoting.transport.Address;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
@@ -67,6 +72,7 @@
    private final ExpiryPolicy<? super K, ? super V> expiryPolicy;
    private final LockContainer processorLocks = new ReentrantPerEntryLockContainer(32);
    private final long lockTimeout; // milliseconds
+   private final boolean ownerSideProcessing;
    private CacheLoader<K, V> cacheLoader;
 
    public JCache(AdvancedCache<K, V> cache, JCacheManager cacheManager, Configuration<K, V> c) {
@@ -90,6 +96,11 @@ public JCache(AdvancedCache<K, V> cache, JCacheManager cacheManager, Configurati
       this.expiryPolicy = configuration.getExpiryPolicyFactory().create();
       this.lockTimeout =  cache.getCacheConfiguration()
             .locking().lockAcquisitionTimeout();
+      // Entry processors can only be shipped to the owner of the key in
+      // non-transactional caches which are not backed up to other sites
+      this.ownerSideProcessing = !cache.getCacheConfiguration()
+            .transaction().transactionMode().isTransactional()
+            && !cache.getCacheConfiguration().sites().hasEnabledBackups();
 
       JCacheNotifier<K, V> notifier = new JCacheNotifier<K, V>();
       boolean hasListeners = false;
@@ -307,6 +318,17 @@ public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, f
       if (log.isTraceEnabled())
          log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
 
+      if (ownerSideProcessing) {
+         // The processor runs on the primary owner under the key lock, and
+         // only its result and the modified entry are sent back
+         try {
+            return cache.invoke(key, new JCacheEntryProcessorAdapter<K, V, T>(
+                  entryProcessor, arguments));
+         } catch (RuntimeException e) {
+            throw toCacheException(e);
+         }
+      }
+
       return new WithProcessorLock<T>().call(key, new Callable<T>() {
          @Override
          public T call() throws Exception {
@@ -346,7 +368,55 @@ public T call() throws Exception {
 
    @Override
    public <T> Map<K, T> invokeAll(Set<? extends K> keys, EntryProcessor<K, V, T> entryProcessor, Object... arguments) {
-      return null;  // TODO: Customise this generated block
+      checkNotClosed();
+      verifyKeys(keys);
+      if (entryProcessor == null)
+         throw new NullPointerException("Entry processor cannot be null");
+
+      if (log.isTraceEnabled())
+         log.tracef("Invoke entry processor %s for keys=%s", entryProcessor, keys);
+
+      // Process the keys one owner at a time, starting with the keys owned
+      // locally, which don't need a remote call
+      Map<K, T> results = new HashMap<K, T>(keys.size());
+      for (List<K> ownerKeys : groupByPrimaryOwner(keys)) {
+         for (K key : ownerKeys) {
+            T result = invoke(key, entryProcessor, arguments);
+            if (result != null)
+               results.put(key, result);
+         }
+      }
+      return results;
+   }
+
+   private Collection<List<K>> groupByPrimaryOwner(Set<? extends K> keys) {
+      DistributionManager dm = cache.getDistributionManager();
+      if (dm == null)
+         return Collections.<List<K>>singleton(new ArrayList<K>(keys));
+
+      Address self = cache.getRpcManager().getAddress();
+      Map<Address, List<K>> groups = new LinkedHashMap<Address, List<K>>();
+      groups.put(self, new ArrayList<K>());
+      for (K key : keys) {
+         Address owner = dm.getPrimaryLocation(key);
+         List<K> ownerKeys = groups.get(owner);
+         if (ownerKeys == null) {
+            ownerKeys = new ArrayList<K>();
+            groups.put(owner, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+      return groups.values();
+   }
+
+   private CacheException toCacheException(RuntimeException e) {
+      // Exceptions thrown by the processor are wrapped in a CacheException,
+      // which may itself be wrapped when the processor ran remotely
+      for (Throwable t = e; t != null; t = t.getCause()) {
+         if (t instanceof CacheException)
+            return (CacheException) t;
+      }
+      return new CacheException(e);
    }
 
    @SuppressWarnings("unchecked")
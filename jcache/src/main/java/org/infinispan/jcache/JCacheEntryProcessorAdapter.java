@@ -0,0 +1,91 @@
+package org.infinispan.jcache;
+
+import java.io.Serializable;
+
+import javax.cache.Cache;
+import javax.cache.CacheException;
+
+import org.infinispan.EntryProcessor;
+import org.infinispan.commons.util.ReflectionUtil;
+
+/**
+ * Adapts a JCache {@link Cache.EntryProcessor} and its arguments to an Infinispan {@link EntryProcessor}, so that it
+ * can be run on the primary owner of the key with {@link org.infinispan.AdvancedCache#invoke(Object, EntryProcessor)}.
+ * <p/>
+ * Exceptions thrown by the processor are wrapped in a {@link CacheException}, which can be told apart from the
+ * exceptions thrown by the cache once it has been sent back to the caller.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @param <T> the type of the processor result
+ * @since 6.0
+ */
+public final class JCacheEntryProcessorAdapter<K, V, T> implements EntryProcessor<K, V, T>, Serializable {
+
+   private static final long serialVersionUID = 3187417946263117402L;
+
+   private final Cache.EntryProcessor<K, V, T> processor;
+
+   private final Object[] arguments;
+
+   public JCacheEntryProcessorAdapter(Cache.EntryProcessor<K, V, T> processor, Object... arguments) {
+      this.processor = processor;
+      this.arguments = arguments;
+   }
+
+   @Override
+   public T process(MutableEntry<K, V> entry) {
+      try {
+         return processor.process(new MutableEntryAdapter<K, V>(entry), arguments);
+      } catch (CacheException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheException(e);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "JCacheEntryProcessorAdapter{processor=" + processor + '}';
+   }
+
+   private static final class MutableEntryAdapter<K, V> implements Cache.MutableEntry<K, V> {
+
+      private final MutableEntry<K, V> entry;
+
+      MutableEntryAdapter(MutableEntry<K, V> entry) {
+         this.entry = entry;
+      }
+
+      @Override
+      public boolean exists() {
+         return entry.exists();
+      }
+
+      @Override
+      public void remove() {
+         entry.remove();
+      }
+
+      @Override
+      public void setValue(V value) {
+         entry.setValue(value);
+      }
+
+      @Override
+      public K getKey() {
+         return entry.getKey();
+      }
+
+      @Override
+      public V getValue() {
+         return entry.getValue();
+      }
+
+      @Override
+      public <C> C unwrap(Class<C> clazz) {
+         return ReflectionUtil.unwrap(this, clazz);
+      }
+   }
+
+}
@@ -11,10 +11,14 @@
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.infinispan.jcache.util.JCacheTestingUtil.withCachingProvider;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.fail;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -45,6 +49,40 @@ public void testInvokeProcesorStoreByValue(Method m) {
       invokeProcessor(m, new MutableConfiguration<String, List<Integer>>());
    }
 
+   public void testInvokeAllProcessor(Method m) {
+      final String name = getName(m);
+      withCachingProvider(new JCacheRunnable() {
+         @Override
+         public void run(CachingProvider provider) {
+            CacheManager cm = provider.getCacheManager();
+            Cache<String, Integer> cache = cm.configureCache(name,
+                  new MutableConfiguration<String, Integer>());
+            cache.put("a", 1);
+            cache.put("b", 2);
+            Map<String, Integer> results = cache.invokeAll(
+                  new HashSet<String>(Arrays.asList("a", "b", "c")),
+                  new Cache.EntryProcessor<String, Integer, Integer>() {
+                     @Override
+                     public Integer process(Cache.MutableEntry<String, Integer> entry, Object... arguments) {
+                        if (!entry.exists())
+                           return null;
+                        Integer value = entry.getValue();
+                        entry.setValue(value + (Integer) arguments[0]);
+                        return value;
+                     }
+                  }, 10);
+
+            Map<String, Integer> expected = new HashMap<String, Integer>();
+            expected.put("a", 1);
+            expected.put("b", 2);
+            assertEquals(expected, results);
+            assertEquals(Integer.valueOf(11), cache.get("a"));
+            assertEquals(Integer.valueOf(12), cache.get("b"));
+            assertFalse(cache.containsKey("c"));
+         }
+      });
+   }
+
    private void invokeProcessorThrowsException(
          Method m, final MutableConfiguration<String, List<Integer>> jcacheCfg,
          final List<Integer> expectedValue) {
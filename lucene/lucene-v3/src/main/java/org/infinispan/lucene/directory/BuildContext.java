@@ -28,6 +28,30 @@ public interface BuildContext {
     */
    BuildContext chunkSize(int bytes);
 
+   /**
+    * Sets the number of chunks fetched ahead of sequential reads. The chunks are fetched asynchronously, with a single
+    * remote call per owner in a distributed cache, so that a sequential scan of a segment doesn't block on the network
+    * for each chunk.
+    * Defaults to {@link org.infinispan.lucene.impl.DirectoryBuilderImpl#DEFAULT_READ_AHEAD_CHUNKS} when the chunks
+    * cache is distributed, and to 0 otherwise.
+    * 
+    * @param chunks the number of chunks to fetch ahead, or 0 to disable read-ahead
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext readAheadChunks(int chunks);
+
+   /**
+    * Sets the number of recently read chunks kept by the Directory and shared by all its IndexInputs, so that
+    * searches reading the same chunks again don't fetch them from the chunks cache. Chunks read by segment merges are
+    * not kept.
+    * Defaults to {@link org.infinispan.lucene.impl.DirectoryBuilderImpl#DEFAULT_RECENT_CHUNKS} when the chunks cache
+    * is distributed, and to 0 otherwise.
+    * 
+    * @param chunks the number of chunks to keep, or 0 to disable it
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext recentChunks(int chunks);
+
    /**
     * Overrides the default SegmentReadLocker. In some cases you might be able to provide more efficient implementations than
     * the default one by controlling the IndexReader's lifecycle
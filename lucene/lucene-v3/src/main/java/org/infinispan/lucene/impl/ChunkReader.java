@@ -0,0 +1,205 @@
+package org.infinispan.lucene.impl;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.lucene.ChunkCacheKey;
+import org.infinispan.lucene.FileMetadata;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Reads the chunks of the segments on behalf of all the IndexInputs opened on a Directory, and their clones.
+ * <p>
+ * The chunks can be fetched ahead of a sequential read with {@link #prefetch(List, FileMetadata)}: the keys are
+ * retrieved with a single asynchronous {@link AdvancedCache#getAllAsync(Set)}, so in a distributed cache each owner
+ * receives a single remote call for all its chunks. The most recently read chunks are also kept in a small LRU,
+ * unless they are read by a segment merge, which reads each chunk only once.
+ * <p>
+ * Chunks are only reused by the IndexInputs of the same version of a file: a file deleted and written again with the
+ * same name has a different {@link FileMetadata}.
+ *
+ * @since 6.0
+ */
+final class ChunkReader {
+
+   private static final Log log = LogFactory.getLog(ChunkReader.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final AdvancedCache<ChunkCacheKey, Object> chunksCache;
+   private final int readAheadChunks;
+   private final RecentChunks recentChunks;
+   private final ConcurrentMap<ChunkCacheKey, PendingChunk> pendingChunks = new ConcurrentHashMap<ChunkCacheKey, PendingChunk>();
+   private final int maxPendingChunks;
+
+   /**
+    * @param chunksCache the cache containing the chunks
+    * @param readAheadChunks the number of chunks IndexInputs fetch ahead of sequential reads, or 0 to disable it
+    * @param recentChunks the number of recently read chunks to keep, or 0 to disable it
+    */
+   ChunkReader(AdvancedCache<ChunkCacheKey, Object> chunksCache, int readAheadChunks, int recentChunks) {
+      if (readAheadChunks < 0)
+         throw new IllegalArgumentException("readAheadChunks must not be negative");
+      if (recentChunks < 0)
+         throw new IllegalArgumentException("recentChunks must not be negative");
+      this.chunksCache = chunksCache;
+      this.readAheadChunks = readAheadChunks;
+      this.recentChunks = recentChunks > 0 ? new RecentChunks(recentChunks) : null;
+      // chunks fetched ahead but never read, e.g. because the IndexInput was closed, are dropped past this limit
+      this.maxPendingChunks = readAheadChunks * 32;
+   }
+
+   /**
+    * @return the number of chunks to fetch ahead of sequential reads
+    */
+   int getReadAheadChunks() {
+      return readAheadChunks;
+   }
+
+   /**
+    * Reads a chunk, waiting for it if it is being fetched ahead.
+    *
+    * @param key the key of the chunk
+    * @param file the metadata of the file the chunk belongs to
+    * @param keepRecent true to keep the chunk among the recently read ones, false for reads which won't be repeated
+    * @return the chunk, or null if it doesn't exist
+    */
+   byte[] read(ChunkCacheKey key, FileMetadata file, boolean keepRecent) {
+      if (recentChunks != null) {
+         byte[] chunk = recentChunks.get(key, file);
+         if (chunk != null) {
+            return chunk;
+         }
+      }
+      byte[] chunk = null;
+      PendingChunk pending = pendingChunks.remove(key);
+      if (pending != null && pending.file.equals(file)) {
+         try {
+            chunk = (byte[]) pending.batch.get().get(key);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } catch (ExecutionException e) {
+            if (trace) log.tracef(e.getCause(), "Failed to fetch ahead chunk %s, reading it again", key);
+         }
+      }
+      if (chunk == null) {
+         chunk = (byte[]) chunksCache.get(key);
+      }
+      if (chunk != null && keepRecent && recentChunks != null) {
+         recentChunks.put(key, file, chunk);
+      }
+      return chunk;
+   }
+
+   /**
+    * Starts fetching some chunks asynchronously, so that they are available when read. The chunks which are already
+    * kept or being fetched are skipped.
+    *
+    * @param keys the keys of the chunks
+    * @param file the metadata of the file the chunks belong to
+    */
+   void prefetch(List<ChunkCacheKey> keys, FileMetadata file) {
+      Set<ChunkCacheKey> missing = new HashSet<ChunkCacheKey>(keys.size());
+      for (ChunkCacheKey key : keys) {
+         if (!pendingChunks.containsKey(key) && (recentChunks == null || recentChunks.get(key, file) == null)) {
+            missing.add(key);
+         }
+      }
+      if (missing.isEmpty()) return;
+      if (pendingChunks.size() + missing.size() > maxPendingChunks) {
+         purgeCompleted();
+      }
+      if (trace) log.tracef("Fetching ahead chunks %s", missing);
+      Future<Map<ChunkCacheKey, Object>> batch = chunksCache.getAllAsync(missing);
+      PendingChunk pending = new PendingChunk(batch, file);
+      for (ChunkCacheKey key : missing) {
+         pendingChunks.putIfAbsent(key, pending);
+      }
+   }
+
+   /**
+    * Forgets the chunks of a file, as they are about to be deleted or overwritten.
+    */
+   void invalidate(String fileName) {
+      for (Iterator<ChunkCacheKey> it = pendingChunks.keySet().iterator(); it.hasNext(); ) {
+         if (it.next().getFileName().equals(fileName)) {
+            it.remove();
+         }
+      }
+      if (recentChunks != null) {
+         recentChunks.invalidate(fileName);
+      }
+   }
+
+   private void purgeCompleted() {
+      for (Iterator<PendingChunk> it = pendingChunks.values().iterator(); it.hasNext(); ) {
+         if (it.next().batch.isDone()) {
+            it.remove();
+         }
+      }
+   }
+
+   private static final class PendingChunk {
+      final Future<Map<ChunkCacheKey, Object>> batch;
+      final FileMetadata file;
+
+      PendingChunk(Future<Map<ChunkCacheKey, Object>> batch, FileMetadata file) {
+         this.batch = batch;
+         this.file = file;
+      }
+   }
+
+   private static final class RecentChunk {
+      final byte[] chunk;
+      final FileMetadata file;
+
+      RecentChunk(byte[] chunk, FileMetadata file) {
+         this.chunk = chunk;
+         this.file = file;
+      }
+   }
+
+   /**
+    * LRU of the recently read chunks, shared by the IndexInputs of the Directory.
+    */
+   private static final class RecentChunks {
+
+      private final Map<ChunkCacheKey, RecentChunk> chunks;
+
+      RecentChunks(final int maxChunks) {
+         chunks = new LinkedHashMap<ChunkCacheKey, RecentChunk>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChunkCacheKey, RecentChunk> eldest) {
+               return size() > maxChunks;
+            }
+         };
+      }
+
+      synchronized byte[] get(ChunkCacheKey key, FileMetadata file) {
+         RecentChunk recent = chunks.get(key);
+         return recent != null && recent.file.equals(file) ? recent.chunk : null;
+      }
+
+      synchronized void put(ChunkCacheKey key, FileMetadata file, byte[] chunk) {
+         chunks.put(key, new RecentChunk(chunk, file));
+      }
+
+      synchronized void invalidate(String fileName) {
+         for (Iterator<ChunkCacheKey> it = chunks.keySet().iterator(); it.hasNext(); ) {
+            if (it.next().getFileName().equals(fileName)) {
+               it.remove();
+            }
+         }
+      }
+   }
+
+}
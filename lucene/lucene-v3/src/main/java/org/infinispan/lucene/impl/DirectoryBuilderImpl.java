@@ -20,6 +20,16 @@ public class DirectoryBuilderImpl implements BuildContext {
     */
    public final static int DEFAULT_BUFFER_SIZE = 16 * 1024;
 
+   /**
+    * Used as default number of chunks fetched ahead of sequential reads when the chunks cache is distributed
+    */
+   public final static int DEFAULT_READ_AHEAD_CHUNKS = 4;
+
+   /**
+    * Used as default number of recently read chunks kept by each Directory when the chunks cache is distributed
+    */
+   public final static int DEFAULT_RECENT_CHUNKS = 64;
+
    /**
     * Mandatory parameters:
     */
@@ -36,6 +46,8 @@ public class DirectoryBuilderImpl implements BuildContext {
    private int chunkSize = DEFAULT_BUFFER_SIZE;
    private SegmentReadLocker srl = null;
    private LockFactory lockFactory = null;
+   private int readAheadChunks = -1;
+   private int recentChunks = -1;
 
    public DirectoryBuilderImpl(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName) {
       checkNotNull(metadataCache, "metadataCache");
@@ -56,17 +68,21 @@ public Directory create() {
       if (srl == null) {
          srl = makeDefaultSegmentReadLocker(metadataCache, chunksCache, distLocksCache, indexName);
       }
+      // chunks are only fetched from other nodes when the cache is distributed
+      boolean distributed = chunksCache.getCacheConfiguration().clustering().cacheMode().isDistributed();
+      int readAhead = readAheadChunks >= 0 ? readAheadChunks : (distributed ? DEFAULT_READ_AHEAD_CHUNKS : 0);
+      int recent = recentChunks >= 0 ? recentChunks : (distributed ? DEFAULT_RECENT_CHUNKS : 0);
       if (LuceneVersionDetector.VERSION == 3) {
-         return new DirectoryLuceneV3(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl);
+         return new DirectoryLuceneV3(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl, readAhead, recent);
       }
       else {
-         Class<?>[] ctorType = new Class[]{ Cache.class, Cache.class, String.class, LockFactory.class, int.class, SegmentReadLocker.class };
+         Class<?>[] ctorType = new Class[]{ Cache.class, Cache.class, String.class, LockFactory.class, int.class, SegmentReadLocker.class, int.class, int.class };
          Directory d;
          try {
             d = (Directory) DirectoryBuilderImpl.class.getClassLoader()
                .loadClass("org.infinispan.lucene.impl.DirectoryLuceneV4")
                .getConstructor(ctorType)
-               .newInstance(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl);
+               .newInstance(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl, readAhead, recent);
          } catch (Exception e) {
             throw log.failedToCreateLucene4Directory(e);
          }
@@ -82,6 +98,22 @@ public BuildContext chunkSize(int bytes) {
       return this;
    }
 
+   @Override
+   public BuildContext readAheadChunks(int chunks) {
+      if (chunks < 0)
+         throw new IllegalArgumentException("readAheadChunks must not be negative");
+      this.readAheadChunks = chunks;
+      return this;
+   }
+
+   @Override
+   public BuildContext recentChunks(int chunks) {
+      if (chunks < 0)
+         throw new IllegalArgumentException("recentChunks must not be negative");
+      this.recentChunks = chunks;
+      return this;
+   }
+
    @Override
    public BuildContext overrideSegmentReadLocker(SegmentReadLocker srl) {
       checkNotNull(srl, "srl");
@@ -39,7 +39,15 @@ final class DirectoryImplementor {
     private final FileListOperations fileOps;
     private final SegmentReadLocker readLocks;
 
+    // shared by all the IndexInputs and their clones
+    private final ChunkReader chunkReader;
+
     public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, int chunkSize, SegmentReadLocker readLocker) {
+        this(metadataCache, chunksCache, indexName, chunkSize, readLocker, 0, 0);
+    }
+
+    public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, int chunkSize, SegmentReadLocker readLocker,
+          int readAheadChunks, int recentChunks) {
         if (chunkSize <= 0)
            throw new IllegalArgumentException("chunkSize must be a positive integer");
         this.metadataCache = (AdvancedCache<FileCacheKey, FileMetadata>) metadataCache.getAdvancedCache();
@@ -48,6 +56,7 @@ public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache,
         this.chunkSize = chunkSize;
         this.fileOps = new FileListOperations(this.metadataCache, indexName);
         this.readLocks = readLocker;
+        this.chunkReader = new ChunkReader(this.chunksCache, readAheadChunks, recentChunks);
      }
 
     String[] list() {
@@ -89,6 +98,7 @@ void touchFile(final String fileName) {
     }
 
     void deleteFile(final String name) {
+       chunkReader.invalidate(name);
        fileOps.deleteFileName(name);
        readLocks.deleteOrReleaseReadLock(name);
        if (log.isDebugEnabled()) {
@@ -100,6 +110,7 @@ void renameFile(final String from, final String to) {
        final FileCacheKey fromKey = new FileCacheKey(indexName, from);
        final FileMetadata metadata = (FileMetadata) metadataCache.get(fromKey);
        final int bufferSize = metadata.getBufferSize();
+       chunkReader.invalidate(to);
        // preparation: copy all chunks to new keys
        int i = -1;
        Object ob;
@@ -119,6 +130,7 @@ void renameFile(final String from, final String to) {
        fileOps.removeAndAdd(from, to);
 
        // now trigger deletion of old file chunks:
+       chunkReader.invalidate(from);
        readLocks.deleteOrReleaseReadLock(from);
        if (log.isTraceEnabled()) {
           log.tracef("Renamed file from: %s to: %s in index %s", from, to, indexName);
@@ -137,11 +149,20 @@ long fileLength(final String name) {
 
     IndexOutput createOutput(final String name) {
        final FileCacheKey key = new FileCacheKey(indexName, name);
+       chunkReader.invalidate(name);
        // creating new file, metadata is added on flush() or close() of IndexOutPut
        return new InfinispanIndexOutput(metadataCache, chunksCache, key, chunkSize, fileOps);
     }
 
     IndexInputContext openInput(final String name) throws IOException {
+       return openInput(name, true);
+    }
+
+    /**
+     * @param keepRecentChunks false if the file is read by a segment merge, so that the chunks it reads don't evict
+     *        the recently read ones
+     */
+    IndexInputContext openInput(final String name, final boolean keepRecentChunks) throws IOException {
        final FileCacheKey fileKey = new FileCacheKey(indexName, name);
        final FileMetadata fileMetadata = (FileMetadata) metadataCache.get(fileKey);
        if (fileMetadata == null) {
@@ -157,7 +178,7 @@ else if (fileMetadata.getSize() <= fileMetadata.getBufferSize()) {
              // safest reaction is to tell this file doesn't exist anymore.
              throw new FileNotFoundException("Error loading metadata for index file: " + fileKey);
           }
-          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks);
+          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks, chunkReader, keepRecentChunks);
        }
     }
 
@@ -12,13 +12,22 @@ public final class IndexInputContext {
    final FileCacheKey fileKey;
    final FileMetadata fileMetadata;
    final SegmentReadLocker readLocks;
+   final ChunkReader chunkReader;
+   final boolean keepRecentChunks;
 
    public IndexInputContext(AdvancedCache<ChunkCacheKey, Object> chunksCache, FileCacheKey fileKey, FileMetadata fileMetadata,
          SegmentReadLocker readLocks) {
+      this(chunksCache, fileKey, fileMetadata, readLocks, new ChunkReader(chunksCache, 0, 0), false);
+   }
+
+   IndexInputContext(AdvancedCache<ChunkCacheKey, Object> chunksCache, FileCacheKey fileKey, FileMetadata fileMetadata,
+         SegmentReadLocker readLocks, ChunkReader chunkReader, boolean keepRecentChunks) {
             this.chunksCache = chunksCache;
             this.fileKey = fileKey;
             this.fileMetadata = fileMetadata;
             this.readLocks = readLocks;
+            this.chunkReader = chunkReader;
+            this.keepRecentChunks = keepRecentChunks;
    }
 
 }
@@ -1,11 +1,13 @@
 package org.infinispan.lucene.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.lucene.store.IndexInput;
-import org.infinispan.Cache;
 import org.infinispan.lucene.ChunkCacheKey;
 import org.infinispan.lucene.FileCacheKey;
+import org.infinispan.lucene.FileMetadata;
 import org.infinispan.lucene.readlocks.SegmentReadLocker;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -24,26 +26,34 @@ abstract class InfinispanIndexInput extends IndexInput {
    private static final Log log = LogFactory.getLog(InfinispanIndexInput.class);
    private static final boolean trace = log.isTraceEnabled();
 
-   private final Cache<ChunkCacheKey, Object> chunksCache;
+   private final ChunkReader chunkReader;
+   private final boolean keepRecentChunks;
    private final FileCacheKey fileKey;
+   private final FileMetadata fileMetadata;
    private final int chunkSize;
    private final SegmentReadLocker readLocks;
    private final String filename;
    private final long fileLength;
+   private final int lastChunk;
 
    private int currentBufferSize;
    private byte[] buffer;
    private int bufferPosition;
    private int currentLoadedChunk = -1;
+   // the last chunk fetched ahead
+   private int readAheadChunk = -1;
 
    protected boolean isClone;
 
    public InfinispanIndexInput(final IndexInputContext ctx) {
       super(ctx.fileKey.getFileName());
-      this.chunksCache = (Cache<ChunkCacheKey, Object>) ctx.chunksCache;
+      this.chunkReader = ctx.chunkReader;
+      this.keepRecentChunks = ctx.keepRecentChunks;
       this.fileKey = ctx.fileKey;
+      this.fileMetadata = ctx.fileMetadata;
       this.chunkSize = ctx.fileMetadata.getBufferSize();
       this.fileLength = ctx.fileMetadata.getSize();
+      this.lastChunk = ctx.fileMetadata.getNumberOfChunks() - 1;
       this.readLocks = ctx.readLocks;
       this.filename = fileKey.getFileName();
       if (trace) {
@@ -83,6 +93,7 @@ public void close() {
       currentBufferSize = 0;
       bufferPosition = 0;
       currentLoadedChunk = -1;
+      readAheadChunk = -1;
       buffer = null;
       if (isClone) return;
       readLocks.deleteOrReleaseReadLock(filename);
@@ -109,11 +120,34 @@ public void seek(final long pos) {
    private void nextChunk() throws IOException {
       currentLoadedChunk++;
       setBufferToCurrentChunk();
+      readAhead();
+   }
+
+   /**
+    * Sequential reads fetch the next chunks ahead, once less than half of the chunks previously fetched ahead are left.
+    * Seeks don't, as they are usually followed by short reads.
+    */
+   private void readAhead() {
+      final int readAheadChunks = chunkReader.getReadAheadChunks();
+      if (readAheadChunks == 0) return;
+      if (readAheadChunk < currentLoadedChunk || readAheadChunk > currentLoadedChunk + readAheadChunks) {
+         // nothing fetched ahead of the current position, e.g. after a seek
+         readAheadChunk = currentLoadedChunk;
+      }
+      if (readAheadChunk - currentLoadedChunk >= (readAheadChunks + 1) / 2) return;
+      final int last = Math.min(currentLoadedChunk + readAheadChunks, lastChunk);
+      if (last <= readAheadChunk) return;
+      List<ChunkCacheKey> keys = new ArrayList<ChunkCacheKey>(last - readAheadChunk);
+      for (int i = readAheadChunk + 1; i <= last; i++) {
+         keys.add(new ChunkCacheKey(fileKey.getIndexName(), filename, i, chunkSize));
+      }
+      chunkReader.prefetch(keys, fileMetadata);
+      readAheadChunk = last;
    }
 
    private void setBufferToCurrentChunk() throws IOException {
       ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize);
-      buffer = (byte[]) chunksCache.get(key);
+      buffer = chunkReader.read(key, fileMetadata, keepRecentChunks);
       if (buffer == null) {
          throw new IOException("Read past EOF: Chunk value could not be found for key " + key);
       }
@@ -124,7 +158,7 @@ private void setBufferToCurrentChunk() throws IOException {
    // RAMDirectory teaches to position the cursor to the end of previous chunk in this case
    private void setBufferToCurrentChunkIfPossible() {
       ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize);
-      buffer = (byte[]) chunksCache.get(key);
+      buffer = chunkReader.read(key, fileMetadata, keepRecentChunks);
       if (buffer == null) {
          currentLoadedChunk--;
          bufferPosition = chunkSize;
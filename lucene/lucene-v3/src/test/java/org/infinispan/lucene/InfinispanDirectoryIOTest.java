@@ -167,6 +167,36 @@ private void verifyOnBuffer(final String fileName, final int fileSize, final int
       assert dir.fileExists(fileName) == false;
    }
 
+   @Test
+   public void testReadAheadAndRecentChunks() throws IOException {
+      final int BUFFER_SIZE = 64;
+
+      Cache cache = cacheManager.getCache();
+      Directory dir = DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEXNAME).chunkSize(BUFFER_SIZE)
+            .readAheadChunks(3).recentChunks(8).create();
+
+      verifyOnBuffer("ReadAhead.txt", 10000, BUFFER_SIZE, cache, dir, 33);
+
+      // the chunks kept by the Directory must not be returned once the file is written again
+      final String fileName = "Rewritten.txt";
+      createFileWithRepeatableContent(dir, fileName, 1000);
+      assertReadByteWorkingCorrectly(dir, fileName, 1000);
+      dir.deleteFile(fileName);
+      IndexOutput indexOutput = dir.createOutput(fileName);
+      for (int i = 0; i < 1000; i++) {
+         indexOutput.writeByte((byte) 7);
+      }
+      indexOutput.close();
+      IndexInput indexInput = dir.openInput(fileName);
+      for (int i = 0; i < 1000; i++) {
+         AssertJUnit.assertEquals(7, indexInput.readByte());
+      }
+      indexInput.close();
+
+      dir.close();
+      DirectoryIntegrityCheck.verifyDirectoryStructure(cache, INDEXNAME);
+   }
+
    @Test
    public void testReadRandomSampleFile() throws IOException {
       final int BUFFER_SIZE = 64;
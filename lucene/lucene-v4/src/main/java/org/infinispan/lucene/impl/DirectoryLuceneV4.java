@@ -33,9 +33,12 @@ class DirectoryLuceneV4 extends Directory implements DirectoryExtensions {
     * @param lf the LockFactory to be used by IndexWriters. @see org.infinispan.lucene.locking
     * @param chunkSize segments are fragmented in chunkSize bytes; larger values are more efficient for searching but less for distribution and network replication
     * @param readLocker @see org.infinispan.lucene.readlocks for some implementations; you might be able to provide more efficient implementations by controlling the IndexReader's lifecycle.
+    * @param readAheadChunks the number of chunks fetched ahead of sequential reads, 0 to disable read-ahead
+    * @param recentChunks the number of recently read chunks kept by the Directory, 0 to disable it
     */
-   public DirectoryLuceneV4(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker) {
-      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker);
+   public DirectoryLuceneV4(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker,
+         int readAheadChunks, int recentChunks) {
+      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker, readAheadChunks, recentChunks);
       this.indexName = indexName;
       this.lockFactory = lf;
       this.lockFactory.setLockPrefix(this.getLockID());
@@ -89,7 +92,7 @@ public IndexOutput createOutput(final String name, final IOContext context) thro
     */
    @Override
    public IndexInput openInput(final String name, final IOContext context) throws IOException {
-      final IndexInputContext indexInputContext = impl.openInput(name);
+      final IndexInputContext indexInputContext = impl.openInput(name, context.context != IOContext.Context.MERGE);
       if ( indexInputContext.readLocks == null ) {
          return new SingleChunkIndexInput(indexInputContext);
       }
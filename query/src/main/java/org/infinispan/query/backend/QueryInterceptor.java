@@ -22,6 +22,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ProcessEntryCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -126,6 +127,13 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return valueReplaced;
    }
 
+   @Override
+   public Object visitProcessEntryCommand(InvocationContext ctx, ProcessEntryCommand command) throws Throwable {
+      Object toReturn = invokeNextInterceptor(ctx, command);
+      processProcessEntryCommand(command, ctx, null);
+      return toReturn;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Object mapPut = invokeNextInterceptor(ctx, command);
@@ -430,6 +438,30 @@ private void processPutKeyValueCommand(final PutKeyValueCommand command, final I
       }
    }
 
+   /**
+    * Indexing management of a ProcessEntryCommand
+    *
+    * @param command the visited ProcessEntryCommand
+    * @param ctx the InvocationContext of the ProcessEntryCommand
+    * @param transactionContext Optional for lazy initialization, or to reuse an existing transactional context.
+    */
+   private void processProcessEntryCommand(final ProcessEntryCommand command, final InvocationContext ctx, TransactionContext transactionContext) {
+      if (!command.isSuccessful() || !shouldModifyIndexes(command, ctx)) return;
+      Object key = extractValue(command.getKey());
+      Object previousValue = extractValue(command.getPreviousValue());
+      if (updateKnownTypesIfNeeded(previousValue)) {
+         transactionContext = transactionContext == null ? makeTransactionalEventContext() : transactionContext;
+         removeFromIndexes(previousValue, key, transactionContext);
+      }
+      if (!command.isRemoval()) {
+         Object value = extractValue(command.getNewValue());
+         if (updateKnownTypesIfNeeded(value)) {
+            transactionContext = transactionContext == null ? makeTransactionalEventContext() : transactionContext;
+            updateIndexes(value, key, transactionContext);
+         }
+      }
+   }
+
    /**
     * Indexing management of the Clear command
     *
@@ -117,6 +117,15 @@ abstract class AbstractEncoder1x extends AbstractVersionedEncoder with Constants
                buf.writeByte(0) // Done
             }
          }
+         case g: GetAllResponse => {
+            if (g.status == Success) {
+               writeUnsignedInt(g.entries.size, buf)
+               for ((key, value) <- g.entries) {
+                  writeRangedBytes(key, buf)
+                  writeRangedBytes(value, buf)
+               }
+            }
+         }
          case g: GetResponse =>
             if (g.status == Success) writeRangedBytes(g.data.get, buf)
          case e: ErrorResponse => writeString(e.msg, buf)
@@ -61,6 +61,17 @@ abstract class AbstractVersionedDecoder {
     */
    def customReadKey(header: HotRodHeader, buffer: ChannelBuffer, cache: AdvancedCache[Array[Byte], Array[Byte]]): AnyRef
 
+   /**
+    * Read the parameters and the entries of a put all request. All the entries are read before any of them is
+    * stored, so that the request can be replayed if the buffer does not hold all of it yet.
+    */
+   def readPutAllParameters(header: HotRodHeader, buffer: ChannelBuffer): (RequestParameters, Seq[(Array[Byte], Array[Byte])])
+
+   /**
+    * Create a response for a put all request, once all the entries have been stored.
+    */
+   def createPutAllResponse(header: HotRodHeader): AnyRef
+
    /**
     * Handle a protocol specific value reading.
     */
@@ -48,6 +48,8 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case 0x19 => (BulkGetRequest, false)
          case 0x1B => (GetWithMetadataRequest, false)
          case 0x1D => (BulkGetKeysRequest, false)
+         case 0x2D if version >= Constants.VERSION_13 => (PutAllRequest, false)
+         case 0x2F if version >= Constants.VERSION_13 => (GetAllRequest, false)
          case _ => throw new HotRodUnknownOperationException(
                "Unknown operation: " + streamOp, version, messageId)
       }
@@ -216,9 +218,38 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
             val k = readKey(buffer)
             getKeyMetadata(h, k, cache)
          }
+         case GetAllRequest => {
+            val count = readUnsignedInt(buffer)
+            val keys = new Array[Array[Byte]](count)
+            for (i <- 0 until count) keys(i) = readKey(buffer)
+            if (isTrace) trace("About to create get all response, count = %d", count)
+            val entries = new mutable.ArrayBuffer[(Array[Byte], Array[Byte])](count)
+            for (k <- keys) {
+               val v = cache.get(k)
+               if (v != null) entries += ((k, v))
+            }
+            new GetAllResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
+                               GetAllResponse, Success, h.topologyId, entries)
+         }
       }
    }
 
+   override def readPutAllParameters(h: HotRodHeader, buffer: ChannelBuffer): (RequestParameters, Seq[(Array[Byte], Array[Byte])]) = {
+      val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(h, ProtocolFlag.DefaultLifespan))
+      val maxIdle = readLifespanOrMaxIdle(buffer, hasFlag(h, ProtocolFlag.DefaultMaxIdle))
+      val count = readUnsignedInt(buffer)
+      val entries = new mutable.ArrayBuffer[(Array[Byte], Array[Byte])](count)
+      for (i <- 0 until count) {
+         val k = readKey(buffer)
+         entries += ((k, readRangedBytes(buffer)))
+      }
+      (new RequestParameters(-1, lifespan, maxIdle, -1), entries)
+   }
+
+   override def createPutAllResponse(h: HotRodHeader): AnyRef =
+      new Response(h.version, h.messageId, h.cacheName, h.clientIntel,
+                   PutAllResponse, Success, h.topologyId)
+
    def getKeyMetadata(h: HotRodHeader, k: Array[Byte],
            cache: AdvancedCache[Array[Byte], Array[Byte]]): GetWithMetadataResponse = {
       val ce = cache.getAdvancedCache.getCacheEntry(k)
@@ -298,6 +329,8 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case BulkGetRequest => BulkGetResponse
          case GetWithMetadataRequest => GetWithMetadataResponse
          case BulkGetKeysRequest => BulkGetKeysResponse
+         case PutAllRequest => PutAllResponse
+         case GetAllRequest => GetAllResponse
       }
    }
 
@@ -320,6 +353,8 @@ object OperationResponse extends Enumeration {
    val BulkGetResponse = Value(0x1A)
    val GetWithMetadataResponse = Value(0x1C)
    val BulkGetKeysResponse = Value(0x1E)
+   val PutAllResponse = Value(0x2E)
+   val GetAllResponse = Value(0x30)
    val ErrorResponse = Value(0x50)
 }
 
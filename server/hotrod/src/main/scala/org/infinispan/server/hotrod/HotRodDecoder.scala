@@ -11,6 +11,7 @@ import java.io.{IOException, StreamCorruptedException}
 import org.jboss.netty.buffer.ChannelBuffer
 import org.jboss.netty.channel.Channel
 import java.lang.StringBuilder
+import java.util.concurrent.ExecutionException
 import org.infinispan.container.entries.CacheEntry
 import org.infinispan.server.hotrod.configuration.HotRodServerConfiguration
 
@@ -55,7 +56,7 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
 
       try {
          val decoder = version match {
-            case VERSION_10 | VERSION_11 | VERSION_12 => Decoder10
+            case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 => Decoder10
             case _ => throw new UnknownVersionException(
                "Unknown version:" + version, version, messageId)
          }
@@ -134,8 +135,27 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
    override protected def customDecodeHeader(ch: Channel, buffer: ChannelBuffer): AnyRef =
       writeResponse(ch, header.decoder.customReadHeader(header, buffer, cache))
 
-   override protected def customDecodeKey(ch: Channel, buffer: ChannelBuffer): AnyRef =
-      writeResponse(ch, header.decoder.customReadKey(header, buffer, cache))
+   override protected def customDecodeKey(ch: Channel, buffer: ChannelBuffer): AnyRef = {
+      header.op match {
+         case HotRodOperation.PutAllRequest => writeResponse(ch, putAll(buffer))
+         case _ => writeResponse(ch, header.decoder.customReadKey(header, buffer, cache))
+      }
+   }
+
+   private def putAll(buffer: ChannelBuffer): AnyRef = {
+      val (parameters, entries) = header.decoder.readPutAllParameters(header, buffer)
+      params = parameters
+      // Store the entries concurrently, each with its own version, and reply once all of them are stored
+      val optimizedCache = getOptimizedCache(cache)
+      val futures = entries.map { case (k, v) => optimizedCache.putAsync(k, v, buildMetadata()) }
+      try {
+         futures.foreach(_.get)
+      } catch {
+         // Report the actual failure, e.g. a timeout, rather than the wrapper
+         case e: ExecutionException => throw e.getCause
+      }
+      header.decoder.createPutAllResponse(header)
+   }
 
    override protected def customDecodeValue(ch: Channel, buffer: ChannelBuffer): AnyRef =
       writeResponse(ch, header.decoder.customReadValue(header, buffer, cache))
@@ -17,4 +17,6 @@ object HotRodOperation extends Enumeration(20) {
    val BulkGetRequest = Value
    val GetWithMetadataRequest = Value
    val BulkGetKeysRequest = Value
+   val PutAllRequest = Value
+   val GetAllRequest = Value
 }
@@ -0,0 +1,64 @@
+package org.infinispan.server.hotrod
+
+import org.testng.annotations.Test
+import java.lang.reflect.Method
+import test.HotRodTestingUtil._
+import org.testng.Assert._
+import java.util.Arrays
+import org.infinispan.server.hotrod.OperationStatus._
+import org.infinispan.server.hotrod.test._
+
+/**
+ * Tests the put all and get all operations, which are only accepted from clients speaking version 1.3 of the
+ * Hot Rod protocol.
+ *
+ * @since 6.0
+ */
+@Test(groups = Array("functional"), testName = "server.hotrod.HotRod13FunctionalTest")
+class HotRod13FunctionalTest extends HotRodSingleNodeTest {
+
+   override protected def connectClient: HotRodClient =
+      new HotRodClient("127.0.0.1", hotRodServer.getPort, cacheName, 60, 13)
+
+   def testPutAll(m: Method) {
+      val entries = for (i <- 0 until 10) yield (k(m, "k" + i + "-"), v(m, "v" + i + "-"))
+      assertStatus(client.putAll(entries), Success)
+      for ((key, value) <- entries)
+         assertSuccess(client.get(key, 0), value)
+   }
+
+   def testPutAllWithLifespan(m: Method) {
+      val entries = for (i <- 0 until 3) yield (k(m, "k" + i + "-"), v(m, "v" + i + "-"))
+      assertStatus(client.putAll(entries, 1, 0), Success)
+      Thread.sleep(1100)
+      for ((key, value) <- entries)
+         assertKeyDoesNotExist(client.get(key, 0))
+   }
+
+   def testGetAll(m: Method) {
+      val entries = for (i <- 0 until 10) yield (k(m, "k" + i + "-"), v(m, "v" + i + "-"))
+      for ((key, value) <- entries)
+         assertStatus(client.put(key, 0, 0, value), Success)
+      val resp = client.getAll(entries.map(_._1) :+ k(m, "missing-"))
+      assertStatus(resp, Success)
+      assertEquals(resp.entries.size, entries.size)
+      for ((key, value) <- entries) {
+         val found = resp.entries.find(e => Arrays.equals(e._1, key))
+         assertTrue(found.isDefined)
+         assertTrue(Arrays.equals(found.get._2, value))
+      }
+   }
+
+   def testPutAllNotAcceptedBefore13(m: Method) {
+      val oldClient = new HotRodClient("127.0.0.1", hotRodServer.getPort, cacheName, 60, 12)
+      try {
+         val status = oldClient.putAll(Seq((k(m), v(m)))).status
+         assertEquals(status, UnknownOperation,
+            "Status should have been 'UnknownOperation' but instead was: " + status)
+         assertKeyDoesNotExist(client.get(k(m), 0))
+      } finally {
+         killClient(oldClient)
+      }
+   }
+
+}
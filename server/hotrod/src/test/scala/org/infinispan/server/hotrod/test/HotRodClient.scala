@@ -229,6 +229,18 @@ class HotRodClient(host: String, port: Int, defaultCacheName: String, rspTimeout
       val handler = ch.getPipeline.getLast.asInstanceOf[ClientHandler]
       handler.getResponse(op.id).asInstanceOf[TestBulkGetKeysResponse]
    }
+
+   def putAll(entries: Seq[(Array[Byte], Array[Byte])]): TestResponse = putAll(entries, 0, 0)
+
+   def putAll(entries: Seq[(Array[Byte], Array[Byte])], lifespan: Int, maxIdle: Int): TestResponse = {
+      val op = new PutAllOp(0xA0, protocolVersion, 0x2D, defaultCacheName, 1, 0, lifespan, maxIdle, entries)
+      execute(op, op.id)
+   }
+
+   def getAll(keys: Seq[Array[Byte]]): TestGetAllResponse = {
+      val op = new GetAllOp(0xA0, protocolVersion, 0x2F, defaultCacheName, 1, 0, keys)
+      execute(op, op.id).asInstanceOf[TestGetAllResponse]
+   }
 }
 
 private class ClientPipelineFactory(client: HotRodClient, rspTimeoutSeconds: Int, sslEngine: SSLEngine) extends ChannelPipelineFactory {
@@ -273,7 +285,8 @@ private class Encoder extends OneToOneEncoder {
             buffer.writeByte(op.clientIntel) // client intelligence
             writeUnsignedInt(op.topologyId, buffer) // topology id
             writeRangedBytes(new Array[Byte](0), buffer)
-            if (op.code != 0x13 && op.code != 0x15 && op.code != 0x17 && op.code != 0x19 && op.code != 0x1D) { // if it's a key based op...
+            if (op.code != 0x13 && op.code != 0x15 && op.code != 0x17 && op.code != 0x19 && op.code != 0x1D
+                  && op.code != 0x2D && op.code != 0x2F) { // if it's a key based op...
                writeRangedBytes(op.key, buffer) // key length + key
                if (op.value != null) {
                   if (op.code != 0x0D) { // If it's not removeIfUnmodified...
@@ -291,6 +304,20 @@ private class Encoder extends OneToOneEncoder {
                writeUnsignedInt(op.asInstanceOf[BulkGetOp].count, buffer) // Entry count
             } else if (op.code == 0x1D) {
                writeUnsignedInt(op.asInstanceOf[BulkGetKeysOp].scope, buffer) // Bulk Get Keys Scope
+            } else if (op.code == 0x2D) {
+               val putAll = op.asInstanceOf[PutAllOp]
+               writeUnsignedInt(putAll.lifespan, buffer) // lifespan
+               writeUnsignedInt(putAll.maxIdle, buffer) // maxIdle
+               writeUnsignedInt(putAll.entries.size, buffer) // Entry count
+               for ((key, value) <- putAll.entries) {
+                  writeRangedBytes(key, buffer) // key length + key
+                  writeRangedBytes(value, buffer) // value length + value
+               }
+            } else if (op.code == 0x2F) {
+               val getAll = op.asInstanceOf[GetAllOp]
+               writeUnsignedInt(getAll.keys.size, buffer) // Key count
+               for (key <- getAll.keys)
+                  writeRangedBytes(key, buffer) // key length + key
             }
             buffer
          }
@@ -372,7 +399,7 @@ private class Decoder(client: HotRodClient) extends ReplayingDecoder[VoidEnum] w
             } else new TestResponse(op.version, id, op.cacheName, op.clientIntel,
                      opCode, status, op.topologyId, topologyChangeResponse)
          }
-         case ContainsKeyResponse | ClearResponse | PingResponse =>
+         case ContainsKeyResponse | ClearResponse | PingResponse | PutAllResponse =>
             new TestResponse(op.version, id, op.cacheName, op.clientIntel, opCode,
                   status, op.topologyId, topologyChangeResponse)
          case GetWithVersionResponse  => {
@@ -446,6 +473,14 @@ private class Decoder(client: HotRodClient) extends ReplayingDecoder[VoidEnum] w
             new TestBulkGetKeysResponse(op.version, id, op.cacheName, op.clientIntel,
                   bulk, op.topologyId, topologyChangeResponse)
          }
+         case GetAllResponse => {
+            val count = readUnsignedInt(buf)
+            val entries = new ListBuffer[(Array[Byte], Array[Byte])]
+            for (i <- 1 to count)
+               entries += ((readRangedBytes(buf), readRangedBytes(buf)))
+            new TestGetAllResponse(op.version, id, op.cacheName, op.clientIntel,
+                  entries.toList, op.topologyId, topologyChangeResponse)
+         }
          case ErrorResponse => {
             if (op == null)
                new TestErrorResponse(10, id, "", 0, status, 0,
@@ -624,6 +659,28 @@ class BulkGetKeysOp(override val magic: Int,
      extends Op(magic, version, code, cacheName, null, 0, 0, null, 0, 0,
                 clientIntel, topologyId)
 
+class PutAllOp(override val magic: Int,
+              override val version: Byte,
+              override val code: Byte,
+              override val cacheName: String,
+              override val clientIntel: Byte,
+              override val topologyId: Int,
+              override val lifespan: Int,
+              override val maxIdle: Int,
+              val entries: Seq[(Array[Byte], Array[Byte])])
+     extends Op(magic, version, code, cacheName, null, lifespan, maxIdle, null, 0, 0,
+                clientIntel, topologyId)
+
+class GetAllOp(override val magic: Int,
+              override val version: Byte,
+              override val code: Byte,
+              override val cacheName: String,
+              override val clientIntel: Byte,
+              override val topologyId: Int,
+              val keys: Seq[Array[Byte]])
+     extends Op(magic, version, code, cacheName, null, 0, 0, null, 0, 0,
+                clientIntel, topologyId)
+
 class TestResponse(override val version: Byte, override val messageId: Long,
                    override val cacheName: String, override val clientIntel: Short,
                    override val operation: OperationResponse,
@@ -710,6 +767,12 @@ class TestBulkGetKeysResponse(override val version: Byte, override val messageId
                           override val topologyId: Int, override val topologyResponse: Option[AbstractTestTopologyAwareResponse])
       extends TestResponse(version, messageId, cacheName, clientIntel, BulkGetResponse, Success, topologyId, topologyResponse)
 
+class TestGetAllResponse(override val version: Byte, override val messageId: Long,
+                         override val cacheName: String, override val clientIntel: Short,
+                         val entries: Seq[(Array[Byte], Array[Byte])],
+                         override val topologyId: Int, override val topologyResponse: Option[AbstractTestTopologyAwareResponse])
+      extends TestResponse(version, messageId, cacheName, clientIntel, GetAllResponse, Success, topologyId, topologyResponse)
+
 case class ServerNode(val host: String, val port: Int)
 
 abstract class AbstractTestTopologyAwareResponse(val topologyId: Int,
@@ -2,6 +2,8 @@
 
 import java.net.SocketAddress;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -47,6 +49,11 @@ public Transport getTransport(final byte[] key) {
       return null;
    }
 
+   @Override
+   public Map<SocketAddress, List<byte[]>> groupKeysByServer(final Collection<byte[]> keys) {
+      return Collections.emptyMap();
+   }
+
    @Override
    public boolean isTcpNoDelay() {
       return false;